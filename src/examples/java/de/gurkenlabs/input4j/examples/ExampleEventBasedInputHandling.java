@@ -52,10 +52,14 @@ public class ExampleEventBasedInputHandling {
         System.out.println("Axis 3 value: " + value)
       );
 
-      // simulate external polling loop
-      while (true) {
-        device.poll();
-        Thread.sleep(1000);
+      // primitive listeners receive the component and an unboxed value
+      device.onAxisChanged(Axis.AXIS_Y, (component, value) ->
+        System.out.println(component.getId().name + " value: " + value)
+      );
+
+      // poll all devices at 60 Hz on a background thread; the listeners above are called on that thread
+      try (var scheduler = devices.startPolling(60)) {
+        Thread.sleep(Long.MAX_VALUE);
       }
     }
   }
@@ -0,0 +1,59 @@
+package de.gurkenlabs.input4j;
+
+import de.gurkenlabs.input4j.components.Axis;
+import de.gurkenlabs.input4j.components.Button;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the static lookups of {@link InputComponent.ID}, which applications typically call when they
+ * resolve the components they listen to and which the plugins call when they map native components.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputComponentIdBenchmark {
+  // non-final, so the lookups are not constant-folded
+  private int buttonId = Button.BUTTON_3.id;
+  private int axisId = Axis.AXIS_RY.id;
+  private ComponentType type = ComponentType.BUTTON;
+  private String name = Button.DPAD_LEFT.name;
+  private String unknownName = "NOT_A_COMPONENT";
+
+  @Benchmark
+  public InputComponent.ID getByTypeAndId() {
+    return InputComponent.ID.get(type, buttonId);
+  }
+
+  @Benchmark
+  public InputComponent.ID getButton() {
+    return InputComponent.ID.getButton(buttonId);
+  }
+
+  @Benchmark
+  public InputComponent.ID getAxis() {
+    return InputComponent.ID.getAxis(axisId);
+  }
+
+  @Benchmark
+  public InputComponent.ID getByName() {
+    return InputComponent.ID.get(name);
+  }
+
+  @Benchmark
+  public InputComponent.ID getByUnknownName() {
+    return InputComponent.ID.get(unknownName);
+  }
+}
@@ -0,0 +1,102 @@
+package de.gurkenlabs.input4j;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InputDevice#poll()} of a synthetic device, including the dispatch of the changes to its listeners.
+ * <p>
+ * The poll callback replays a fixed stream of frames in which a few components change per poll, like a player
+ * moving a stick and pressing buttons. Run it with {@code -prof gc} to verify that polling does not allocate
+ * (the event listeners allocate one event per change by design).
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputDevicePollBenchmark {
+  private static final int FRAMES = 256;
+  private static final int CHANGES_PER_FRAME = 4;
+
+  @Param({"20", "100", "700"})
+  int componentCount;
+
+  /**
+   * The kind of listeners that are registered for every component.
+   */
+  @Param({"none", "event", "primitive", "frame"})
+  String listeners;
+
+  private InputDevice device;
+  private float[][] frames;
+  private int frame;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    // a fixed stream of frames: buttons are toggled and axes are moved, every other component keeps its value
+    var random = new Random(42);
+    frames = new float[FRAMES][componentCount];
+    for (int i = 0; i < FRAMES; i++) {
+      if (i > 0) {
+        System.arraycopy(frames[i - 1], 0, frames[i], 0, componentCount);
+      }
+
+      for (int change = 0; change < CHANGES_PER_FRAME; change++) {
+        var slot = random.nextInt(componentCount);
+        frames[i][slot] = slot % 2 == 0 ? 1 - frames[i][slot] : random.nextFloat() * 2 - 1;
+      }
+    }
+
+    device = new InputDevice("benchmark", "Synthetic Device", "Synthetic Device", (_, values) -> {
+      System.arraycopy(frames[frame], 0, values, 0, values.length);
+      frame = (frame + 1) % FRAMES;
+      return values.length;
+    }, null);
+
+    for (int i = 0; i < componentCount; i++) {
+      var type = i % 2 == 0 ? ComponentType.BUTTON : ComponentType.AXIS;
+      device.addComponent(new InputComponent(device, new InputComponent.ID(type, 1000 + i, "BENCHMARK_" + type + "_" + i)));
+    }
+
+    switch (listeners) {
+      case "event" -> device.onInputValueChanged(blackhole::consume);
+      case "primitive" -> {
+        for (var component : device.getComponents()) {
+          if (component.isButton()) {
+            device.onButtonPressed(component.getId(), (ButtonListener) blackhole::consume);
+          } else {
+            device.onAxisChanged(component.getId(), (_, value) -> blackhole.consume(value));
+          }
+        }
+      }
+      case "frame" -> device.onFrame(inputFrame -> {
+        for (int slot = inputFrame.nextChanged(0); slot >= 0; slot = inputFrame.nextChanged(slot + 1)) {
+          blackhole.consume(inputFrame.getNewValue(slot));
+        }
+      });
+      default -> {
+      }
+    }
+  }
+
+  @Benchmark
+  public void poll() {
+    device.poll();
+  }
+}
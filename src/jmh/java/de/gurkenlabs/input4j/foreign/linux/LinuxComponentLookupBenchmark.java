@@ -0,0 +1,92 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving the state index of an evdev event via the lookup table of {@link LinuxEventDevice}
+ * with the previous approach of scanning the component list twice (find the component, then {@code indexOf} it).
+ * <p>
+ * The synthetic devices consist of a few absolute axes and as many keys as needed to reach the component count,
+ * which covers gamepads (20), combo devices (100) and full keyboards (700).
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinuxComponentLookupBenchmark {
+  private static final int AXES = 8;
+  private static final int EVENTS = 256;
+
+  @Param({"20", "100", "700"})
+  int componentCount;
+
+  private LinuxEventDevice device;
+  private input_event[] events;
+
+  @Setup
+  public void setup() {
+    device = new LinuxEventDevice(Linux.ERROR, "synthetic", "Synthetic Device");
+    for (int code = 0; code < AXES; code++) {
+      device.addComponent(new LinuxEventComponent(LinuxEventDevice.EV_ABS, code, -1, -1, null));
+    }
+
+    for (int code = 0; code < componentCount - AXES; code++) {
+      device.addComponent(new LinuxEventComponent(LinuxEventDevice.EV_KEY, code, -1, -1, null));
+    }
+
+    // a fixed, uniformly distributed stream of events for the components of the device
+    var random = new Random(42);
+    events = new input_event[EVENTS];
+    for (int i = 0; i < EVENTS; i++) {
+      var component = device.componentList.get(random.nextInt(componentCount));
+      events[i] = new input_event();
+      events[i].type = (short) component.nativeType;
+      events[i].code = (short) component.nativeCode;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EVENTS)
+  public void lookupTable(Blackhole blackhole) {
+    for (var event : events) {
+      int index = device.getComponentIndex(event.type, Short.toUnsignedInt(event.code));
+      blackhole.consume(device.componentList.get(index));
+      blackhole.consume(index);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EVENTS)
+  public void linearScan(Blackhole blackhole) {
+    for (var event : events) {
+      LinuxEventComponent nativeComponent = null;
+      for (var component : device.componentList) {
+        if (component.nativeType == event.type && component.nativeCode == event.code) {
+          nativeComponent = component;
+          break;
+        }
+      }
+
+      blackhole.consume(nativeComponent);
+      blackhole.consume(device.componentList.indexOf(nativeComponent));
+    }
+  }
+}
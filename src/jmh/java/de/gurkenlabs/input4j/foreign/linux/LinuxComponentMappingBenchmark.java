@@ -0,0 +1,77 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the native components of a device are mapped to component IDs when the device is probed:
+ * the lookup of a device-specific mapping in {@link LinuxInputMappings} and {@link LinuxEventComponent#getIdentifier()},
+ * which falls back to the default mapping of the Linux event code if there is none.
+ * <p>
+ * The mapped device is one of the built-in mappings, the unmapped device has to be compared against all of them.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinuxComponentMappingBenchmark {
+  @Param({"mapped", "unmapped"})
+  String device;
+
+  private int vendorId;
+  private int productId;
+  private String deviceName;
+  private LinuxEventComponent button;
+  private LinuxEventComponent axis;
+
+  @Setup
+  public void setup() {
+    if (device.equals("mapped")) {
+      vendorId = 0x05AC;
+      productId = 0x03DD;
+      deviceName = "GameSir G3";
+    } else {
+      vendorId = 0x1234;
+      productId = 0x5678;
+      deviceName = "Synthetic Gamepad";
+    }
+
+    button = new LinuxEventComponent(LinuxEventDevice.EV_KEY, LinuxEventCode.BTN_0, vendorId, productId, deviceName);
+    axis = new LinuxEventComponent(LinuxEventDevice.EV_ABS, LinuxEventCode.ABS_X, vendorId, productId, deviceName);
+  }
+
+  @Benchmark
+  public Optional<?> buttonMapping() {
+    return LinuxInputMappings.getButtonMapping(vendorId, productId, deviceName, LinuxEventCode.BTN_0);
+  }
+
+  @Benchmark
+  public Optional<?> axisMapping() {
+    return LinuxInputMappings.getAxisMapping(vendorId, productId, deviceName, LinuxEventCode.ABS_X);
+  }
+
+  @Benchmark
+  public Object buttonIdentifier() {
+    return button.getIdentifier();
+  }
+
+  @Benchmark
+  public Object axisIdentifier() {
+    return axis.getIdentifier();
+  }
+}
@@ -0,0 +1,199 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.AbstractInputDevicePlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+/**
+ * Measures how long {@link LinuxEventDevicePlugin#internalInitDevices} takes on a machine with many event nodes,
+ * comparing the parallel probing of the nodes with probing them one after another.
+ * <p>
+ * The nodes are empty files in a temporary directory. Each node is probed by the plugin in its own confined arena, but
+ * the capability ioctls answer with the recorded bitmaps and axis ranges of an Xbox 360 controller, which are copied into
+ * the arena and decoded into components like the ones of a real device. Opening a node additionally waits for the
+ * configured latency, which stands in for the round trips to the driver when comparing the parallel with the sequential
+ * probing. Real ioctls block their carrier thread, so on real hardware the speedup is bounded by the number of processors.
+ * The initialization also starts watching the device directory and creates the input devices, which is the same for both.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class LinuxDeviceProbeBenchmark {
+  // the capabilities of an Xbox 360 controller as listed in /sys/class/input/eventN/device/capabilities
+  private static final String EV_BITMAP = "20000b";
+  private static final String KEY_BITMAP = "7cdb000000000000 0 0 0 0";
+  private static final String ABS_BITMAP = "3003f";
+
+  /**
+   * The number of event nodes in the device directory.
+   */
+  @Param({"8", "32"})
+  int nodeCount;
+
+  /**
+   * How long probing a single node takes in microseconds.
+   */
+  @Param({"0", "500"})
+  int probeLatencyMicros;
+
+  /**
+   * Whether the nodes are probed in parallel, as the plugin does, or one after another on a single thread.
+   */
+  @Param({"true", "false"})
+  boolean parallel;
+
+  private Path deviceDirectory;
+  private Path sysfsRoot;
+  private byte[] eventTypeBits;
+  private byte[] keyBits;
+  private byte[] absBits;
+  private FixturePlugin plugin;
+
+  @Setup
+  public void setup() throws IOException {
+    deviceDirectory = Files.createTempDirectory("input4j-probe");
+    for (int i = 0; i < nodeCount; i++) {
+      Files.createFile(deviceDirectory.resolve("event" + i));
+    }
+
+    // there are no sysfs entries for the nodes, so the plugin probes them through the ioctls
+    sysfsRoot = deviceDirectory.resolve("sys");
+
+    eventTypeBits = LinuxSysfsInputDevice.parseBitmap(EV_BITMAP).toByteArray();
+    keyBits = LinuxSysfsInputDevice.parseBitmap(KEY_BITMAP).toByteArray();
+    absBits = LinuxSysfsInputDevice.parseBitmap(ABS_BITMAP).toByteArray();
+
+    // logging every found device would dominate the measurement
+    Logger.getLogger(LinuxEventDevicePlugin.class.getPackage().getName()).setLevel(Level.WARNING);
+    Logger.getLogger(AbstractInputDevicePlugin.class.getPackage().getName()).setLevel(Level.WARNING);
+  }
+
+  @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+  public void createPlugin() {
+    plugin = new FixturePlugin();
+    plugin.setDeviceDirectory(deviceDirectory);
+    plugin.setSysfsRoot(sysfsRoot);
+  }
+
+  /**
+   * Closing the plugin releases its shared arenas, which is expensive and not part of the initialization.
+   */
+  @TearDown(org.openjdk.jmh.annotations.Level.Invocation)
+  public void closePlugin() {
+    plugin.close();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (var files = Files.walk(deviceDirectory)) {
+      for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  public void initDevices(Blackhole blackhole) {
+    plugin.internalInitDevices(null);
+    blackhole.consume(plugin.getAll().size());
+  }
+
+  /**
+   * The range of an axis as reported by the xpad driver.
+   */
+  private static input_absinfo absInfo(int code) {
+    var absInfo = new input_absinfo();
+    switch (code) {
+      case LinuxEventCode.ABS_Z, LinuxEventCode.ABS_RZ -> absInfo.maximum = 255;
+      case LinuxEventCode.ABS_HAT0X, LinuxEventCode.ABS_HAT0Y -> {
+        absInfo.minimum = -1;
+        absInfo.maximum = 1;
+      }
+      default -> {
+        absInfo.minimum = -32768;
+        absInfo.maximum = 32767;
+        absInfo.fuzz = 16;
+        absInfo.flat = 128;
+      }
+    }
+
+    return absInfo;
+  }
+
+  private final class FixturePlugin extends LinuxEventDevicePlugin {
+    @Override
+    ExecutorService createProbeExecutor() {
+      return parallel ? super.createProbeExecutor() : Executors.newSingleThreadExecutor();
+    }
+
+    @Override
+    LinuxEventDevice openNode(Arena probeArena, String filename, boolean openForWriting) {
+      if (probeLatencyMicros > 0) {
+        LockSupport.parkNanos(probeLatencyMicros * 1_000L);
+      }
+
+      return new FixtureDevice(Linux.open(probeArena, filename), filename);
+    }
+  }
+
+  /**
+   * A device whose capability ioctls write the recorded capabilities into the memory of the probe.
+   */
+  private final class FixtureDevice extends LinuxEventDevice {
+    FixtureDevice(int fd, String filename) {
+      super(fd, filename, "Fixture Gamepad");
+    }
+
+    @Override
+    byte[] probeBits(Arena probeArena, int eventType) {
+      var bits = switch (eventType) {
+        case EV_SYN -> eventTypeBits;
+        case EV_KEY -> keyBits;
+        case EV_ABS -> absBits;
+        default -> new byte[0];
+      };
+
+      var segment = probeArena.allocate(MemoryLayout.sequenceLayout(getMaxBits(eventType) / 8 + 1, JAVA_BYTE));
+      MemorySegment.copy(bits, 0, segment, JAVA_BYTE, 0, bits.length);
+      return segment.toArray(JAVA_BYTE);
+    }
+
+    @Override
+    input_absinfo probeAbsInfo(Arena probeArena, int code) {
+      var segment = probeArena.allocate(input_absinfo.$LAYOUT);
+      absInfo(code).write(segment);
+      return input_absinfo.read(segment);
+    }
+  }
+}
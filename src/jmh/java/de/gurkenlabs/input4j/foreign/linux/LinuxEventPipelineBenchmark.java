@@ -0,0 +1,169 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.InputDevice;
+import de.gurkenlabs.input4j.components.Button;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the complete evdev pipeline of a poll: reading and decoding the pending events, applying their reports,
+ * mapping the D-Pad axes to the virtual D-Pad buttons ({@link LinuxVirtualComponentHandler#handlePolledValues})
+ * and dispatching the changes of the {@link InputDevice}.
+ * <p>
+ * A pipe stands in for the event device, so the benchmark runs without a controller attached. Every invocation writes
+ * the next report of a fixed synthetic event stream with a single syscall and polls the device.
+ * Run it with {@code -prof gc} to verify that the pipeline does not allocate.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class LinuxEventPipelineBenchmark {
+  private static final int REPORTS = 64;
+  private static final int AXES = 6;
+
+  /**
+   * The number of keys of the synthetic device in addition to its axes and D-Pad.
+   */
+  @Param({"12", "100"})
+  int keyCount;
+
+  /**
+   * The number of events per report, excluding the terminating SYN_REPORT.
+   */
+  @Param({"1", "8"})
+  int eventsPerReport;
+
+  private Arena arena;
+  private int[] fds;
+  private LinuxEventDevicePlugin plugin;
+  private InputDevice inputDevice;
+  private MemorySegment[] reports;
+  private int report;
+
+  private float[] dpadValues;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    arena = Arena.ofConfined();
+    fds = Linux.pipe();
+    if (fds == null) {
+      throw new IllegalStateException("Could not create pipe");
+    }
+
+    var device = new LinuxEventDevice(fds[0], "pipe:benchmark", "Synthetic Device");
+    var components = new ArrayList<LinuxEventComponent>();
+    for (int code = 0; code < AXES; code++) {
+      components.add(new LinuxEventComponent(LinuxEventDevice.EV_ABS, code, absInfo(-32768, 32767), -1, -1, null));
+    }
+
+    components.add(new LinuxEventComponent(LinuxEventDevice.EV_ABS, LinuxEventCode.ABS_HAT0X, absInfo(-1, 1), -1, -1, null));
+    components.add(new LinuxEventComponent(LinuxEventDevice.EV_ABS, LinuxEventCode.ABS_HAT0Y, absInfo(-1, 1), -1, -1, null));
+    for (int i = 0; i < keyCount; i++) {
+      components.add(new LinuxEventComponent(LinuxEventDevice.EV_KEY, LinuxEventCode.BTN_0 + i, -1, -1, null));
+    }
+
+    for (var component : components) {
+      device.addComponent(component);
+    }
+
+    plugin = new LinuxEventDevicePlugin();
+    inputDevice = plugin.addDevice(device);
+    LinuxVirtualComponentHandler.prepareVirtualComponents(inputDevice, inputDevice.getComponents());
+    inputDevice.onButtonPressed(Button.DPAD_UP, () -> blackhole.consume(true));
+    inputDevice.onFrame(inputFrame -> blackhole.consume(inputFrame.getChangedCount()));
+
+    reports = createReports(components);
+    dpadValues = new float[inputDevice.getComponents().size()];
+  }
+
+  @TearDown
+  public void tearDown() {
+    plugin.close();
+    Linux.close(fds[1]);
+    arena.close();
+  }
+
+  @Benchmark
+  public void poll() {
+    var events = reports[report];
+    Linux.writeEvents(fds[1], events, (int) (events.byteSize() / input_event.$LAYOUT.byteSize()));
+    report = (report + 1) % REPORTS;
+
+    inputDevice.poll();
+  }
+
+  @Benchmark
+  public void handlePolledValues(Blackhole blackhole) {
+    // the D-Pad axes are the slots after the regular axes
+    dpadValues[AXES] = report % 3 - 1;
+    dpadValues[AXES + 1] = (report + 1) % 3 - 1;
+    report = (report + 1) % REPORTS;
+
+    LinuxVirtualComponentHandler.handlePolledValues(inputDevice, dpadValues);
+    blackhole.consume(dpadValues);
+  }
+
+  /**
+   * Creates a fixed stream of reports in which random components change: keys are toggled and axes are moved.
+   */
+  private MemorySegment[] createReports(ArrayList<LinuxEventComponent> components) {
+    var random = new Random(42);
+    var keyStates = new boolean[components.size()];
+    var eventSize = input_event.$LAYOUT.byteSize();
+    var event = new input_event();
+    var result = new MemorySegment[REPORTS];
+    for (int i = 0; i < REPORTS; i++) {
+      result[i] = arena.allocate(MemoryLayout.sequenceLayout(eventsPerReport + 1, input_event.$LAYOUT));
+      for (int e = 0; e < eventsPerReport; e++) {
+        var index = random.nextInt(components.size());
+        var component = components.get(index);
+        event.type = (short) component.nativeType;
+        event.code = (short) component.nativeCode;
+        if (component.nativeType == LinuxEventDevice.EV_KEY) {
+          keyStates[index] = !keyStates[index];
+          event.value = keyStates[index] ? 1 : 0;
+        } else {
+          event.value = component.nativeCode >= LinuxEventCode.ABS_HAT0X ? random.nextInt(3) - 1 : random.nextInt(65536) - 32768;
+        }
+
+        event.write(result[i].asSlice(e * eventSize, eventSize));
+      }
+
+      event.type = (short) LinuxEventDevice.EV_SYN;
+      event.code = (short) LinuxEventDevice.SYN_REPORT;
+      event.value = 0;
+      event.write(result[i].asSlice(eventsPerReport * eventSize, eventSize));
+    }
+
+    return result;
+  }
+
+  private static input_absinfo absInfo(int min, int max) {
+    var absInfo = new input_absinfo();
+    absInfo.minimum = min;
+    absInfo.maximum = max;
+    return absInfo;
+  }
+}
@@ -0,0 +1,100 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares draining a frame of evdev events with one {@code read(2)} per event against a single batched read.
+ * <p>
+ * A non-blocking pipe stands in for the event device, so the benchmark runs without a controller attached.
+ * Every invocation writes one frame with a single syscall and then drains it again.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class LinuxEventReadBenchmark {
+  /**
+   * The number of events per frame, including the terminating SYN_REPORT.
+   */
+  @Param({"2", "12", "32"})
+  int eventsPerFrame;
+
+  private Arena arena;
+  private int[] fds;
+  private MemorySegment frame;
+  private MemorySegment eventBuffer;
+  private final input_event polledEvent = new input_event();
+
+  @Setup
+  public void setup() {
+    arena = Arena.ofConfined();
+    fds = Linux.pipe();
+    if (fds == null) {
+      throw new IllegalStateException("Could not create pipe");
+    }
+
+    var eventSize = input_event.$LAYOUT.byteSize();
+    frame = arena.allocate(MemoryLayout.sequenceLayout(eventsPerFrame, input_event.$LAYOUT));
+    var event = new input_event();
+    for (int i = 0; i < eventsPerFrame; i++) {
+      boolean last = i == eventsPerFrame - 1;
+      event.type = (short) (last ? LinuxEventDevice.EV_SYN : LinuxEventDevice.EV_ABS);
+      event.code = (short) (last ? 0 : i);
+      event.value = last ? 0 : i * 100;
+      event.write(frame.asSlice(i * eventSize, eventSize));
+    }
+
+    eventBuffer = arena.allocate(MemoryLayout.sequenceLayout(LinuxEventDevice.EVENT_BUFFER_SIZE, input_event.$LAYOUT));
+  }
+
+  @TearDown
+  public void tearDown() {
+    Linux.close(fds[0]);
+    Linux.close(fds[1]);
+    arena.close();
+  }
+
+  @Benchmark
+  public void singleEventReads(Blackhole blackhole) {
+    Linux.writeEvents(fds[1], frame, eventsPerFrame);
+
+    input_event inputEvent;
+    while ((inputEvent = Linux.read(fds[0])) != null) {
+      blackhole.consume(inputEvent.value);
+    }
+  }
+
+  @Benchmark
+  public void batchedRead(Blackhole blackhole) {
+    Linux.writeEvents(fds[1], frame, eventsPerFrame);
+
+    int eventCount;
+    do {
+      eventCount = Linux.read(fds[0], eventBuffer);
+      for (int i = 0; i < eventCount; i++) {
+        var inputEvent = input_event.read(eventBuffer, i * input_event.$LAYOUT.byteSize(), polledEvent);
+        blackhole.consume(inputEvent.value);
+      }
+    } while (eventCount == LinuxEventDevice.EVENT_BUFFER_SIZE);
+  }
+}
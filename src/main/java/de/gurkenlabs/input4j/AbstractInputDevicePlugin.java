@@ -1,8 +1,19 @@
 package de.gurkenlabs.input4j;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -15,20 +26,27 @@ public abstract class AbstractInputDevicePlugin implements InputDevicePlugin {
   private final Collection<Consumer<InputDevice>> deviceConnectedListeners = ConcurrentHashMap.newKeySet();
   private final Collection<Consumer<InputDevice>> deviceDisconnectedListeners = ConcurrentHashMap.newKeySet();
   private final Collection<Runnable> devicesChangedListeners = ConcurrentHashMap.newKeySet();
+  private final Collection<BiConsumer<InputDevice, BatteryInfo>> batteryChangedListeners = ConcurrentHashMap.newKeySet();
+  private final Collection<InputPollingScheduler> pollingSchedulers = ConcurrentHashMap.newKeySet();
 
   private final int hotPlugInterval;
-  private long lastDeviceUpdate;
-  private Collection<InputDevice> devices;
+  private volatile Executor hotPlugExecutor;
+  private volatile List<InputDevice> devices;
+  private ScheduledExecutorService hotPlugScanner;
 
   /**
-   * Initializes the plugin with the hot-plug interval from the configuration.
+   * Initializes the plugin with the hot-plug interval and executor from the configuration.
    */
   protected AbstractInputDevicePlugin() {
     this.hotPlugInterval = InputDevices.configure().getHotPlugInterval();
+    this.hotPlugExecutor = InputDevices.configure().getHotPlugExecutor();
   }
 
   /**
    * Gets all devices that are managed by this plugin. If the plugin has not been initialized yet, this method will throw an {@code IllegalStateException}.
+   * <p>
+   * The returned collection is an immutable snapshot that is replaced as a whole when devices are connected or disconnected.
+   * </p>
    *
    * @return A collection of all devices that are managed by this plugin.
    */
@@ -42,10 +60,30 @@ public abstract class AbstractInputDevicePlugin implements InputDevicePlugin {
   }
 
   /**
-   * Closes the plugin and clears the collection of devices.
+   * Starts polling all devices of this plugin at a fixed rate. The scheduler is stopped when the plugin is closed.
+   *
+   * @param rate          The number of polls per second.
+   * @param threadFactory The factory that creates the polling thread.
+   * @return The started scheduler.
+   */
+  @Override
+  public InputPollingScheduler startPolling(double rate, ThreadFactory threadFactory) {
+    var scheduler = InputPollingScheduler.start(this, rate, threadFactory);
+    this.pollingSchedulers.removeIf(s -> !s.isRunning());
+    this.pollingSchedulers.add(scheduler);
+    return scheduler;
+  }
+
+  /**
+   * Closes the plugin, stops its polling schedulers and hot-plug scanner and clears the collection of devices.
    */
   @Override
   public void close() {
+    // stop polling and refreshing before the devices release their resources
+    this.pollingSchedulers.forEach(InputPollingScheduler::close);
+    this.pollingSchedulers.clear();
+    this.stopHotPlugScanner();
+
     if (this.devices != null) {
       this.devices.forEach(InputDevice::close);
     }
@@ -53,6 +91,7 @@ public abstract class AbstractInputDevicePlugin implements InputDevicePlugin {
     deviceConnectedListeners.clear();
     deviceDisconnectedListeners.clear();
     devicesChangedListeners.clear();
+    batteryChangedListeners.clear();
   }
 
   /**
@@ -63,64 +102,161 @@ public abstract class AbstractInputDevicePlugin implements InputDevicePlugin {
    * @param devices The devices to set.
    */
   protected void setDevices(Collection<InputDevice> devices) {
-    this.devices = devices;
-    this.lastDeviceUpdate = System.currentTimeMillis();
+    synchronized (this) {
+      this.devices = List.copyOf(devices);
+    }
+  }
+
+  /**
+   * Starts refreshing the devices in the background at the configured {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval() hot-plug interval}.
+   * <p>
+   * This is meant for plugins that need to query the native API to detect connected and disconnected devices. The refresh runs on
+   * a dedicated daemon thread, so polling the devices is never delayed by enumerating them. The scanner is stopped when the plugin is closed.
+   * </p>
+   *
+   * @see #refreshDevices()
+   */
+  protected void startHotPlugScanner() {
+    synchronized (this) {
+      if (this.hotPlugScanner != null) {
+        return;
+      }
+
+      this.hotPlugScanner = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("input4j-hotplug-", 0).daemon().factory());
+    }
+
+    var interval = Math.max(this.hotPlugInterval, 1);
+    this.hotPlugScanner.scheduleWithFixedDelay(this::scanDevices, interval, interval, TimeUnit.MILLISECONDS);
   }
 
   /**
    * Refreshes the list of input devices.
    * <p>
-   * This method needs to be called explicitly to support hot-plugging devices.
-   * If a new device is connected or an existing device is disconnected, the list of input devices is updated accordingly.
+   * If a new device is connected or an existing device is disconnected, the list of input devices is replaced at once, so
+   * {@link #getAll()} either returns the devices before or after the refresh, but never a mix of both.
+   * The connected and disconnected devices are determined by their IDs.
    * </p>
    * <p>
-   * IMPORTANT: This is a costly operation and should be called periodically to ensure that the list of input devices is up-to-date.
-   * This method should not be called in the same interval as the polling of input devices.
+   * IMPORTANT: This is a costly operation that is usually called by the {@link #startHotPlugScanner() hot-plug scanner}.
+   * It should not be called on the thread that polls the input devices.
    * </p>
    * <p>
    * This also triggers the {@link #onDeviceConnected(Consumer)} and {@link #onDeviceDisconnected(Consumer)} events when necessary.
    * </p>
    */
   protected void refreshDevices() {
-    if (this.lastDeviceUpdate == 0 || System.currentTimeMillis() - this.lastDeviceUpdate < this.hotPlugInterval) {
-      return;
-    }
+    var connectedDevices = new ArrayList<InputDevice>();
+    Collection<InputDevice> disconnectedDevices;
+    synchronized (this) {
+      var previousDevices = this.getAll();
+      var refreshedDevices = List.copyOf(this.refreshInputDevices());
+
+      var remainingDevices = new LinkedHashMap<String, InputDevice>();
+      for (var device : previousDevices) {
+        remainingDevices.put(device.getID(), device);
+      }
 
-    this.lastDeviceUpdate = System.currentTimeMillis();
-    final var oldDeviceIds = this.getAll().stream().map(InputDevice::getID).toList();
-    var refreshedDevices = this.refreshInputDevices();
-    var refreshedDeviceIds = refreshedDevices.stream().map(InputDevice::getID).toList();
-
-    var devicesChanged = false;
-    // Check for disconnected devices
-    for (var currentDeviceId : oldDeviceIds) {
-      if (!refreshedDeviceIds.contains(currentDeviceId)) {
-        // Device was disconnected
-        var disconnectedDevice = this.devices.stream().filter(d -> d.getID().equals(currentDeviceId)).findFirst().orElse(null);
-        if (disconnectedDevice != null) {
-          this.deviceDisconnectedListeners.forEach(listener -> listener.accept(disconnectedDevice));
-          devicesChanged = true;
+      for (var device : refreshedDevices) {
+        if (remainingDevices.remove(device.getID()) == null) {
+          connectedDevices.add(device);
         }
       }
+
+      disconnectedDevices = remainingDevices.values();
+      this.devices = refreshedDevices;
     }
 
-    // Check for newly connected devices
-    for (var connectedDeviceId : refreshedDeviceIds) {
-      if (!oldDeviceIds.contains(connectedDeviceId)) {
-        // New device connected
-        InputDevice connectedDevice = refreshedDevices.stream().filter(d -> d.getID().equals(connectedDeviceId)).findFirst().orElse(null);
-        if (connectedDevice != null) {
-          this.deviceConnectedListeners.forEach(listener -> listener.accept(connectedDevice));
-          devicesChanged = true;
-        }
+    this.notifyListeners(connectedDevices, disconnectedDevices);
+  }
+
+  /**
+   * Adds a device that was just connected and notifies the listeners immediately, without waiting for the next refresh.
+   * <p>
+   * This is meant for plugins that are notified about connected devices by the operating system.
+   * </p>
+   *
+   * @param device The connected device.
+   */
+  protected void deviceConnected(InputDevice device) {
+    synchronized (this) {
+      var updatedDevices = new ArrayList<>(this.getAll());
+      updatedDevices.add(device);
+      this.devices = List.copyOf(updatedDevices);
+    }
+
+    this.notifyListeners(List.of(device), List.of());
+  }
+
+  /**
+   * Removes a device that was just disconnected, notifies the listeners immediately and closes the device afterward.
+   * <p>
+   * This is meant for plugins that are notified about disconnected devices by the operating system.
+   * </p>
+   *
+   * @param device The disconnected device.
+   */
+  protected void deviceDisconnected(InputDevice device) {
+    synchronized (this) {
+      var updatedDevices = new ArrayList<>(this.getAll());
+      if (!updatedDevices.remove(device)) {
+        return;
       }
+
+      this.devices = List.copyOf(updatedDevices);
     }
 
-    if (devicesChanged) {
-      this.devicesChangedListeners.forEach(Runnable::run);
+    this.notifyListeners(List.of(), List.of(device));
+  }
+
+  /**
+   * Notifies the listeners that the battery state of a device has changed.
+   * <p>
+   * The listeners are called on the {@link #getHotPlugExecutor() hot-plug executor}, or on the calling thread if there is none.
+   * </p>
+   *
+   * @param device      The device whose battery state has changed.
+   * @param batteryInfo The new battery state, or null if the battery is no longer available.
+   * @see #onBatteryChanged(BiConsumer)
+   */
+  protected void batteryChanged(InputDevice device, BatteryInfo batteryInfo) {
+    if (this.batteryChangedListeners.isEmpty()) {
+      return;
     }
 
-    this.setDevices(refreshedDevices);
+    Runnable notification = () -> this.batteryChangedListeners.forEach(listener -> listener.accept(device, batteryInfo));
+    var executor = this.hotPlugExecutor;
+    if (executor == null) {
+      notification.run();
+      return;
+    }
+
+    try {
+      executor.execute(notification);
+    } catch (RejectedExecutionException e) {
+      log.log(Level.WARNING, "Failed to notify the listeners about a changed battery state", e);
+    }
+  }
+
+  /**
+   * Gets the executor that the connect and disconnect listeners are called on.
+   *
+   * @return The executor, or null if the listeners are called on the thread that detected the change.
+   */
+  public Executor getHotPlugExecutor() {
+    return this.hotPlugExecutor;
+  }
+
+  /**
+   * Sets the executor that the connect and disconnect listeners are called on, e.g. to hand the notifications over to a UI thread.
+   * <p>
+   * All notifications of one refresh are submitted as a single task. The tasks need to be run one after another
+   * (e.g. by a single-threaded executor) for the listeners to observe the changes in order.
+   * </p>
+   *
+   * @param executor The executor, or null to call the listeners on the thread that detected the change.
+   */
+  public void setHotPlugExecutor(Executor executor) {
+    this.hotPlugExecutor = executor;
   }
 
   /**
@@ -141,4 +277,72 @@ public abstract class AbstractInputDevicePlugin implements InputDevicePlugin {
   public void onDeviceDisconnected(Consumer<InputDevice> listener) {
     this.deviceDisconnectedListeners.add(listener);
   }
+
+  @Override
+  public void onBatteryChanged(BiConsumer<InputDevice, BatteryInfo> listener) {
+    this.batteryChangedListeners.add(listener);
+  }
+
+  private void stopHotPlugScanner() {
+    ScheduledExecutorService scanner;
+    synchronized (this) {
+      scanner = this.hotPlugScanner;
+      this.hotPlugScanner = null;
+    }
+
+    if (scanner == null) {
+      return;
+    }
+
+    scanner.shutdownNow();
+    try {
+      if (!scanner.awaitTermination(1, TimeUnit.SECONDS)) {
+        log.log(Level.WARNING, "The hot-plug scanner did not stop in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void scanDevices() {
+    try {
+      this.refreshDevices();
+    } catch (RuntimeException e) {
+      // keep the scanner running, the next refresh might succeed
+      log.log(Level.WARNING, "Failed to refresh the input devices", e);
+    }
+  }
+
+  private void notifyListeners(Collection<InputDevice> connectedDevices, Collection<InputDevice> disconnectedDevices) {
+    if (connectedDevices.isEmpty() && disconnectedDevices.isEmpty()) {
+      return;
+    }
+
+    Runnable notification = () -> {
+      for (var device : disconnectedDevices) {
+        this.deviceDisconnectedListeners.forEach(listener -> listener.accept(device));
+        // release the resources of the device (e.g. its dynamic component IDs) once the listeners are done with it
+        device.close();
+      }
+
+      for (var device : connectedDevices) {
+        this.deviceConnectedListeners.forEach(listener -> listener.accept(device));
+      }
+
+      this.devicesChangedListeners.forEach(Runnable::run);
+    };
+
+    var executor = this.hotPlugExecutor;
+    if (executor == null) {
+      notification.run();
+      return;
+    }
+
+    try {
+      executor.execute(notification);
+    } catch (RejectedExecutionException e) {
+      log.log(Level.WARNING, "Failed to notify the listeners about changed input devices", e);
+      disconnectedDevices.forEach(InputDevice::close);
+    }
+  }
 }
@@ -0,0 +1,29 @@
+package de.gurkenlabs.input4j;
+
+import java.util.EventListener;
+
+/**
+ * The {@code AxisListener} interface should be implemented by any class that wants to receive notifications
+ * when the value of an axis of an {@link InputDevice} changes.
+ * <p>
+ * The value is passed as a primitive {@code float}, so dispatching a change does not allocate.
+ * Prefer this over the {@code Consumer<Float>} overload of {@link InputDevice#onAxisChanged(InputComponent.ID, java.util.function.Consumer)}
+ * for analog sticks and triggers that change on nearly every poll.
+ * </p>
+ * <p>
+ * This is a functional interface and can therefore be used as the assignment target for a lambda expression
+ * or method reference.
+ * </p>
+ *
+ * @see InputDevice#onAxisChanged(InputComponent.ID, AxisListener)
+ */
+@FunctionalInterface
+public interface AxisListener extends EventListener {
+  /**
+   * Invoked when the value of the axis changes.
+   *
+   * @param component the axis that changed
+   * @param value     the new value of the axis
+   */
+  void onAxis(InputComponent component, float value);
+}
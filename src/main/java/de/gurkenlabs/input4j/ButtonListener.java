@@ -0,0 +1,24 @@
+package de.gurkenlabs.input4j;
+
+import java.util.EventListener;
+
+/**
+ * The {@code ButtonListener} interface should be implemented by any class that wants to receive notifications
+ * when a button of an {@link InputDevice} is pressed or released.
+ * <p>
+ * This is a functional interface and can therefore be used as the assignment target for a lambda expression
+ * or method reference.
+ * </p>
+ *
+ * @see InputDevice#onButtonPressed(InputComponent.ID, ButtonListener)
+ * @see InputDevice#onButtonReleased(InputComponent.ID, ButtonListener)
+ */
+@FunctionalInterface
+public interface ButtonListener extends EventListener {
+  /**
+   * Invoked when the button is pressed or released, depending on which event the listener was registered for.
+   *
+   * @param component the button that was pressed or released
+   */
+  void onButton(InputComponent component);
+}
@@ -0,0 +1,207 @@
+package de.gurkenlabs.input4j;
+
+import java.util.List;
+
+/**
+ * A declarative rumble pattern that is played by the {@link HapticScheduler}, e.g. pulses, ramps or a heartbeat.
+ * <p>
+ * The pattern is defined by keyframes that specify the intensities of the strong and the weak motor at a point in time.
+ * The intensities between two keyframes are interpolated linearly, and two keyframes at the same time define a step.
+ * A pattern can be looped a number of times or until it is stopped.
+ * </p>
+ * <p>
+ * Patterns are immutable and can be played on any number of devices at the same time.
+ * </p>
+ *
+ * @see InputDevice#rumble(HapticPattern)
+ */
+public final class HapticPattern {
+  /**
+   * The number of loops of a pattern that is played until it is stopped.
+   */
+  public static final int LOOP_FOREVER = -1;
+
+  private final List<Keyframe> keyframes;
+  private final int loops;
+
+  private HapticPattern(List<Keyframe> keyframes, int loops) {
+    this.keyframes = keyframes;
+    this.loops = loops;
+  }
+
+  /**
+   * Creates a pattern from keyframes.
+   *
+   * @param keyframes the keyframes in chronological order; the first keyframe must be at time 0
+   * @return the pattern, which is played once
+   * @throws IllegalArgumentException if there are less than two keyframes, the first keyframe is not at time 0,
+   *                                  the keyframes are not in chronological order or the pattern has no duration
+   */
+  public static HapticPattern of(Keyframe... keyframes) {
+    if (keyframes == null || keyframes.length < 2) {
+      throw new IllegalArgumentException("A haptic pattern needs at least two keyframes.");
+    }
+
+    if (keyframes[0].time() != 0) {
+      throw new IllegalArgumentException("The first keyframe must be at time 0, got: " + keyframes[0].time());
+    }
+
+    for (int i = 1; i < keyframes.length; i++) {
+      if (keyframes[i].time() < keyframes[i - 1].time()) {
+        throw new IllegalArgumentException("The keyframes must be in chronological order, got " + keyframes[i].time() + " after " + keyframes[i - 1].time());
+      }
+    }
+
+    if (keyframes[keyframes.length - 1].time() == 0) {
+      throw new IllegalArgumentException("A haptic pattern needs a duration.");
+    }
+
+    return new HapticPattern(List.of(keyframes), 1);
+  }
+
+  /**
+   * Creates a pattern that rumbles with the same intensity for the specified duration.
+   *
+   * @param strong         the intensity of the strong motor (0 to 1)
+   * @param weak           the intensity of the weak motor (0 to 1)
+   * @param durationMillis the duration in milliseconds
+   * @return the pattern, which is played once
+   */
+  public static HapticPattern constant(float strong, float weak, int durationMillis) {
+    return of(new Keyframe(0, strong, weak), new Keyframe(durationMillis, strong, weak));
+  }
+
+  /**
+   * Creates a pattern that rises to the specified intensity, holds it and fades out again.
+   *
+   * @param intensity     the intensity of both motors (0 to 1) after the attack
+   * @param attackMillis  the time in milliseconds to rise from 0 to the intensity
+   * @param sustainMillis the time in milliseconds to hold the intensity
+   * @param fadeMillis    the time in milliseconds to fade from the intensity to 0
+   * @return the pattern, which is played once
+   */
+  public static HapticPattern envelope(float intensity, int attackMillis, int sustainMillis, int fadeMillis) {
+    if (attackMillis < 0 || sustainMillis < 0 || fadeMillis < 0) {
+      throw new IllegalArgumentException("The envelope times must not be negative.");
+    }
+
+    var start = attackMillis > 0 ? 0 : intensity;
+    var end = fadeMillis > 0 ? 0 : intensity;
+    return of(
+        new Keyframe(0, start, start),
+        new Keyframe(attackMillis, intensity, intensity),
+        new Keyframe(attackMillis + sustainMillis, intensity, intensity),
+        new Keyframe(attackMillis + sustainMillis + fadeMillis, end, end));
+  }
+
+  /**
+   * Creates a copy of this pattern that is played the specified number of times.
+   *
+   * @param count the number of times the pattern is played, or {@link #LOOP_FOREVER} to play it until it is stopped
+   * @return the looped pattern
+   */
+  public HapticPattern loop(int count) {
+    if (count < 1 && count != LOOP_FOREVER) {
+      throw new IllegalArgumentException("The loop count must be positive or LOOP_FOREVER, got: " + count);
+    }
+
+    return new HapticPattern(this.keyframes, count);
+  }
+
+  /**
+   * Gets the keyframes of a single loop of this pattern.
+   *
+   * @return the keyframes in chronological order
+   */
+  public List<Keyframe> getKeyframes() {
+    return this.keyframes;
+  }
+
+  /**
+   * Gets the number of times this pattern is played.
+   *
+   * @return the number of loops, or {@link #LOOP_FOREVER} if the pattern is played until it is stopped
+   */
+  public int getLoops() {
+    return this.loops;
+  }
+
+  /**
+   * Gets the duration of a single loop of this pattern.
+   *
+   * @return the duration in milliseconds
+   */
+  public int getDuration() {
+    return this.keyframes.getLast().time();
+  }
+
+  /**
+   * Gets the duration of all loops of this pattern.
+   *
+   * @return the duration in milliseconds, or {@link Long#MAX_VALUE} if the pattern is played until it is stopped
+   */
+  public long getTotalDuration() {
+    return this.loops == LOOP_FOREVER ? Long.MAX_VALUE : (long) this.getDuration() * this.loops;
+  }
+
+  /**
+   * Interpolates the intensities of the motors at the specified time since the pattern was started.
+   *
+   * @param elapsedMillis the time since the pattern was started in milliseconds
+   * @param intensity     receives the intensities of the strong and the weak motor
+   * @return true if the pattern is still playing; false if it is over
+   */
+  boolean sample(long elapsedMillis, float[] intensity) {
+    if (elapsedMillis >= this.getTotalDuration()) {
+      return false;
+    }
+
+    var time = elapsedMillis % this.getDuration();
+    for (int i = 1; i < this.keyframes.size(); i++) {
+      var next = this.keyframes.get(i);
+      if (time >= next.time()) {
+        continue;
+      }
+
+      var previous = this.keyframes.get(i - 1);
+      var progress = (float) (time - previous.time()) / (next.time() - previous.time());
+      intensity[0] = previous.strong() + (next.strong() - previous.strong()) * progress;
+      intensity[1] = previous.weak() + (next.weak() - previous.weak()) * progress;
+      return true;
+    }
+
+    // only reached for the instant of the last keyframe
+    intensity[0] = this.keyframes.getLast().strong();
+    intensity[1] = this.keyframes.getLast().weak();
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "HapticPattern{keyframes=" + this.keyframes + ", loops=" + this.loops + "}";
+  }
+
+  /**
+   * The intensities of the motors at a point in time of a {@link HapticPattern}.
+   *
+   * @param time   the time since the start of the pattern in milliseconds
+   * @param strong the intensity of the strong motor (0 to 1)
+   * @param weak   the intensity of the weak motor (0 to 1)
+   */
+  public record Keyframe(int time, float strong, float weak) {
+    /**
+     * Validates the keyframe.
+     *
+     * @throws IllegalArgumentException if the time is negative or an intensity is not between 0 and 1
+     */
+    public Keyframe {
+      if (time < 0) {
+        throw new IllegalArgumentException("The time of a keyframe must not be negative, got: " + time);
+      }
+
+      if (!(strong >= 0 && strong <= 1) || !(weak >= 0 && weak <= 1)) {
+        throw new IllegalArgumentException("Rumble intensity must be between 0 and 1, got: " + strong + ", " + weak);
+      }
+    }
+  }
+}
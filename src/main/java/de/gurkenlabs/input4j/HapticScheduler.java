@@ -0,0 +1,308 @@
+package de.gurkenlabs.input4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plays {@link HapticPattern}s on input devices, with one shared timer thread for all devices.
+ * <p>
+ * A pattern that the plugin of a device can play natively (see {@link InputDevice#setHapticCallback}) is handed to the
+ * device once and then played without any further updates, e.g. by the kernel on Linux. All other patterns are played
+ * by the timer thread, which interpolates their intensities and sets them on the device every {@value #TICK_MILLIS}
+ * milliseconds. The timer thread only runs while such patterns are playing.
+ * </p>
+ * <p>
+ * Every device plays one pattern at a time; playing another pattern on a device replaces the one that is playing,
+ * and so does setting the rumble intensity of the device directly with {@link InputDevice#rumble(float...)}.
+ * </p>
+ *
+ * @see InputDevice#rumble(HapticPattern)
+ */
+public final class HapticScheduler {
+  private static final Logger log = Logger.getLogger(HapticScheduler.class.getName());
+
+  /**
+   * The interval in milliseconds in which the intensities of patterns that are not played natively are updated.
+   */
+  public static final int TICK_MILLIS = 10;
+
+  private static final long TICK_NANOS = TICK_MILLIS * 1_000_000L;
+  private static volatile HapticScheduler defaultScheduler;
+
+  private final Map<InputDevice, Playback> playbacks = new ConcurrentHashMap<>();
+  private final LongSupplier nanoClock;
+  private final Thread thread;
+
+  /**
+   * The intensities of the motors, which are only written by the timer thread.
+   */
+  private final float[] intensity = new float[2];
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param nanoClock     the clock that measures the time of the patterns in nanoseconds
+   * @param threadFactory the factory that creates the timer thread, or null if {@link #tick()} is called externally
+   */
+  HapticScheduler(LongSupplier nanoClock, ThreadFactory threadFactory) {
+    this.nanoClock = nanoClock;
+    this.thread = threadFactory != null ? threadFactory.newThread(this::run) : null;
+    if (this.thread != null) {
+      this.thread.start();
+    }
+  }
+
+  /**
+   * Gets the scheduler that is shared by all input devices. Its timer thread is a daemon thread that is created the
+   * first time this method is called.
+   *
+   * @return the shared scheduler
+   */
+  public static HapticScheduler getDefault() {
+    var scheduler = defaultScheduler;
+    if (scheduler == null) {
+      synchronized (HapticScheduler.class) {
+        scheduler = defaultScheduler;
+        if (scheduler == null) {
+          scheduler = new HapticScheduler(System::nanoTime, Thread.ofPlatform().name("input4j-haptics-", 0).daemon().factory());
+          defaultScheduler = scheduler;
+        }
+      }
+    }
+
+    return scheduler;
+  }
+
+  /**
+   * Forgets the pattern of a device whose rumble intensity is set directly or that has been closed, without stopping its rumble.
+   *
+   * @param device the device
+   */
+  static void release(InputDevice device) {
+    var scheduler = defaultScheduler;
+    if (scheduler == null) {
+      return;
+    }
+
+    var playback = scheduler.playbacks.remove(device);
+    if (playback != null) {
+      playback.finish();
+    }
+  }
+
+  /**
+   * Plays a pattern on a device instead of the pattern that it is currently playing.
+   *
+   * @param device  the device
+   * @param pattern the pattern
+   * @return the playback of the pattern, which can be used to stop it
+   */
+  public Playback play(InputDevice device, HapticPattern pattern) {
+    if (device == null || pattern == null) {
+      throw new IllegalArgumentException("The device and the pattern must not be null.");
+    }
+
+    // replacing the pattern atomically keeps concurrent calls from starting two patterns on the same device
+    var playback = this.playbacks.compute(device, (_, previous) -> {
+      if (previous != null) {
+        previous.finish();
+      }
+
+      return new Playback(device, pattern, this.nanoClock.getAsLong(), device.playNatively(pattern));
+    });
+    if (!playback.isNative && this.thread != null) {
+      LockSupport.unpark(this.thread);
+    }
+
+    return playback;
+  }
+
+  /**
+   * Stops the pattern that is playing on a device.
+   *
+   * @param device the device
+   */
+  public void stop(InputDevice device) {
+    var playback = this.playbacks.get(device);
+    if (playback != null) {
+      playback.stop();
+    }
+  }
+
+  /**
+   * Gets the pattern that is playing on a device.
+   *
+   * @param device the device
+   * @return the playback of the pattern, or null if no pattern is playing on the device
+   */
+  public Playback getPlayback(InputDevice device) {
+    var playback = this.playbacks.get(device);
+    return playback != null && !playback.isDone() ? playback : null;
+  }
+
+  /**
+   * Updates the intensities of all patterns that are not played natively and removes the patterns that are over.
+   *
+   * @return true if any pattern needs to be updated again; otherwise false
+   */
+  boolean tick() {
+    var now = this.nanoClock.getAsLong();
+    var ticking = false;
+    for (var playback : this.playbacks.values()) {
+      synchronized (playback) {
+        if (!playback.done) {
+          ticking |= this.update(playback, now);
+        }
+      }
+
+      // the map is only changed outside of the lock of the playback, which play() acquires while it holds the map entry
+      if (playback.done) {
+        this.playbacks.remove(playback.device, playback);
+      }
+    }
+
+    return ticking;
+  }
+
+  private boolean update(Playback playback, long now) {
+    var elapsedMillis = (now - playback.startNanos) / 1_000_000L;
+    if (playback.isNative) {
+      if (elapsedMillis >= playback.pattern.getTotalDuration()) {
+        playback.done = true;
+      }
+
+      return false;
+    }
+
+    try {
+      if (playback.pattern.sample(elapsedMillis, this.intensity)) {
+        playback.device.applyRumble(this.intensity);
+        return true;
+      }
+
+      playback.done = true;
+      playback.device.applyRumble();
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Failed to play haptic pattern on device " + playback.device.getName(), e);
+      playback.done = true;
+    }
+
+    return false;
+  }
+
+  private void run() {
+    long deadline = this.nanoClock.getAsLong();
+    while (true) {
+      long remaining = deadline - this.nanoClock.getAsLong();
+      if (remaining > 0) {
+        // parking can return early (unpark, spurious wake-up), so the deadline is checked again afterward
+        LockSupport.parkNanos(this, remaining);
+        continue;
+      }
+
+      if (!this.tick() && !this.hasTickingPlaybacks()) {
+        // nothing to update until the next pattern is played, which unparks the thread
+        LockSupport.park(this);
+        deadline = this.nanoClock.getAsLong();
+        continue;
+      }
+
+      deadline += TICK_NANOS;
+      long now = this.nanoClock.getAsLong();
+      if (deadline < now) {
+        // a late tick is not caught up, since only the latest intensities matter
+        deadline = now;
+      }
+    }
+  }
+
+  private boolean hasTickingPlaybacks() {
+    for (var playback : this.playbacks.values()) {
+      if (!playback.isNative && !playback.done) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * A pattern that is playing on a device.
+   */
+  public final class Playback {
+    private final InputDevice device;
+    private final HapticPattern pattern;
+    private final long startNanos;
+    private final boolean isNative;
+    private volatile boolean done;
+
+    private Playback(InputDevice device, HapticPattern pattern, long startNanos, boolean isNative) {
+      this.device = device;
+      this.pattern = pattern;
+      this.startNanos = startNanos;
+      this.isNative = isNative;
+    }
+
+    /**
+     * Gets the device that plays the pattern.
+     *
+     * @return the device
+     */
+    public InputDevice getDevice() {
+      return this.device;
+    }
+
+    /**
+     * Gets the pattern that is played.
+     *
+     * @return the pattern
+     */
+    public HapticPattern getPattern() {
+      return this.pattern;
+    }
+
+    /**
+     * Checks if the pattern is played natively by the device, without updates from the timer thread.
+     *
+     * @return true if the pattern is played natively; otherwise false
+     */
+    public boolean isNative() {
+      return this.isNative;
+    }
+
+    /**
+     * Checks if the pattern is over, has been stopped or has been replaced by another pattern.
+     *
+     * @return true if the pattern is not playing anymore; otherwise false
+     */
+    public synchronized boolean isDone() {
+      return this.done || (nanoClock.getAsLong() - this.startNanos) / 1_000_000L >= this.pattern.getTotalDuration();
+    }
+
+    /**
+     * Stops the pattern and the rumble of the device, unless the pattern is {@link #isDone() done}, i.e. it is over,
+     * has already been stopped or has been replaced by another pattern or a rumble intensity that was set directly.
+     */
+    public void stop() {
+      synchronized (this) {
+        if (this.isDone()) {
+          return;
+        }
+
+        this.done = true;
+        this.device.applyRumble();
+      }
+
+      playbacks.remove(this.device, this);
+    }
+
+    private synchronized void finish() {
+      this.done = true;
+    }
+  }
+}
@@ -3,8 +3,15 @@ package de.gurkenlabs.input4j;
 import de.gurkenlabs.input4j.components.Axis;
 import de.gurkenlabs.input4j.components.Button;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@code InputComponent} class represents a component of an input device, such as a button or axis.
@@ -69,6 +76,10 @@ public final class InputComponent {
   /**
    * Gets the input data for a specific input component.
    * The data is set by the {@link InputDevice} when polling.
+   * <p>
+   * Threads other than the polling thread should use {@link InputDevice#snapshot(InputSnapshot)} instead,
+   * which provides the values of all components of the same poll.
+   * </p>
    *
    * @return the input data for the specified component
    */
@@ -76,6 +87,17 @@ public final class InputComponent {
     return this.data;
   }
 
+  /**
+   * Gets how often this button was pressed between the two most recent polls of its device,
+   * including presses that were released again before the poll.
+   *
+   * @return the number of presses since the previous poll
+   * @see InputDevice#getPressCountSinceLastPoll(ID)
+   */
+  public int getPressCountSinceLastPoll() {
+    return this.device != null ? this.device.getPressCountSinceLastPoll(this.id) : 0;
+  }
+
   /**
    * Gets the type of this component.
    *
@@ -194,7 +216,48 @@ public final class InputComponent {
     /** Human-readable name. */
     public String name;
 
-    private static final List<ID> ids = new CopyOnWriteArrayList<>();
+    /**
+     * Whether this ID was allocated for a single device via {@link #createDynamic(ComponentType, int, String, int)}
+     * and is released again when that device is closed.
+     */
+    private final boolean dynamic;
+
+    /**
+     * The registered IDs, indexed by their type and numeric ID. Only the first ID for a (type, id) pair is registered,
+     * unless a default ID is created for it later; remapped copies share the key of their original and are not added again.
+     */
+    private static final Map<ComponentType, Map<Integer, ID>> idsByType = new EnumMap<>(ComponentType.class);
+
+    /**
+     * The registered IDs by name; if multiple registered IDs share a name, the default one or else the first one wins.
+     */
+    private static final Map<String, ID> idsByName = new ConcurrentHashMap<>();
+
+    /**
+     * The highest registered numeric ID per type, used to allocate the next free ID without scanning the registry.
+     */
+    private static final Map<ComponentType, AtomicInteger> maxIds = new EnumMap<>(ComponentType.class);
+
+    /**
+     * The numeric IDs of released dynamic IDs per type, which are handed out again before new numbers are allocated.
+     * Guarded by {@link #registryLock}.
+     */
+    private static final Map<ComponentType, NavigableSet<Integer>> releasedIds = new EnumMap<>(ComponentType.class);
+
+    /**
+     * Guards every change of the registry, so IDs that are created concurrently by the constructors,
+     * {@link #createDefault(ComponentType, int, String)} and {@link #createDynamic(ComponentType, int, String, int)}
+     * cannot interleave. Lookups don't need it.
+     */
+    private static final Object registryLock = new Object();
+
+    static {
+      for (var componentType : ComponentType.values()) {
+        idsByType.put(componentType, new ConcurrentHashMap<>());
+        maxIds.put(componentType, new AtomicInteger());
+        releasedIds.put(componentType, new TreeSet<>());
+      }
+    }
 
     /**
      * Creates a new ID by copying another ID.
@@ -256,13 +319,147 @@ public final class InputComponent {
      * @param nativeId the native platform-specific ID
      */
     public ID(ComponentType type, int id, String name, int nativeId) {
+      this(type, id, name, nativeId, false);
+      register(this, false);
+    }
+
+    private ID(ComponentType type, int id, String name, int nativeId, boolean dynamic) {
       this.type = type;
       this.id = id;
       this.name = name;
       this.nativeId = nativeId;
-      // exclude remapped IDs, only add the original ID
-      if (ids.stream().noneMatch(i -> i.equals(this))) {
-        ids.add(this);
+      this.dynamic = dynamic;
+    }
+
+    /**
+     * Creates a well-known ID, like the constants of {@link de.gurkenlabs.input4j.components.Button} and
+     * {@link de.gurkenlabs.input4j.components.Axis}.
+     * <p>
+     * Unlike IDs created with the constructors, a default ID replaces an ID with the same type and number that was
+     * registered before it, so lookups like {@link #getButton(int)} return the default ID no matter which class
+     * happened to be initialized first.
+     * </p>
+     *
+     * @param type the component type
+     * @param id   the component ID
+     * @param name the component name
+     * @return the new, registered ID
+     */
+    public static ID createDefault(ComponentType type, int id, String name) {
+      var identifier = new ID(type, id, name, 0, false);
+      register(identifier, true);
+      return identifier;
+    }
+
+    /**
+     * Creates an ID for a component that has no well-known ID, e.g. an unmapped axis of a specific controller.
+     * <p>
+     * Unlike IDs created with the constructors, dynamic IDs are owned by the device of the component they are created for.
+     * They are released when the device is closed, so their numeric ID can be reused by the next device
+     * (e.g. when the same controller is reconnected) and the registry does not grow with every reconnect.
+     * </p>
+     *
+     * @param type     the component type
+     * @param minId    the minimum ID to reserve for default components
+     * @param name     the component name
+     * @param nativeId the native platform-specific ID
+     * @return the new, registered ID
+     * @see #release(ID)
+     */
+    public static ID createDynamic(ComponentType type, int minId, String name, int nativeId) {
+      synchronized (registryLock) {
+        var released = releasedIds.get(type);
+        var reusableId = released.higher(minId);
+        while (reusableId != null && idsByType.get(type).containsKey(reusableId)) {
+          // a static ID might have claimed the number since it was released
+          released.remove(reusableId);
+          reusableId = released.higher(reusableId);
+        }
+
+        if (reusableId != null) {
+          released.remove(reusableId);
+        }
+
+        var identifier = new ID(type, reusableId != null ? reusableId : getNextId(type, minId), name, nativeId, true);
+        register(identifier, false);
+        return identifier;
+      }
+    }
+
+    /**
+     * Releases a dynamic ID so that it is removed from the registry and its numeric ID can be reused.
+     * <p>
+     * This is called for the components of an {@link InputDevice} when it is closed.
+     * IDs that were not created via {@link #createDynamic(ComponentType, int, String, int)} and copies of IDs are ignored.
+     * </p>
+     *
+     * @param identifier the ID to release
+     */
+    public static void release(ID identifier) {
+      if (identifier == null || !identifier.dynamic) {
+        return;
+      }
+
+      synchronized (registryLock) {
+        var byId = idsByType.get(identifier.type);
+        // compare identities since IDs are equal by type and number, which might already be reused by another device
+        if (byId.get(identifier.id) != identifier) {
+          return;
+        }
+
+        byId.remove(identifier.id);
+        releasedIds.get(identifier.type).add(identifier.id);
+        if (identifier.name != null && idsByName.get(identifier.name) == identifier) {
+          idsByName.remove(identifier.name);
+          reindexName(identifier.name);
+        }
+      }
+    }
+
+    /**
+     * Points the name index to another registered ID with the same name after the indexed one was released.
+     */
+    private static void reindexName(String name) {
+      for (var byId : idsByType.values()) {
+        for (var registered : byId.values()) {
+          if (name.equals(registered.name)) {
+            idsByName.putIfAbsent(name, registered);
+            return;
+          }
+        }
+      }
+    }
+
+    /**
+     * Gets whether this ID was created for a specific device and is released when that device is closed.
+     *
+     * @return true if this is a dynamic ID; otherwise false
+     * @see #createDynamic(ComponentType, int, String, int)
+     */
+    public boolean isDynamic() {
+      return this.dynamic;
+    }
+
+    private static void register(ID identifier, boolean isDefault) {
+      synchronized (registryLock) {
+        var byId = idsByType.get(identifier.type);
+        if (isDefault) {
+          byId.put(identifier.id, identifier);
+        } else if (byId.putIfAbsent(identifier.id, identifier) != null) {
+          // exclude remapped IDs, only add the original ID
+          return;
+        }
+
+        maxIds.get(identifier.type).accumulateAndGet(identifier.id, Math::max);
+        if (identifier.name == null) {
+          return;
+        }
+
+        if (isDefault) {
+          idsByName.put(identifier.name, identifier);
+        } else {
+          idsByName.putIfAbsent(identifier.name, identifier);
+        }
       }
     }
 
@@ -311,16 +508,21 @@ public final class InputComponent {
      */
     public static int getNextId(ComponentType type, int minId) {
       // reserve the id range for the default buttons and axes
-      return Math.max(ids.stream().filter(i -> i.type == type).mapToInt(i -> i.id).max().orElse(0), minId) + 1;
+      return Math.max(maxIds.get(type).get(), minId) + 1;
     }
 
     /**
      * Gets all registered component IDs.
      *
-     * @return list of all IDs
+     * @return an unmodifiable snapshot of all IDs, grouped by their type
      */
     public static List<ID> getAll() {
-      return ids;
+      var all = new ArrayList<ID>();
+      for (var byId : idsByType.values()) {
+        all.addAll(byId.values());
+      }
+
+      return Collections.unmodifiableList(all);
     }
 
     /**
@@ -331,7 +533,7 @@ public final class InputComponent {
      * @return the matching ID or null
      */
     public static ID get(ComponentType type, int id){
-      return ids.stream().filter(i -> i.type == type && i.id == id).findFirst().orElse(null);
+      return type == null ? null : idsByType.get(type).get(id);
     }
 
     /**
@@ -341,7 +543,7 @@ public final class InputComponent {
      * @return the matching button ID or null
      */
     public static ID getButton(int id) {
-      return ids.stream().filter(i -> i.type.isButton() && i.id == id).findFirst().orElse(null);
+      return idsByType.get(ComponentType.BUTTON).get(id);
     }
 
     /**
@@ -351,7 +553,7 @@ public final class InputComponent {
      * @return the matching axis ID or null
      */
     public static ID getAxis(int id) {
-      return ids.stream().filter(i -> i.type.isAxis() && i.id == id).findFirst().orElse(null);
+      return idsByType.get(ComponentType.AXIS).get(id);
     }
 
     /**
@@ -364,7 +566,7 @@ public final class InputComponent {
      * @return The ID with the specified name, or null if no such ID exists.
      */
     public static ID get(String name) {
-      return ids.stream().filter(i -> i.name.equals(name)).findFirst().orElse(null);
+      return name == null ? null : idsByName.get(name);
     }
   }
 
@@ -374,7 +576,20 @@ public final class InputComponent {
    * @param component The `InputComponent` whose value has changed
    * @param oldValue  The previous value of the `InputComponent`
    * @param newValue  The new value of the `InputComponent`
+   * @param timestamp The time of the change in the time base of {@link System#nanoTime()}. This is the time at which
+   *                  the native event occurred if the plugin provides it (e.g. the kernel timestamp of Linux evdev events),
+   *                  otherwise the time at which the change was polled.
    */
-  public record InputValueChangedEvent(InputComponent component, float oldValue, float newValue) {
+  public record InputValueChangedEvent(InputComponent component, float oldValue, float newValue, long timestamp) {
+    /**
+     * Creates an event for a change that happens now.
+     *
+     * @param component The `InputComponent` whose value has changed
+     * @param oldValue  The previous value of the `InputComponent`
+     * @param newValue  The new value of the `InputComponent`
+     */
+    public InputValueChangedEvent(InputComponent component, float oldValue, float newValue) {
+      this(component, oldValue, newValue, System.nanoTime());
+    }
   }
 }
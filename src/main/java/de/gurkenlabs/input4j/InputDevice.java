@@ -1,13 +1,17 @@
 package de.gurkenlabs.input4j;
 
 import java.io.Closeable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -20,13 +24,15 @@ import java.util.function.Function;
  * The input device can also be used to set rumble (vibration) intensity.
  * <br>
  * The input device can have multiple listeners that are notified when the value of an input component changes.
- * The listeners should implement the {@link InputDeviceListener} interface.
+ * The listeners should implement the {@link InputDeviceListener} interface. Listeners that handle all changes of a poll
+ * at once can implement {@link InputFrameListener} instead.
  * <br>
  * The input device should be closed to release any resources it holds.
  * </p>
  *
  * @see InputComponent
  * @see InputDeviceListener
+ * @see InputFrameListener
  * @see de.gurkenlabs.input4j.InputComponent.InputValueChangedEvent
  * @see Closeable
  */
@@ -41,26 +47,92 @@ public final class InputDevice implements Closeable {
   private final List<InputComponent> components = new CopyOnWriteArrayList<>();
   private final Map<InputComponent.ID, InputComponent> componentIndex = new ConcurrentHashMap<>();
   private final Collection<InputDeviceListener> listeners = ConcurrentHashMap.newKeySet();
-  private final Map<InputComponent.ID, Collection<Runnable>> buttonPressedListeners = new ConcurrentHashMap<>();
-  private final Map<InputComponent.ID, Collection<Runnable>> buttonReleasedListeners = new ConcurrentHashMap<>();
-  private final Map<InputComponent.ID, Collection<Consumer<Float>>> axisChangedListeners = new ConcurrentHashMap<>();
+  private final Map<InputComponent.ID, Collection<ButtonListener>> buttonPressedListeners = new ConcurrentHashMap<>();
+  private final Map<InputComponent.ID, Collection<ButtonListener>> buttonReleasedListeners = new ConcurrentHashMap<>();
+  private final Map<InputComponent.ID, Collection<AxisListener>> axisChangedListeners = new ConcurrentHashMap<>();
+  private final Object listenerSlotLock = new Object();
 
-  private final Function<InputDevice, float[]> pollCallback;
+  private final InputDevicePollCallback pollCallback;
   private final BiConsumer<InputDevice, float[]> rumbleCallback;
   private final Function<InputDevice, BatteryInfo> batteryCallback;
+  private volatile BiPredicate<InputDevice, HapticPattern> hapticCallback;
   private float accuracyFactor;
   private boolean hasInputData;
 
+  /**
+   * The reusable buffer that is passed to the poll callback. It has one slot per component.
+   */
+  private float[] pollBuffer = new float[0];
+
+  /**
+   * What happened to each component slot between the two most recent polls. Plugins that see every native event
+   * report this via {@link #reportTransients(int, int, int, float, float)}; for all other slots it is derived from
+   * the polled values.
+   */
+  private int[] pressCounts = new int[0];
+  private int[] releaseCounts = new int[0];
+  private float[] minValues = new float[0];
+  private float[] maxValues = new float[0];
+  private boolean[] transientsReported = new boolean[0];
+
+  /**
+   * The native event time of each component slot that changed since the previous poll, as reported by plugins that know it
+   * via {@link #reportTimestamp(int, long)}.
+   */
+  private long[] timestamps = new long[0];
+  private boolean[] timestampsReported = new boolean[0];
+
+  /**
+   * The statistics of the time between the native events and their dispatch, which are accumulated by the polling thread
+   * without synchronization and published once per poll to the fields below.
+   */
+  private long pendingLatencySamples;
+  private long pendingLatencyTotal;
+  private long pendingLatencyMin;
+  private long pendingLatencyMax;
+  private long pendingLatencyLast;
+  private long observedLatencyResets;
+
+  /**
+   * The published latency statistics, which are written under {@link #latencyLock} so that {@link #getLatency()}
+   * gets a consistent view from any thread.
+   */
+  private final StampedLock latencyLock = new StampedLock();
+  private volatile long latencyResets;
+  private long latencySamples;
+  private long latencyTotal;
+  private long latencyMin;
+  private long latencyMax;
+  private long latencyLast;
+
+  /**
+   * The button and axis listeners indexed by component slot (in the order of {@link #getComponents()}).
+   * <p>
+   * These are rebuilt from the listener maps whenever a listener or component is added or removed,
+   * so the poll loop can dispatch changes without any map lookup.
+   * </p>
+   */
+  private volatile ButtonListener[][] buttonPressedSlots = new ButtonListener[0][];
+  private volatile ButtonListener[][] buttonReleasedSlots = new ButtonListener[0][];
+  private volatile AxisListener[][] axisChangedSlots = new AxisListener[0][];
+
+  /**
+   * The frame listeners; replaced on every change so the poll loop can iterate them without allocating an iterator.
+   */
+  private volatile InputFrameListener[] frameListeners = new InputFrameListener[0];
+  private final InputFrame frame = new InputFrame(this);
+  private final InputSnapshotPublisher snapshotPublisher = new InputSnapshotPublisher();
+
   /**
    * Creates a new instance of the InputDevice class.
    *
    * @param identifier     the identifier of the input device
    * @param name           the name of the instance of the input device
    * @param productName    the name of the product of the input device
-   * @param pollCallback   the function to be called when polling for input data from the device
+   * @param pollCallback   the callback that writes the polled input data of the device into a reusable buffer
    * @param rumbleCallback the function to be called when setting rumble intensity
    */
-  public InputDevice(String identifier, String name, String productName, Function<InputDevice, float[]> pollCallback, BiConsumer<InputDevice, float[]> rumbleCallback) {
+  public InputDevice(String identifier, String name, String productName, InputDevicePollCallback pollCallback, BiConsumer<InputDevice, float[]> rumbleCallback) {
     this(identifier, name, productName, -1, -1, null, pollCallback, rumbleCallback, null);
   }
 
@@ -73,10 +145,10 @@ public final class InputDevice implements Closeable {
    * @param vendorId       the USB vendor ID, or -1 if not available
    * @param productId      the USB product ID, or -1 if not available
    * @param displayName    the user-friendly display name, or null to use productName
-   * @param pollCallback   the function to be called when polling for input data from the device
+   * @param pollCallback   the callback that writes the polled input data of the device into a reusable buffer
    * @param rumbleCallback the function to be called when setting rumble intensity
    */
-  public InputDevice(String identifier, String name, String productName, int vendorId, int productId, String displayName, Function<InputDevice, float[]> pollCallback, BiConsumer<InputDevice, float[]> rumbleCallback) {
+  public InputDevice(String identifier, String name, String productName, int vendorId, int productId, String displayName, InputDevicePollCallback pollCallback, BiConsumer<InputDevice, float[]> rumbleCallback) {
     this(identifier, name, productName, vendorId, productId, displayName, pollCallback, rumbleCallback, null);
   }
 
@@ -89,11 +161,11 @@ public final class InputDevice implements Closeable {
    * @param vendorId       the USB vendor ID, or -1 if not available
    * @param productId      the USB product ID, or -1 if not available
    * @param displayName    the user-friendly display name, or null to use productName
-   * @param pollCallback   the function to be called when polling for input data from the device
+   * @param pollCallback   the callback that writes the polled input data of the device into a reusable buffer
    * @param rumbleCallback the function to be called when setting rumble intensity
    * @param batteryCallback the function to be called when querying battery information, or null if not supported
    */
-  public InputDevice(String identifier, String name, String productName, int vendorId, int productId, String displayName, Function<InputDevice, float[]> pollCallback, BiConsumer<InputDevice, float[]> rumbleCallback, Function<InputDevice, BatteryInfo> batteryCallback) {
+  public InputDevice(String identifier, String name, String productName, int vendorId, int productId, String displayName, InputDevicePollCallback pollCallback, BiConsumer<InputDevice, float[]> rumbleCallback, Function<InputDevice, BatteryInfo> batteryCallback) {
     this.identifier = identifier;
     this.name = name;
     this.productName = productName;
@@ -200,7 +272,7 @@ public final class InputDevice implements Closeable {
    * Gets the battery information for this input device.
    * <p>
    * Battery information is only available for some controllers.
-   * Currently supported on Windows via XInput (Xbox controllers).
+   * Currently supported on Windows via XInput (Xbox controllers) and on Linux for controllers whose driver reports a battery.
    * Returns empty Optional if battery information is not available or not supported.
    *
    * @return an Optional containing the battery information, or empty if not available
@@ -277,6 +349,9 @@ public final class InputDevice implements Closeable {
       this.components.add(component);
       this.componentIndex.put(component.getId(), component);
     }
+
+    this.ensurePollBufferCapacity();
+    this.updateListenerSlots();
   }
 
   /**
@@ -292,59 +367,475 @@ public final class InputDevice implements Closeable {
     }
     components.add(component);
     componentIndex.put(component.getId(), component);
+    this.ensurePollBufferCapacity();
+    this.updateListenerSlots();
   }
 
   /**
    * Polls the input device for input data and updates the associated input components.
+   * <p>
+   * The plugin writes the current component values into a buffer that is owned by this device and reused for every poll,
+   * so polling does not allocate memory in the steady state.
+   * </p>
    */
   public void poll() {
-    var polledData = this.pollCallback.apply(this);
+    var componentList = this.components;
+    var polledData = this.ensurePollBufferCapacity();
+    Arrays.fill(polledData, 0);
+    Arrays.fill(this.transientsReported, false);
+    Arrays.fill(this.timestampsReported, false);
+
+    var polledCount = Math.min(this.pollCallback.poll(this, polledData), polledData.length);
+    var pollTime = System.nanoTime();
+    var pressedSlots = this.buttonPressedSlots;
+    var releasedSlots = this.buttonReleasedSlots;
+    var axisSlots = this.axisChangedSlots;
+    var currentFrameListeners = this.frameListeners;
+    var hasFrameListeners = currentFrameListeners.length > 0;
+    if (hasFrameListeners) {
+      this.frame.begin(componentList, pollTime);
+    }
+
     var hasInputData = false;
+    var latencySamplesBefore = this.beginLatency();
 
-    var componentList = this.components;
-    for (var i = 0; i < polledData.length && i < componentList.size(); i++) {
+    for (var i = 0; i < polledCount && i < componentList.size(); i++) {
       var component = componentList.get(i);
       var oldData = component.getData();
       var newData = polledData[i];
 
-      newData = Math.round(newData * this.accuracyFactor) / this.accuracyFactor;
+      newData = this.round(newData);
       hasInputData |= newData != 0;
+      var timestampReported = i < this.timestampsReported.length && this.timestampsReported[i];
+      var timestamp = timestampReported ? this.timestamps[i] : pollTime;
+      int intermediateToggles = this.updateTransients(i, component, oldData, newData);
+      if (hasFrameListeners && i < this.frame.size()) {
+        var changed = intermediateToggles > 0 || oldData != newData;
+        var hasCounts = component.isButton() && i < this.pressCounts.length;
+        this.frame.set(i, oldData, newData, changed ? timestamp : pollTime, hasCounts ? this.pressCounts[i] : 0, hasCounts ? this.releaseCounts[i] : 0);
+      }
+      if (intermediateToggles > 0) {
+        // the button was pressed and released (or vice versa) between two polls, which the polled value does not reveal
+        hasInputData = true;
+        var otherData = oldData == 0 ? 1 : 0;
+        // plugins only report one time per slot, so the intermediate edges carry the time of the last event
+        for (var toggle = 0; toggle < intermediateToggles; toggle++) {
+          this.notifyChanged(i, component, oldData, otherData, timestamp, pressedSlots, releasedSlots, axisSlots);
+          this.notifyChanged(i, component, otherData, oldData, timestamp, pressedSlots, releasedSlots, axisSlots);
+        }
+      }
+
       if (oldData != newData) {
         hasInputData = true;
-        component.setData(newData);
+        this.notifyChanged(i, component, oldData, newData, timestamp, pressedSlots, releasedSlots, axisSlots);
+      }
 
-        var inputEvent = new InputComponent.InputValueChangedEvent(component, oldData, newData);
-        for (var listener : listeners) {
-          listener.onValueChanged(inputEvent);
-        }
+      if (timestampReported && (intermediateToggles > 0 || oldData != newData)) {
+        this.recordLatency(pollTime - timestamp);
+      }
+    }
 
-        if (component.isButton()) {
-          var id = component.getId();
-          if (newData == 1 && buttonPressedListeners.containsKey(id)) {
-            for (var listener : buttonPressedListeners.get(id)) {
-              listener.run();
-            }
-          } else if (newData == 0 && buttonReleasedListeners.containsKey(id)) {
-            for (var listener : buttonReleasedListeners.get(id)) {
-              listener.run();
-            }
-          }
-        }
+    // components beyond the polled count keep their state
+    for (var i = Math.max(polledCount, 0); i < this.pressCounts.length && i < componentList.size(); i++) {
+      var data = componentList.get(i).getData();
+      this.pressCounts[i] = 0;
+      this.releaseCounts[i] = 0;
+      this.minValues[i] = data;
+      this.maxValues[i] = data;
+    }
+
+    this.hasInputData = hasInputData;
+    this.snapshotPublisher.publish(componentList);
+    if (this.pendingLatencySamples != latencySamplesBefore) {
+      this.publishLatency();
+    }
+
+    if (hasFrameListeners) {
+      this.dispatchFrame(componentList, polledCount, currentFrameListeners);
+    }
+  }
+
+  /**
+   * Reports what happened to a component since the previous poll that its polled value alone does not reveal,
+   * e.g. a button that was pressed and released again between two polls.
+   * <p>
+   * This is intended for plugins that see every native event of a device and must be called from within their
+   * {@link InputDevicePollCallback}. For each reported press and release pair that is not reflected by the polled value,
+   * the device notifies its listeners about the intermediate button edges.
+   * </p>
+   * <p>
+   * Only one {@link #reportTimestamp(int, long) timestamp} is kept per slot, so the intermediate edges are stamped with
+   * the time of the last event of the component (or the time of the poll), not with the time of their own event.
+   * </p>
+   *
+   * @param slot     the component slot (in the order of {@link #getComponents()})
+   * @param presses  the number of times the button went from released to pressed since the previous poll
+   * @param releases the number of times the button went from pressed to released since the previous poll
+   * @param min      the smallest normalized value of the component since the previous poll
+   * @param max      the largest normalized value of the component since the previous poll
+   */
+  public void reportTransients(int slot, int presses, int releases, float min, float max) {
+    Objects.checkIndex(slot, this.transientsReported.length);
+    this.pressCounts[slot] = Math.max(presses, 0);
+    this.releaseCounts[slot] = Math.max(releases, 0);
+    this.minValues[slot] = min;
+    this.maxValues[slot] = max;
+    this.transientsReported[slot] = true;
+  }
+
+  /**
+   * Reports the time at which a component changed since the previous poll.
+   * <p>
+   * This is intended for plugins that know when the native events of a device occurred and must be called from within their
+   * {@link InputDevicePollCallback}. The timestamp is passed on with the change to the listeners and used to measure
+   * the {@link #getLatency() latency} of the device. Changes without a reported timestamp are stamped with the time of the poll.
+   * </p>
+   *
+   * @param slot      the component slot (in the order of {@link #getComponents()})
+   * @param timestamp the time of the native event in the time base of {@link System#nanoTime()}
+   */
+  public void reportTimestamp(int slot, long timestamp) {
+    Objects.checkIndex(slot, this.timestampsReported.length);
+    this.timestamps[slot] = timestamp;
+    this.timestampsReported[slot] = true;
+  }
+
+  /**
+   * Gets the statistics of the time between the native input events and the dispatch of the resulting changes
+   * to the listeners of this device.
+   * <p>
+   * Only changes with a known event time are measured (currently those of the Linux evdev plugin). The statistics are
+   * published by the polling thread at the end of each poll and can be read consistently from any other thread. A component that toggled several
+   * times within one poll is measured once, with the time of its last event.
+   * </p>
+   *
+   * @return the latency since the device was created or the statistics were last reset
+   */
+  public InputLatency getLatency() {
+    long stamp = this.latencyLock.tryOptimisticRead();
+    var latency = this.readLatency();
+    if (this.latencyLock.validate(stamp)) {
+      return latency;
+    }
+
+    stamp = this.latencyLock.readLock();
+    try {
+      return this.readLatency();
+    } finally {
+      this.latencyLock.unlockRead(stamp);
+    }
+  }
+
+  private InputLatency readLatency() {
+    var samples = this.latencySamples;
+    if (samples == 0) {
+      return InputLatency.NONE;
+    }
+
+    return new InputLatency(samples, this.latencyLast, this.latencyMin, this.latencyMax, this.latencyTotal / samples);
+  }
+
+  /**
+   * Resets the latency statistics of this device.
+   *
+   * @see #getLatency()
+   */
+  public void resetLatency() {
+    long stamp = this.latencyLock.writeLock();
+    try {
+      // the polling thread discards its own statistics when it sees the reset
+      this.latencyResets++;
+      this.latencySamples = 0;
+      this.latencyTotal = 0;
+      this.latencyMin = 0;
+      this.latencyMax = 0;
+      this.latencyLast = 0;
+    } finally {
+      this.latencyLock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Gets how often a button was pressed between the two most recent polls, including presses that were released again
+   * before the poll.
+   * <p>
+   * Intermediate presses are only known for plugins that report them (currently the Linux evdev plugin). For all
+   * other plugins, this is 1 if the button changed from released to pressed with the most recent poll and 0 otherwise.
+   * </p>
+   *
+   * @param buttonId the ID of the button
+   * @return the number of presses since the previous poll, or 0 if the device has no such component
+   */
+  public int getPressCountSinceLastPoll(InputComponent.ID buttonId) {
+    var slot = this.getComponentIndex(buttonId);
+    var counts = this.pressCounts;
+    return slot >= 0 && slot < counts.length ? counts[slot] : 0;
+  }
 
-        if (component.isAxis() && axisChangedListeners.containsKey(component.getId())) {
-          for (var listener : axisChangedListeners.get(component.getId())) {
-            listener.accept(newData);
-          }
+  /**
+   * Gets how often a button was pressed between the two most recent polls, including presses that were released again
+   * before the poll.
+   *
+   * @param buttonId the ID of the button
+   * @return the number of presses since the previous poll, or 0 if the device has no such component
+   * @see #getPressCountSinceLastPoll(InputComponent.ID)
+   */
+  public int getPressCountSinceLastPoll(int buttonId) {
+    return this.getPressCountSinceLastPoll(InputComponent.ID.getButton(buttonId));
+  }
+
+  /**
+   * Gets how often a button was released between the two most recent polls, including releases that were pressed again
+   * before the poll.
+   *
+   * @param buttonId the ID of the button
+   * @return the number of releases since the previous poll, or 0 if the device has no such component
+   * @see #getPressCountSinceLastPoll(InputComponent.ID)
+   */
+  public int getReleaseCountSinceLastPoll(InputComponent.ID buttonId) {
+    var slot = this.getComponentIndex(buttonId);
+    var counts = this.releaseCounts;
+    return slot >= 0 && slot < counts.length ? counts[slot] : 0;
+  }
+
+  /**
+   * Gets the smallest value that a component had between the two most recent polls, including its value at the previous poll.
+   *
+   * @param id the ID of the component
+   * @return the smallest value since the previous poll, or 0 if the device has no such component
+   */
+  public float getMinSinceLastPoll(InputComponent.ID id) {
+    var slot = this.getComponentIndex(id);
+    var values = this.minValues;
+    return slot >= 0 && slot < values.length ? values[slot] : 0;
+  }
+
+  /**
+   * Gets the largest value that a component had between the two most recent polls, including its value at the previous poll.
+   *
+   * @param id the ID of the component
+   * @return the largest value since the previous poll, or 0 if the device has no such component
+   */
+  public float getMaxSinceLastPoll(InputComponent.ID id) {
+    var slot = this.getComponentIndex(id);
+    var values = this.maxValues;
+    return slot >= 0 && slot < values.length ? values[slot] : 0;
+  }
+
+  /**
+   * Completes the transients of the specified slot for this poll.
+   *
+   * @return the number of intermediate press and release pairs of a button that are not reflected by its polled value
+   */
+  private int updateTransients(int slot, InputComponent component, float oldData, float newData) {
+    if (slot >= this.transientsReported.length) {
+      return 0;
+    }
+
+    var lower = Math.min(oldData, newData);
+    var upper = Math.max(oldData, newData);
+    if (!this.transientsReported[slot]) {
+      var pressed = component.isButton() && oldData == 0 && newData == 1;
+      var released = component.isButton() && oldData == 1 && newData == 0;
+      this.pressCounts[slot] = pressed ? 1 : 0;
+      this.releaseCounts[slot] = released ? 1 : 0;
+      this.minValues[slot] = lower;
+      this.maxValues[slot] = upper;
+      return 0;
+    }
+
+    this.minValues[slot] = Math.min(this.round(this.minValues[slot]), lower);
+    this.maxValues[slot] = Math.max(this.round(this.maxValues[slot]), upper);
+    if (!component.isButton() || (oldData != 0 && oldData != 1)) {
+      return 0;
+    }
+
+    // every edge that is not the net change of the polled value belongs to a toggle that ends where it started
+    return Math.min(this.pressCounts[slot], this.releaseCounts[slot]);
+  }
+
+  private long beginLatency() {
+    if (this.latencyResets != this.observedLatencyResets) {
+      this.clearPendingLatency();
+    }
+
+    return this.pendingLatencySamples;
+  }
+
+  private void recordLatency(long latency) {
+    // clocks of different sources may be off by a little, which must not distort the statistics
+    latency = Math.max(latency, 0);
+    if (this.pendingLatencySamples == 0) {
+      this.pendingLatencyMin = latency;
+      this.pendingLatencyMax = latency;
+    } else {
+      this.pendingLatencyMin = Math.min(this.pendingLatencyMin, latency);
+      this.pendingLatencyMax = Math.max(this.pendingLatencyMax, latency);
+    }
+
+    this.pendingLatencyTotal += latency;
+    this.pendingLatencyLast = latency;
+    this.pendingLatencySamples++;
+  }
+
+  private void publishLatency() {
+    long stamp = this.latencyLock.writeLock();
+    try {
+      if (this.latencyResets != this.observedLatencyResets) {
+        // reset while this poll was measured, so its samples predate the reset
+        this.clearPendingLatency();
+        return;
+      }
+
+      this.latencySamples = this.pendingLatencySamples;
+      this.latencyTotal = this.pendingLatencyTotal;
+      this.latencyMin = this.pendingLatencyMin;
+      this.latencyMax = this.pendingLatencyMax;
+      this.latencyLast = this.pendingLatencyLast;
+    } finally {
+      this.latencyLock.unlockWrite(stamp);
+    }
+  }
+
+  private void clearPendingLatency() {
+    this.observedLatencyResets = this.latencyResets;
+    this.pendingLatencySamples = 0;
+    this.pendingLatencyTotal = 0;
+    this.pendingLatencyMin = 0;
+    this.pendingLatencyMax = 0;
+    this.pendingLatencyLast = 0;
+  }
+
+  private void notifyChanged(int slot, InputComponent component, float oldData, float newData, long timestamp, ButtonListener[][] pressedSlots, ButtonListener[][] releasedSlots, AxisListener[][] axisSlots) {
+    component.setData(newData);
+
+    if (!listeners.isEmpty()) {
+      var inputEvent = new InputComponent.InputValueChangedEvent(component, oldData, newData, timestamp);
+      for (var listener : listeners) {
+        listener.onValueChanged(inputEvent);
+      }
+    }
+
+    if (component.isButton()) {
+      var buttonSlots = newData == 1 ? pressedSlots : newData == 0 ? releasedSlots : null;
+      if (buttonSlots != null && slot < buttonSlots.length) {
+        for (var listener : buttonSlots[slot]) {
+          listener.onButton(component);
         }
       }
     }
 
-    this.hasInputData = hasInputData;
+    if (component.isAxis() && slot < axisSlots.length) {
+      for (var listener : axisSlots[slot]) {
+        listener.onAxis(component, newData);
+      }
+    }
+  }
+
+  private float round(float value) {
+    return Math.round(value * this.accuracyFactor) / this.accuracyFactor;
+  }
+
+  private void dispatchFrame(List<InputComponent> componentList, int polledCount, InputFrameListener[] currentFrameListeners) {
+    // components beyond the polled count keep their state, so the frame still provides a complete view
+    for (var i = Math.max(polledCount, 0); i < this.frame.size() && i < componentList.size(); i++) {
+      var data = componentList.get(i).getData();
+      this.frame.set(i, data, data, this.frame.getTimestamp(), 0, 0);
+    }
+
+    if (this.frame.getChangedCount() == 0) {
+      return;
+    }
+
+    for (var listener : currentFrameListeners) {
+      listener.onFrame(this.frame);
+    }
+  }
+
+  /**
+   * Takes a snapshot of the component values as they were at the end of the most recent poll.
+   * <p>
+   * This can safely be called from any thread while another thread polls the device. Threads that take snapshots
+   * continuously should use {@link #snapshot(InputSnapshot)} instead, which does not allocate.
+   * </p>
+   *
+   * @return a new snapshot of the component values
+   */
+  public InputSnapshot snapshot() {
+    return this.snapshot(null);
+  }
+
+  /**
+   * Refreshes the specified snapshot with the component values as they were at the end of the most recent poll.
+   * <p>
+   * This can safely be called from any thread while another thread polls the device. It never blocks and
+   * does not allocate, unless the number of components of the device grew since the snapshot was last refreshed.
+   * </p>
+   *
+   * @param reuse a snapshot of this device that is owned by the calling thread, or null to create a new one
+   * @return the refreshed snapshot; this is {@code reuse} if it was taken from this device, otherwise a new snapshot
+   */
+  public InputSnapshot snapshot(InputSnapshot reuse) {
+    var target = reuse != null && reuse.getDevice() == this ? reuse : new InputSnapshot(this);
+    return this.snapshotPublisher.read(target);
+  }
+
+  /**
+   * Makes sure that the poll buffer provides one slot for each component of this device.
+   * <p>
+   * The buffer is only reallocated when the number of components changes.
+   * </p>
+   *
+   * @return the poll buffer
+   */
+  private float[] ensurePollBufferCapacity() {
+    var buffer = this.pollBuffer;
+    var size = this.components.size();
+    if (buffer.length != size) {
+      buffer = new float[size];
+      this.pressCounts = new int[size];
+      this.releaseCounts = new int[size];
+      this.minValues = new float[size];
+      this.maxValues = new float[size];
+      this.transientsReported = new boolean[size];
+      this.timestamps = new long[size];
+      this.timestampsReported = new boolean[size];
+      this.pollBuffer = buffer;
+    }
+
+    return buffer;
+  }
+
+  /**
+   * Rebuilds the listener slots from the listener maps so that they match the current order of the components.
+   */
+  private void updateListenerSlots() {
+    synchronized (this.listenerSlotLock) {
+      this.buttonPressedSlots = toSlots(this.buttonPressedListeners, new ButtonListener[0][], new ButtonListener[0]);
+      this.buttonReleasedSlots = toSlots(this.buttonReleasedListeners, new ButtonListener[0][], new ButtonListener[0]);
+      this.axisChangedSlots = toSlots(this.axisChangedListeners, new AxisListener[0][], new AxisListener[0]);
+    }
+  }
+
+  private <T> T[][] toSlots(Map<InputComponent.ID, Collection<T>> listenerMap, T[][] emptySlots, T[] noListeners) {
+    var componentList = this.components;
+    var slots = Arrays.copyOf(emptySlots, componentList.size());
+    for (int i = 0; i < slots.length; i++) {
+      var componentListeners = listenerMap.get(componentList.get(i).getId());
+      slots[i] = componentListeners == null ? noListeners : componentListeners.toArray(noListeners);
+    }
+
+    return slots;
   }
 
   /**
    * Sets the rumble (vibration) intensity for the input device.
    * The intensity values should be between 0 and 1.
+   * <p>
+   * The intensity replaces the {@link #rumble(HapticPattern) pattern} that the device is playing, so the pattern does not
+   * overwrite it on its next update. The {@link HapticScheduler.Playback playback} of the replaced pattern is done
+   * afterward, and stopping it does not stop the rumble anymore.
+   * </p>
    *
    * @param intensity The intensity values for the rumble.
    *                  <ul>
@@ -358,17 +849,69 @@ public final class InputDevice implements Closeable {
       return;
     }
 
-    if (intensity != null) {
-      for (float f : intensity) {
-        if (f < 0 || f > 1) {
-          throw new IllegalArgumentException("Rumble intensity must be between 0 and 1, got: " + f);
-        }
-      }
+    checkRumbleIntensity(intensity);
+    HapticScheduler.release(this);
+    this.rumbleCallback.accept(this, intensity);
+  }
+
+  /**
+   * Sets the rumble intensity on behalf of the {@link HapticScheduler}, without replacing the pattern that is playing.
+   */
+  void applyRumble(float... intensity) {
+    if (this.rumbleCallback == null) {
+      return;
     }
 
+    checkRumbleIntensity(intensity);
     this.rumbleCallback.accept(this, intensity);
   }
 
+  private static void checkRumbleIntensity(float[] intensity) {
+    if (intensity == null) {
+      return;
+    }
+
+    for (float f : intensity) {
+      if (f < 0 || f > 1) {
+        throw new IllegalArgumentException("Rumble intensity must be between 0 and 1, got: " + f);
+      }
+    }
+  }
+
+  /**
+   * Plays a rumble pattern on the input device instead of the pattern that it is currently playing.
+   * The pattern is played by the shared {@link HapticScheduler}, so the application doesn't need to update the
+   * rumble intensity itself.
+   *
+   * @param pattern the pattern to play
+   * @return the playback of the pattern, which can be used to stop it
+   */
+  public HapticScheduler.Playback rumble(HapticPattern pattern) {
+    return HapticScheduler.getDefault().play(this, pattern);
+  }
+
+  /**
+   * Sets the function that plays a rumble pattern natively, e.g. as a force feedback effect of the operating system.
+   * This is meant to be called by plugins that support playing (some) patterns without updating the rumble intensity.
+   *
+   * @param hapticCallback the function that returns true if it plays the pattern, or false if the
+   *                       {@link HapticScheduler} needs to play it
+   */
+  public void setHapticCallback(BiPredicate<InputDevice, HapticPattern> hapticCallback) {
+    this.hapticCallback = hapticCallback;
+  }
+
+  /**
+   * Plays a rumble pattern with the haptic callback of the plugin, if it supports the pattern.
+   *
+   * @param pattern the pattern to play
+   * @return true if the pattern is played natively; otherwise false
+   */
+  boolean playNatively(HapticPattern pattern) {
+    var callback = this.hapticCallback;
+    return callback != null && this.rumbleCallback != null && callback.test(this, pattern);
+  }
+
   /**
    * Sets the accuracy for component value changes.
    *
@@ -384,10 +927,19 @@ public final class InputDevice implements Closeable {
 
   @Override
   public void close() {
+    // dynamic IDs are owned by this device and would otherwise accumulate with every reconnect
+    for (var component : this.components) {
+      InputComponent.ID.release(component.getId());
+    }
+
     this.listeners.clear();
     this.buttonPressedListeners.clear();
     this.buttonReleasedListeners.clear();
+    this.axisChangedListeners.clear();
     this.componentIndex.clear();
+    this.updateListenerSlots();
+    this.frameListeners = new InputFrameListener[0];
+    HapticScheduler.release(this);
   }
 
   /**
@@ -413,6 +965,48 @@ public final class InputDevice implements Closeable {
     this.listeners.add(listener);
   }
 
+  /**
+   * Registers a listener to be notified once per poll about all components whose value changed.
+   * <p>
+   * Unlike {@link #onInputValueChanged(InputDeviceListener)}, the listener is called once with an {@link InputFrame}
+   * that describes all simultaneous changes, and notifying it does not allocate.
+   * </p>
+   *
+   * @param listener The listener to register.
+   */
+  public void onFrame(InputFrameListener listener) {
+    if (listener == null) {
+      return;
+    }
+
+    synchronized (this.listenerSlotLock) {
+      var currentListeners = this.frameListeners;
+      var newListeners = Arrays.copyOf(currentListeners, currentListeners.length + 1);
+      newListeners[currentListeners.length] = listener;
+      this.frameListeners = newListeners;
+    }
+  }
+
+  /**
+   * Removes a specific frame listener.
+   *
+   * @param listener The listener to remove.
+   */
+  public void removeFrameListener(InputFrameListener listener) {
+    synchronized (this.listenerSlotLock) {
+      var currentListeners = this.frameListeners;
+      for (int i = 0; i < currentListeners.length; i++) {
+        if (currentListeners[i].equals(listener)) {
+          var newListeners = new InputFrameListener[currentListeners.length - 1];
+          System.arraycopy(currentListeners, 0, newListeners, 0, i);
+          System.arraycopy(currentListeners, i + 1, newListeners, i, newListeners.length - i);
+          this.frameListeners = newListeners;
+          return;
+        }
+      }
+    }
+  }
+
   /**
    * Registers a listener to be notified when a button is pressed.
    *
@@ -433,16 +1027,29 @@ public final class InputDevice implements Closeable {
    * @return true if the listener was registered, otherwise false.
    */
   public boolean onButtonPressed(InputComponent.ID buttonId, Runnable runnable) {
-    if (runnable == null || this.getComponent(buttonId).isEmpty()) {
-      return false;
-    }
+    return runnable != null && this.onButtonPressed(buttonId, new RunnableButtonListener(runnable));
+  }
 
-    if (!this.buttonPressedListeners.containsKey(buttonId)) {
-      this.buttonPressedListeners.put(buttonId, new CopyOnWriteArrayList<>());
-    }
+  /**
+   * Registers a listener to be notified when a button is pressed.
+   *
+   * @param buttonId The ID of the button to listen to.
+   * @param listener The listener to register.
+   * @return true if the listener was registered, otherwise false.
+   */
+  public boolean onButtonPressed(int buttonId, ButtonListener listener) {
+    return this.onButtonPressed(InputComponent.ID.getButton(buttonId), listener);
+  }
 
-    this.buttonPressedListeners.get(buttonId).add(runnable);
-    return true;
+  /**
+   * Registers a listener to be notified when a button is pressed.
+   *
+   * @param buttonId The ID of the button to listen to.
+   * @param listener The listener to register.
+   * @return true if the listener was registered, otherwise false.
+   */
+  public boolean onButtonPressed(InputComponent.ID buttonId, ButtonListener listener) {
+    return this.addListener(this.buttonPressedListeners, buttonId, listener);
   }
 
   /**
@@ -464,16 +1071,29 @@ public final class InputDevice implements Closeable {
    * @return true if the listener was registered, otherwise false.
    */
   public boolean onButtonReleased(InputComponent.ID buttonId, Runnable runnable) {
-    if (runnable == null || this.getComponent(buttonId).isEmpty()) {
-      return false;
-    }
+    return runnable != null && this.onButtonReleased(buttonId, new RunnableButtonListener(runnable));
+  }
 
-    if (!this.buttonReleasedListeners.containsKey(buttonId)) {
-      this.buttonReleasedListeners.put(buttonId, new CopyOnWriteArrayList<>());
-    }
+  /**
+   * Registers a listener to be notified when a button is released.
+   *
+   * @param buttonId The ID of the button to listen to.
+   * @param listener The listener to register.
+   * @return true if the listener was registered, otherwise false.
+   */
+  public boolean onButtonReleased(int buttonId, ButtonListener listener) {
+    return this.onButtonReleased(InputComponent.ID.getButton(buttonId), listener);
+  }
 
-    this.buttonReleasedListeners.get(buttonId).add(runnable);
-    return true;
+  /**
+   * Registers a listener to be notified when a button is released.
+   *
+   * @param buttonId The ID of the button to listen to.
+   * @param listener The listener to register.
+   * @return true if the listener was registered, otherwise false.
+   */
+  public boolean onButtonReleased(InputComponent.ID buttonId, ButtonListener listener) {
+    return this.addListener(this.buttonReleasedListeners, buttonId, listener);
   }
 
   /**
@@ -491,7 +1111,7 @@ public final class InputDevice implements Closeable {
    * @param buttonId The ID of the button to clear listeners for.
    */
   public void clearButtonPressedListeners(InputComponent.ID buttonId) {
-    this.buttonPressedListeners.remove(buttonId);
+    this.clearListeners(this.buttonPressedListeners, buttonId);
   }
 
   /**
@@ -500,7 +1120,7 @@ public final class InputDevice implements Closeable {
    * @param buttonId The ID of the button to clear listeners for.
    */
   public void clearButtonReleasedListeners(int buttonId) {
-    this.clearButtonPressedListeners(InputComponent.ID.getButton(buttonId));
+    this.clearButtonReleasedListeners(InputComponent.ID.getButton(buttonId));
   }
 
   /**
@@ -509,7 +1129,7 @@ public final class InputDevice implements Closeable {
    * @param buttonId The ID of the button to clear listeners for.
    */
   public void clearButtonReleasedListeners(InputComponent.ID buttonId) {
-    this.buttonReleasedListeners.remove(buttonId);
+    this.clearListeners(this.buttonReleasedListeners, buttonId);
   }
 
   /**
@@ -518,9 +1138,16 @@ public final class InputDevice implements Closeable {
    * @param runnable The listener to remove.
    */
   public void removeButtonPressedListener(Runnable runnable) {
-    for (var entry : this.buttonPressedListeners.entrySet()) {
-      entry.getValue().remove(runnable);
-    }
+    this.removeListener(this.buttonPressedListeners, new RunnableButtonListener(runnable));
+  }
+
+  /**
+   * Removes a specific button pressed listener.
+   *
+   * @param listener The listener to remove.
+   */
+  public void removeButtonPressedListener(ButtonListener listener) {
+    this.removeListener(this.buttonPressedListeners, listener);
   }
 
   /**
@@ -529,9 +1156,16 @@ public final class InputDevice implements Closeable {
    * @param runnable The listener to remove.
    */
   public void removeButtonReleasedListener(Runnable runnable) {
-    for (var entry : this.buttonReleasedListeners.entrySet()) {
-      entry.getValue().remove(runnable);
-    }
+    this.removeListener(this.buttonReleasedListeners, new RunnableButtonListener(runnable));
+  }
+
+  /**
+   * Removes a specific button released listener.
+   *
+   * @param listener The listener to remove.
+   */
+  public void removeButtonReleasedListener(ButtonListener listener) {
+    this.removeListener(this.buttonReleasedListeners, listener);
   }
 
   /**
@@ -547,22 +1181,39 @@ public final class InputDevice implements Closeable {
 
   /**
    * Registers a listener to be notified when an axis value changes.
+   * <p>
+   * The value is boxed for every change. Use {@link #onAxisChanged(InputComponent.ID, AxisListener)} for axes that
+   * change frequently.
+   * </p>
    *
    * @param axis     The ID of the axis to listen to.
    * @param runnable The listener to register.
    * @return true if the listener was registered, otherwise false.
    */
   public boolean onAxisChanged(InputComponent.ID axis, Consumer<Float> runnable) {
-    if (runnable == null || this.getComponent(axis).isEmpty()) {
-      return false;
-    }
+    return runnable != null && this.onAxisChanged(axis, new ConsumerAxisListener(runnable));
+  }
 
-    if (!this.axisChangedListeners.containsKey(axis)) {
-      this.axisChangedListeners.put(axis, new CopyOnWriteArrayList<>());
-    }
+  /**
+   * Registers a listener to be notified when an axis value changes.
+   *
+   * @param axisId   The ID of the axis to listen to.
+   * @param listener The listener to register.
+   * @return true if the listener was registered, otherwise false.
+   */
+  public boolean onAxisChanged(int axisId, AxisListener listener) {
+    return this.onAxisChanged(InputComponent.ID.getAxis(axisId), listener);
+  }
 
-    this.axisChangedListeners.get(axis).add(runnable);
-    return true;
+  /**
+   * Registers a listener to be notified when an axis value changes.
+   *
+   * @param axis     The ID of the axis to listen to.
+   * @param listener The listener to register.
+   * @return true if the listener was registered, otherwise false.
+   */
+  public boolean onAxisChanged(InputComponent.ID axis, AxisListener listener) {
+    return this.addListener(this.axisChangedListeners, axis, listener);
   }
 
   /**
@@ -580,7 +1231,7 @@ public final class InputDevice implements Closeable {
    * @param axisId The ID of the axis to clear listeners for.
    */
   public void clearAxisChangedListeners(InputComponent.ID axisId) {
-    this.axisChangedListeners.remove(axisId);
+    this.clearListeners(this.axisChangedListeners, axisId);
   }
 
   /**
@@ -589,8 +1240,64 @@ public final class InputDevice implements Closeable {
    * @param runnable The listener to remove.
    */
   public void removeAxisChangedListener(Consumer<Float> runnable) {
-    for (var entry : this.axisChangedListeners.entrySet()) {
-      entry.getValue().remove(runnable);
+    this.removeListener(this.axisChangedListeners, new ConsumerAxisListener(runnable));
+  }
+
+  /**
+   * Removes a specific axis changed listener.
+   *
+   * @param listener The listener to remove.
+   */
+  public void removeAxisChangedListener(AxisListener listener) {
+    this.removeListener(this.axisChangedListeners, listener);
+  }
+
+  private <T> boolean addListener(Map<InputComponent.ID, Collection<T>> listenerMap, InputComponent.ID id, T listener) {
+    if (listener == null || this.getComponent(id).isEmpty()) {
+      return false;
+    }
+
+    listenerMap.computeIfAbsent(id, _ -> new CopyOnWriteArrayList<>()).add(listener);
+    this.updateListenerSlots();
+    return true;
+  }
+
+  private <T> void clearListeners(Map<InputComponent.ID, Collection<T>> listenerMap, InputComponent.ID id) {
+    if (id != null && listenerMap.remove(id) != null) {
+      this.updateListenerSlots();
+    }
+  }
+
+  private <T> void removeListener(Map<InputComponent.ID, Collection<T>> listenerMap, T listener) {
+    var removed = false;
+    for (var entry : listenerMap.entrySet()) {
+      removed |= entry.getValue().remove(listener);
+    }
+
+    if (removed) {
+      this.updateListenerSlots();
+    }
+  }
+
+  /**
+   * Adapts the {@link Runnable} based button API onto {@link ButtonListener}.
+   * Being a record, two adapters of the same runnable are equal, which allows removing them by the runnable.
+   */
+  private record RunnableButtonListener(Runnable runnable) implements ButtonListener {
+    @Override
+    public void onButton(InputComponent component) {
+      this.runnable.run();
+    }
+  }
+
+  /**
+   * Adapts the boxing {@code Consumer<Float>} based axis API onto {@link AxisListener}.
+   * Being a record, two adapters of the same consumer are equal, which allows removing them by the consumer.
+   */
+  private record ConsumerAxisListener(Consumer<Float> consumer) implements AxisListener {
+    @Override
+    public void onAxis(InputComponent component, float value) {
+      this.consumer.accept(value);
     }
   }
 }
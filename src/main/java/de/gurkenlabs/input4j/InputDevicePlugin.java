@@ -3,6 +3,8 @@ package de.gurkenlabs.input4j;
 import java.awt.*;
 import java.io.Closeable;
 import java.util.Collection;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -47,9 +49,11 @@ public interface InputDevicePlugin extends Closeable {
    * This can happen when a new device is connected or an existing device is disconnected.
    * <p>
    *   This is useful for updating the UI or other parts of the application that depend on the list of input devices.
-   *   The listener will be called on the same thread that called the {@link InputDevice#poll()} method.
+   *   The listener is not called on the thread that polls the devices, but on the configured
+   *   {@link InputDevices.DefaultInputConfiguration#getHotPlugExecutor() hot-plug executor}, or on the thread that detected the change if there is none.
    *   <p>
-   *   The list of input devices is refreshed periodically based on the {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval()} setting.
+   *   The list of input devices is refreshed in the background based on the {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval()} setting,
+   *   unless the plugin is notified about changes by the operating system.
    * </p>
    *
    * @param listener The listener to register.
@@ -63,9 +67,11 @@ public interface InputDevicePlugin extends Closeable {
    * This can happen when a new device is plugged in or when a device that was previously disconnected is reconnected.
    * <p>
    *   This is useful for updating the UI or other parts of the application that depend on the list of input devices.
-   *   The listener will be called on the same thread that called the {@link InputDevice#poll()} method.
+   *   The listener is not called on the thread that polls the devices, but on the configured
+   *   {@link InputDevices.DefaultInputConfiguration#getHotPlugExecutor() hot-plug executor}, or on the thread that detected the change if there is none.
    *   <p>
-   *   The list of input devices is refreshed periodically based on the {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval()} setting.
+   *   The list of input devices is refreshed in the background based on the {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval()} setting,
+   *   unless the plugin is notified about changes by the operating system.
    * </p>
    *
    * @param listener The listener to register.
@@ -79,12 +85,58 @@ public interface InputDevicePlugin extends Closeable {
    * This can happen when a device is unplugged or when a device that was previously connected is disconnected.
    * <p>
    *   This is useful for updating the UI or other parts of the application that depend on the list of input devices.
-   *   The listener will be called on the same thread that called the {@link InputDevice#poll()} method.
+   *   The listener is not called on the thread that polls the devices, but on the configured
+   *   {@link InputDevices.DefaultInputConfiguration#getHotPlugExecutor() hot-plug executor}, or on the thread that detected the change if there is none.
    *   <p>
-   *   The list of input devices is refreshed periodically based on the {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval()} setting.
+   *   The list of input devices is refreshed in the background based on the {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval()} setting,
+   *   unless the plugin is notified about changes by the operating system.
    * </p>
    *
    * @param listener The listener to register.
    */
   void onDeviceDisconnected(Consumer<InputDevice> listener);
+
+  /**
+   * Registers a listener to be notified when the battery state of an input device changes.
+   * <p>
+   * Plugins that support this event keep the battery state of their devices up to date in the background,
+   * so {@link InputDevice#getBatteryInfo()} returns the last known state without querying the device. The listener receives
+   * the device and its new battery state, which is null if the battery is no longer available.
+   * <p>
+   *   The listener is called on the configured
+   *   {@link InputDevices.DefaultInputConfiguration#getHotPlugExecutor() hot-plug executor}, or on the thread that detected the change if there is none.
+   *   Currently, only the Linux plugin reports battery changes; all other plugins never call the listener.
+   * </p>
+   *
+   * @param listener The listener to register.
+   * @see InputDevices.DefaultInputConfiguration#getBatteryRefreshInterval()
+   */
+  default void onBatteryChanged(BiConsumer<InputDevice, BatteryInfo> listener) {
+  }
+
+  /**
+   * Starts polling all input devices of this plugin at a fixed rate on a daemon platform thread.
+   *
+   * @param rate The number of polls per second.
+   * @return The started scheduler, which can be used to pause, resume or stop polling.
+   * @see #startPolling(double, ThreadFactory)
+   */
+  default InputPollingScheduler startPolling(double rate) {
+    return this.startPolling(rate, InputPollingScheduler.platformThreads());
+  }
+
+  /**
+   * Starts polling all input devices of this plugin at a fixed rate.
+   * <p>
+   * This replaces a hand-written poll loop of the application. The listeners of the devices are called on the polling thread,
+   * which is created by the specified thread factory (e.g. {@link InputPollingScheduler#virtualThreads()}).
+   * </p>
+   *
+   * @param rate          The number of polls per second.
+   * @param threadFactory The factory that creates the polling thread.
+   * @return The started scheduler, which can be used to pause, resume or stop polling.
+   */
+  default InputPollingScheduler startPolling(double rate, ThreadFactory threadFactory) {
+    return InputPollingScheduler.start(this, rate, threadFactory);
+  }
 }
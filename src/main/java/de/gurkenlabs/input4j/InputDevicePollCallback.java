@@ -0,0 +1,28 @@
+package de.gurkenlabs.input4j;
+
+/**
+ * The {@code InputDevicePollCallback} interface is implemented by input device plugins to provide
+ * the current state of an {@link InputDevice} when it is polled.
+ * <p>
+ * Instead of returning a new array on every poll, the plugin writes the component values into a buffer that
+ * is owned and reused by the {@link InputDevice}. This keeps the steady-state poll path free of allocations.
+ * </p>
+ * <p>
+ * The buffer has exactly one slot per component of the device (in the order of {@link InputDevice#getComponents()})
+ * and is cleared to {@code 0} before each invocation.
+ * </p>
+ *
+ * @see InputDevice#poll()
+ */
+@FunctionalInterface
+public interface InputDevicePollCallback {
+  /**
+   * Writes the current values of the components of the specified input device into the provided buffer.
+   *
+   * @param inputDevice the input device that is being polled
+   * @param values      the reusable buffer to write the component values to
+   * @return the number of values that were written to the buffer, starting at index 0.
+   * Components beyond this count keep their current state, so returning {@code 0} signals that no data was available.
+   */
+  int poll(InputDevice inputDevice, float[] values);
+}
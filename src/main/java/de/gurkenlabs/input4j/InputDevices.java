@@ -2,6 +2,8 @@ package de.gurkenlabs.input4j;
 
 import java.awt.*;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -152,7 +154,15 @@ public final class InputDevices {
      * The IOKIT library for macOS.
      * This library provides support for game controllers on macOS.
      */
-    MACOS_IOKIT;
+    MACOS_IOKIT,
+
+    /**
+     * Virtual devices that generate input at a configurable rate without any hardware attached,
+     * e.g. for load tests and benchmarks.
+     *
+     * @see de.gurkenlabs.input4j.synthetic.SyntheticInputDevicePlugin#configure()
+     */
+    SYNTHETIC;
 
     /**
      * Gets the plugin class name for the specified library.
@@ -166,6 +176,7 @@ public final class InputDevices {
         case WIN_XINPUT -> "de.gurkenlabs.input4j.foreign.windows.xinput.XInputPlugin";
         case LINUX_INPUT -> "de.gurkenlabs.input4j.foreign.linux.LinuxEventDevicePlugin";
         case MACOS_IOKIT -> "de.gurkenlabs.input4j.foreign.macos.iokit.IOKitPlugin";
+        case SYNTHETIC -> "de.gurkenlabs.input4j.synthetic.SyntheticInputDevicePlugin";
       };
     }
 
@@ -193,13 +204,24 @@ public final class InputDevices {
 
     private static final int DEFAULT_HOTPLUG_INTERVAL = 3000;
 
+    private static final int DEFAULT_BATTERY_REFRESH_INTERVAL = 10000;
+
     private int accuracy;
 
     private int hotplugInterval;
 
+    private boolean eventDriven;
+
+    private Executor hotPlugExecutor;
+
+    private Path capabilityCacheFile;
+
+    private int batteryRefreshInterval;
+
     private DefaultInputConfiguration() {
       this.accuracy = DEFAULT_ACCURACY;
       this.hotplugInterval = DEFAULT_HOTPLUG_INTERVAL;
+      this.batteryRefreshInterval = DEFAULT_BATTERY_REFRESH_INTERVAL;
     }
 
     /**
@@ -253,5 +275,111 @@ public final class InputDevices {
     public void setHotPlugInterval(int hotplugInterval) {
       this.hotplugInterval = hotplugInterval;
     }
+
+    /**
+     * Gets whether plugins should read device input as soon as it arrives instead of when the devices are polled.
+     * <p>
+     * In this mode, a dedicated thread waits for pending input of all devices and keeps their state up to date,
+     * so {@link InputDevice#poll()} only reads the current state. This avoids querying devices that have no new data
+     * and reduces the latency between the input and the next poll.
+     * </p>
+     * <p>
+     * Currently, only the Linux plugin supports this mode; all other plugins ignore this setting. By default, it is disabled.
+     * </p>
+     *
+     * @return true if the input should be read as soon as it arrives; otherwise false.
+     */
+    public boolean isEventDriven() {
+      return eventDriven;
+    }
+
+    /**
+     * Sets whether plugins should read device input as soon as it arrives instead of when the devices are polled.
+     *
+     * @param eventDriven true to read input as soon as it arrives; false to read it when the devices are polled.
+     * @see #isEventDriven()
+     */
+    public void setEventDriven(boolean eventDriven) {
+      this.eventDriven = eventDriven;
+    }
+
+    /**
+     * Gets the executor that plugins call their connect and disconnect listeners on.
+     * <p>
+     * By default, it is not set, so the listeners are called on the thread that detected the change
+     * (e.g. the hot-plug scanner of the plugin), but never on the thread that polls the devices.
+     * </p>
+     *
+     * @return The executor, or null if the listeners are called on the thread that detected the change.
+     * @see AbstractInputDevicePlugin#setHotPlugExecutor(Executor)
+     */
+    public Executor getHotPlugExecutor() {
+      return hotPlugExecutor;
+    }
+
+    /**
+     * Sets the executor that plugins call their connect and disconnect listeners on, e.g. to hand them over to a UI thread.
+     * This only affects plugins that are initialized afterward.
+     *
+     * @param hotPlugExecutor The executor, or null to call the listeners on the thread that detected the change.
+     */
+    public void setHotPlugExecutor(Executor hotPlugExecutor) {
+      this.hotPlugExecutor = hotPlugExecutor;
+    }
+
+    /**
+     * Gets the file that caches the capabilities of known device models across processes.
+     * <p>
+     * With the cache, devices that have been seen before are set up without querying each of their keys and axes,
+     * which makes initializing the devices faster for short-lived processes. The cached capabilities are validated against
+     * the connected devices, and the file is created or updated when new devices are found.
+     * </p>
+     * <p>
+     * Currently, only the Linux plugin supports this cache; all other plugins ignore this setting. By default, it is not set.
+     * </p>
+     *
+     * @return The cache file, or null if the capabilities of all devices are queried on every initialization.
+     */
+    public Path getCapabilityCacheFile() {
+      return capabilityCacheFile;
+    }
+
+    /**
+     * Sets the file that caches the capabilities of known device models across processes.
+     *
+     * @param capabilityCacheFile The cache file, or null to disable the cache.
+     * @see #getCapabilityCacheFile()
+     */
+    public void setCapabilityCacheFile(Path capabilityCacheFile) {
+      this.capabilityCacheFile = capabilityCacheFile;
+    }
+
+    /**
+     * Gets the interval in milliseconds for refreshing the battery state of the devices in the background.
+     * <p>
+     * Between two refreshes, {@link InputDevice#getBatteryInfo()} returns the last known state without querying the device,
+     * so it can be called every frame. Changes are reported to the {@link InputDevicePlugin#onBatteryChanged battery listeners}.
+     * </p>
+     * <p>
+     * Currently, only the Linux plugin refreshes the battery state in the background; all other plugins ignore this setting.
+     * By default, it is set to {@value #DEFAULT_BATTERY_REFRESH_INTERVAL} milliseconds.
+     * </p>
+     *
+     * @return The battery refresh interval in milliseconds.
+     */
+    public int getBatteryRefreshInterval() {
+      return batteryRefreshInterval;
+    }
+
+    /**
+     * Sets the interval in milliseconds for refreshing the battery state of the devices in the background.
+     * This only affects plugins that are initialized afterward.
+     *
+     * @param batteryRefreshInterval The battery refresh interval in milliseconds.
+     * @see #getBatteryRefreshInterval()
+     */
+    public void setBatteryRefreshInterval(int batteryRefreshInterval) {
+      this.batteryRefreshInterval = batteryRefreshInterval;
+    }
   }
 }
@@ -0,0 +1,242 @@
+package de.gurkenlabs.input4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code InputFrame} class describes all component changes of an {@link InputDevice} that resulted from a single poll.
+ * <p>
+ * It holds the old and new value of every component slot (in the order of {@link InputDevice#getComponents()})
+ * and a bitmask of the slots that changed, so listeners get one consistent view of all simultaneous changes
+ * instead of one event per component.
+ * </p>
+ * <p>
+ * A button that was pressed and released again between two polls has the same old and new value, but it still
+ * counts as changed; its {@link #getPressCount(int) press} and {@link #getReleaseCount(int) release} counts
+ * tell how often it toggled.
+ * </p>
+ * <p>
+ * The frame is owned by its device and reused for every poll, so it must not be retained or accessed
+ * outside of {@link InputFrameListener#onFrame(InputFrame)}.
+ * </p>
+ * <pre>{@code
+ * device.onFrame(frame -> {
+ *   for (int slot = frame.nextChanged(0); slot >= 0; slot = frame.nextChanged(slot + 1)) {
+ *     System.out.println(frame.getComponent(slot) + ": " + frame.getOldValue(slot) + " -> " + frame.getNewValue(slot));
+ *   }
+ * });
+ * }</pre>
+ *
+ * @see InputDevice#onFrame(InputFrameListener)
+ */
+public final class InputFrame {
+  private final InputDevice device;
+  private List<InputComponent> components = List.of();
+  private long[] changedMask = new long[0];
+  private float[] oldValues = new float[0];
+  private float[] newValues = new float[0];
+  private long[] timestamps = new long[0];
+  private int[] pressCounts = new int[0];
+  private int[] releaseCounts = new int[0];
+  private long timestamp;
+  private int size;
+  private int changedCount;
+
+  InputFrame(InputDevice device) {
+    this.device = device;
+  }
+
+  /**
+   * Gets the device that was polled.
+   *
+   * @return the input device of this frame
+   */
+  public InputDevice getDevice() {
+    return this.device;
+  }
+
+  /**
+   * Gets the time at which the device was polled.
+   *
+   * @return the time of the poll in the time base of {@link System#nanoTime()}
+   */
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  /**
+   * Gets the number of component slots in this frame.
+   *
+   * @return the number of components of the device at the time of the poll
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the number of components that changed during the poll, including buttons that were pressed and released
+   * again between two polls.
+   *
+   * @return the number of changed components
+   */
+  public int getChangedCount() {
+    return this.changedCount;
+  }
+
+  /**
+   * Checks if the value of the component at the specified slot changed during the poll or if the button at the
+   * specified slot was pressed or released during the poll.
+   *
+   * @param slot the component slot
+   * @return true if the component changed, otherwise false
+   */
+  public boolean isChanged(int slot) {
+    checkSlot(slot);
+    return (this.changedMask[slot >>> 6] & (1L << slot)) != 0;
+  }
+
+  /**
+   * Finds the next changed slot, starting at the specified slot (inclusive).
+   *
+   * @param fromSlot the slot to start searching from
+   * @return the next changed slot, or -1 if there is none
+   */
+  public int nextChanged(int fromSlot) {
+    if (fromSlot < 0) {
+      fromSlot = 0;
+    }
+
+    if (fromSlot >= this.size) {
+      return -1;
+    }
+
+    int word = fromSlot >>> 6;
+    long bits = this.changedMask[word] & (-1L << fromSlot);
+    while (bits == 0) {
+      if (++word >= this.changedMask.length) {
+        return -1;
+      }
+
+      bits = this.changedMask[word];
+    }
+
+    int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+    return slot < this.size ? slot : -1;
+  }
+
+  /**
+   * Gets the component at the specified slot.
+   *
+   * @param slot the component slot
+   * @return the component
+   */
+  public InputComponent getComponent(int slot) {
+    checkSlot(slot);
+    return this.components.get(slot);
+  }
+
+  /**
+   * Gets the value of the component at the specified slot before the poll.
+   *
+   * @param slot the component slot
+   * @return the old value
+   */
+  public float getOldValue(int slot) {
+    checkSlot(slot);
+    return this.oldValues[slot];
+  }
+
+  /**
+   * Gets the value of the component at the specified slot after the poll.
+   *
+   * @param slot the component slot
+   * @return the new value
+   */
+  public float getNewValue(int slot) {
+    checkSlot(slot);
+    return this.newValues[slot];
+  }
+
+  /**
+   * Gets how often the button at the specified slot went from released to pressed since the previous poll.
+   * <p>
+   * Unlike the old and new value, this also counts presses that were released again before the poll.
+   * </p>
+   *
+   * @param slot the component slot
+   * @return the number of presses, which is always 0 for components that are not buttons
+   */
+  public int getPressCount(int slot) {
+    checkSlot(slot);
+    return this.pressCounts[slot];
+  }
+
+  /**
+   * Gets how often the button at the specified slot went from pressed to released since the previous poll.
+   *
+   * @param slot the component slot
+   * @return the number of releases, which is always 0 for components that are not buttons
+   * @see #getPressCount(int)
+   */
+  public int getReleaseCount(int slot) {
+    checkSlot(slot);
+    return this.releaseCounts[slot];
+  }
+
+  /**
+   * Gets the time at which the component at the specified slot changed.
+   * <p>
+   * This is the time of the native event if the plugin provides it (e.g. the kernel timestamp of Linux evdev events),
+   * otherwise the time of the poll. For components that did not change, this is always the time of the poll.
+   * A button that toggled several times within one poll has a single timestamp, which is the time of its last event.
+   * </p>
+   *
+   * @param slot the component slot
+   * @return the time of the change in the time base of {@link System#nanoTime()}
+   */
+  public long getTimestamp(int slot) {
+    checkSlot(slot);
+    return this.timestamps[slot];
+  }
+
+  /**
+   * Prepares the frame for a new poll of the specified components. The buffers are only reallocated when the
+   * number of components grows.
+   */
+  void begin(List<InputComponent> components, long pollTimestamp) {
+    int newSize = components.size();
+    if (this.oldValues.length < newSize) {
+      this.oldValues = new float[newSize];
+      this.newValues = new float[newSize];
+      this.timestamps = new long[newSize];
+      this.pressCounts = new int[newSize];
+      this.releaseCounts = new int[newSize];
+      this.changedMask = new long[(newSize + 63) >>> 6];
+    } else {
+      Arrays.fill(this.changedMask, 0);
+    }
+
+    this.components = components;
+    this.timestamp = pollTimestamp;
+    this.size = newSize;
+    this.changedCount = 0;
+  }
+
+  void set(int slot, float oldValue, float newValue, long timestamp, int presses, int releases) {
+    this.oldValues[slot] = oldValue;
+    this.newValues[slot] = newValue;
+    this.timestamps[slot] = timestamp;
+    this.pressCounts[slot] = presses;
+    this.releaseCounts[slot] = releases;
+    if (oldValue != newValue || presses != 0 || releases != 0) {
+      this.changedMask[slot >>> 6] |= 1L << slot;
+      this.changedCount++;
+    }
+  }
+
+  private void checkSlot(int slot) {
+    if (slot < 0 || slot >= this.size) {
+      throw new IndexOutOfBoundsException("Slot " + slot + " is out of bounds for a frame of " + this.size + " components");
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package de.gurkenlabs.input4j;
+
+import java.util.EventListener;
+
+/**
+ * The {@code InputFrameListener} interface should be implemented by any class that wants to be notified once per poll
+ * about all component changes of an {@link InputDevice}, rather than once per changed component.
+ * <p>
+ * This is a functional interface and can therefore be used as the assignment target for a lambda expression
+ * or method reference.
+ * </p>
+ *
+ * @see InputDevice#onFrame(InputFrameListener)
+ */
+@FunctionalInterface
+public interface InputFrameListener extends EventListener {
+  /**
+   * Invoked after a poll that changed the value of at least one component.
+   *
+   * @param frame the reused frame that describes the changes; it is only valid during this call
+   */
+  void onFrame(InputFrame frame);
+}
@@ -0,0 +1,22 @@
+package de.gurkenlabs.input4j;
+
+/**
+ * Describes the time between the occurrence of native input events and their dispatch to the listeners of an {@link InputDevice}.
+ * <p>
+ * Only changes whose native event time is known are measured (see {@link InputDevice#reportTimestamp(int, long)}), so for
+ * plugins that don't provide event timestamps, there are no samples.
+ * </p>
+ *
+ * @param samples      the number of measured changes
+ * @param lastNanos    the latency of the most recently measured change in nanoseconds
+ * @param minNanos     the smallest measured latency in nanoseconds
+ * @param maxNanos     the largest measured latency in nanoseconds
+ * @param averageNanos the average of all measured latencies in nanoseconds
+ * @see InputDevice#getLatency()
+ */
+public record InputLatency(long samples, long lastNanos, long minNanos, long maxNanos, long averageNanos) {
+  /**
+   * The latency of a device without any measured changes.
+   */
+  public static final InputLatency NONE = new InputLatency(0, 0, 0, 0, 0);
+}
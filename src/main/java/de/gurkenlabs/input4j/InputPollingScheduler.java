@@ -0,0 +1,250 @@
+package de.gurkenlabs.input4j;
+
+import java.io.Closeable;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Polls all input devices of an {@link InputDevicePlugin} at a fixed rate on a dedicated thread.
+ * <p>
+ * The scheduler sleeps with {@link LockSupport#parkNanos(long)} until an absolute deadline, so the time spent polling
+ * does not add up to a drift of the rate. If polling takes longer than the period, the missed polls are skipped
+ * (and counted as overruns) instead of being executed in a burst to catch up.
+ * </p>
+ * <p>
+ * The polling thread is created by the provided {@link ThreadFactory}, so the scheduler can run on a platform thread
+ * (see {@link #platformThreads()}) or a virtual thread (see {@link #virtualThreads()}).
+ * Listeners of the devices are called on the polling thread.
+ * </p>
+ *
+ * @see InputDevicePlugin#startPolling(double, ThreadFactory)
+ */
+public final class InputPollingScheduler implements Closeable {
+  private static final Logger log = Logger.getLogger(InputPollingScheduler.class.getName());
+  private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+  private final InputDevicePlugin plugin;
+  private final double rate;
+  private final long periodNanos;
+  private final LongSupplier nanoClock;
+  private final LongConsumer parker;
+  private final Thread thread;
+
+  private volatile boolean running = true;
+  private volatile boolean paused;
+  private volatile double achievedRate;
+  private volatile long pollCount;
+  private volatile long overrunCount;
+
+  private InputPollingScheduler(InputDevicePlugin plugin, double rate, ThreadFactory threadFactory, LongSupplier nanoClock, LongConsumer parker) {
+    this.plugin = plugin;
+    this.rate = rate;
+    this.periodNanos = Math.max(1, Math.round(1_000_000_000d / rate));
+    this.nanoClock = nanoClock;
+    this.parker = parker != null ? parker : nanos -> LockSupport.parkNanos(this, nanos);
+    this.thread = threadFactory.newThread(this::run);
+    if (this.thread == null) {
+      throw new IllegalArgumentException("The thread factory did not provide a thread.");
+    }
+  }
+
+  /**
+   * Starts polling all devices of the specified plugin at the specified rate.
+   *
+   * @param plugin        the plugin whose devices are polled
+   * @param rate          the number of polls per second
+   * @param threadFactory the factory that creates the polling thread
+   * @return the started scheduler
+   */
+  public static InputPollingScheduler start(InputDevicePlugin plugin, double rate, ThreadFactory threadFactory) {
+    return start(plugin, rate, threadFactory, System::nanoTime, null);
+  }
+
+  /**
+   * Starts polling all devices of the specified plugin at the specified rate, measured by the specified clock.
+   *
+   * @param plugin        the plugin whose devices are polled
+   * @param rate          the number of polls per second
+   * @param threadFactory the factory that creates the polling thread
+   * @param nanoClock     the clock that measures the time between the polls in nanoseconds
+   * @param parker        waits for the specified number of nanoseconds of the clock until the next poll, or null to park the thread
+   * @return the started scheduler
+   */
+  static InputPollingScheduler start(InputDevicePlugin plugin, double rate, ThreadFactory threadFactory, LongSupplier nanoClock, LongConsumer parker) {
+    if (plugin == null || threadFactory == null) {
+      throw new IllegalArgumentException("The plugin and the thread factory must not be null.");
+    }
+
+    if (!(rate > 0) || Double.isInfinite(rate)) {
+      throw new IllegalArgumentException("The polling rate must be a positive number, got: " + rate);
+    }
+
+    var scheduler = new InputPollingScheduler(plugin, rate, threadFactory, nanoClock, parker);
+    scheduler.thread.start();
+    return scheduler;
+  }
+
+  /**
+   * Creates a thread factory for polling on a named daemon platform thread.
+   *
+   * @return the thread factory
+   */
+  public static ThreadFactory platformThreads() {
+    return Thread.ofPlatform().name("input4j-polling-", 0).daemon().factory();
+  }
+
+  /**
+   * Creates a thread factory for polling on a named virtual thread.
+   *
+   * @return the thread factory
+   */
+  public static ThreadFactory virtualThreads() {
+    return Thread.ofVirtual().name("input4j-polling-", 0).factory();
+  }
+
+  /**
+   * Gets the rate that this scheduler was started with.
+   *
+   * @return the target number of polls per second
+   */
+  public double getRate() {
+    return this.rate;
+  }
+
+  /**
+   * Gets the rate that was actually achieved during the last second.
+   *
+   * @return the measured number of polls per second, or 0 if it has not been measured yet
+   */
+  public double getAchievedRate() {
+    return this.achievedRate;
+  }
+
+  /**
+   * Gets the number of times all devices were polled by this scheduler.
+   *
+   * @return the number of polls
+   */
+  public long getPollCount() {
+    return this.pollCount;
+  }
+
+  /**
+   * Gets the number of polls that were skipped because polling took longer than the period.
+   *
+   * @return the number of skipped polls
+   */
+  public long getOverrunCount() {
+    return this.overrunCount;
+  }
+
+  /**
+   * Pauses polling until {@link #resume()} is called.
+   */
+  public void pause() {
+    this.paused = true;
+  }
+
+  /**
+   * Resumes polling after it was paused. The next poll takes place immediately.
+   */
+  public void resume() {
+    this.paused = false;
+    LockSupport.unpark(this.thread);
+  }
+
+  /**
+   * Checks if polling is paused.
+   *
+   * @return true if the scheduler is paused, otherwise false
+   */
+  public boolean isPaused() {
+    return this.paused;
+  }
+
+  /**
+   * Checks if the scheduler is still running.
+   *
+   * @return true if the scheduler has not been closed, otherwise false
+   */
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Stops polling and waits for the current poll to complete.
+   */
+  @Override
+  public void close() {
+    this.running = false;
+    LockSupport.unpark(this.thread);
+    if (Thread.currentThread() != this.thread) {
+      try {
+        this.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void run() {
+    long deadline = this.nanoClock.getAsLong();
+    long windowStart = deadline;
+    long windowPolls = 0;
+
+    while (this.running) {
+      if (this.paused) {
+        LockSupport.park(this);
+        deadline = this.nanoClock.getAsLong();
+        windowStart = deadline;
+        windowPolls = 0;
+        this.achievedRate = 0;
+        continue;
+      }
+
+      long remaining = deadline - this.nanoClock.getAsLong();
+      if (remaining > 0) {
+        // parking can return early (unpark, spurious wake-up), so the deadline is checked again afterward
+        this.parker.accept(remaining);
+        continue;
+      }
+
+      this.pollDevices();
+      this.pollCount++;
+      windowPolls++;
+
+      long now = this.nanoClock.getAsLong();
+      deadline += this.periodNanos;
+      if (now - deadline >= this.periodNanos) {
+        long missed = (now - deadline) / this.periodNanos;
+        deadline += missed * this.periodNanos;
+        this.overrunCount += missed;
+      }
+
+      if (now - windowStart >= RATE_WINDOW_NANOS) {
+        this.achievedRate = windowPolls * 1_000_000_000d / (now - windowStart);
+        windowStart = now;
+        windowPolls = 0;
+      }
+    }
+  }
+
+  private void pollDevices() {
+    try {
+      for (var device : this.plugin.getAll()) {
+        try {
+          device.poll();
+        } catch (RuntimeException e) {
+          log.log(Level.SEVERE, "Polling " + device + " failed", e);
+        }
+      }
+    } catch (RuntimeException e) {
+      // e.g. the plugin has not been initialized yet; the scheduler keeps running and tries again next period
+      log.log(Level.SEVERE, e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package de.gurkenlabs.input4j;
+
+import java.util.List;
+
+/**
+ * The {@code InputSnapshot} class is a consistent copy of the component values of an {@link InputDevice}
+ * as they were at the end of a single poll.
+ * <p>
+ * Unlike reading {@link InputComponent#getData()} from another thread, a snapshot never contains values of
+ * different polls, so render or physics threads can use it while the input thread keeps polling.
+ * A snapshot cannot be modified through its public API; it only changes when it is passed back to
+ * {@link InputDevice#snapshot(InputSnapshot)} by its owner, which refreshes it without allocating.
+ * </p>
+ * <pre>{@code
+ * // render thread
+ * InputSnapshot snapshot = device.snapshot();
+ * while (running) {
+ *   snapshot = device.snapshot(snapshot);
+ *   render(snapshot.getValue(Axis.AXIS_X), snapshot.getValue(Axis.AXIS_Y));
+ * }
+ * }</pre>
+ *
+ * @see InputDevice#snapshot()
+ * @see InputDevice#snapshot(InputSnapshot)
+ */
+public final class InputSnapshot {
+  private final InputDevice device;
+  private List<InputComponent> components = List.of();
+  private float[] values = new float[0];
+  private int size;
+  private long sequence;
+  private long timestamp;
+
+  InputSnapshot(InputDevice device) {
+    this.device = device;
+  }
+
+  /**
+   * Gets the device that this snapshot was taken from.
+   *
+   * @return the input device
+   */
+  public InputDevice getDevice() {
+    return this.device;
+  }
+
+  /**
+   * Gets the number of the poll that this snapshot was taken after.
+   * The first poll of a device has the sequence 1, so a sequence of 0 means that the device has not been polled yet.
+   *
+   * @return the poll sequence number
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Gets the time at which the snapshot was published.
+   *
+   * @return the value of {@link System#nanoTime()} at the end of the poll
+   */
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  /**
+   * Gets the number of component slots in this snapshot.
+   *
+   * @return the number of components of the device at the time of the poll
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the component at the specified slot.
+   *
+   * @param slot the component slot (in the order of {@link InputDevice#getComponents()})
+   * @return the component
+   */
+  public InputComponent getComponent(int slot) {
+    checkSlot(slot);
+    return this.components.get(slot);
+  }
+
+  /**
+   * Gets the value of the component at the specified slot.
+   *
+   * @param slot the component slot (in the order of {@link InputDevice#getComponents()})
+   * @return the value of the component
+   */
+  public float getValue(int slot) {
+    checkSlot(slot);
+    return this.values[slot];
+  }
+
+  /**
+   * Gets the value of the component with the specified ID.
+   *
+   * @param id the ID of the component
+   * @return the value of the component, or 0 if the device has no such component
+   */
+  public float getValue(InputComponent.ID id) {
+    for (int i = 0; i < this.size; i++) {
+      if (this.components.get(i).getId().equals(id)) {
+        return this.values[i];
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * Copies the values of this snapshot into the specified array.
+   *
+   * @param target the array to copy to; it must provide at least {@link #size()} elements
+   * @return the target array
+   */
+  public float[] copyValues(float[] target) {
+    System.arraycopy(this.values, 0, target, 0, this.size);
+    return target;
+  }
+
+  /**
+   * Copies the state of the source into this snapshot, reusing the value buffer if it is large enough.
+   */
+  void copyFrom(List<InputComponent> sourceComponents, float[] sourceValues, int sourceSize, long sourceSequence, long sourceTimestamp) {
+    if (this.values.length < sourceSize) {
+      this.values = new float[sourceSize];
+    }
+
+    System.arraycopy(sourceValues, 0, this.values, 0, sourceSize);
+    this.components = sourceComponents;
+    this.size = sourceSize;
+    this.sequence = sourceSequence;
+    this.timestamp = sourceTimestamp;
+  }
+
+  private void checkSlot(int slot) {
+    if (slot < 0 || slot >= this.size) {
+      throw new IndexOutOfBoundsException("Slot " + slot + " is out of bounds for a snapshot of " + this.size + " components");
+    }
+  }
+}
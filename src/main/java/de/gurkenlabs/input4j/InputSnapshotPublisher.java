@@ -0,0 +1,96 @@
+package de.gurkenlabs.input4j;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Publishes the component values of an {@link InputDevice} at the end of every poll so that other threads
+ * can take {@link InputSnapshot snapshots} of them.
+ * <p>
+ * The values are double-buffered: the polling thread always writes the buffer that was not published last
+ * and then publishes it with a single volatile write. Readers copy the published buffer under an optimistic
+ * {@link StampedLock} read and only retry if the polling thread started rewriting that very buffer in the
+ * meantime (i.e. the reader was slower than a whole poll), so neither side ever blocks the other.
+ * </p>
+ */
+final class InputSnapshotPublisher {
+  private final Buffer[] buffers = {new Buffer(), new Buffer()};
+  private volatile Buffer published = buffers[0];
+  private long sequence;
+
+  /**
+   * An immutable copy of the components that were published last, shared by both buffers. The list of the device is
+   * changed in place, so snapshots must not keep a reference to it.
+   */
+  private List<InputComponent> components = List.of();
+
+  /**
+   * Publishes the current values of the specified components. Must only be called by the polling thread.
+   */
+  void publish(List<InputComponent> components) {
+    var buffer = this.published == this.buffers[0] ? this.buffers[1] : this.buffers[0];
+    long stamp = buffer.lock.writeLock();
+    try {
+      var size = components.size();
+      var values = buffer.values;
+      if (values.length != size) {
+        values = new float[size];
+        buffer.values = values;
+      }
+
+      var copy = this.components;
+      var changed = copy.size() != size;
+      for (int i = 0; i < size; i++) {
+        var component = components.get(i);
+        values[i] = component.getData();
+        if (!changed && copy.get(i) != component) {
+          changed = true;
+        }
+      }
+
+      if (changed) {
+        copy = List.copyOf(components);
+        this.components = copy;
+      }
+
+      buffer.components = copy;
+      buffer.sequence = ++this.sequence;
+      buffer.timestamp = System.nanoTime();
+    } finally {
+      buffer.lock.unlockWrite(stamp);
+    }
+
+    this.published = buffer;
+  }
+
+  /**
+   * Copies the most recently published values into the target snapshot.
+   */
+  InputSnapshot read(InputSnapshot target) {
+    while (true) {
+      var buffer = this.published;
+      long stamp = buffer.lock.tryOptimisticRead();
+      if (stamp == 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+
+      // the array is only replaced along with its length, so the copy stays in bounds even if it is torn
+      var values = buffer.values;
+      target.copyFrom(buffer.components, values, values.length, buffer.sequence, buffer.timestamp);
+      if (buffer.lock.validate(stamp)) {
+        return target;
+      }
+
+      Thread.onSpinWait();
+    }
+  }
+
+  private static final class Buffer {
+    private final StampedLock lock = new StampedLock();
+    private List<InputComponent> components = List.of();
+    private float[] values = new float[0];
+    private long sequence;
+    private long timestamp;
+  }
+}
@@ -12,19 +12,19 @@ public class Axis {
   /** Maximum default axis ID value. */
   public static final int MAX_DEFAULT_AXIS_ID = 7;
   /** Left stick X-axis (horizontal). */
-  public static final InputComponent.ID AXIS_X = new InputComponent.ID(ComponentType.AXIS, 0, "LEFT_AXIS_X", 0);
+  public static final InputComponent.ID AXIS_X = InputComponent.ID.createDefault(ComponentType.AXIS, 0, "LEFT_AXIS_X");
   /** Left stick Y-axis (vertical). */
-  public static final InputComponent.ID AXIS_Y = new InputComponent.ID(ComponentType.AXIS, 1, "LEFT_AXIS_Y", 0);
+  public static final InputComponent.ID AXIS_Y = InputComponent.ID.createDefault(ComponentType.AXIS, 1, "LEFT_AXIS_Y");
   /** Left stick Z-axis (typically left trigger). */
-  public static final InputComponent.ID AXIS_Z = new InputComponent.ID(ComponentType.AXIS, 2, "LEFT_AXIS_Z", 0);
+  public static final InputComponent.ID AXIS_Z = InputComponent.ID.createDefault(ComponentType.AXIS, 2, "LEFT_AXIS_Z");
   /** Right stick X-axis (horizontal). */
-  public static final InputComponent.ID AXIS_RX = new InputComponent.ID(ComponentType.AXIS, 3, "RIGHT_AXIS_X", 0);
+  public static final InputComponent.ID AXIS_RX = InputComponent.ID.createDefault(ComponentType.AXIS, 3, "RIGHT_AXIS_X");
   /** Right stick Y-axis (vertical). */
-  public static final InputComponent.ID AXIS_RY = new InputComponent.ID(ComponentType.AXIS, 4, "RIGHT_AXIS_Y", 0);
+  public static final InputComponent.ID AXIS_RY = InputComponent.ID.createDefault(ComponentType.AXIS, 4, "RIGHT_AXIS_Y");
   /** Right stick Z-axis (typically right trigger). */
-  public static final InputComponent.ID AXIS_RZ = new InputComponent.ID(ComponentType.AXIS, 5, "RIGHT_AXIS_Z", 0);
+  public static final InputComponent.ID AXIS_RZ = InputComponent.ID.createDefault(ComponentType.AXIS, 5, "RIGHT_AXIS_Z");
   /** Slider axis. */
-  public static final InputComponent.ID AXIS_SLIDER = new InputComponent.ID(ComponentType.AXIS, 6, "SLIDER", 0);
+  public static final InputComponent.ID AXIS_SLIDER = InputComponent.ID.createDefault(ComponentType.AXIS, 6, "SLIDER");
   /** D-pad as axis (for analog d-pads). */
-  public static final InputComponent.ID AXIS_DPAD = new InputComponent.ID(ComponentType.AXIS, MAX_DEFAULT_AXIS_ID, "DPAD_AXIS", 0);
+  public static final InputComponent.ID AXIS_DPAD = InputComponent.ID.createDefault(ComponentType.AXIS, MAX_DEFAULT_AXIS_ID, "DPAD_AXIS");
 }
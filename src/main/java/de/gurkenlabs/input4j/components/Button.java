@@ -12,75 +12,75 @@ public final class Button {
   /** Maximum default button ID value. */
   public static int MAX_DEFAULT_BUTTON_ID = 35;
   /** Button 0. */
-  public static final InputComponent.ID BUTTON_0 = new InputComponent.ID(ComponentType.BUTTON, 0, "BUTTON_0", 0);
+  public static final InputComponent.ID BUTTON_0 = InputComponent.ID.createDefault(ComponentType.BUTTON, 0, "BUTTON_0");
   /** Button 1. */
-  public static final InputComponent.ID BUTTON_1 = new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1", 0);
+  public static final InputComponent.ID BUTTON_1 = InputComponent.ID.createDefault(ComponentType.BUTTON, 1, "BUTTON_1");
   /** Button 2. */
-  public static final InputComponent.ID BUTTON_2 = new InputComponent.ID(ComponentType.BUTTON, 2, "BUTTON_2", 0);
+  public static final InputComponent.ID BUTTON_2 = InputComponent.ID.createDefault(ComponentType.BUTTON, 2, "BUTTON_2");
   /** Button 3. */
-  public static final InputComponent.ID BUTTON_3 = new InputComponent.ID(ComponentType.BUTTON, 3, "BUTTON_3", 0);
+  public static final InputComponent.ID BUTTON_3 = InputComponent.ID.createDefault(ComponentType.BUTTON, 3, "BUTTON_3");
   /** Button 4 (L1). */
-  public static final InputComponent.ID BUTTON_4 = new InputComponent.ID(ComponentType.BUTTON, 4, "BUTTON_4", 0);
+  public static final InputComponent.ID BUTTON_4 = InputComponent.ID.createDefault(ComponentType.BUTTON, 4, "BUTTON_4");
   /** Button 5 (R1). */
-  public static final InputComponent.ID BUTTON_5 = new InputComponent.ID(ComponentType.BUTTON, 5, "BUTTON_5", 0);
+  public static final InputComponent.ID BUTTON_5 = InputComponent.ID.createDefault(ComponentType.BUTTON, 5, "BUTTON_5");
   /** Button 6 (L2). */
-  public static final InputComponent.ID BUTTON_6 = new InputComponent.ID(ComponentType.BUTTON, 6, "BUTTON_6", 0);
+  public static final InputComponent.ID BUTTON_6 = InputComponent.ID.createDefault(ComponentType.BUTTON, 6, "BUTTON_6");
   /** Button 7 (R2). */
-  public static final InputComponent.ID BUTTON_7 = new InputComponent.ID(ComponentType.BUTTON, 7, "BUTTON_7", 0);
+  public static final InputComponent.ID BUTTON_7 = InputComponent.ID.createDefault(ComponentType.BUTTON, 7, "BUTTON_7");
   /** Button 8 (Share). */
-  public static final InputComponent.ID BUTTON_8 = new InputComponent.ID(ComponentType.BUTTON, 8, "BUTTON_8", 0);
+  public static final InputComponent.ID BUTTON_8 = InputComponent.ID.createDefault(ComponentType.BUTTON, 8, "BUTTON_8");
   /** Button 9 (Options). */
-  public static final InputComponent.ID BUTTON_9 = new InputComponent.ID(ComponentType.BUTTON, 9, "BUTTON_9", 0);
+  public static final InputComponent.ID BUTTON_9 = InputComponent.ID.createDefault(ComponentType.BUTTON, 9, "BUTTON_9");
   /** Button 10 (L3 - left stick press). */
-  public static final InputComponent.ID BUTTON_10 = new InputComponent.ID(ComponentType.BUTTON, 10, "BUTTON_10", 0);
+  public static final InputComponent.ID BUTTON_10 = InputComponent.ID.createDefault(ComponentType.BUTTON, 10, "BUTTON_10");
   /** Button 11 (R3 - right stick press). */
-  public static final InputComponent.ID BUTTON_11 = new InputComponent.ID(ComponentType.BUTTON, 11, "BUTTON_11", 0);
+  public static final InputComponent.ID BUTTON_11 = InputComponent.ID.createDefault(ComponentType.BUTTON, 11, "BUTTON_11");
   /** Button 12 (PS button). */
-  public static final InputComponent.ID BUTTON_12 = new InputComponent.ID(ComponentType.BUTTON, 12, "BUTTON_12", 0);
+  public static final InputComponent.ID BUTTON_12 = InputComponent.ID.createDefault(ComponentType.BUTTON, 12, "BUTTON_12");
   /** Button 13 (Touchpad). */
-  public static final InputComponent.ID BUTTON_13 = new InputComponent.ID(ComponentType.BUTTON, 13, "BUTTON_13", 0);
+  public static final InputComponent.ID BUTTON_13 = InputComponent.ID.createDefault(ComponentType.BUTTON, 13, "BUTTON_13");
   /** Button 14. */
-  public static final InputComponent.ID BUTTON_14 = new InputComponent.ID(ComponentType.BUTTON, 14, "BUTTON_14", 0);
+  public static final InputComponent.ID BUTTON_14 = InputComponent.ID.createDefault(ComponentType.BUTTON, 14, "BUTTON_14");
   /** Button 15. */
-  public static final InputComponent.ID BUTTON_15 = new InputComponent.ID(ComponentType.BUTTON, 15, "BUTTON_15", 0);
+  public static final InputComponent.ID BUTTON_15 = InputComponent.ID.createDefault(ComponentType.BUTTON, 15, "BUTTON_15");
   /** Button 16. */
-  public static final InputComponent.ID BUTTON_16 = new InputComponent.ID(ComponentType.BUTTON, 16, "BUTTON_16", 0);
+  public static final InputComponent.ID BUTTON_16 = InputComponent.ID.createDefault(ComponentType.BUTTON, 16, "BUTTON_16");
   /** Button 17. */
-  public static final InputComponent.ID BUTTON_17 = new InputComponent.ID(ComponentType.BUTTON, 17, "BUTTON_17", 0);
+  public static final InputComponent.ID BUTTON_17 = InputComponent.ID.createDefault(ComponentType.BUTTON, 17, "BUTTON_17");
   /** Button 18. */
-  public static final InputComponent.ID BUTTON_18 = new InputComponent.ID(ComponentType.BUTTON, 18, "BUTTON_18", 0);
+  public static final InputComponent.ID BUTTON_18 = InputComponent.ID.createDefault(ComponentType.BUTTON, 18, "BUTTON_18");
   /** Button 19. */
-  public static final InputComponent.ID BUTTON_19 = new InputComponent.ID(ComponentType.BUTTON, 19, "BUTTON_19", 0);
+  public static final InputComponent.ID BUTTON_19 = InputComponent.ID.createDefault(ComponentType.BUTTON, 19, "BUTTON_19");
   /** Button 20. */
-  public static final InputComponent.ID BUTTON_20 = new InputComponent.ID(ComponentType.BUTTON, 20, "BUTTON_20", 0);
+  public static final InputComponent.ID BUTTON_20 = InputComponent.ID.createDefault(ComponentType.BUTTON, 20, "BUTTON_20");
   /** Button 21. */
-  public static final InputComponent.ID BUTTON_21 = new InputComponent.ID(ComponentType.BUTTON, 21, "BUTTON_21", 0);
+  public static final InputComponent.ID BUTTON_21 = InputComponent.ID.createDefault(ComponentType.BUTTON, 21, "BUTTON_21");
   /** Button 22. */
-  public static final InputComponent.ID BUTTON_22 = new InputComponent.ID(ComponentType.BUTTON, 22, "BUTTON_22", 0);
+  public static final InputComponent.ID BUTTON_22 = InputComponent.ID.createDefault(ComponentType.BUTTON, 22, "BUTTON_22");
   /** Button 23. */
-  public static final InputComponent.ID BUTTON_23 = new InputComponent.ID(ComponentType.BUTTON, 23, "BUTTON_23", 0);
+  public static final InputComponent.ID BUTTON_23 = InputComponent.ID.createDefault(ComponentType.BUTTON, 23, "BUTTON_23");
   /** Button 24. */
-  public static final InputComponent.ID BUTTON_24 = new InputComponent.ID(ComponentType.BUTTON, 24, "BUTTON_24", 0);
+  public static final InputComponent.ID BUTTON_24 = InputComponent.ID.createDefault(ComponentType.BUTTON, 24, "BUTTON_24");
   /** Button 25. */
-  public static final InputComponent.ID BUTTON_25 = new InputComponent.ID(ComponentType.BUTTON, 25, "BUTTON_25", 0);
+  public static final InputComponent.ID BUTTON_25 = InputComponent.ID.createDefault(ComponentType.BUTTON, 25, "BUTTON_25");
   /** Button 26. */
-  public static final InputComponent.ID BUTTON_26 = new InputComponent.ID(ComponentType.BUTTON, 26, "BUTTON_26", 0);
+  public static final InputComponent.ID BUTTON_26 = InputComponent.ID.createDefault(ComponentType.BUTTON, 26, "BUTTON_26");
   /** Button 27. */
-  public static final InputComponent.ID BUTTON_27 = new InputComponent.ID(ComponentType.BUTTON, 27, "BUTTON_27", 0);
+  public static final InputComponent.ID BUTTON_27 = InputComponent.ID.createDefault(ComponentType.BUTTON, 27, "BUTTON_27");
   /** Button 28. */
-  public static final InputComponent.ID BUTTON_28 = new InputComponent.ID(ComponentType.BUTTON, 28, "BUTTON_28", 0);
+  public static final InputComponent.ID BUTTON_28 = InputComponent.ID.createDefault(ComponentType.BUTTON, 28, "BUTTON_28");
   /** Button 29. */
-  public static final InputComponent.ID BUTTON_29 = new InputComponent.ID(ComponentType.BUTTON, 29, "BUTTON_29", 0);
+  public static final InputComponent.ID BUTTON_29 = InputComponent.ID.createDefault(ComponentType.BUTTON, 29, "BUTTON_29");
   /** Button 30. */
-  public static final InputComponent.ID BUTTON_30 = new InputComponent.ID(ComponentType.BUTTON, 30, "BUTTON_30", 0);
+  public static final InputComponent.ID BUTTON_30 = InputComponent.ID.createDefault(ComponentType.BUTTON, 30, "BUTTON_30");
   /** Button 31. */
-  public static final InputComponent.ID BUTTON_31 = new InputComponent.ID(ComponentType.BUTTON, 31, "BUTTON_31", 0);
+  public static final InputComponent.ID BUTTON_31 = InputComponent.ID.createDefault(ComponentType.BUTTON, 31, "BUTTON_31");
   /** D-pad up. */
-  public static final InputComponent.ID DPAD_UP = new InputComponent.ID(ComponentType.BUTTON, 32, "DPAD_UP", 0);
+  public static final InputComponent.ID DPAD_UP = InputComponent.ID.createDefault(ComponentType.BUTTON, 32, "DPAD_UP");
   /** D-pad right. */
-  public static final InputComponent.ID DPAD_RIGHT = new InputComponent.ID(ComponentType.BUTTON, 33, "DPAD_RIGHT", 0);
+  public static final InputComponent.ID DPAD_RIGHT = InputComponent.ID.createDefault(ComponentType.BUTTON, 33, "DPAD_RIGHT");
   /** D-pad down. */
-  public static final InputComponent.ID DPAD_DOWN = new InputComponent.ID(ComponentType.BUTTON, 34, "DPAD_DOWN", 0);
+  public static final InputComponent.ID DPAD_DOWN = InputComponent.ID.createDefault(ComponentType.BUTTON, 34, "DPAD_DOWN");
   /** D-pad left. */
-  public static final InputComponent.ID DPAD_LEFT = new InputComponent.ID(ComponentType.BUTTON, MAX_DEFAULT_BUTTON_ID, "DPAD_LEFT", 0);
+  public static final InputComponent.ID DPAD_LEFT = InputComponent.ID.createDefault(ComponentType.BUTTON, MAX_DEFAULT_BUTTON_ID, "DPAD_LEFT");
 }
@@ -2,6 +2,8 @@ package de.gurkenlabs.input4j.foreign.linux;
 
 import java.lang.foreign.*;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.invoke.VarHandle;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -20,10 +22,29 @@ class Linux {
   final static int EAGAIN = 11;
   final static int EACCES = 13;
   final static int ENOENT = 2;
+  final static int EINTR = 4;
 
   final static int O_RDONLY = 0;
   final static int O_RDWR = 2;
   final static int O_NONBLOCK = 0x800;
+  final static int O_CLOEXEC = 0x80000;
+
+  final static int EPOLLIN = 0x001;
+  final static int EPOLLERR = 0x008;
+  final static int EPOLLHUP = 0x010;
+  final static int EPOLL_CTL_ADD = 1;
+  final static int EPOLL_CTL_DEL = 2;
+
+  final static int IN_NONBLOCK = O_NONBLOCK;
+  final static int IN_CLOEXEC = O_CLOEXEC;
+  final static int IN_ATTRIB = 0x004;
+  final static int IN_MOVED_FROM = 0x040;
+  final static int IN_MOVED_TO = 0x080;
+  final static int IN_CREATE = 0x100;
+  final static int IN_DELETE = 0x200;
+  final static int IN_DELETE_SELF = 0x400;
+  final static int IN_Q_OVERFLOW = 0x4000;
+  final static int IN_IGNORED = 0x8000;
 
   final static int _IOC_READ = 2;
   final static int NAME_BUFFER_SIZE = 1024;
@@ -35,8 +56,26 @@ class Linux {
   final static String HANDLE_READ = "read";
   final static String HANDLE_SELECT = "select";
   final static String HANDLE_WRITE = "write";
+  final static String HANDLE_PIPE2 = "pipe2";
+  final static String HANDLE_EPOLL_CREATE1 = "epoll_create1";
+  final static String HANDLE_EPOLL_CTL = "epoll_ctl";
+  final static String HANDLE_EPOLL_WAIT = "epoll_wait";
+  final static String HANDLE_INOTIFY_INIT1 = "inotify_init1";
+  final static String HANDLE_INOTIFY_ADD_WATCH = "inotify_add_watch";
+  final static String HANDLE_UNAME = "uname";
 
-  private static final boolean IS_32_BIT = is32BitSystem();
+  /**
+   * The length of each of the six strings of {@code struct utsname}, including the terminating null character.
+   */
+  private static final int UTSNAME_LENGTH = 65;
+
+  /**
+   * The size of the per-thread scratch segment that is recycled for the arguments of a single syscall.
+   * This must be large enough to hold the largest argument, which is the device name buffer.
+   */
+  private static final long SCRATCH_SIZE = 4096;
+
+  static final boolean IS_32_BIT = is32BitSystem();
 
   private static boolean is32BitSystem() {
     String osArch = System.getProperty("os.arch", "").toLowerCase();
@@ -51,6 +90,9 @@ class Linux {
   private static final int EVIOCGEFFECTS = _IOR('E', 0x84, JAVA_INT.byteSize());
   private static final int EVIOCSFF = _IOW('E', 0x80, ff_effect.$LAYOUT.byteSize());
   private static final int EVIOCRMFF = _IOW('E', 0x81, JAVA_INT.byteSize());
+  private static final int EVIOCSCLOCKID = _IOW('E', 0xa0, JAVA_INT.byteSize());
+
+  static final int CLOCK_MONOTONIC = 1;
 
   static final int FF_RUMBLE = 0x50;
   static final int FF_PERIODIC = 0x51;
@@ -88,6 +130,37 @@ class Linux {
   private static final MethodHandle strerror;
   private static final Map<String, MethodHandle> handles = new HashMap<>();
 
+  /**
+   * The syscalls on the poll and rumble paths have typed handles that are called with {@code invokeExact}, so their
+   * arguments are neither boxed nor collected into an array. The {@code size_t} arguments are widened to a long.
+   */
+  private static final MethodHandle readHandle;
+  private static final MethodHandle writeHandle;
+  private static final MethodHandle ioctlHandle;
+  private static final MethodHandle epollCtlHandle;
+  private static final MethodHandle epollWaitHandle;
+
+  /**
+   * Native scratch memory that is allocated once per thread and reused for every syscall on that thread.
+   * <p>
+   * Syscall arguments and the captured errno only need to live for the duration of a single call, so allocating them
+   * from the plugin's long-living arena would grow native memory with every poll until the plugin is closed.
+   * </p>
+   *
+   * @param capturedState the segment that receives the errno of the last call
+   * @param allocator     an allocator that recycles the same segment for every allocation, so only
+   *                      one argument segment can be used per syscall
+   */
+  private record Scratch(MemorySegment capturedState, SegmentAllocator allocator) {
+    static Scratch create() {
+      // the automatic arena releases the memory once the thread and its thread local are gone
+      var arena = Arena.ofAuto();
+      return new Scratch(arena.allocate(Linker.Option.captureStateLayout()), SegmentAllocator.prefixAllocator(arena.allocate(SCRATCH_SIZE, 8)));
+    }
+  }
+
+  private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::create);
+
   static {
     StructLayout capturedStateLayout = Linker.Option.captureStateLayout();
 
@@ -98,10 +171,20 @@ class Linux {
 
     handles.put(HANDLE_OPEN, downcallHandle(HANDLE_OPEN, FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT), ERRNO));
     handles.put(HANDLE_CLOSE, downcallHandle(HANDLE_CLOSE, FunctionDescriptor.of(JAVA_INT, JAVA_INT), ERRNO));
-    handles.put(HANDLE_IOCTL, downcallHandle(HANDLE_IOCTL, FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS), ERRNO));
-    handles.put(HANDLE_READ, downcallHandle(HANDLE_READ, FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, sizeT), ERRNO));
     handles.put(HANDLE_SELECT, downcallHandle(HANDLE_SELECT, FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, ADDRESS, ADDRESS, sizeT), ERRNO));
-    handles.put(HANDLE_WRITE, downcallHandle(HANDLE_WRITE, FunctionDescriptor.of(sizeT, JAVA_INT, ADDRESS, sizeT), ERRNO));
+    handles.put(HANDLE_PIPE2, downcallHandle(HANDLE_PIPE2, FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT), ERRNO));
+    handles.put(HANDLE_EPOLL_CREATE1, downcallHandle(HANDLE_EPOLL_CREATE1, FunctionDescriptor.of(JAVA_INT, JAVA_INT), ERRNO));
+
+    var sizedTransferType = MethodType.methodType(int.class, MemorySegment.class, int.class, MemorySegment.class, long.class);
+    // the ssize_t result is narrowed to an int since we never transfer more than a few events at once
+    readHandle = MethodHandles.explicitCastArguments(downcallHandle(HANDLE_READ, FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, sizeT), ERRNO), sizedTransferType);
+    writeHandle = MethodHandles.explicitCastArguments(downcallHandle(HANDLE_WRITE, FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, sizeT), ERRNO), sizedTransferType);
+    ioctlHandle = downcallHandle(HANDLE_IOCTL, FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS), ERRNO);
+    epollCtlHandle = downcallHandle(HANDLE_EPOLL_CTL, FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS), ERRNO);
+    epollWaitHandle = downcallHandle(HANDLE_EPOLL_WAIT, FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT), ERRNO);
+    handles.put(HANDLE_INOTIFY_INIT1, downcallHandle(HANDLE_INOTIFY_INIT1, FunctionDescriptor.of(JAVA_INT, JAVA_INT), ERRNO));
+    handles.put(HANDLE_INOTIFY_ADD_WATCH, downcallHandle(HANDLE_INOTIFY_ADD_WATCH, FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT), ERRNO));
+    handles.put(HANDLE_UNAME, downcallHandle(HANDLE_UNAME, FunctionDescriptor.of(JAVA_INT, ADDRESS), ERRNO));
   }
 
   /**
@@ -113,7 +196,7 @@ class Linux {
    */
   static int open(Arena memoryArena, String fileName) {
     var filenameMemorySegment = memoryArena.allocateFrom(fileName);
-    return invoke(HANDLE_OPEN, memoryArena, filenameMemorySegment, O_RDONLY | O_NONBLOCK);
+    return invoke(HANDLE_OPEN, filenameMemorySegment, O_RDONLY | O_NONBLOCK);
   }
 
 /**
@@ -130,35 +213,69 @@ class Linux {
     */
   static int openRdwr(Arena memoryArena, String fileName) {
     var filenameMemorySegment = memoryArena.allocateFrom(fileName);
-    return invoke(HANDLE_OPEN, memoryArena, filenameMemorySegment, O_RDWR | O_NONBLOCK);
+    return invoke(HANDLE_OPEN, filenameMemorySegment, O_RDWR | O_NONBLOCK);
   }
 
   static int openRdwr(Arena memoryArena, String fileName, int[] outErrno) {
     var filenameMemorySegment = memoryArena.allocateFrom(fileName);
-    return invoke(HANDLE_OPEN, memoryArena, outErrno, filenameMemorySegment, O_RDWR | O_NONBLOCK);
+    return invokeWithErrno(HANDLE_OPEN, outErrno, filenameMemorySegment, O_RDWR | O_NONBLOCK);
   }
 
   /**
    * Close the file descriptor.
    *
-   * @param memoryArena the memory arena to allocate memory from
-   * @param fd          the file descriptor to close
+   * @param fd the file descriptor to close
+   */
+  static void close(int fd) {
+    invoke(HANDLE_CLOSE, fd);
+  }
+
+  /**
+   * Creates a non-blocking pipe.
+   *
+   * @return an array containing the read end at index 0 and the write end at index 1, or null if an error occurred
+   */
+  static int[] pipe() {
+    var fdsMemorySegment = scratch.get().allocator().allocate(JAVA_INT, 2);
+    int result = invoke(HANDLE_PIPE2, fdsMemorySegment, O_NONBLOCK);
+    if (result == ERROR) {
+      log.log(Level.SEVERE, "Failed to create pipe");
+      return null;
+    }
+
+    return new int[] {fdsMemorySegment.getAtIndex(JAVA_INT, 0), fdsMemorySegment.getAtIndex(JAVA_INT, 1)};
+  }
+
+  /**
+   * Gets the hardware name of the machine that the kernel runs on, like {@code uname -m}, e.g. {@code x86_64}.
+   *
+   * @return the machine name, or null if an error occurred
    */
-  static void close(Arena memoryArena, int fd) {
-    invoke(HANDLE_CLOSE, memoryArena, fd);
+  static String getMachine() {
+    // sysname, nodename, release, version, machine and domainname
+    var utsnameMemorySegment = scratch.get().allocator().allocate(MemoryLayout.sequenceLayout(6 * UTSNAME_LENGTH, JAVA_BYTE));
+    int result = invoke(HANDLE_UNAME, utsnameMemorySegment);
+    if (result == ERROR) {
+      log.log(Level.SEVERE, "Failed to get the machine name of the kernel");
+      return null;
+    }
+
+    return utsnameMemorySegment.asSlice(4 * UTSNAME_LENGTH, UTSNAME_LENGTH).getString(0);
   }
 
- /**
+  /**
    * Read an input event from the device.
+   * <p>
+   * The native event buffer is taken from the scratch memory of the calling thread, so reading does not grow native memory.
+   * </p>
    *
-   * @param memoryArena the memory arena to allocate memory from
-   * @param fd          the file descriptor of the event device
+   * @param fd the file descriptor of the event device
    * @return the input event or null if no more events are available
    */
-  public static input_event read(Arena memoryArena, int fd) {
-    MemorySegment inputEventMemorySegment = memoryArena.allocate(input_event.$LAYOUT);
-    int result = invoke("read", memoryArena, fd, inputEventMemorySegment, input_event.$LAYOUT.byteSize());
-    if (result == ERROR) {
+  static input_event read(int fd) {
+    MemorySegment inputEventMemorySegment = scratch.get().allocator().allocate(input_event.$LAYOUT);
+    int result = invokeRead(fd, inputEventMemorySegment, input_event.$LAYOUT.byteSize());
+    if (result == ERROR || result < input_event.$LAYOUT.byteSize()) {
       log.log(Level.FINE, "No more events to read from device ({0})", fd);
       return null;
     }
@@ -166,6 +283,140 @@ class Linux {
     return input_event.read(inputEventMemorySegment);
   }
 
+  /**
+   * Read as many input events from the device as fit into the specified buffer with a single syscall.
+   * <p>
+   * The events are not decoded; use {@link input_event#read(MemorySegment, long, input_event)} to decode them in place.
+   * If fewer events than the buffer can hold are returned, the kernel queue of the device has been drained.
+   * </p>
+   *
+   * @param fd     the file descriptor of the event device
+   * @param buffer the buffer to read the events into; its size should be a multiple of the input_event size
+   * @return the number of complete events read, 0 if no events are available, or -1 if an error occurred
+   */
+  static int read(int fd, MemorySegment buffer) {
+    int result = invokeRead(fd, buffer, buffer.byteSize());
+    if (result == ERROR) {
+      return getErrorNo(scratch.get().capturedState()) == EAGAIN ? 0 : ERROR;
+    }
+
+    return (int) (result / input_event.$LAYOUT.byteSize());
+  }
+
+  /**
+   * Write the specified number of encoded input events from the buffer to the file descriptor with a single syscall.
+   *
+   * @param fd     the file descriptor to write to
+   * @param buffer the buffer containing the encoded events
+   * @param count  the number of events to write
+   * @return the number of complete events written, or -1 if an error occurred
+   */
+  static int writeEvents(int fd, MemorySegment buffer, int count) {
+    int result = invokeWrite(fd, buffer, count * input_event.$LAYOUT.byteSize());
+    if (result == ERROR) {
+      log.log(Level.WARNING, "Failed to write events to ({0})", fd);
+      return ERROR;
+    }
+
+    return (int) (result / input_event.$LAYOUT.byteSize());
+  }
+
+  /**
+   * Creates a new epoll instance.
+   *
+   * @return the file descriptor of the epoll instance, or -1 if an error occurred
+   */
+  static int epollCreate() {
+    return invoke(HANDLE_EPOLL_CREATE1, O_CLOEXEC);
+  }
+
+  /**
+   * Registers the file descriptor with the epoll instance so that it reports when data is available to read.
+   * The file descriptor itself is passed as the user data of the epoll event.
+   *
+   * @param epfd the file descriptor of the epoll instance
+   * @param fd   the file descriptor to watch
+   * @return 0 on success, or -1 if an error occurred
+   */
+  static int epollAdd(int epfd, int fd) {
+    var eventSegment = scratch.get().allocator().allocate(epoll_event.$LAYOUT);
+    var event = new epoll_event();
+    event.events = EPOLLIN;
+    event.data = fd;
+    event.write(eventSegment);
+    return invokeEpollCtl(epfd, EPOLL_CTL_ADD, fd, eventSegment);
+  }
+
+  /**
+   * Removes the file descriptor from the epoll instance.
+   *
+   * @param epfd the file descriptor of the epoll instance
+   * @param fd   the file descriptor to remove
+   * @return 0 on success, or -1 if an error occurred
+   */
+  static int epollRemove(int epfd, int fd) {
+    // kernels before 2.6.9 require a non-null event even though it is ignored
+    var eventSegment = scratch.get().allocator().allocate(epoll_event.$LAYOUT);
+    return invokeEpollCtl(epfd, EPOLL_CTL_DEL, fd, eventSegment);
+  }
+
+  /**
+   * Waits for events on the epoll instance.
+   *
+   * @param epfd      the file descriptor of the epoll instance
+   * @param events    the buffer that receives the ready events
+   * @param maxEvents the maximum number of events the buffer can hold
+   * @param timeout   the timeout in milliseconds, or -1 to wait indefinitely
+   * @return the number of ready file descriptors, 0 if the timeout expired or the wait was interrupted by a signal,
+   * or -1 if an error occurred
+   */
+  static int epollWait(int epfd, MemorySegment events, int maxEvents, int timeout) {
+    int result = invokeEpollWait(epfd, events, maxEvents, timeout);
+    if (result == ERROR && getErrorNo(scratch.get().capturedState()) == EINTR) {
+      return 0;
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates a new non-blocking inotify instance.
+   *
+   * @return the file descriptor of the inotify instance, or -1 if an error occurred
+   */
+  static int inotifyInit() {
+    return invoke(HANDLE_INOTIFY_INIT1, IN_NONBLOCK | IN_CLOEXEC);
+  }
+
+  /**
+   * Watches the specified path for the events of the mask.
+   *
+   * @param fd   the file descriptor of the inotify instance
+   * @param path the file or directory to watch
+   * @param mask the events to watch for (e.g. {@link #IN_CREATE})
+   * @return the watch descriptor, or -1 if an error occurred
+   */
+  static int inotifyAddWatch(int fd, String path, int mask) {
+    var pathMemorySegment = scratch.get().allocator().allocateFrom(path);
+    return invoke(HANDLE_INOTIFY_ADD_WATCH, fd, pathMemorySegment, mask);
+  }
+
+  /**
+   * Read as many bytes from the file descriptor as fit into the specified buffer with a single syscall.
+   *
+   * @param fd     the file descriptor to read from
+   * @param buffer the buffer to read into
+   * @return the number of bytes read, 0 if no data is available, or -1 if an error occurred
+   */
+  static int readBytes(int fd, MemorySegment buffer) {
+    int result = invokeRead(fd, buffer, buffer.byteSize());
+    if (result == ERROR) {
+      return getErrorNo(scratch.get().capturedState()) == EAGAIN ? 0 : ERROR;
+    }
+
+    return result;
+  }
+
   /**
    * Get the name of the event device.
    *
@@ -178,7 +429,7 @@ class Linux {
    */
   static String getEventDeviceName(Arena memoryArena, int fd) {
     var nameMemorySegment = memoryArena.allocateFrom(JAVA_CHAR, new char[NAME_BUFFER_SIZE]);
-    var result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCGNAME, nameMemorySegment);
+    var result = invokeIoctl(fd, EVIOCGNAME, nameMemorySegment);
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to get device name for device ({0})", fd);
       return null;
@@ -196,7 +447,7 @@ class Linux {
    */
   static int getEventDeviceVersion(Arena memoryArena, int fd) {
     var versionMemorySegment = memoryArena.allocate(JAVA_INT);
-    var result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCGVERSION, versionMemorySegment);
+    var result = invokeIoctl(fd, EVIOCGVERSION, versionMemorySegment);
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to get device version for device ({0})", fd);
       return 0;
@@ -214,7 +465,7 @@ class Linux {
    */
   static input_id getEventDeviceId(Arena memoryArena, int fd) {
     var inputIdMemorySegment = memoryArena.allocate(input_id.$LAYOUT);
-    var result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCGID, inputIdMemorySegment);
+    var result = invokeIoctl(fd, EVIOCGID, inputIdMemorySegment);
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to get device id for device ({0})", fd);
       return null;
@@ -225,7 +476,7 @@ class Linux {
 
   static input_absinfo getAbsInfo(Arena memoryArena, int fd, int absAxis) {
     MemorySegment absInfoSegment = memoryArena.allocate(input_absinfo.$LAYOUT);
-    int result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCGABS(absAxis), absInfoSegment);
+    int result = invokeIoctl(fd, EVIOCGABS(absAxis), absInfoSegment);
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to get abs info for axis ({0})", absAxis);
       return null;
@@ -233,9 +484,69 @@ class Linux {
     return input_absinfo.read(absInfoSegment);
   }
 
+  /**
+   * Get the current value and range of an absolute axis without allocating from an arena.
+   *
+   * @param fd      the file descriptor of the event device
+   * @param absAxis the code of the axis
+   * @return the axis info, or null if an error occurred
+   */
+  static input_absinfo getAbsInfo(int fd, int absAxis) {
+    MemorySegment absInfoSegment = scratch.get().allocator().allocate(input_absinfo.$LAYOUT);
+    int result = invokeIoctl(fd, EVIOCGABS(absAxis), absInfoSegment);
+    if (result == ERROR) {
+      log.log(Level.WARNING, "Failed to get abs info for axis ({0}) of device ({1})", new Object[] {absAxis, fd});
+      return null;
+    }
+    return input_absinfo.read(absInfoSegment);
+  }
+
+  /**
+   * Get the current state of all keys and buttons of the device.
+   * <p>
+   * This is used to resynchronize the state after the kernel dropped events ({@code SYN_DROPPED}).
+   * </p>
+   *
+   * @param fd the file descriptor of the event device
+   * @return a bit field with one bit per key code that is set while the key is pressed, or null if an error occurred
+   */
+  static byte[] getKeyStates(int fd) {
+    var len = LinuxEventDevice.getMaxBits(LinuxEventDevice.EV_KEY) / 8 + 1;
+    MemorySegment keyStatesSegment = scratch.get().allocator().allocate(MemoryLayout.sequenceLayout(len, JAVA_BYTE));
+    int result = invokeIoctl(fd, EVIOCGKEY(len), keyStatesSegment);
+    if (result == ERROR) {
+      log.log(Level.WARNING, "Failed to get key states for device ({0})", fd);
+      return null;
+    }
+
+    return keyStatesSegment.toArray(JAVA_BYTE);
+  }
+
+  /**
+   * Sets the clock that the kernel uses for the timestamps of the events of a device (EVIOCSCLOCKID).
+   * <p>
+   * By default, events are stamped with the wall clock ({@code CLOCK_REALTIME}), which jumps when the system time is adjusted.
+   * </p>
+   *
+   * @param fd      the file descriptor of the event device
+   * @param clockId the clock, e.g. {@link #CLOCK_MONOTONIC}
+   * @return 0 on success, or -1 if an error occurred
+   */
+  static int setClockId(int fd, int clockId) {
+    var clockIdSegment = scratch.get().allocator().allocate(JAVA_INT);
+    clockIdSegment.set(JAVA_INT, 0, clockId);
+    int result = invokeIoctl(fd, EVIOCSCLOCKID, clockIdSegment);
+    if (result == ERROR) {
+      log.log(Level.WARNING, "Failed to set the event clock of device ({0})", fd);
+      return ERROR;
+    }
+
+    return 0;
+  }
+
   static int getNumEffects(Arena memoryArena, int fd) {
     MemorySegment numEffectsSegment = memoryArena.allocate(JAVA_INT);
-    int result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCGEFFECTS, numEffectsSegment);
+    int result = invokeIoctl(fd, EVIOCGEFFECTS, numEffectsSegment);
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to get number of device effects ({0})", fd);
       return ERROR;
@@ -246,15 +557,29 @@ class Linux {
   /**
    * Upload a force feedback effect to the device.
    *
-   * @param memoryArena the memory arena to allocate memory from
-   * @param fd          the file descriptor of the event device
-   * @param effect      the effect to upload
+   * @param fd     the file descriptor of the event device
+   * @param effect the effect to upload
    * @return the effect ID assigned by the device, or -1 if an error occurred
    */
-  static int uploadEffect(Arena memoryArena, int fd, ff_effect effect) {
-    var effectSegment = memoryArena.allocate(ff_effect.$LAYOUT);
+  static int uploadEffect(int fd, ff_effect effect) {
+    var effectSegment = scratch.get().allocator().allocate(ff_effect.$LAYOUT);
     effect.write(effectSegment);
-    int result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCSFF, effectSegment);
+    return uploadEffect(fd, effectSegment);
+  }
+
+  /**
+   * Upload a force feedback effect that is already stored in native memory to the device.
+   * <p>
+   * If the id of the effect is -1, a new effect is created and its id is written into the segment.
+   * Otherwise, the existing effect with that id is updated in place; an effect that is playing keeps playing with the new parameters.
+   * </p>
+   *
+   * @param fd            the file descriptor of the event device
+   * @param effectSegment the {@code ff_effect} to upload
+   * @return the effect ID assigned by the device, or -1 if an error occurred
+   */
+  static int uploadEffect(int fd, MemorySegment effectSegment) {
+    int result = invokeIoctl(fd, EVIOCSFF, effectSegment);
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to upload effect to device ({0})", fd);
       return ERROR;
@@ -265,13 +590,13 @@ class Linux {
   /**
    * Remove a force feedback effect from the device.
    *
-   * @param memoryArena the memory arena to allocate memory from
-   * @param fd          the file descriptor of the event device
-   * @param effectId    the ID of the effect to remove
+   * @param fd       the file descriptor of the event device
+   * @param effectId the ID of the effect to remove
    * @return 0 on success, or -1 if an error occurred
    */
-  static int removeEffect(Arena memoryArena, int fd, int effectId) {
-    int result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCRMFF, effectId);
+  static int removeEffect(int fd, int effectId) {
+    // EVIOCRMFF takes the effect id itself as the argument instead of a pointer to it
+    int result = invokeIoctl(fd, EVIOCRMFF, MemorySegment.ofAddress(effectId));
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to remove effect ({0}) from device ({1})", new Object[] {effectId, fd});
       return ERROR;
@@ -286,15 +611,14 @@ class Linux {
    * This is used to play or stop force feedback effects.
    * </p>
    *
-   * @param memoryArena the memory arena to allocate memory from
-   * @param fd          the file descriptor of the event device
-   * @param event       the event to write
+   * @param fd    the file descriptor of the event device
+   * @param event the event to write
    * @return the number of bytes written, or -1 if an error occurred
    */
-  static int writeEvent(Arena memoryArena, int fd, input_event event) {
-    var eventSegment = memoryArena.allocate(input_event.$LAYOUT);
+  static int writeEvent(int fd, input_event event) {
+    var eventSegment = scratch.get().allocator().allocate(input_event.$LAYOUT);
     event.write(eventSegment);
-    int result = invoke(HANDLE_WRITE, memoryArena, fd, eventSegment, input_event.$LAYOUT.byteSize());
+    int result = invokeWrite(fd, eventSegment, input_event.$LAYOUT.byteSize());
     if (result == ERROR) {
       log.log(Level.WARNING, "Failed to write event to device ({0})", fd);
       return ERROR;
@@ -310,18 +634,17 @@ class Linux {
    * The gain is a value from 0 to 65535 representing 0% to 100%.
    * </p>
    *
-   * @param memoryArena the memory arena to allocate memory from
-   * @param fd          the file descriptor of the event device
-   * @param gain        the gain value (0 to 65535)
+   * @param fd   the file descriptor of the event device
+   * @param gain the gain value (0 to 65535)
    * @return 0 on success, or -1 if an error occurred
    */
-  static int setGain(Arena memoryArena, int fd, int gain) {
+  static int setGain(int fd, int gain) {
     var gainEvent = new input_event();
     gainEvent.type = (short) LinuxEventDevice.EV_FF;
     gainEvent.code = (short) FF_GAIN;
     gainEvent.value = gain;
 
-    return writeEvent(memoryArena, fd, gainEvent);
+    return writeEvent(fd, gainEvent);
   }
 
   /**
@@ -339,26 +662,71 @@ class Linux {
     var len = LinuxEventDevice.getMaxBits(evtype) / 8 + 1;
 
     MemorySegment bitsMemorySegment = memoryArena.allocate(MemoryLayout.sequenceLayout(len, JAVA_BYTE));
-    int result = invoke(HANDLE_IOCTL, memoryArena, fd, EVIOCGBIT(evtype, len), bitsMemorySegment);
+    int result = invokeIoctl(fd, EVIOCGBIT(evtype, len), bitsMemorySegment);
     if (result == ERROR) {
       log.log(Level.SEVERE, "Failed to get key states for device ({0}) and evtype {1}", new Object[] {fd, evtype});
       return null;
     }
 
-    byte[] bits = new byte[len];
-    for (int i = 0; i < len; i++) {
-      bits[i] = bitsMemorySegment.get(JAVA_BYTE, i);
+    return bitsMemorySegment.toArray(JAVA_BYTE);
+  }
+
+  private static int invokeRead(int fd, MemorySegment buffer, long size) {
+    var capturedState = scratch.get().capturedState();
+    try {
+      return checkResult(HANDLE_READ, (int) readHandle.invokeExact(capturedState, fd, buffer, size), capturedState, null);
+    } catch (Throwable e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+      return ERROR;
+    }
+  }
+
+  private static int invokeWrite(int fd, MemorySegment buffer, long size) {
+    var capturedState = scratch.get().capturedState();
+    try {
+      return checkResult(HANDLE_WRITE, (int) writeHandle.invokeExact(capturedState, fd, buffer, size), capturedState, null);
+    } catch (Throwable e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+      return ERROR;
     }
+  }
 
-    return bits;
+  private static int invokeIoctl(int fd, int request, MemorySegment argument) {
+    var capturedState = scratch.get().capturedState();
+    try {
+      return checkResult(HANDLE_IOCTL, (int) ioctlHandle.invokeExact(capturedState, fd, request, argument), capturedState, null);
+    } catch (Throwable e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+      return ERROR;
+    }
   }
 
-  private static int invoke(String handleName, Arena memoryArena, Object... args) {
-    return invoke(handleName, memoryArena, null, args);
+  private static int invokeEpollCtl(int epfd, int operation, int fd, MemorySegment event) {
+    var capturedState = scratch.get().capturedState();
+    try {
+      return checkResult(HANDLE_EPOLL_CTL, (int) epollCtlHandle.invokeExact(capturedState, epfd, operation, fd, event), capturedState, null);
+    } catch (Throwable e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+      return ERROR;
+    }
   }
 
-  private static int invoke(String handleName, Arena memoryArena, int[] outErrno, Object... args) {
-    var capturedState = memoryArena.allocate(Linker.Option.captureStateLayout());
+  private static int invokeEpollWait(int epfd, MemorySegment events, int maxEvents, int timeout) {
+    var capturedState = scratch.get().capturedState();
+    try {
+      return checkResult(HANDLE_EPOLL_WAIT, (int) epollWaitHandle.invokeExact(capturedState, epfd, events, maxEvents, timeout), capturedState, null);
+    } catch (Throwable e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+      return ERROR;
+    }
+  }
+
+  private static int invoke(String handleName, Object... args) {
+    return invokeWithErrno(handleName, null, args);
+  }
+
+  private static int invokeWithErrno(String handleName, int[] outErrno, Object... args) {
+    var capturedState = scratch.get().capturedState();
     var methodHandle = handles.get(handleName);
     if (methodHandle == null) {
       log.log(Level.SEVERE, "Could not find method handle for ''{0}''", handleName);
@@ -381,27 +749,7 @@ class Linux {
         result = (int) methodHandle.invoke(capturedState, args[0], args[1], args[2], args[3], args[4]);
       }
 
-      if (result == ERROR) {
-        var errorNo = getErrorNo(capturedState);
-        if (outErrno != null) {
-          outErrno[0] = errorNo;
-        }
-
-        // we are using non-blocking mode, so we can ignore EAGAIN because it is not an error, just a signal that we're done reading
-        if (errorNo == EAGAIN) {
-          return result;
-        }
-
-        // EACCES is expected when user lacks write permissions - log at FINE level
-        if (errorNo == EACCES) {
-          log.log(Level.INFO, "Could not invoke ''{0}'' - {1}({2}) - likely not in input group or device requires root access",
-              new Object[] {handleName, getErrorString(errorNo), errorNo});
-        } else {
-          log.log(Level.SEVERE, "Could not invoke ''{0}'' - {1}({2})", new Object[] {handleName, getErrorString(errorNo), errorNo});
-        }
-      }
-
-      return result;
+      return checkResult(handleName, result, capturedState, outErrno);
     } catch (Throwable e) {
       log.log(Level.SEVERE, e.getMessage(), e);
     }
@@ -409,8 +757,35 @@ class Linux {
     return ERROR;
   }
 
-  private static int invokeWithErrno(String handleName, Arena memoryArena, int[] outErrno, Object... args) {
-    return invoke(handleName, memoryArena, outErrno, args);
+  private static int checkResult(String handleName, int result, MemorySegment capturedState, int[] outErrno) {
+    if (result != ERROR) {
+      return result;
+    }
+
+    var errorNo = getErrorNo(capturedState);
+    if (outErrno != null) {
+      outErrno[0] = errorNo;
+    }
+
+    // we are using non-blocking mode, so we can ignore EAGAIN because it is not an error, just a signal that we're done reading
+    if (errorNo == EAGAIN) {
+      return result;
+    }
+
+    // a blocking call was interrupted by a signal, the caller is expected to retry
+    if (errorNo == EINTR) {
+      return result;
+    }
+
+    // EACCES is expected when user lacks write permissions - log at FINE level
+    if (errorNo == EACCES) {
+      log.log(Level.INFO, "Could not invoke ''{0}'' - {1}({2}) - likely not in input group or device requires root access",
+          new Object[] {handleName, getErrorString(errorNo), errorNo});
+    } else {
+      log.log(Level.SEVERE, "Could not invoke ''{0}'' - {1}({2})", new Object[] {handleName, getErrorString(errorNo), errorNo});
+    }
+
+    return result;
   }
 
   private static int getErrorNo(MemorySegment capturedState) {
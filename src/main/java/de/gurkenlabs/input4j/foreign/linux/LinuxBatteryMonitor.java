@@ -0,0 +1,294 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.BatteryInfo;
+import de.gurkenlabs.input4j.BatteryType;
+import de.gurkenlabs.input4j.InputDevice;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the battery state of the event devices up to date, so reading it never touches sysfs.
+ * <p>
+ * The power supply of a device is resolved once when the device is added: first through the sysfs hierarchy of its event node
+ * ({@code /sys/class/input/eventN/device/device/power_supply}), which is where HID drivers register the batteries of their controllers,
+ * and otherwise by matching the vendor and product id against the entries of {@code /sys/class/power_supply}.
+ * Afterward, only the capacity and status of the resolved power supply are read on a background thread at a fixed interval.
+ * A device whose power supply was not found is not looked up again on every refresh, but only on the first refresh after
+ * the next device was added or removed: a wireless controller may register its battery shortly after its event node,
+ * but it does so along with its other event nodes (e.g. for its motion sensors), which are hot-plugged as well.
+ * </p>
+ * <p>
+ * The kernel does not report changes of the battery attributes through inotify, so the state is only refreshed at the interval.
+ * A hot-plugged device is resolved and read once when it is {@link #add added}; the state of the other devices is not
+ * refreshed at that time.
+ * </p>
+ *
+ * @see de.gurkenlabs.input4j.InputDevices.DefaultInputConfiguration#getBatteryRefreshInterval()
+ */
+final class LinuxBatteryMonitor implements Closeable {
+  private static final Logger log = Logger.getLogger(LinuxBatteryMonitor.class.getName());
+
+  private final Path sysfsRoot;
+  private final BiConsumer<InputDevice, BatteryInfo> changeListener;
+  private final Map<String, Battery> batteries = new ConcurrentHashMap<>();
+  private ScheduledExecutorService refresher;
+
+  /**
+   * Counts the devices that were added or removed, so power supplies that were not found are only looked up again
+   * after the next hot-plug event.
+   */
+  private final AtomicInteger hotPlugCount = new AtomicInteger();
+
+  /**
+   * Creates a monitor that does not refresh the devices until it is {@link #start(int) started}.
+   *
+   * @param sysfsRoot      the mount point of sysfs, usually {@code /sys}
+   * @param changeListener is called on the refreshing thread when the battery state of a device changes
+   */
+  LinuxBatteryMonitor(Path sysfsRoot, BiConsumer<InputDevice, BatteryInfo> changeListener) {
+    this.sysfsRoot = sysfsRoot;
+    this.changeListener = changeListener;
+  }
+
+  /**
+   * Starts refreshing the battery state of all devices on a daemon thread.
+   *
+   * @param interval the interval between two refreshes in milliseconds
+   */
+  synchronized void start(int interval) {
+    if (this.refresher != null) {
+      return;
+    }
+
+    var delay = Math.max(interval, 1);
+    this.refresher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("input4j-battery-", 0).daemon().factory());
+    this.refresher.scheduleWithFixedDelay(this::refresh, delay, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Resolves the power supply of a device and reads its current battery state.
+   *
+   * @param inputDevice the input device
+   * @param nodeName    the file name of the event node of the device, e.g. {@code event3}
+   * @param vendorId    the vendor id of the device, or -1 if it is unknown
+   * @param productId   the product id of the device, or -1 if it is unknown
+   */
+  void add(InputDevice inputDevice, String nodeName, int vendorId, int productId) {
+    var battery = new Battery(inputDevice, nodeName, vendorId >= 0 ? String.format("%04x", vendorId) : null, productId >= 0 ? String.format("%04x", productId) : null);
+    battery.lookupHotPlugCount = this.hotPlugCount.incrementAndGet();
+    battery.powerSupply = this.findPowerSupply(battery);
+    battery.info = readBatteryInfo(battery.powerSupply);
+    this.batteries.put(inputDevice.getID(), battery);
+  }
+
+  /**
+   * Stops monitoring a device that was disconnected.
+   *
+   * @param inputDevice the input device
+   */
+  void remove(InputDevice inputDevice) {
+    if (this.batteries.remove(inputDevice.getID()) != null) {
+      this.hotPlugCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Gets the last known battery state of a device.
+   *
+   * @param inputDevice the input device
+   * @return the battery state, or null if the device has no battery or it could not be read
+   */
+  BatteryInfo get(InputDevice inputDevice) {
+    var battery = this.batteries.get(inputDevice.getID());
+    return battery != null ? battery.info : null;
+  }
+
+  /**
+   * Reads the battery state of all devices and notifies the change listener about the devices whose state changed.
+   */
+  void refresh() {
+    for (var battery : this.batteries.values()) {
+      try {
+        if (battery.powerSupply != null && !Files.isDirectory(battery.powerSupply)) {
+          battery.powerSupply = null;
+        }
+
+        var currentHotPlugCount = this.hotPlugCount.get();
+        if (battery.powerSupply == null && battery.lookupHotPlugCount != currentHotPlugCount) {
+          // scanning all power supplies is only worth it if the set of devices changed since the last lookup
+          battery.lookupHotPlugCount = currentHotPlugCount;
+          battery.powerSupply = this.findPowerSupply(battery);
+        }
+
+        var info = readBatteryInfo(battery.powerSupply);
+        if (Objects.equals(info, battery.info)) {
+          continue;
+        }
+
+        battery.info = info;
+        this.changeListener.accept(battery.inputDevice, info);
+      } catch (RuntimeException e) {
+        // keep refreshing the other devices
+        log.log(Level.WARNING, "Failed to refresh the battery of device " + battery.inputDevice.getName(), e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    ScheduledExecutorService activeRefresher;
+    synchronized (this) {
+      activeRefresher = this.refresher;
+      this.refresher = null;
+    }
+
+    if (activeRefresher != null) {
+      activeRefresher.shutdownNow();
+    }
+
+    this.batteries.clear();
+  }
+
+  private Path findPowerSupply(Battery battery) {
+    // the battery of a HID controller is a child of the same HID device as its event node
+    var hidPowerSupplies = this.sysfsRoot.resolve("class/input").resolve(battery.nodeName).resolve("device/device/power_supply");
+    for (var powerSupply : listDirectories(hidPowerSupplies)) {
+      if (isBattery(powerSupply)) {
+        return powerSupply;
+      }
+    }
+
+    for (var powerSupply : listDirectories(this.sysfsRoot.resolve("class/power_supply"))) {
+      if (isBattery(powerSupply) && battery.matches(powerSupply)) {
+        return powerSupply;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Reads the battery state of a power supply.
+   *
+   * @param powerSupply the sysfs directory of the power supply, or null if the device has none
+   * @return the battery state, or null if the power supply does not report its capacity
+   */
+  static BatteryInfo readBatteryInfo(Path powerSupply) {
+    if (powerSupply == null) {
+      return null;
+    }
+
+    try {
+      var percentage = readBatteryPercentage(powerSupply);
+      if (percentage < 0) {
+        return null;
+      }
+
+      var status = readAttribute(powerSupply, "status");
+      return BatteryInfo.fromPercentage(BatteryType.UNKNOWN, "Charging".equalsIgnoreCase(status), percentage);
+    } catch (IOException | NumberFormatException e) {
+      log.log(Level.FINE, "Failed to read battery " + powerSupply, e);
+      return null;
+    }
+  }
+
+  private static int readBatteryPercentage(Path powerSupply) throws IOException {
+    var capacity = readAttribute(powerSupply, "capacity");
+    if (capacity != null) {
+      return Integer.parseInt(capacity);
+    }
+
+    var capacityLevel = readAttribute(powerSupply, "capacity_level");
+    if (capacityLevel != null) {
+      return switch (capacityLevel.toLowerCase(Locale.ROOT)) {
+        case "full" -> 100;
+        case "high", "normal" -> 75;
+        case "low" -> 25;
+        case "critical" -> 10;
+        default -> -1;
+      };
+    }
+
+    return -1;
+  }
+
+  private static boolean isBattery(Path powerSupply) {
+    try {
+      return "Battery".equalsIgnoreCase(readAttribute(powerSupply, "type"));
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static String readAttribute(Path directory, String name) throws IOException {
+    try {
+      return Files.readString(directory.resolve(name)).strip();
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  private static List<Path> listDirectories(Path directory) {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+
+    try (Stream<Path> entries = Files.list(directory)) {
+      return entries.filter(Files::isDirectory).sorted().toList();
+    } catch (IOException e) {
+      return List.of();
+    }
+  }
+
+  private static final class Battery {
+    private final InputDevice inputDevice;
+    private final String nodeName;
+    private final String vendorHex;
+    private final String productHex;
+    private volatile Path powerSupply;
+    private volatile BatteryInfo info;
+
+    /**
+     * The hot-plug count at the time the power supply was last looked up.
+     */
+    private volatile int lookupHotPlugCount;
+
+    private Battery(InputDevice inputDevice, String nodeName, String vendorHex, String productHex) {
+      this.inputDevice = inputDevice;
+      this.nodeName = nodeName;
+      this.vendorHex = vendorHex;
+      this.productHex = productHex;
+    }
+
+    private boolean matches(Path powerSupply) {
+      try {
+        return contains(readAttribute(powerSupply, "vendor"), this.vendorHex)
+            || contains(readAttribute(powerSupply, "manufacturer"), this.vendorHex)
+            || contains(readAttribute(powerSupply, "model_name"), this.productHex);
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    private static boolean contains(String attribute, String hex) {
+      return attribute != null && hex != null && attribute.toLowerCase(Locale.ROOT).contains(hex);
+    }
+  }
+}
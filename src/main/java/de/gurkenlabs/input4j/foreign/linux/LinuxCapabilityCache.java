@@ -0,0 +1,274 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An on-disk cache of the component layout of evdev devices, so devices that have been seen before can be set up
+ * without querying each of their keys and axes from the kernel.
+ * <p>
+ * The entries are keyed by the identity of a device model: its bus type, vendor, product, version and name.
+ * Before an entry is used, it is validated against the live device with three cheap ioctls: the supported event types,
+ * keys and absolute axes must be the same as when the entry was created. Entries that don't match are replaced by a fresh probe.
+ * </p>
+ * <p>
+ * The ranges of the axes are cached as well, so ranges that are changed (e.g. with a calibration tool) after a device has
+ * been cached are not picked up until the cache file is deleted.
+ * </p>
+ *
+ * @see de.gurkenlabs.input4j.InputDevices.DefaultInputConfiguration#setCapabilityCacheFile(Path)
+ */
+final class LinuxCapabilityCache {
+  private static final Logger log = Logger.getLogger(LinuxCapabilityCache.class.getName());
+  private static final int MAGIC = 0x49344A43; // I4JC
+  private static final int VERSION = 1;
+
+  private final Path file;
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+  private volatile boolean changed;
+
+  private LinuxCapabilityCache(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Loads the cache from a file. A missing, unreadable or outdated file results in an empty cache that replaces the file when saved.
+   *
+   * @param file the cache file
+   * @return the loaded cache
+   */
+  static LinuxCapabilityCache load(Path file) {
+    var cache = new LinuxCapabilityCache(file);
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        log.log(Level.INFO, "Ignoring outdated device capability cache {0}", file);
+        return cache;
+      }
+
+      var entryCount = in.readInt();
+      for (int i = 0; i < entryCount; i++) {
+        var key = new Key(in.readUnsignedShort(), in.readUnsignedShort(), in.readUnsignedShort(), in.readUnsignedShort(), in.readUTF());
+        var eventTypes = in.readNBytes(in.readUnsignedShort());
+        var componentCount = in.readUnsignedShort();
+        var components = new ArrayList<CachedComponent>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+          components.add(new CachedComponent(in.readUTF(), in.readUnsignedByte(), in.readUnsignedShort(), in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+        }
+
+        cache.entries.put(key, new Entry(eventTypes, components));
+      }
+    } catch (NoSuchFileException e) {
+      // the cache is created with the first save
+    } catch (IOException | IllegalArgumentException e) {
+      log.log(Level.WARNING, "Ignoring corrupt device capability cache " + file, e);
+      cache.entries.clear();
+    }
+
+    return cache;
+  }
+
+  /**
+   * Writes the cache to its file if entries were added since it was loaded or last saved.
+   * The file is replaced atomically, so concurrent processes never read a partially written cache.
+   */
+  void save() {
+    if (!this.changed) {
+      return;
+    }
+
+    this.changed = false;
+    try {
+      var parent = this.file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      var tempFile = Files.createTempFile(parent, this.file.getFileName().toString(), ".tmp");
+      try {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+          this.write(out);
+        }
+
+        Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      log.log(Level.WARNING, "Failed to save the device capability cache " + this.file, e);
+    }
+  }
+
+  /**
+   * Gets the cached layout of a device model.
+   *
+   * @param key the identity of the device model
+   * @return the cached layout, or null if the model is not cached
+   */
+  Entry get(Key key) {
+    return this.entries.get(key);
+  }
+
+  /**
+   * Caches the layout of a device that has just been probed.
+   *
+   * @param key        the identity of the device model
+   * @param eventTypes the event types bitmap of the device
+   * @param components the probed components of the device
+   */
+  void put(Key key, byte[] eventTypes, List<LinuxEventComponent> components) {
+    var cachedComponents = new ArrayList<CachedComponent>(components.size());
+    for (var component : components) {
+      cachedComponents.add(new CachedComponent(component.linuxComponentType.name(), component.nativeType, component.nativeCode, component.min, component.max, component.flat, component.fuzz));
+    }
+
+    this.entries.put(key, new Entry(eventTypes.clone(), cachedComponents));
+    this.changed = true;
+  }
+
+  int size() {
+    return this.entries.size();
+  }
+
+  private void write(DataOutputStream out) throws IOException {
+    var snapshot = Map.copyOf(this.entries);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(snapshot.size());
+    for (var cacheEntry : snapshot.entrySet()) {
+      var key = cacheEntry.getKey();
+      out.writeShort(key.bus());
+      out.writeShort(key.vendor());
+      out.writeShort(key.product());
+      out.writeShort(key.version());
+      out.writeUTF(key.name());
+
+      var entry = cacheEntry.getValue();
+      out.writeShort(entry.eventTypes.length);
+      out.write(entry.eventTypes);
+      out.writeShort(entry.components.size());
+      for (var component : entry.components) {
+        out.writeUTF(component.type());
+        out.writeByte(component.nativeType());
+        out.writeShort(component.nativeCode());
+        out.writeInt(component.min());
+        out.writeInt(component.max());
+        out.writeInt(component.flat());
+        out.writeInt(component.fuzz());
+      }
+    }
+  }
+
+  /**
+   * The identity of a device model.
+   *
+   * @param bus     the bus type
+   * @param vendor  the vendor id
+   * @param product the product id
+   * @param version the version of the device
+   * @param name    the name of the device
+   */
+  record Key(int bus, int vendor, int product, int version, String name) {
+    /**
+     * Gets the key of a device.
+     *
+     * @param device the opened device
+     * @return the key, or null if the device did not report its id or name
+     */
+    static Key of(LinuxEventDevice device) {
+      if (device.id == null || device.name == null) {
+        return null;
+      }
+
+      return new Key(Short.toUnsignedInt(device.id.bustype), Short.toUnsignedInt(device.id.vendor), Short.toUnsignedInt(device.id.product),
+          Short.toUnsignedInt(device.id.version), device.name);
+    }
+  }
+
+  /**
+   * The cached layout of a device model.
+   */
+  static final class Entry {
+    private final byte[] eventTypes;
+    private final List<CachedComponent> components;
+    private final BitSet keys = new BitSet();
+    private final BitSet absoluteAxes = new BitSet();
+
+    private Entry(byte[] eventTypes, List<CachedComponent> components) {
+      this.eventTypes = eventTypes;
+      this.components = components;
+      for (var component : components) {
+        if (component.nativeType() == LinuxEventDevice.EV_KEY) {
+          this.keys.set(component.nativeCode());
+        } else if (component.nativeType() == LinuxEventDevice.EV_ABS) {
+          this.absoluteAxes.set(component.nativeCode());
+        }
+      }
+    }
+
+    /**
+     * Checks if the live device still has the cached layout.
+     *
+     * @param eventTypes the event types bitmap of the device
+     * @param keyBits    the keys bitmap of the device, which is empty if the device has no keys
+     * @param absBits    the absolute axes bitmap of the device, which is empty if the device has no absolute axes
+     * @return true if the cached components can be used for the device
+     */
+    boolean matches(byte[] eventTypes, byte[] keyBits, byte[] absBits) {
+      return Arrays.equals(this.eventTypes, eventTypes)
+          && hasCodes(keyBits, LinuxEventDevice.KEY_MAX, this.keys)
+          && hasCodes(absBits, LinuxEventDevice.ABS_MAX, this.absoluteAxes);
+    }
+
+    /**
+     * Checks if the codes of a bitmap are the cached ones, ignoring the codes from max on, which are never probed.
+     */
+    private static boolean hasCodes(byte[] bits, int max, BitSet cachedCodes) {
+      var liveCodes = BitSet.valueOf(bits);
+      if (liveCodes.length() > max) {
+        liveCodes.clear(max, liveCodes.length());
+      }
+
+      return liveCodes.equals(cachedCodes);
+    }
+
+    /**
+     * Recreates the components of a device from the cache.
+     *
+     * @param vendorId   the vendor id of the device
+     * @param productId  the product id of the device
+     * @param deviceName the name of the device
+     * @return the components, or null if the cache contains component types that are unknown to this version
+     */
+    List<LinuxEventComponent> createComponents(int vendorId, int productId, String deviceName) {
+      var result = new ArrayList<LinuxEventComponent>(this.components.size());
+      for (var component : this.components) {
+        LinuxComponentType type;
+        try {
+          type = LinuxComponentType.valueOf(component.type());
+        } catch (IllegalArgumentException e) {
+          return null;
+        }
+
+        result.add(new LinuxEventComponent(type, component.nativeType() == LinuxEventDevice.EV_ABS, component.nativeType() == LinuxEventDevice.EV_REL,
+            component.nativeType(), component.nativeCode(), component.min(), component.max(), component.flat(), component.fuzz(), vendorId, productId, deviceName));
+      }
+
+      return result;
+    }
+  }
+
+  private record CachedComponent(String type, int nativeType, int nativeCode, int min, int max, int flat, int fuzz) {
+  }
+}
@@ -0,0 +1,150 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.io.Closeable;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches a device directory (usually {@code /dev/input}) with inotify and reports the nodes that are added or removed
+ * as soon as it happens, so devices can be connected and disconnected without rescanning the directory.
+ * <p>
+ * The inotify instance is registered with a {@link LinuxEventReactor}, so the listener is called on the reactor thread.
+ * </p>
+ * <p>
+ * A node is reported as added when it is created or moved into the directory, but also when its attributes change:
+ * udev creates the node first and grants access to it afterward, so opening it right after its creation can fail.
+ * The listener is therefore expected to ignore nodes that it already knows.
+ * </p>
+ */
+class LinuxDeviceWatcher implements Closeable {
+  private static final Logger log = Logger.getLogger(LinuxDeviceWatcher.class.getName());
+
+  /**
+   * The size of the buffer that receives the inotify events, which is enough for a few dozen events with their names.
+   */
+  private static final int BUFFER_SIZE = 4096;
+  private static final int WATCH_MASK = Linux.IN_CREATE | Linux.IN_DELETE | Linux.IN_ATTRIB | Linux.IN_MOVED_FROM | Linux.IN_MOVED_TO | Linux.IN_DELETE_SELF;
+
+  private final Arena memoryArena = Arena.ofShared();
+  private final Path directory;
+  private final int fd;
+  private final LinuxEventReactor reactor;
+  private final Listener listener;
+  private final MemorySegment buffer;
+  private final inotify_event event = new inotify_event();
+
+  private LinuxDeviceWatcher(Path directory, int fd, LinuxEventReactor reactor, Listener listener) {
+    this.directory = directory;
+    this.fd = fd;
+    this.reactor = reactor;
+    this.listener = listener;
+    this.buffer = this.memoryArena.allocate(BUFFER_SIZE, inotify_event.$LAYOUT.byteAlignment());
+  }
+
+  /**
+   * Starts watching the directory.
+   *
+   * @param directory the directory that contains the device nodes
+   * @param listener  the listener that is notified about added and removed nodes
+   * @return the started watcher, or null if the directory could not be watched
+   */
+  static LinuxDeviceWatcher start(Path directory, Listener listener) {
+    int fd = Linux.inotifyInit();
+    if (fd == Linux.ERROR) {
+      log.log(Level.WARNING, "Failed to create inotify instance, devices will not be hot-plugged");
+      return null;
+    }
+
+    if (Linux.inotifyAddWatch(fd, directory.toString(), WATCH_MASK) == Linux.ERROR) {
+      log.log(Level.WARNING, "Failed to watch {0}, devices will not be hot-plugged", directory);
+      Linux.close(fd);
+      return null;
+    }
+
+    var reactor = LinuxEventReactor.start();
+    if (reactor == null) {
+      Linux.close(fd);
+      return null;
+    }
+
+    var watcher = new LinuxDeviceWatcher(directory, fd, reactor, listener);
+    if (!reactor.register(fd, watcher::readEvents)) {
+      watcher.close();
+      return null;
+    }
+
+    return watcher;
+  }
+
+  /**
+   * Stops watching the directory. When this returns, the listener is not called anymore.
+   */
+  @Override
+  public void close() {
+    this.reactor.close();
+    Linux.close(this.fd);
+    this.memoryArena.close();
+  }
+
+  private void readEvents() {
+    int length;
+    while ((length = Linux.readBytes(this.fd, this.buffer)) > 0) {
+      long offset = 0;
+      while (offset + inotify_event.$LAYOUT.byteSize() <= length) {
+        var inotifyEvent = inotify_event.read(this.buffer, offset, this.event);
+        offset += inotifyEvent.byteSize();
+        this.handleEvent(inotifyEvent);
+      }
+    }
+  }
+
+  private void handleEvent(inotify_event inotifyEvent) {
+    if ((inotifyEvent.mask & Linux.IN_Q_OVERFLOW) != 0) {
+      log.log(Level.FINE, "Events of {0} were dropped, rescanning it", this.directory);
+      this.listener.rescan();
+      return;
+    }
+
+    if (inotifyEvent.name == null) {
+      if ((inotifyEvent.mask & (Linux.IN_DELETE_SELF | Linux.IN_IGNORED)) != 0) {
+        log.log(Level.WARNING, "{0} was removed, devices will not be hot-plugged anymore", this.directory);
+      }
+
+      return;
+    }
+
+    var path = this.directory.resolve(inotifyEvent.name).toString();
+    if ((inotifyEvent.mask & (Linux.IN_DELETE | Linux.IN_MOVED_FROM)) != 0) {
+      this.listener.nodeRemoved(path);
+    } else if ((inotifyEvent.mask & (Linux.IN_CREATE | Linux.IN_MOVED_TO | Linux.IN_ATTRIB)) != 0) {
+      this.listener.nodeAdded(path);
+    }
+  }
+
+  /**
+   * Receives the changes of the watched directory on the reactor thread.
+   */
+  interface Listener {
+    /**
+     * Called when a node was created in or moved into the directory, or when its attributes changed.
+     *
+     * @param path the absolute path of the node
+     */
+    void nodeAdded(String path);
+
+    /**
+     * Called when a node was deleted from or moved out of the directory.
+     *
+     * @param path the absolute path of the node
+     */
+    void nodeRemoved(String path);
+
+    /**
+     * Called when the kernel dropped events because they were not read fast enough, so the directory needs to be rescanned.
+     */
+    void rescan();
+  }
+}
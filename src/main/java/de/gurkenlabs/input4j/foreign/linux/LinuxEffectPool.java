@@ -0,0 +1,307 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The force feedback effects of a device that have been uploaded to the kernel, which are reused instead of being
+ * removed and uploaded again whenever the rumble intensity changes.
+ * <p>
+ * Every slot keeps the native {@code ff_effect} of its effect, which the kernel wrote the id of the effect into.
+ * Playing an effect with the same parameters as an uploaded one plays the uploaded effect without uploading it again.
+ * Otherwise, the effect that is currently playing is updated in place by uploading the new parameters with its id,
+ * which the kernel applies while the effect keeps playing. Only when no effect is playing, the effect is uploaded into
+ * a free slot, or into the least recently used slot once the device has no free slots left.
+ * </p>
+ * <p>
+ * At most one effect of the pool plays at a time. Stopping an effect keeps it uploaded; all effects are removed from
+ * the device when the pool is closed. Effects with a limited length (e.g. of haptic patterns) are triggered instead,
+ * which always starts them from the beginning.
+ * </p>
+ */
+class LinuxEffectPool {
+  private static final long ID_OFFSET = ff_effect.$LAYOUT.byteOffset(MemoryLayout.PathElement.groupElement("id"));
+  private static final long PARAMETERS_OFFSET = ID_OFFSET + Short.BYTES;
+  private static final long EFFECT_SIZE = ff_effect.$LAYOUT.byteSize();
+
+  private final int fd;
+  private final int capacity;
+  private final List<Slot> slots = new ArrayList<>();
+  private final input_event effectEvent = new input_event();
+
+  /**
+   * The memory of the slots and the segment that an effect is written into before it is compared with the uploaded effects.
+   * It is allocated with the first effect, so devices that never rumble don't allocate any memory.
+   */
+  private Arena arena;
+  private MemorySegment pendingEffect;
+  private Slot playing;
+  private boolean triggered;
+  private long uses;
+
+  /**
+   * Creates the pool for a device that has been opened for writing.
+   *
+   * @param fd         the file descriptor of the device
+   * @param maxEffects the number of effects that the device can store, as reported by {@code EVIOCGEFFECTS}
+   */
+  LinuxEffectPool(int fd, int maxEffects) {
+    this.fd = fd;
+    this.capacity = Math.max(maxEffects, 1);
+    this.effectEvent.type = (short) LinuxEventDevice.EV_FF;
+  }
+
+  /**
+   * Plays an effect instead of the effect that is currently playing.
+   *
+   * @param effect the effect to play; its id is ignored
+   * @return the id of the playing effect, or {@link Linux#ERROR} if it could not be uploaded or played
+   */
+  synchronized int play(ff_effect effect) {
+    this.prepare(effect);
+
+    // a triggered effect may already be over, so updating it in place would not play the new parameters
+    if (this.triggered) {
+      this.stop();
+    }
+
+    if (this.playing != null && this.playing.hasParameters(this.pendingEffect)) {
+      this.playing.lastUse = ++this.uses;
+      return this.playing.id;
+    }
+
+    var uploaded = this.find(this.pendingEffect);
+    if (uploaded != null) {
+      this.stop();
+      return this.start(uploaded);
+    }
+
+    if (this.playing != null) {
+      var updated = this.playing;
+      if (this.update(updated, this.pendingEffect)) {
+        updated.lastUse = ++this.uses;
+        return updated.id;
+      }
+
+      this.playing = null;
+    }
+
+    var slot = this.allocate(this.pendingEffect);
+    if (slot == null) {
+      return Linux.ERROR;
+    }
+
+    return this.start(slot);
+  }
+
+  /**
+   * Plays an effect with a limited {@code ff_replay.length} from its beginning instead of the effect that is currently
+   * playing. The kernel stops the effect on its own after it has been played the specified number of times.
+   *
+   * @param effect the effect to play; its id is ignored
+   * @param count  the number of times the kernel plays the effect
+   * @return the id of the playing effect, or {@link Linux#ERROR} if it could not be uploaded or played
+   */
+  synchronized int trigger(ff_effect effect, int count) {
+    this.prepare(effect);
+
+    // updating a playing effect doesn't restart it, so the effect is always started anew
+    this.stop();
+    var slot = this.find(this.pendingEffect);
+    if (slot == null) {
+      slot = this.allocate(this.pendingEffect);
+    }
+
+    if (slot == null || this.start(slot, count) == Linux.ERROR) {
+      return Linux.ERROR;
+    }
+
+    this.triggered = true;
+    return slot.id;
+  }
+
+  /**
+   * Stops the effect that is currently playing, which stays uploaded to be played again.
+   */
+  synchronized void stop() {
+    if (this.playing == null) {
+      return;
+    }
+
+    this.write(this.playing.id, 0);
+    this.playing = null;
+    this.triggered = false;
+  }
+
+  /**
+   * Stops the playing effect and removes all effects of this pool from the device.
+   */
+  synchronized void close() {
+    var stopped = this.playing == null || this.write(this.playing.id, 0) != Linux.ERROR;
+    this.playing = null;
+    this.triggered = false;
+
+    // a device that has been unplugged already released its effects
+    if (stopped) {
+      for (var slot : this.slots) {
+        this.remove(slot.id);
+      }
+    }
+
+    this.slots.clear();
+  }
+
+  /**
+   * Gets whether an effect of this pool is playing.
+   *
+   * @return true if an effect is playing; otherwise false
+   */
+  synchronized boolean isPlaying() {
+    return this.playing != null;
+  }
+
+  /**
+   * Gets the number of effects that are uploaded to the device.
+   *
+   * @return the number of uploaded effects
+   */
+  synchronized int size() {
+    return this.slots.size();
+  }
+
+  /**
+   * Uploads an effect to the device.
+   *
+   * @param effectSegment the native effect; a new effect is created if its id is -1
+   * @return the id of the effect, or {@link Linux#ERROR} if it could not be uploaded
+   */
+  int upload(MemorySegment effectSegment) {
+    return Linux.uploadEffect(this.fd, effectSegment);
+  }
+
+  /**
+   * Removes an effect from the device.
+   *
+   * @param effectId the id of the effect
+   * @return 0 on success, or {@link Linux#ERROR} if it could not be removed
+   */
+  int remove(int effectId) {
+    return Linux.removeEffect(this.fd, effectId);
+  }
+
+  /**
+   * Plays or stops an effect of the device.
+   *
+   * @param effectId the id of the effect
+   * @param value    the number of times to play the effect, or 0 to stop it
+   * @return the number of bytes written, or {@link Linux#ERROR} if the event could not be written
+   */
+  int write(int effectId, int value) {
+    this.effectEvent.code = (short) effectId;
+    this.effectEvent.value = value;
+    return Linux.writeEvent(this.fd, this.effectEvent);
+  }
+
+  /**
+   * Writes the effect into the pending segment that it is compared with and uploaded from.
+   */
+  private void prepare(ff_effect effect) {
+    if (this.arena == null) {
+      this.arena = Arena.ofAuto();
+      this.pendingEffect = this.arena.allocate(ff_effect.$LAYOUT);
+    }
+
+    // the effect types use different parts of the union, which must not keep the values of a previous effect
+    this.pendingEffect.fill((byte) 0);
+    effect.write(this.pendingEffect);
+    ff_effect.VH_id.set(this.pendingEffect, 0L, (short) -1);
+  }
+
+  private Slot find(MemorySegment effectSegment) {
+    for (var slot : this.slots) {
+      if (slot.hasParameters(effectSegment)) {
+        return slot;
+      }
+    }
+
+    return null;
+  }
+
+  private Slot allocate(MemorySegment effectSegment) {
+    if (this.slots.size() < this.capacity) {
+      var slot = new Slot(this.arena.allocate(ff_effect.$LAYOUT));
+      slot.effect.copyFrom(effectSegment);
+      var id = this.upload(slot.effect);
+      if (id != Linux.ERROR) {
+        slot.id = id;
+        this.slots.add(slot);
+        return slot;
+      }
+
+      // the effect memory of the device may be used up by other processes, so fall back to reusing an own slot
+      if (this.slots.isEmpty()) {
+        return null;
+      }
+    }
+
+    var leastRecentlyUsed = this.slots.getFirst();
+    for (var slot : this.slots) {
+      if (slot.lastUse < leastRecentlyUsed.lastUse) {
+        leastRecentlyUsed = slot;
+      }
+    }
+
+    return this.update(leastRecentlyUsed, effectSegment) ? leastRecentlyUsed : null;
+  }
+
+  /**
+   * Uploads new parameters for an uploaded effect with its id. A slot that could not be updated is removed,
+   * since the parameters of its effect are not known anymore.
+   */
+  private boolean update(Slot slot, MemorySegment effectSegment) {
+    slot.effect.copyFrom(effectSegment);
+    ff_effect.VH_id.set(slot.effect, 0L, (short) slot.id);
+    if (this.upload(slot.effect) != Linux.ERROR) {
+      return true;
+    }
+
+    this.slots.remove(slot);
+    this.remove(slot.id);
+    return false;
+  }
+
+  private int start(Slot slot) {
+    return this.start(slot, 1);
+  }
+
+  private int start(Slot slot, int count) {
+    slot.lastUse = ++this.uses;
+    if (this.write(slot.id, count) == Linux.ERROR) {
+      return Linux.ERROR;
+    }
+
+    this.playing = slot;
+    return slot.id;
+  }
+
+  private static final class Slot {
+    private final MemorySegment effect;
+    private int id = -1;
+    private long lastUse;
+
+    private Slot(MemorySegment effect) {
+      this.effect = effect;
+    }
+
+    /**
+     * Compares everything but the id of the effect.
+     */
+    private boolean hasParameters(MemorySegment effectSegment) {
+      return MemorySegment.mismatch(this.effect, 0, ID_OFFSET, effectSegment, 0, ID_OFFSET) == -1
+          && MemorySegment.mismatch(this.effect, PARAMETERS_OFFSET, EFFECT_SIZE, effectSegment, PARAMETERS_OFFSET, EFFECT_SIZE) == -1;
+    }
+  }
+}
@@ -166,20 +166,20 @@ final class LinuxEventComponent {
       case ABS_RY -> new InputComponent.ID(Axis.AXIS_RY, this.nativeCode);
       case ABS_RZ -> new InputComponent.ID(Axis.AXIS_RZ, this.nativeCode);
       case ABS_HAT0X ->
-              new InputComponent.ID(ComponentType.AXIS, InputComponent.ID.getNextAxisId(), ID_DPAD_LEFT_RIGHT, this.nativeCode);
+              InputComponent.ID.createDynamic(ComponentType.AXIS, Axis.MAX_DEFAULT_AXIS_ID, ID_DPAD_LEFT_RIGHT, this.nativeCode);
       case ABS_HAT0Y ->
-              new InputComponent.ID(ComponentType.AXIS, InputComponent.ID.getNextAxisId(), ID_DPAD_UP_DOWN, this.nativeCode);
+              InputComponent.ID.createDynamic(ComponentType.AXIS, Axis.MAX_DEFAULT_AXIS_ID, ID_DPAD_UP_DOWN, this.nativeCode);
       default -> {
         var name = this.linuxComponentType.name();
         var id = switch (this.componentType) {
           case AXIS ->
-                  new InputComponent.ID(ComponentType.AXIS, InputComponent.ID.getNextAxisId(), name, this.nativeCode);
+                  InputComponent.ID.createDynamic(ComponentType.AXIS, Axis.MAX_DEFAULT_AXIS_ID, name, this.nativeCode);
           case BUTTON ->
-                  new InputComponent.ID(ComponentType.BUTTON, InputComponent.ID.getNextButtonId(), name, this.nativeCode);
+                  InputComponent.ID.createDynamic(ComponentType.BUTTON, Button.MAX_DEFAULT_BUTTON_ID, name, this.nativeCode);
           case KEY ->
-                  new InputComponent.ID(ComponentType.KEY, InputComponent.ID.getNextId(ComponentType.KEY, 0), name, this.nativeCode);
+                  InputComponent.ID.createDynamic(ComponentType.KEY, 0, name, this.nativeCode);
           default ->
-                  new InputComponent.ID(ComponentType.UNKNOWN, InputComponent.ID.getNextId(ComponentType.UNKNOWN, 0), name, this.nativeCode);
+                  InputComponent.ID.createDynamic(ComponentType.UNKNOWN, 0, name, this.nativeCode);
         };
         log.log(Level.FINE, "No mapping for device {0} (VID={1}, PID={2}) event code {3} ({4}), using dynamic ID: {5}",
             new Object[] {deviceName != null ? deviceName : "unknown", vendorId, productId, nativeCode, linuxComponentType.name(), id.toString()});
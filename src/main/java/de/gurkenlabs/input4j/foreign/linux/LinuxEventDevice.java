@@ -3,7 +3,10 @@ package de.gurkenlabs.input4j.foreign.linux;
 import de.gurkenlabs.input4j.InputDevice;
 
 import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -24,10 +27,19 @@ class LinuxEventDevice {
   static final int EV_FF_STATUS = 0x17;
   static final int EV_MAX = 0x1f;
 
+  static final int SYN_REPORT = 0;
+  static final int SYN_DROPPED = 3;
+
   static final int KEY_MAX = 0x2ff;
   static final int REL_MAX = 0x0f;
   static final int ABS_MAX = 0x3f;
 
+  /**
+   * The number of events that are read from the device with a single syscall.
+   * A full report of a modern gamepad rarely exceeds a dozen events, so this drains the queue with one read per poll.
+   */
+  static final int EVENT_BUFFER_SIZE = 64;
+
   private static final Logger log = Logger.getLogger(LinuxEventDevice.class.getName());
   final String filename;
   final int fd;
@@ -35,6 +47,16 @@ class LinuxEventDevice {
   final input_id id;
   final List<LinuxEventComponent> componentList = new ArrayList<>();
 
+  /**
+   * Maps the event code of each event type to the index of its component in {@link #componentList}, which is also
+   * the index of the component's value in the state buffer. Unmapped codes are {@code -1}.
+   * <p>
+   * The table is filled when components are added while the device is opened, so resolving the component
+   * of an event doesn't require scanning the component list.
+   * </p>
+   */
+  private final int[][] componentIndexTable = new int[EV_MAX + 1][];
+
   /**
    * Whether the device supports force feedback (rumble).
    * Requires write access to the device node and either FF_RUMBLE or FF_SINE
@@ -70,14 +92,113 @@ class LinuxEventDevice {
   final int maxEffects;
   boolean openedReadOnly = false;
 
+  /**
+   * Whether the kernel stamps the events of this device with {@code CLOCK_MONOTONIC} (EVIOCSCLOCKID), which is the
+   * time base of {@link System#nanoTime()} on Linux. Only then are the event timestamps reported to the input device.
+   */
+  boolean monotonicTimestamps;
+
+  /**
+   * Whether the device has been closed, e.g. because its node was removed. A closed device is not read anymore,
+   * since its file descriptor may already belong to another file.
+   */
+  boolean closed;
+
+  /**
+   * Whether the device hung up (e.g. because it was unplugged) before its node was removed. The file descriptor stays
+   * open until the device is closed, but reading it would only fail, so a device that hung up is not read anymore.
+   */
+  volatile boolean hungUp;
+
   InputDevice inputDevice;
   float[] currentValues;
-  int currentEffectId = -1;
+
+  /**
+   * What happened to each component since the previous poll, which {@link #currentValues} alone does not reveal:
+   * the number of button edges and the range of the normalized values. These are reset after every poll.
+   */
+  int[] pressCounts;
+  int[] releaseCounts;
+  float[] minValues;
+  float[] maxValues;
+
+  /**
+   * The kernel timestamp (in nanoseconds) of the report that last changed each component since the previous poll,
+   * or 0 if the component did not change. These are reset after every poll.
+   */
+  long[] changeTimestamps;
+
+  /**
+   * The events of the current kernel report that are applied as a whole once its {@code SYN_REPORT} arrives,
+   * stored as component indices and normalized values.
+   */
+  int[] pendingComponents = new int[16];
+  float[] pendingValues = new float[16];
+  int pendingCount;
+
+  /**
+   * Whether the kernel dropped events ({@code SYN_DROPPED}), in which case all events up to the next {@code SYN_REPORT}
+   * are discarded and the state is queried from the device.
+   */
+  boolean dropped;
+
+  /**
+   * The native buffer that receives up to {@link #EVENT_BUFFER_SIZE} events per read and the instance they are decoded into.
+   * Both are reused for every poll. The buffer is allocated from an arena of this device, which is freed when the device
+   * is closed, so devices that are reconnected over and over don't pile up buffers.
+   */
+  private Arena eventArena;
+  private MemorySegment eventBuffer;
+  final input_event polledEvent = new input_event();
+
+  /**
+   * The force feedback effects that have been uploaded to this device, or null if it does not support force feedback.
+   */
+  final LinuxEffectPool effectPool;
+
+  /**
+   * The rumble intensities of the playing effect, which is not changed for smaller differences than the rumble threshold.
+   */
   float currentStrongMagnitude = 0f;
   float currentWeakMagnitude = 0f;
 
   public int version;
 
+  /**
+   * Creates a device for an already opened file descriptor without querying its capabilities from the kernel.
+   * This is used for synthetic event sources (e.g. pipes) whose components are added manually.
+   *
+   * @param fd       the opened file descriptor
+   * @param filename the file name of the event source
+   * @param name     the name of the device
+   */
+  LinuxEventDevice(int fd, String filename, String name) {
+    this(fd, filename, name, null);
+  }
+
+  /**
+   * Creates a device for an already opened file descriptor without querying its capabilities from the kernel,
+   * but with the identity of a real device, e.g. when a recording of a device is replayed.
+   *
+   * @param fd       the opened file descriptor, or {@link Linux#ERROR} if the events are not read from a file descriptor
+   * @param filename the file name of the event source
+   * @param name     the name of the device
+   * @param id       the bus type, vendor, product and version of the device, or null if unknown
+   */
+  LinuxEventDevice(int fd, String filename, String name, input_id id) {
+    this.filename = filename;
+    this.fd = fd;
+    this.name = name;
+    this.id = id;
+    this.openedReadOnly = true;
+    this.supportsForceFeedback = false;
+    this.supportsRumble = false;
+    this.supportsSine = false;
+    this.supportsGain = false;
+    this.maxEffects = 0;
+    this.effectPool = null;
+  }
+
   public LinuxEventDevice(Arena memoryArena, String filename) {
     this.filename = filename;
 
@@ -109,7 +230,10 @@ class LinuxEventDevice {
       }
       // Force feedback requires write access and rumble (or sine fallback) support
       this.supportsForceFeedback = !this.openedReadOnly && (this.supportsRumble || this.supportsSine);
+      this.monotonicTimestamps = Linux.setClockId(this.fd, Linux.CLOCK_MONOTONIC) == 0;
     }
+
+    this.effectPool = this.supportsForceFeedback ? new LinuxEffectPool(this.fd, this.maxEffects) : null;
   }
 
   public LinuxEventDevice(Arena memoryArena, String filename, boolean forceRumble) {
@@ -160,7 +284,112 @@ class LinuxEventDevice {
       }
       // Force feedback requires write access and rumble (or sine fallback) support
       this.supportsForceFeedback = !isReadOnly && (this.supportsRumble || this.supportsSine);
+      this.monotonicTimestamps = Linux.setClockId(this.fd, Linux.CLOCK_MONOTONIC) == 0;
+    }
+
+    this.effectPool = this.supportsForceFeedback ? new LinuxEffectPool(this.fd, this.maxEffects) : null;
+  }
+
+  /**
+   * Adds an event to the current report, which is applied with the next {@code SYN_REPORT}.
+   */
+  void addPendingEvent(int componentIndex, float value) {
+    if (this.pendingCount == this.pendingComponents.length) {
+      this.pendingComponents = Arrays.copyOf(this.pendingComponents, this.pendingCount * 2);
+      this.pendingValues = Arrays.copyOf(this.pendingValues, this.pendingCount * 2);
     }
+
+    this.pendingComponents[this.pendingCount] = componentIndex;
+    this.pendingValues[this.pendingCount] = value;
+    this.pendingCount++;
+  }
+
+  /**
+   * Gets the buffer that the events of this device are read into, allocating it on first use.
+   * This must be called while holding the lock of this device, and the device must not be closed.
+   *
+   * @return the event buffer
+   */
+  MemorySegment getEventBuffer() {
+    if (this.eventBuffer == null) {
+      // shared, since the device is read by the polling thread or the event reactor
+      this.eventArena = Arena.ofShared();
+      this.eventBuffer = this.eventArena.allocate(MemoryLayout.sequenceLayout(EVENT_BUFFER_SIZE, input_event.$LAYOUT));
+    }
+
+    return this.eventBuffer;
+  }
+
+  /**
+   * Reads the pending events of this device into the buffer with a single syscall.
+   *
+   * @param buffer the buffer that receives the events
+   * @return the number of events read, 0 if there are no pending events or {@link Linux#ERROR} if reading failed
+   */
+  int readEvents(MemorySegment buffer) {
+    return Linux.read(this.fd, buffer);
+  }
+
+  /**
+   * Queries the current state of all keys and buttons (EVIOCGKEY).
+   *
+   * @return the key state bits, or null if they could not be queried
+   */
+  byte[] queryKeyStates() {
+    return Linux.getKeyStates(this.fd);
+  }
+
+  /**
+   * Queries the current state of an absolute axis (EVIOCGABS).
+   *
+   * @param code the code of the axis
+   * @return the axis info, or null if it could not be queried
+   */
+  input_absinfo queryAbsInfo(int code) {
+    return Linux.getAbsInfo(this.fd, code);
+  }
+
+  /**
+   * Queries the supported codes of an event type while the device is probed (EVIOCGBIT).
+   *
+   * @param probeArena the arena of the probe
+   * @param eventType  the event type, or {@link #EV_SYN} for the supported event types
+   * @return the bits of the supported codes, or null if they could not be queried
+   */
+  byte[] probeBits(Arena probeArena, int eventType) {
+    return Linux.getBits(probeArena, eventType, this.fd);
+  }
+
+  /**
+   * Queries the range of an absolute axis while the device is probed (EVIOCGABS).
+   *
+   * @param probeArena the arena of the probe
+   * @param code       the code of the axis
+   * @return the axis info, or null if it could not be queried
+   */
+  input_absinfo probeAbsInfo(Arena probeArena, int code) {
+    return Linux.getAbsInfo(probeArena, this.fd, code);
+  }
+
+  /**
+   * Queries the current state of all keys and absolute axes of this device, e.g. to resynchronize it after events were dropped.
+   *
+   * @return the state of the device
+   */
+  State queryState() {
+    byte[] keyStates = null;
+    var keyStatesQueried = false;
+    var absInfo = new input_absinfo[ABS_MAX + 1];
+    for (var component : this.componentList) {
+      if (component.nativeType == EV_KEY && !keyStatesQueried) {
+        keyStates = this.queryKeyStates();
+        keyStatesQueried = true;
+      } else if (component.nativeType == EV_ABS && component.nativeCode <= ABS_MAX) {
+        absInfo[component.nativeCode] = this.queryAbsInfo(component.nativeCode);
+      }
+    }
+
+    return new State(keyStates, absInfo);
   }
 
   public static boolean isBitSet(byte[] bits, int bit) {
@@ -178,30 +407,96 @@ class LinuxEventDevice {
     };
   }
 
-  public void close(Arena memoryArena) {
+  public void close() {
+    // the event buffer must not be freed while it is being read
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+      if (this.eventArena != null) {
+        this.eventArena.close();
+        this.eventArena = null;
+        this.eventBuffer = null;
+      }
+    }
+
     if (this.fd == Linux.ERROR) {
       return;
     }
 
-    if (this.currentEffectId != -1) {
-      var stopEvent = new input_event();
-      stopEvent.type = (short) EV_FF;
-      stopEvent.code = (short) this.currentEffectId;
-      stopEvent.value = 0;
-      Linux.writeEvent(memoryArena, this.fd, stopEvent);
-      Linux.removeEffect(memoryArena, this.fd, this.currentEffectId);
-      this.currentEffectId = -1;
+    if (this.effectPool != null) {
+      this.effectPool.close();
     }
 
-    Linux.close(memoryArena, this.fd);
+    Linux.close(this.fd);
   }
 
-  public LinuxEventComponent getNativeComponent(input_event inputEvent) {
-    for (var component : this.componentList) {
-      if (component.nativeType == inputEvent.type && component.nativeCode == inputEvent.code) {
-        return component;
-      }
+  /**
+   * Adds the component to this device and registers it in the lookup table for its event type and code.
+   *
+   * @param component the component to add
+   * @return the index of the component in the component list
+   */
+  int addComponent(LinuxEventComponent component) {
+    int index = this.componentList.size();
+    this.componentList.add(component);
+
+    int type = component.nativeType;
+    int code = component.nativeCode;
+    if (type < 0 || type > EV_MAX || code < 0) {
+      return index;
+    }
+
+    var codes = this.componentIndexTable[type];
+    if (codes == null || codes.length <= code) {
+      int size = Math.max(getMaxBits(type), code) + 1;
+      int oldSize = codes == null ? 0 : codes.length;
+      codes = codes == null ? new int[size] : Arrays.copyOf(codes, size);
+      Arrays.fill(codes, oldSize, size, -1);
+      this.componentIndexTable[type] = codes;
     }
-    return null;
+
+    // like the component list, the first component registered for a code wins
+    if (codes[code] == -1) {
+      codes[code] = index;
+    }
+
+    return index;
+  }
+
+  /**
+   * Gets the index of the component that reports events of the given type and code.
+   *
+   * @param type the event type
+   * @param code the event code
+   * @return the index of the component in {@link #componentList}, or -1 if the device has no such component
+   */
+  int getComponentIndex(int type, int code) {
+    if (type < 0 || type > EV_MAX) {
+      return -1;
+    }
+
+    var codes = this.componentIndexTable[type];
+    if (codes == null || code < 0 || code >= codes.length) {
+      return -1;
+    }
+
+    return codes[code];
+  }
+
+  public LinuxEventComponent getNativeComponent(input_event inputEvent) {
+    int index = this.getComponentIndex(inputEvent.type, Short.toUnsignedInt(inputEvent.code));
+    return index == -1 ? null : this.componentList.get(index);
+  }
+
+  /**
+   * The state of the keys and absolute axes of a device.
+   *
+   * @param keyStates the key state bits (see {@link #queryKeyStates()}), or null if they are unknown
+   * @param absInfo   the axis info of every absolute axis by its code, with null for the axes whose state is unknown
+   */
+  record State(byte[] keyStates, input_absinfo[] absInfo) {
   }
 }
@@ -2,23 +2,30 @@ package de.gurkenlabs.input4j.foreign.linux;
 
 import de.gurkenlabs.input4j.AbstractInputDevicePlugin;
 import de.gurkenlabs.input4j.BatteryInfo;
-import de.gurkenlabs.input4j.BatteryLevel;
-import de.gurkenlabs.input4j.BatteryType;
 import de.gurkenlabs.input4j.ComponentType;
+import de.gurkenlabs.input4j.HapticPattern;
 import de.gurkenlabs.input4j.InputComponent;
 import de.gurkenlabs.input4j.InputDevice;
+import de.gurkenlabs.input4j.InputDevices;
 
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.lang.foreign.Arena;
-import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -35,30 +42,344 @@ import java.util.stream.Stream;
  * </ul>
  */
 public class LinuxEventDevicePlugin extends AbstractInputDevicePlugin {
+  private static final String DEVICE_DIRECTORY = "/dev/input";
+  private static final String EVENT_NODE_PREFIX = "event";
+  private static final String SYSFS_ROOT = "/sys";
+
   private final Arena memoryArena = Arena.ofShared();
   private final Map<String, LinuxEventDevice> nativeDevices = new ConcurrentHashMap<>();
+  private Path deviceDirectory = Path.of(DEVICE_DIRECTORY);
+  private Path sysfsRoot = Path.of(SYSFS_ROOT);
+
+  /**
+   * Guards opening and closing devices, so the initial scan and the hot-plug events never handle the same node twice.
+   */
+  private final Object deviceLock = new Object();
+  private boolean closed;
+
+  /**
+   * Watches the device directory for nodes that are added or removed, or null if devices are not hot-plugged.
+   */
+  private LinuxDeviceWatcher deviceWatcher;
+
+  /**
+   * The reactor that reads events as soon as they arrive, or null if the devices are read when they are polled.
+   *
+   * @see InputDevices.DefaultInputConfiguration#isEventDriven()
+   */
+  private volatile LinuxEventReactor eventReactor;
+
+  /**
+   * The recorder that receives all events read from the devices, or null if the events are not recorded.
+   */
+  private volatile LinuxEventRecorder recorder;
+  private final Object recorderLock = new Object();
+
+  /**
+   * The cache of the component layouts of known device models, or null if every device is probed completely.
+   *
+   * @see InputDevices.DefaultInputConfiguration#getCapabilityCacheFile()
+   */
+  private volatile LinuxCapabilityCache capabilityCache;
+
+  /**
+   * Keeps the battery state of the devices up to date, so reading it is a lookup instead of a scan of sysfs.
+   *
+   * @see InputDevices.DefaultInputConfiguration#getBatteryRefreshInterval()
+   */
+  private volatile LinuxBatteryMonitor batteryMonitor;
+
+  /**
+   * Sets the directory that contains the event device nodes instead of {@code /dev/input}, e.g. a temporary directory in tests.
+   * This must be called before the plugin is initialized.
+   *
+   * @param deviceDirectory the directory that contains the event device nodes
+   */
+  void setDeviceDirectory(Path deviceDirectory) {
+    this.deviceDirectory = deviceDirectory.toAbsolutePath();
+  }
+
+  /**
+   * Sets the mount point of sysfs instead of {@code /sys}, e.g. a fixture tree in tests.
+   * This must be called before the plugin is initialized.
+   *
+   * @param sysfsRoot the directory that contains {@code class/input}
+   */
+  void setSysfsRoot(Path sysfsRoot) {
+    this.sysfsRoot = sysfsRoot.toAbsolutePath();
+  }
 
   @Override
   public void internalInitDevices(Frame owner) {
-    initEventDevices();
-    this.setDevices(this.nativeDevices.values().stream().map(d -> d.inputDevice).toList());
+    // the watcher may report nodes right away, which are opened with the battery monitor and the capability cache
+    this.batteryMonitor = new LinuxBatteryMonitor(this.sysfsRoot, this::batteryChanged);
+    var capabilityCacheFile = InputDevices.configure().getCapabilityCacheFile();
+    if (capabilityCacheFile != null) {
+      this.capabilityCache = LinuxCapabilityCache.load(capabilityCacheFile);
+    }
+
+    // watch before scanning, so a node that is added during the scan is not missed, and hold the lock until the scanned
+    // devices are published, so the reported nodes are only handled afterward
+    synchronized (this.deviceLock) {
+      this.deviceWatcher = this.watchDeviceDirectory(new LinuxDeviceWatcher.Listener() {
+        @Override
+        public void nodeAdded(String path) {
+          deviceNodeAdded(path);
+        }
+
+        @Override
+        public void nodeRemoved(String path) {
+          deviceNodeRemoved(path);
+        }
+
+        @Override
+        public void rescan() {
+          rescanDeviceNodes();
+        }
+      });
+
+      initEventDevices();
+      if (this.capabilityCache != null) {
+        this.capabilityCache.save();
+      }
+
+      if (InputDevices.configure().isEventDriven()) {
+        this.startEventReactor();
+      }
+
+      this.setDevices(this.getInputDevices());
+    }
+
+    this.batteryMonitor.start(InputDevices.configure().getBatteryRefreshInterval());
+  }
+
+  /**
+   * Starts watching the device directory for added and removed nodes.
+   *
+   * @param listener the listener that is notified about the changes of the directory
+   * @return the started watcher, or null if the directory could not be watched
+   */
+  LinuxDeviceWatcher watchDeviceDirectory(LinuxDeviceWatcher.Listener listener) {
+    return LinuxDeviceWatcher.start(this.deviceDirectory, listener);
+  }
+
+  /**
+   * Starts recording the raw events of all devices of this plugin into the specified file, which can be replayed later
+   * with the {@link ReplayInputDevicePlugin}. The recording ends when the returned recorder is closed or this plugin is closed.
+   *
+   * @param file the file to record to; an existing file is overwritten
+   * @return the recorder
+   * @throws IOException           if the file could not be created
+   * @throws IllegalStateException if the events are already being recorded
+   */
+  public LinuxEventRecorder startRecording(Path file) throws IOException {
+    synchronized (this.recorderLock) {
+      if (this.recorder != null) {
+        throw new IllegalStateException("The events are already being recorded to " + this.recorder.getFile());
+      }
+
+      this.recorder = new LinuxEventRecorder(this, file, this.nativeDevices.values());
+      return this.recorder;
+    }
+  }
+
+  /**
+   * Gets the recorder that the events of this plugin are currently recorded with.
+   *
+   * @return the recorder, or null if the events are not recorded
+   */
+  public LinuxEventRecorder getRecorder() {
+    return this.recorder;
+  }
+
+  void detachRecorder(LinuxEventRecorder recorder) {
+    synchronized (this.recorderLock) {
+      if (this.recorder == recorder) {
+        this.recorder = null;
+      }
+    }
   }
 
   @Override
   public void close() {
+    synchronized (this.deviceLock) {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+    }
+
+    var activeRecorder = this.recorder;
+    if (activeRecorder != null) {
+      activeRecorder.close();
+    }
+
+    if (this.deviceWatcher != null) {
+      this.deviceWatcher.close();
+      this.deviceWatcher = null;
+    }
+
+    if (this.eventReactor != null) {
+      this.eventReactor.close();
+      this.eventReactor = null;
+    }
+
+    if (this.batteryMonitor != null) {
+      this.batteryMonitor.close();
+      this.batteryMonitor = null;
+    }
+
+    // keep the devices that were hot-plugged since the initialization
+    if (this.capabilityCache != null) {
+      this.capabilityCache.save();
+    }
+
     super.close();
     for (LinuxEventDevice device : nativeDevices.values()) {
-      device.close(this.memoryArena);
+      device.close();
     }
 
     this.nativeDevices.clear();
     memoryArena.close();
   }
 
+  /**
+   * Gets whether the devices of this plugin are read by the epoll-based event reactor instead of on every poll.
+   *
+   * @return true if the event reactor is running; otherwise false
+   */
+  public boolean isEventDriven() {
+    return this.eventReactor != null;
+  }
+
+  private void startEventReactor() {
+    this.eventReactor = LinuxEventReactor.start();
+    if (this.eventReactor == null) {
+      log.log(Level.WARNING, "Could not start the event reactor, falling back to reading devices on poll");
+      return;
+    }
+
+    for (var device : this.nativeDevices.values()) {
+      this.register(this.eventReactor, device);
+    }
+  }
+
+  private void register(LinuxEventReactor reactor, LinuxEventDevice device) {
+    reactor.register(device.fd, () -> this.readEvents(device), () -> hangUp(device));
+  }
+
+  /**
+   * Stops reading a device that hung up until its node is removed and the device is closed.
+   */
+  private static void hangUp(LinuxEventDevice device) {
+    if (!device.hungUp) {
+      log.log(Level.FINE, "Input device hung up: {0}", device.filename);
+      device.hungUp = true;
+    }
+  }
+
   @Override
   protected Collection<InputDevice> refreshInputDevices() {
-    // TODO: implement refresh support
-    return this.getAll();
+    // the device watcher keeps the native devices up to date
+    return this.getInputDevices();
+  }
+
+  private List<InputDevice> getInputDevices() {
+    return this.nativeDevices.values().stream().map(d -> d.inputDevice).toList();
+  }
+
+  /**
+   * Opens a node that was added to the device directory (or whose permissions changed) and reports it as connected
+   * if it is an input device. Nodes that are already open are ignored.
+   */
+  private void deviceNodeAdded(String filename) {
+    if (!isEventNode(filename)) {
+      return;
+    }
+
+    InputDevice inputDevice;
+    synchronized (this.deviceLock) {
+      if (this.closed || this.nativeDevices.containsKey(filename)) {
+        return;
+      }
+
+      var device = this.openDevice(filename);
+      if (device == null) {
+        return;
+      }
+
+      inputDevice = this.createInputDevice(device);
+      this.nativeDevices.put(inputDevice.getID(), device);
+      var reactor = this.eventReactor;
+      if (reactor != null) {
+        this.register(reactor, device);
+      }
+    }
+
+    log.log(Level.INFO, "Input device connected: {0} - {1}", new Object[] {filename, inputDevice.getName()});
+    this.deviceConnected(inputDevice);
+  }
+
+  /**
+   * Closes the device of a node that was removed from the device directory and reports it as disconnected.
+   */
+  private void deviceNodeRemoved(String filename) {
+    LinuxEventDevice device;
+    synchronized (this.deviceLock) {
+      if (this.closed) {
+        return;
+      }
+
+      device = this.nativeDevices.remove(filename);
+      if (device == null) {
+        return;
+      }
+
+      var reactor = this.eventReactor;
+      if (reactor != null) {
+        reactor.unregister(device.fd);
+      }
+
+      this.batteryMonitor.remove(device.inputDevice);
+
+      // wait for a poll that is reading the device right now
+      synchronized (device) {
+        device.close();
+      }
+    }
+
+    log.log(Level.INFO, "Input device disconnected: {0} - {1}", new Object[] {filename, device.name});
+    this.deviceDisconnected(device.inputDevice);
+  }
+
+  /**
+   * Compares the nodes of the device directory with the open devices after hot-plug events were lost.
+   */
+  private void rescanDeviceNodes() {
+    var nodes = this.listEventNodes();
+    if (nodes == null) {
+      return;
+    }
+
+    var filenames = Arrays.stream(nodes).map(File::getAbsolutePath).collect(Collectors.toSet());
+    for (var filename : List.copyOf(this.nativeDevices.keySet())) {
+      if (!filenames.contains(filename)) {
+        this.deviceNodeRemoved(filename);
+      }
+    }
+
+    for (var filename : filenames) {
+      this.deviceNodeAdded(filename);
+    }
+  }
+
+  private File[] listEventNodes() {
+    return this.deviceDirectory.toFile().listFiles((File _, String name) -> name.startsWith(EVENT_NODE_PREFIX));
+  }
+
+  private static boolean isEventNode(String filename) {
+    return Path.of(filename).getFileName().toString().startsWith(EVENT_NODE_PREFIX);
   }
 
 
@@ -125,9 +446,15 @@ public class LinuxEventDevicePlugin extends AbstractInputDevicePlugin {
     return Linux.ERROR;
   }
 
+  /**
+   * Opens and probes all event nodes of the device directory.
+   * <p>
+   * Every node is probed on its own virtual thread, since probing a device takes dozens of ioctls that are mostly
+   * spent waiting for the drivers. The devices are added in the order of their nodes once all probes are done.
+   * </p>
+   */
   private void initEventDevices() {
-    final File dev = new File("/dev/input");
-    File[] eventDeviceFiles = dev.listFiles((File _, String name) -> name.startsWith("event"));
+    File[] eventDeviceFiles = this.listEventNodes();
     if (eventDeviceFiles == null) {
       log.log(Level.SEVERE, "No event devices found");
       return;
@@ -135,69 +462,231 @@ public class LinuxEventDevicePlugin extends AbstractInputDevicePlugin {
       Arrays.sort(eventDeviceFiles, Comparator.comparing(File::getName));
     }
 
-    for (var eventDeviceFile : eventDeviceFiles) {
-      LinuxEventDevice device = new LinuxEventDevice(this.memoryArena, eventDeviceFile.getAbsolutePath(), true);
-      if (device.fd == Linux.ERROR) {
-        log.log(Level.INFO, "Could not open device (permission denied): " + eventDeviceFile.getAbsolutePath());
-        continue;
+    var probes = new ArrayList<Future<LinuxEventDevice>>(eventDeviceFiles.length);
+    try (var executor = this.createProbeExecutor()) {
+      for (var eventDeviceFile : eventDeviceFiles) {
+        var filename = eventDeviceFile.getAbsolutePath();
+        probes.add(executor.submit(() -> this.openDevice(filename)));
       }
+    }
 
-      if (device.openedReadOnly) {
-        log.log(Level.INFO, "Device opened read-only (no force feedback): " + device.filename);
+    for (int i = 0; i < eventDeviceFiles.length; i++) {
+      var probe = probes.get(i);
+      if (probe.state() == Future.State.FAILED) {
+        log.log(Level.SEVERE, "Failed to probe device: " + eventDeviceFiles[i].getAbsolutePath(), probe.exceptionNow());
+        continue;
       }
 
-      // ignore some devices since they are not useful for input
-      if (device.name != null
-        && (device.name.toUpperCase().contains("VIDEO BUS")
-        || device.name.toUpperCase().contains("VIRTUAL")
-        || device.name.toUpperCase().contains("POWER BUTTON")
-        || device.name.toUpperCase().contains("HDA INTEL")
-        || device.name.toUpperCase().contains("HDMI"))) {
-        log.log(Level.FINE, "Ignoring virtual device: " + device.name);
+      var device = probe.resultNow();
+      if (device == null) {
         continue;
       }
 
-      if (device.supportsForceFeedback) {
-        log.log(Level.FINE, "Device supports force feedback: " + device.name + " with " + device.maxEffects + " effects");
-        if (device.supportsGain) {
-          Linux.setGain(this.memoryArena, device.fd, MAX_MAGNITUDE);
-        }
-      }
+      var inputDevice = this.createInputDevice(device);
+      String accessMode = device.supportsForceFeedback ? "full" : "read-only";
+      log.log(Level.INFO, "Found input device: {0} - {1} ({2}) with {3} components", new Object[] {device.filename, device.name, accessMode, device.componentList.size()});
+      this.nativeDevices.put(inputDevice.getID(), device);
+    }
+  }
 
-      int vendorId = device.id != null ? Short.toUnsignedInt(device.id.vendor) : -1;
-      int productId = device.id != null ? Short.toUnsignedInt(device.id.product) : -1;
-      String displayName = de.gurkenlabs.input4j.ControllerDatabase.getDisplayName(vendorId, productId);
+  /**
+   * Creates the executor that probes the nodes during the initialization, which starts a virtual thread per node.
+   */
+  ExecutorService createProbeExecutor() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("input4j-probe-", 0).factory());
+  }
 
-      var inputDevice = new InputDevice(eventDeviceFile.getAbsolutePath(), device.name, device.name, vendorId, productId, displayName, this::pollLinuxEventDevice, this::rumbleLinuxEventDevice, this::getBatteryInfo);
-      device.inputDevice = inputDevice;
+  /**
+   * Opens an event device node and probes its components.
+   * <p>
+   * This may be called concurrently for different nodes. The native memory of the probe is released once it is done.
+   * </p>
+   *
+   * @param filename the absolute path of the node
+   * @return the opened device, or null if the node could not be opened or is not a game input device
+   */
+  LinuxEventDevice openDevice(String filename) {
+    // reject devices that are not used by this plugin before opening them, if the kernel exports their capabilities
+    var sysfsDevice = LinuxSysfsInputDevice.read(this.sysfsRoot, Path.of(filename).getFileName().toString());
+    if (sysfsDevice != null && !sysfsDevice.isGameInputDevice()) {
+      log.log(Level.FINE, "Ignoring device without game input: " + filename + " - " + sysfsDevice.name());
+      return null;
+    }
 
-      // Check for available event types
-      byte[] eventTypes = Linux.getBits(this.memoryArena, LinuxEventDevice.EV_SYN, device.fd);
-      if (eventTypes == null) {
-        log.log(Level.SEVERE, "Failed to get event types for " + device.filename);
-        continue;
+    // devices without rumble are opened read-only right away instead of after a failed attempt to open them for writing
+    var openForWriting = sysfsDevice == null || sysfsDevice.supportsForceFeedback();
+    try (var probeArena = Arena.ofConfined()) {
+      return probeDevice(probeArena, filename, openForWriting);
+    }
+  }
+
+  /**
+   * Checks if a device is ignored by its name since it is not useful for input.
+   *
+   * @param name the name of the device
+   * @return true if the device is ignored
+   */
+  static boolean isIgnoredDevice(String name) {
+    if (name == null) {
+      return false;
+    }
+
+    var upperCaseName = name.toUpperCase();
+    return upperCaseName.contains("VIDEO BUS")
+        || upperCaseName.contains("VIRTUAL")
+        || upperCaseName.contains("POWER BUTTON")
+        || upperCaseName.contains("HDA INTEL")
+        || upperCaseName.contains("HDMI");
+  }
+
+  /**
+   * Opens the node of a device to probe it, which already queries its name, id and force feedback support.
+   *
+   * @param probeArena     the arena of the probe
+   * @param filename       the absolute path of the node
+   * @param openForWriting whether the node is opened for writing, which is needed for force feedback
+   * @return the device, whose file descriptor is {@link Linux#ERROR} if the node could not be opened
+   */
+  LinuxEventDevice openNode(Arena probeArena, String filename, boolean openForWriting) {
+    return new LinuxEventDevice(probeArena, filename, openForWriting);
+  }
+
+  private LinuxEventDevice probeDevice(Arena probeArena, String filename, boolean openForWriting) {
+    LinuxEventDevice device = this.openNode(probeArena, filename, openForWriting);
+    if (device.fd == Linux.ERROR) {
+      log.log(Level.INFO, "Could not open device (permission denied): {0}", filename);
+      return null;
+    }
+
+    if (openForWriting && device.openedReadOnly) {
+      log.log(Level.INFO, "Device opened read-only (no force feedback): {0}", device.filename);
+    }
+
+    // ignore some devices since they are not useful for input
+    if (isIgnoredDevice(device.name)) {
+      log.log(Level.FINE, "Ignoring virtual device: " + device.name);
+      device.close();
+      return null;
+    }
+
+    if (device.supportsForceFeedback) {
+      log.log(Level.FINE, "Device supports force feedback: " + device.name + " with " + device.maxEffects + " effects");
+      if (device.supportsGain) {
+        Linux.setGain(device.fd, MAX_MAGNITUDE);
       }
+    }
+
+    // Check for available event types
+    byte[] eventTypes = device.probeBits(probeArena, LinuxEventDevice.EV_SYN);
+    if (eventTypes == null) {
+      log.log(Level.SEVERE, "Failed to get event types for " + device.filename);
+      device.close();
+      return null;
+    }
 
+    if (!this.addCachedComponents(probeArena, device, eventTypes)) {
       // Check for available components per event type (EV_KEY, EV_ABS, EV_REL, etc.)
-      addEventComponents(memoryArena, device, inputDevice, eventTypes, LinuxEventDevice.EV_KEY, LinuxEventDevice.KEY_MAX, "EV_KEY");
-      addEventComponents(memoryArena, device, inputDevice, eventTypes, LinuxEventDevice.EV_ABS, LinuxEventDevice.ABS_MAX, "EV_ABS");
+      addEventComponents(probeArena, device, eventTypes, LinuxEventDevice.EV_KEY, LinuxEventDevice.KEY_MAX, "EV_KEY");
+      addEventComponents(probeArena, device, eventTypes, LinuxEventDevice.EV_ABS, LinuxEventDevice.ABS_MAX, "EV_ABS");
 
-      // ignore devices without components
-      // also ignore devices that have no buttons, axis or dpad (this should also exclude keyboards)
-      if (device.componentList.isEmpty() || device.componentList.stream().noneMatch(x -> x.componentType == ComponentType.BUTTON || x.componentType == ComponentType.AXIS)) {
-        continue;
+      var cache = this.capabilityCache;
+      var cacheKey = LinuxCapabilityCache.Key.of(device);
+      if (cache != null && cacheKey != null) {
+        cache.put(cacheKey, eventTypes, device.componentList);
       }
+    }
 
-      LinuxVirtualComponentHandler.prepareVirtualComponents(device.inputDevice, inputDevice.getComponents());
-      String accessMode = device.supportsForceFeedback ? "full" : "read-only";
-      log.log(Level.INFO, "Found input device: " + device.filename + " - " + device.name + " (" + accessMode + ") with " + device.componentList.size() + " components");
-      this.nativeDevices.put(inputDevice.getID(), device);
+    // ignore devices without components
+    // also ignore devices that have no buttons, axis or dpad (this should also exclude keyboards)
+    if (device.componentList.isEmpty() || device.componentList.stream().noneMatch(x -> x.componentType == ComponentType.BUTTON || x.componentType == ComponentType.AXIS)) {
+      device.close();
+      return null;
+    }
+
+    return device;
+  }
+
+  /**
+   * Creates the input device for an opened device, including its virtual components.
+   */
+  private InputDevice createInputDevice(LinuxEventDevice device) {
+    var inputDevice = this.newInputDevice(device, device.filename);
+    LinuxVirtualComponentHandler.prepareVirtualComponents(inputDevice, inputDevice.getComponents());
+    this.batteryMonitor.add(inputDevice, Path.of(device.filename).getFileName().toString(), inputDevice.getVendorId(), inputDevice.getProductId());
+    return inputDevice;
+  }
+
+  /**
+   * Creates the input device for a native device with the components of the native device and all callbacks of this plugin.
+   */
+  private InputDevice newInputDevice(LinuxEventDevice device, String identifier) {
+    int vendorId = device.id != null ? Short.toUnsignedInt(device.id.vendor) : -1;
+    int productId = device.id != null ? Short.toUnsignedInt(device.id.product) : -1;
+    String displayName = de.gurkenlabs.input4j.ControllerDatabase.getDisplayName(vendorId, productId);
+
+    var inputDevice = new InputDevice(identifier, device.name, device.name, vendorId, productId, displayName, this::pollLinuxEventDevice, this::rumbleLinuxEventDevice, this::getBatteryInfo);
+    inputDevice.setHapticCallback(this::playHapticPattern);
+    device.inputDevice = inputDevice;
+    for (var nativeComponent : device.componentList) {
+      addInputComponent(inputDevice, nativeComponent);
     }
+
+    return inputDevice;
   }
 
-  private void addEventComponents(Arena memoryArena, LinuxEventDevice device, InputDevice inputDevice, byte[] eventTypes, int eventType, int max, String componentType) {
+  /**
+   * Adds the cached components of the device model if the cache is enabled and the device still has the cached layout.
+   *
+   * @return true if the components were added from the cache; false if the device needs to be probed
+   */
+  private boolean addCachedComponents(Arena probeArena, LinuxEventDevice device, byte[] eventTypes) {
+    var cache = this.capabilityCache;
+    var cacheKey = LinuxCapabilityCache.Key.of(device);
+    if (cache == null || cacheKey == null) {
+      return false;
+    }
+
+    var entry = cache.get(cacheKey);
+    if (entry == null) {
+      return false;
+    }
+
+    var keyBits = probeCachedBits(probeArena, device, eventTypes, LinuxEventDevice.EV_KEY);
+    var absBits = probeCachedBits(probeArena, device, eventTypes, LinuxEventDevice.EV_ABS);
+    if (keyBits == null || absBits == null) {
+      return false;
+    }
+
+    if (!entry.matches(eventTypes, keyBits, absBits)) {
+      log.log(Level.FINE, "Cached capabilities of " + device.name + " are outdated, probing it again");
+      return false;
+    }
+
+    var components = entry.createComponents(cacheKey.vendor(), cacheKey.product(), device.name);
+    if (components == null) {
+      return false;
+    }
+
+    components.forEach(device::addComponent);
+    return true;
+  }
+
+  /**
+   * Queries the bitmap of an event type to validate a cache entry.
+   *
+   * @return the bitmap, which is empty if the device doesn't support the event type, or null if it could not be queried
+   */
+  private static byte[] probeCachedBits(Arena probeArena, LinuxEventDevice device, byte[] eventTypes, int eventType) {
+    if (!LinuxEventDevice.isBitSet(eventTypes, eventType)) {
+      return new byte[0];
+    }
+
+    return device.probeBits(probeArena, eventType);
+  }
+
+  private static void addEventComponents(Arena memoryArena, LinuxEventDevice device, byte[] eventTypes, int eventType, int max, String componentType) {
     if (LinuxEventDevice.isBitSet(eventTypes, eventType)) {
-      byte[] components = Linux.getBits(memoryArena, eventType, device.fd);
+      byte[] components = device.probeBits(memoryArena, eventType);
       if (components == null) {
         log.log(Level.SEVERE, "Failed to get " + componentType + " components for " + device.filename);
         return;
@@ -207,79 +696,303 @@ public class LinuxEventDevicePlugin extends AbstractInputDevicePlugin {
       int productId = device.id != null ? Short.toUnsignedInt(device.id.product) : -1;
       String deviceName = device.name;
 
-      for (int i = 0; i < max; i++) {
-        if (LinuxEventDevice.isBitSet(components, i)) {
-          LinuxEventComponent nativeComponent;
-          if (eventType == LinuxEventDevice.EV_ABS) {
-            input_absinfo absInfo = Linux.getAbsInfo(memoryArena, device.fd, i);
-            if (absInfo == null) {
-              nativeComponent = new LinuxEventComponent(eventType, i, vendorId, productId, deviceName);
-            } else {
-              nativeComponent = new LinuxEventComponent(eventType, i, absInfo, vendorId, productId, deviceName);
-            }
-          } else {
+      // only visit the codes whose bits are set instead of testing each of the KEY_MAX bits
+      var componentBits = BitSet.valueOf(components);
+      for (int i = componentBits.nextSetBit(0); i >= 0 && i < max; i = componentBits.nextSetBit(i + 1)) {
+        LinuxEventComponent nativeComponent;
+        if (eventType == LinuxEventDevice.EV_ABS) {
+          input_absinfo absInfo = device.probeAbsInfo(memoryArena, i);
+          if (absInfo == null) {
             nativeComponent = new LinuxEventComponent(eventType, i, vendorId, productId, deviceName);
+          } else {
+            nativeComponent = new LinuxEventComponent(eventType, i, absInfo, vendorId, productId, deviceName);
           }
-
-          device.componentList.add(nativeComponent);
-
-          var id = nativeComponent.getIdentifier();
-          var inputComponent = new InputComponent(inputDevice, id, nativeComponent.linuxComponentType.name(), nativeComponent.relative);
-          nativeComponent.inputComponent = inputComponent;
-          inputDevice.addComponent(inputComponent);
+        } else {
+          nativeComponent = new LinuxEventComponent(eventType, i, vendorId, productId, deviceName);
         }
+
+        device.addComponent(nativeComponent);
       }
     }
   }
 
+  private static void addInputComponent(InputDevice inputDevice, LinuxEventComponent nativeComponent) {
+    var id = nativeComponent.getIdentifier();
+    var inputComponent = new InputComponent(inputDevice, id, nativeComponent.linuxComponentType.name(), nativeComponent.relative);
+    nativeComponent.inputComponent = inputComponent;
+    inputDevice.addComponent(inputComponent);
+  }
+
+  /**
+   * Starts managing a native device whose components have already been added without probing it,
+   * e.g. a synthetic event source that is backed by a pipe.
+   *
+   * @param device the native device
+   * @return the input device that reads its state through this plugin
+   * @see #addDevice(LinuxEventDevice, String)
+   */
+  InputDevice addDevice(LinuxEventDevice device) {
+    return this.addDevice(device, device.filename);
+  }
+
   /**
-   * Processes input events, excluding EV_MSC and EV_SYN events.
+   * Starts managing a native device whose components have already been added without probing it.
    * <p>
-   * EV_MSC events provide extra device-specific information (e.g., scan codes) and
-   * EV_SYN events mark the end of an event batch for synchronization. Although these
-   * events are necessary for the low-level input system, they are not needed for the
-   * core event handling logic in this method.
+   * The input device gets the same callbacks as the devices that this plugin opens itself. Since the device is not
+   * registered with the battery monitor, it has no battery info, and rumble and haptic patterns are only played if the
+   * device supports force feedback.
    * </p>
+   *
+   * @param device     the native device
+   * @param identifier the identifier of the input device
+   * @return the input device that reads its state through this plugin
    */
-  private float[] pollLinuxEventDevice(InputDevice inputDevice) {
-    var emptyValues = new float[inputDevice.getComponents().size()];
+  InputDevice addDevice(LinuxEventDevice device, String identifier) {
+    var inputDevice = this.newInputDevice(device, identifier);
+    this.nativeDevices.put(inputDevice.getID(), device);
+    return inputDevice;
+  }
 
+  /**
+   * Processes input events, excluding EV_MSC events.
+   * <p>
+   * EV_MSC events provide extra device-specific information (e.g., scan codes) and are not needed for the
+   * core event handling logic in this method. EV_SYN events mark the end of a kernel report: the events of a report
+   * are only applied once its SYN_REPORT arrives, and SYN_DROPPED triggers a resynchronization of the device state.
+   * </p>
+   */
+  private int pollLinuxEventDevice(InputDevice inputDevice, float[] values) {
     // find native LinuxEventDevice and poll it
     var linuxEventDevice = this.nativeDevices.getOrDefault(inputDevice.getID(), null);
     if (linuxEventDevice == null) {
-      log.log(Level.WARNING, "LinuxEventDevice not found for input device " + inputDevice.getName());
-      return emptyValues;
+      log.log(Level.WARNING, "LinuxEventDevice not found for input device {0}", inputDevice.getName());
+      return values.length;
     }
 
-    // use the last polled values since we need to keep the state of the buttons and axes until they are released
+    synchronized (linuxEventDevice) {
+      // use the last polled values since we need to keep the state of the buttons and axes until they are released
+      ensureCurrentValuesCapacity(linuxEventDevice, values.length);
+
+      // with the event reactor, the state is already up to date and reading here would just return EAGAIN
+      var reactor = this.eventReactor;
+      if (reactor == null || !reactor.isRegistered(linuxEventDevice.fd)) {
+        this.readEvents(linuxEventDevice);
+      }
+
+      System.arraycopy(linuxEventDevice.currentValues, 0, values, 0, values.length);
+      reportTransients(linuxEventDevice, inputDevice, values.length);
+    }
+
+    LinuxVirtualComponentHandler.handlePolledValues(inputDevice, values);
+    return values.length;
+  }
+
+  /**
+   * Reads all pending events of the device and applies them to its current values.
+   * This is either called when the device is polled or by the event reactor when the device has pending events.
+   */
+  private void readEvents(LinuxEventDevice linuxEventDevice) {
+    synchronized (linuxEventDevice) {
+      if (linuxEventDevice.closed || linuxEventDevice.hungUp) {
+        return;
+      }
+
+      var eventBuffer = linuxEventDevice.getEventBuffer();
+      if (linuxEventDevice.inputDevice != null) {
+        ensureCurrentValuesCapacity(linuxEventDevice, linuxEventDevice.inputDevice.getComponents().size());
+      }
+
+      // drain the kernel queue in batches; a partially filled buffer means that there are no more pending events
+      int eventCount;
+      do {
+        eventCount = linuxEventDevice.readEvents(eventBuffer);
+        if (eventCount == Linux.ERROR) {
+          // without the event reactor, a failed read is the only sign that the device is gone (ENODEV)
+          hangUp(linuxEventDevice);
+          return;
+        }
+
+        var activeRecorder = this.recorder;
+        int recordedCount = 0;
+        for (int i = 0; i < eventCount; i++) {
+          var inputEvent = input_event.read(eventBuffer, i * input_event.$LAYOUT.byteSize(), linuxEventDevice.polledEvent);
+          var resyncState = applyInputEvent(linuxEventDevice, inputEvent);
+          if (resyncState != null && activeRecorder != null) {
+            // the queried state directly follows the report that it resynchronized, so a replay resynchronizes the same way
+            activeRecorder.record(linuxEventDevice, eventBuffer, recordedCount, i + 1);
+            activeRecorder.recordState(linuxEventDevice, resyncState);
+            recordedCount = i + 1;
+          }
+        }
+
+        if (activeRecorder != null && recordedCount < eventCount) {
+          activeRecorder.record(linuxEventDevice, eventBuffer, recordedCount, eventCount);
+        }
+      } while (eventCount == LinuxEventDevice.EVENT_BUFFER_SIZE);
+    }
+  }
+
+  private static void ensureCurrentValuesCapacity(LinuxEventDevice linuxEventDevice, int size) {
     if (linuxEventDevice.currentValues == null) {
-      linuxEventDevice.currentValues = emptyValues;
+      linuxEventDevice.currentValues = new float[size];
+      linuxEventDevice.pressCounts = new int[size];
+      linuxEventDevice.releaseCounts = new int[size];
+      linuxEventDevice.minValues = new float[size];
+      linuxEventDevice.maxValues = new float[size];
+      linuxEventDevice.changeTimestamps = new long[size];
+    } else if (linuxEventDevice.currentValues.length != size) {
+      linuxEventDevice.currentValues = Arrays.copyOf(linuxEventDevice.currentValues, size);
+      linuxEventDevice.pressCounts = Arrays.copyOf(linuxEventDevice.pressCounts, size);
+      linuxEventDevice.releaseCounts = Arrays.copyOf(linuxEventDevice.releaseCounts, size);
+      linuxEventDevice.minValues = Arrays.copyOf(linuxEventDevice.minValues, size);
+      linuxEventDevice.maxValues = Arrays.copyOf(linuxEventDevice.maxValues, size);
+      linuxEventDevice.changeTimestamps = Arrays.copyOf(linuxEventDevice.changeTimestamps, size);
     }
+  }
 
-    input_event inputEvent;
-    while ((inputEvent = Linux.read(this.memoryArena, linuxEventDevice.fd)) != null) {
-      if (inputEvent.type == LinuxEventDevice.EV_SYN
-        || inputEvent.type == LinuxEventDevice.EV_MSC
-        || inputEvent.type == LinuxEventDevice.EV_REL) {
-        continue;
+  /**
+   * Reports the button edges, value ranges and event timestamps that were decoded since the previous poll to the input device
+   * and starts recording the next poll interval.
+   */
+  private static void reportTransients(LinuxEventDevice linuxEventDevice, InputDevice inputDevice, int size) {
+    for (int i = 0; i < size; i++) {
+      if (linuxEventDevice.pressCounts[i] != 0 || linuxEventDevice.releaseCounts[i] != 0 || linuxEventDevice.minValues[i] != linuxEventDevice.maxValues[i]) {
+        inputDevice.reportTransients(i, linuxEventDevice.pressCounts[i], linuxEventDevice.releaseCounts[i], linuxEventDevice.minValues[i], linuxEventDevice.maxValues[i]);
       }
 
-      var nativeComponent = linuxEventDevice.getNativeComponent(inputEvent);
-      if (nativeComponent == null) {
-        log.log(Level.SEVERE, "Failed to find component for " + inputEvent.type + " " + inputEvent.code);
-        continue;
+      // timestamps of another clock (e.g. if EVIOCSCLOCKID is not supported) can't be compared to System.nanoTime()
+      if (linuxEventDevice.monotonicTimestamps && linuxEventDevice.changeTimestamps[i] != 0) {
+        inputDevice.reportTimestamp(i, linuxEventDevice.changeTimestamps[i]);
       }
+    }
 
-      int componentIndex = linuxEventDevice.componentList.indexOf(nativeComponent);
-      if (componentIndex == -1) {
-        log.log(Level.SEVERE, "Failed to find component index for " + inputEvent.type + " " + inputEvent.code);
-        continue;
+    Arrays.fill(linuxEventDevice.changeTimestamps, 0, size, 0);
+
+    Arrays.fill(linuxEventDevice.pressCounts, 0, size, 0);
+    Arrays.fill(linuxEventDevice.releaseCounts, 0, size, 0);
+    System.arraycopy(linuxEventDevice.currentValues, 0, linuxEventDevice.minValues, 0, size);
+    System.arraycopy(linuxEventDevice.currentValues, 0, linuxEventDevice.maxValues, 0, size);
+  }
+
+  /**
+   * Decodes an event into the current report of the device. The events of a report are only applied to the current values
+   * once its {@code SYN_REPORT} arrives, so a poll never sees half of a report (e.g. X of a stick updated but not Y).
+   *
+   * @return the state that the device was resynchronized with if the event ended a report with dropped events, otherwise null
+   */
+  private static LinuxEventDevice.State applyInputEvent(LinuxEventDevice linuxEventDevice, input_event inputEvent) {
+    if (inputEvent.type == LinuxEventDevice.EV_SYN) {
+      if (inputEvent.code == LinuxEventDevice.SYN_REPORT) {
+        // all events of a report carry the same timestamp as its SYN_REPORT
+        var timestamp = inputEvent.time.toNanos();
+        if (linuxEventDevice.dropped) {
+          linuxEventDevice.dropped = false;
+          var state = linuxEventDevice.queryState();
+          applyState(linuxEventDevice, state, timestamp);
+          return state;
+        }
+
+        applyPendingEvents(linuxEventDevice, timestamp);
+      } else if (inputEvent.code == LinuxEventDevice.SYN_DROPPED) {
+        // the kernel buffer overflowed: the current report is incomplete and everything up to the next SYN_REPORT is invalid
+        log.log(Level.FINE, "Events of {0} were dropped, resynchronizing its state", linuxEventDevice.filename);
+        linuxEventDevice.pendingCount = 0;
+        linuxEventDevice.dropped = true;
       }
 
-      linuxEventDevice.currentValues[componentIndex] = normalizeInputValue(inputEvent, nativeComponent);
+      return null;
+    }
+
+    if (inputEvent.type == LinuxEventDevice.EV_MSC
+      || inputEvent.type == LinuxEventDevice.EV_REL
+      || linuxEventDevice.dropped) {
+      return null;
     }
 
-    return LinuxVirtualComponentHandler.handlePolledValues(inputDevice, linuxEventDevice.currentValues);
+    int componentIndex = linuxEventDevice.getComponentIndex(inputEvent.type, Short.toUnsignedInt(inputEvent.code));
+    if (componentIndex == -1) {
+      // devices may keep emitting codes that have no component, so this is neither an error nor worth the boxing per event
+      if (log.isLoggable(Level.FINE)) {
+        log.log(Level.FINE, "Failed to find component of {0} for {1} {2}", new Object[] {linuxEventDevice.filename, inputEvent.type, inputEvent.code});
+      }
+
+      return null;
+    }
+
+    var nativeComponent = linuxEventDevice.componentList.get(componentIndex);
+    linuxEventDevice.addPendingEvent(componentIndex, normalizeInputValue(inputEvent, nativeComponent));
+    return null;
+  }
+
+  private static void applyPendingEvents(LinuxEventDevice linuxEventDevice, long timestamp) {
+    for (int i = 0; i < linuxEventDevice.pendingCount; i++) {
+      applyValue(linuxEventDevice, linuxEventDevice.pendingComponents[i], linuxEventDevice.pendingValues[i], timestamp);
+    }
+
+    linuxEventDevice.pendingCount = 0;
+  }
+
+  /**
+   * Applies the state of all keys and absolute axes of the device, e.g. after events were dropped.
+   * Differences to the last known state are applied like regular events, so e.g. a missed release is still reported.
+   */
+  private static void applyState(LinuxEventDevice linuxEventDevice, LinuxEventDevice.State state, long timestamp) {
+    var componentCount = Math.min(linuxEventDevice.componentList.size(), linuxEventDevice.currentValues.length);
+    var keyStates = state.keyStates();
+    var resyncEvent = new input_event();
+    for (int i = 0; i < componentCount; i++) {
+      var nativeComponent = linuxEventDevice.componentList.get(i);
+      if (nativeComponent.nativeType == LinuxEventDevice.EV_KEY) {
+        if (keyStates != null && nativeComponent.nativeCode / 8 < keyStates.length) {
+          applyValue(linuxEventDevice, i, LinuxEventDevice.isBitSet(keyStates, nativeComponent.nativeCode) ? 1 : 0, timestamp);
+        }
+      } else if (nativeComponent.nativeType == LinuxEventDevice.EV_ABS && nativeComponent.nativeCode < state.absInfo().length) {
+        var absInfo = state.absInfo()[nativeComponent.nativeCode];
+        if (absInfo != null) {
+          resyncEvent.type = (short) LinuxEventDevice.EV_ABS;
+          resyncEvent.code = (short) nativeComponent.nativeCode;
+          resyncEvent.value = absInfo.value;
+          applyValue(linuxEventDevice, i, normalizeInputValue(resyncEvent, nativeComponent), timestamp);
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies a known state to a device that was added to this plugin, e.g. the state that a replayed device had when the
+   * recording started. The changes are reported with the next poll.
+   *
+   * @param linuxEventDevice the native device
+   * @param state            the state of its keys and absolute axes
+   * @param timestamp        the time of the state in the time base of {@link System#nanoTime()}
+   */
+  static void initState(LinuxEventDevice linuxEventDevice, LinuxEventDevice.State state, long timestamp) {
+    synchronized (linuxEventDevice) {
+      var size = linuxEventDevice.inputDevice != null ? linuxEventDevice.inputDevice.getComponents().size() : linuxEventDevice.componentList.size();
+      ensureCurrentValuesCapacity(linuxEventDevice, size);
+      applyState(linuxEventDevice, state, timestamp);
+    }
+  }
+
+  private static void applyValue(LinuxEventDevice linuxEventDevice, int componentIndex, float value, long timestamp) {
+    var nativeComponent = linuxEventDevice.componentList.get(componentIndex);
+    var previousValue = linuxEventDevice.currentValues[componentIndex];
+    if (value != previousValue) {
+      linuxEventDevice.changeTimestamps[componentIndex] = timestamp;
+    }
+
+    // keep track of the edges between two polls so that e.g. a quick tap is not lost (auto-repeat events do not change the value)
+    if (nativeComponent.nativeType == LinuxEventDevice.EV_KEY && value != previousValue) {
+      if (value == 1) {
+        linuxEventDevice.pressCounts[componentIndex]++;
+      } else {
+        linuxEventDevice.releaseCounts[componentIndex]++;
+      }
+    }
+
+    linuxEventDevice.minValues[componentIndex] = Math.min(linuxEventDevice.minValues[componentIndex], value);
+    linuxEventDevice.maxValues[componentIndex] = Math.max(linuxEventDevice.maxValues[componentIndex], value);
+    linuxEventDevice.currentValues[componentIndex] = value;
   }
 
   private static final float RUMBLE_THRESHOLD = 0.01f;
@@ -287,8 +1000,6 @@ public class LinuxEventDevicePlugin extends AbstractInputDevicePlugin {
 
   private final ff_effect rumbleEffectTemplate = createRumbleEffectTemplate();
   private final ff_effect sineEffectTemplate = createSineEffectTemplate();
-  private final input_event playEventTemplate = new input_event();
-  private final input_event stopEventTemplate = new input_event();
 
   private ff_effect createRumbleEffectTemplate() {
     var effect = new ff_effect();
@@ -365,196 +1076,71 @@ public class LinuxEventDevicePlugin extends AbstractInputDevicePlugin {
     float strongMagnitude = Math.clamp(intensity[0], 0f, 1f);
     float weakMagnitude = intensity.length > 1 ? Math.clamp(intensity[1], 0f, 1f) : strongMagnitude;
 
-    if (linuxEventDevice.currentEffectId != -1) {
-      if (Math.abs(linuxEventDevice.currentStrongMagnitude - strongMagnitude) >= RUMBLE_THRESHOLD
-          || Math.abs(linuxEventDevice.currentWeakMagnitude - weakMagnitude) >= RUMBLE_THRESHOLD) {
-        Linux.removeEffect(this.memoryArena, linuxEventDevice.fd, linuxEventDevice.currentEffectId);
-        linuxEventDevice.currentEffectId = -1;
-      } else {
-        playEventTemplate.type = (short) LinuxEventDevice.EV_FF;
-        playEventTemplate.code = (short) linuxEventDevice.currentEffectId;
-        playEventTemplate.value = 1;
-
-        Linux.writeEvent(this.memoryArena, linuxEventDevice.fd, playEventTemplate);
-        return;
-      }
+    var effectPool = linuxEventDevice.effectPool;
+    // the effects play until they are stopped, so an intensity that hardly changed doesn't need to reach the device
+    if (effectPool.isPlaying()
+        && Math.abs(linuxEventDevice.currentStrongMagnitude - strongMagnitude) < RUMBLE_THRESHOLD
+        && Math.abs(linuxEventDevice.currentWeakMagnitude - weakMagnitude) < RUMBLE_THRESHOLD) {
+      return;
     }
 
+    int effectId;
     if (linuxEventDevice.supportsRumble) {
-      rumbleEffectTemplate.rumble.strong_magnitude = (short) (strongMagnitude * MAX_MAGNITUDE);
-      rumbleEffectTemplate.rumble.weak_magnitude = (short) (weakMagnitude * MAX_MAGNITUDE);
-
-      int effectId = Linux.uploadEffect(this.memoryArena, linuxEventDevice.fd, rumbleEffectTemplate);
-      if (effectId == Linux.ERROR) {
-        log.log(Level.WARNING, "Failed to upload rumble effect for device " + inputDevice.getName());
-        return;
-      }
-
-      linuxEventDevice.currentEffectId = effectId;
-      linuxEventDevice.currentStrongMagnitude = strongMagnitude;
-      linuxEventDevice.currentWeakMagnitude = weakMagnitude;
-
-      playEventTemplate.type = (short) LinuxEventDevice.EV_FF;
-      playEventTemplate.code = (short) effectId;
-      playEventTemplate.value = 1;
-
-      int result = Linux.writeEvent(this.memoryArena, linuxEventDevice.fd, playEventTemplate);
-      if (result == Linux.ERROR) {
-        log.log(Level.WARNING, "Failed to play rumble effect for device " + inputDevice.getName());
-        Linux.removeEffect(this.memoryArena, linuxEventDevice.fd, effectId);
-        linuxEventDevice.currentEffectId = -1;
+      synchronized (rumbleEffectTemplate) {
+        rumbleEffectTemplate.rumble.strong_magnitude = (short) (strongMagnitude * MAX_MAGNITUDE);
+        rumbleEffectTemplate.rumble.weak_magnitude = (short) (weakMagnitude * MAX_MAGNITUDE);
+        effectId = effectPool.play(rumbleEffectTemplate);
       }
     } else {
       int magnitude = (int) (strongMagnitude * MAX_MAGNITUDE / 3 + weakMagnitude * MAX_MAGNITUDE / 6);
-      sineEffectTemplate.periodic.magnitude = (short) magnitude;
-
-      int effectId = Linux.uploadEffect(this.memoryArena, linuxEventDevice.fd, sineEffectTemplate);
-      if (effectId == Linux.ERROR) {
-        log.log(Level.WARNING, "Failed to upload sine fallback effect for device " + inputDevice.getName());
-        return;
-      }
-
-      linuxEventDevice.currentEffectId = effectId;
-      linuxEventDevice.currentStrongMagnitude = strongMagnitude;
-      linuxEventDevice.currentWeakMagnitude = weakMagnitude;
-
-      playEventTemplate.type = (short) LinuxEventDevice.EV_FF;
-      playEventTemplate.code = (short) effectId;
-      playEventTemplate.value = 1;
-
-      int result = Linux.writeEvent(this.memoryArena, linuxEventDevice.fd, playEventTemplate);
-      if (result == Linux.ERROR) {
-        log.log(Level.WARNING, "Failed to play sine fallback effect for device " + inputDevice.getName());
-        Linux.removeEffect(this.memoryArena, linuxEventDevice.fd, effectId);
-        linuxEventDevice.currentEffectId = -1;
+      synchronized (sineEffectTemplate) {
+        sineEffectTemplate.periodic.magnitude = (short) magnitude;
+        effectId = effectPool.play(sineEffectTemplate);
       }
     }
-  }
 
-  private void stopRumble(LinuxEventDevice linuxEventDevice) {
-    if (linuxEventDevice.currentEffectId == -1) {
+    if (effectId == Linux.ERROR) {
+      log.log(Level.WARNING, "Failed to play " + (linuxEventDevice.supportsRumble ? "rumble" : "sine fallback") + " effect for device " + inputDevice.getName());
       return;
     }
 
-    if (linuxEventDevice.fd != Linux.ERROR) {
-      stopEventTemplate.type = (short) LinuxEventDevice.EV_FF;
-      stopEventTemplate.code = (short) linuxEventDevice.currentEffectId;
-      stopEventTemplate.value = 0;
-
-      Linux.writeEvent(this.memoryArena, linuxEventDevice.fd, stopEventTemplate);
-
-      Linux.removeEffect(this.memoryArena, linuxEventDevice.fd, linuxEventDevice.currentEffectId);
-    }
-    linuxEventDevice.currentEffectId = -1;
-    linuxEventDevice.currentStrongMagnitude = 0f;
-    linuxEventDevice.currentWeakMagnitude = 0f;
+    linuxEventDevice.currentStrongMagnitude = strongMagnitude;
+    linuxEventDevice.currentWeakMagnitude = weakMagnitude;
   }
 
-  private BatteryInfo getBatteryInfo(InputDevice inputDevice) {
-    var device = nativeDevices.get(inputDevice.getID());
-    if (device == null || device.id == null) {
-      return null;
-    }
-
-    int vendorId = Short.toUnsignedInt(device.id.vendor);
-    int productId = Short.toUnsignedInt(device.id.product);
-
-    String batteryPath = findBatteryPath(vendorId, productId);
-    if (batteryPath == null) {
-      return null;
-    }
-
-    try {
-      int percentage = readBatteryPercentage(batteryPath);
-      if (percentage < 0) {
-        return null;
-      }
-
-      return BatteryInfo.fromPercentage(BatteryType.UNKNOWN, false, percentage);
-    } catch (Exception e) {
-      log.log(Level.FINE, "Failed to read battery for device " + device.name, e);
-      return null;
-    }
-  }
-
-  private String findBatteryPath(int vendorId, int productId) {
-    File powerSupplyDir = new File("/sys/class/power_supply");
-    if (!powerSupplyDir.exists() || !powerSupplyDir.isDirectory()) {
-      return null;
-    }
-
-    String vendorHex = String.format("%04x", vendorId);
-    String productHex = String.format("%04x", productId);
-
-    File[] entries = powerSupplyDir.listFiles();
-    if (entries == null) {
-      return null;
+  /**
+   * Plays a rumble pattern as a single force feedback effect that the kernel plays on its own, if the pattern can be
+   * expressed by the replay length and envelope of an effect.
+   *
+   * @param inputDevice the input device
+   * @param pattern     the pattern
+   * @return true if the kernel plays the pattern; false if the haptics scheduler needs to play it
+   */
+  private boolean playHapticPattern(InputDevice inputDevice, HapticPattern pattern) {
+    var linuxEventDevice = this.nativeDevices.get(inputDevice.getID());
+    if (linuxEventDevice == null || !linuxEventDevice.supportsForceFeedback || linuxEventDevice.fd == Linux.ERROR) {
+      return false;
     }
 
-    for (File entry : entries) {
-      if (!entry.isDirectory()) {
-        continue;
-      }
-
-      try {
-        String type = readSysfsFile(entry, "type");
-        if (type == null || !type.equalsIgnoreCase("Battery")) {
-          continue;
-        }
-
-        String vendor = readSysfsFile(entry, "vendor");
-        String manufacturer = readSysfsFile(entry, "manufacturer");
-        String model = readSysfsFile(entry, "model_name");
-
-        boolean match = false;
-        if (vendor != null && vendor.toLowerCase().contains(vendorHex)) {
-          match = true;
-        }
-        if (manufacturer != null && manufacturer.toLowerCase().contains(vendorHex)) {
-          match = true;
-        }
-        if (model != null && model.toLowerCase().contains(productHex)) {
-          match = true;
-        }
-
-        if (match) {
-          return entry.getAbsolutePath();
-        }
-      } catch (IOException e) {
-        continue;
-      }
+    var effect = LinuxHapticEffects.create(pattern, linuxEventDevice.supportsRumble, linuxEventDevice.supportsSine);
+    if (effect == null || linuxEventDevice.effectPool.trigger(effect, LinuxHapticEffects.getPlayCount(pattern)) == Linux.ERROR) {
+      return false;
     }
 
-    return null;
+    // the next intensity has to replace the pattern, even if it is the same as the intensity of the pattern
+    linuxEventDevice.currentStrongMagnitude = -1f;
+    linuxEventDevice.currentWeakMagnitude = -1f;
+    return true;
   }
 
-  private String readSysfsFile(File dir, String filename) throws IOException {
-    File file = new File(dir, filename);
-    if (file.exists()) {
-      return Files.readString(file.toPath()).trim();
-    }
-    return null;
+  private void stopRumble(LinuxEventDevice linuxEventDevice) {
+    linuxEventDevice.effectPool.stop();
+    linuxEventDevice.currentStrongMagnitude = 0f;
+    linuxEventDevice.currentWeakMagnitude = 0f;
   }
 
-  private int readBatteryPercentage(String batteryPath) throws IOException {
-    File capacityFile = new File(batteryPath, "capacity");
-    if (capacityFile.exists()) {
-      String content = Files.readString(capacityFile.toPath()).trim();
-      return Integer.parseInt(content);
-    }
-
-    File capacityLevelFile = new File(batteryPath, "capacity_level");
-    if (capacityLevelFile.exists()) {
-      String level = Files.readString(capacityLevelFile.toPath()).trim().toLowerCase();
-      return switch (level) {
-        case "full" -> 100;
-        case "high", "normal" -> 75;
-        case "low" -> 25;
-        case "critical" -> 10;
-        default -> -1;
-      };
-    }
-
-    return -1;
+  private BatteryInfo getBatteryInfo(InputDevice inputDevice) {
+    var monitor = this.batteryMonitor;
+    return monitor != null ? monitor.get(inputDevice) : null;
   }
 }
@@ -0,0 +1,217 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.io.Closeable;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches a set of file descriptors with a single epoll instance and runs the handler of a file descriptor
+ * on a dedicated thread as soon as it has data to read.
+ * <p>
+ * This allows the {@link LinuxEventDevicePlugin} to read evdev events when they arrive instead of issuing a
+ * {@code read(2)} for every device on every poll, most of which would just return {@code EAGAIN}.
+ * Handlers must drain their file descriptor because the epoll instance is level-triggered.
+ * </p>
+ * <p>
+ * When a file descriptor reports {@code EPOLLHUP} or {@code EPOLLERR} (e.g. because the device was unplugged),
+ * its handler is run one last time, the file descriptor is unregistered and its hang-up handler is run.
+ * </p>
+ */
+class LinuxEventReactor implements Closeable {
+  private static final Logger log = Logger.getLogger(LinuxEventReactor.class.getName());
+  private static final int MAX_EVENTS = 32;
+
+  private final Arena memoryArena = Arena.ofShared();
+  private final int epfd;
+  private final int[] wakeFds;
+  private final MemorySegment readyEvents;
+  private final MemorySegment wakeBuffer;
+  private final Thread thread;
+
+  /**
+   * The registrations indexed by their file descriptor; replaced on every change so the reactor thread can
+   * dispatch without locking or boxing the file descriptor.
+   */
+  private volatile Registration[] registrations = new Registration[0];
+  private volatile boolean running = true;
+
+  private LinuxEventReactor(int epfd, int[] wakeFds) {
+    this.epfd = epfd;
+    this.wakeFds = wakeFds;
+    this.readyEvents = this.memoryArena.allocate(MemoryLayout.sequenceLayout(MAX_EVENTS, epoll_event.$LAYOUT));
+    this.wakeBuffer = this.memoryArena.allocate(input_event.$LAYOUT);
+    this.thread = Thread.ofPlatform().name("input4j-evdev-reactor").daemon().unstarted(this::run);
+  }
+
+  /**
+   * Creates a new reactor and starts its thread.
+   *
+   * @return the started reactor, or null if the epoll instance could not be created
+   */
+  static LinuxEventReactor start() {
+    int epfd = Linux.epollCreate();
+    if (epfd == Linux.ERROR) {
+      log.log(Level.SEVERE, "Failed to create epoll instance");
+      return null;
+    }
+
+    var wakeFds = Linux.pipe();
+    if (wakeFds == null || Linux.epollAdd(epfd, wakeFds[0]) == Linux.ERROR) {
+      log.log(Level.SEVERE, "Failed to register wake-up pipe with epoll instance");
+      if (wakeFds != null) {
+        Linux.close(wakeFds[0]);
+        Linux.close(wakeFds[1]);
+      }
+
+      Linux.close(epfd);
+      return null;
+    }
+
+    var reactor = new LinuxEventReactor(epfd, wakeFds);
+    reactor.thread.start();
+    return reactor;
+  }
+
+  /**
+   * Registers the file descriptor with the reactor.
+   *
+   * @param fd      the file descriptor to watch
+   * @param handler the handler that is run on the reactor thread whenever the file descriptor has data to read
+   * @return true if the file descriptor was registered; otherwise false
+   */
+  boolean register(int fd, Runnable handler) {
+    return this.register(fd, handler, null);
+  }
+
+  /**
+   * Registers the file descriptor with the reactor.
+   *
+   * @param fd            the file descriptor to watch
+   * @param handler       the handler that is run on the reactor thread whenever the file descriptor has data to read
+   * @param hangUpHandler the handler that is run on the reactor thread after the file descriptor hung up and was
+   *                      unregistered, or null
+   * @return true if the file descriptor was registered; otherwise false
+   */
+  synchronized boolean register(int fd, Runnable handler, Runnable hangUpHandler) {
+    if (fd < 0 || !this.running) {
+      return false;
+    }
+
+    var oldRegistrations = this.registrations;
+    var newRegistrations = Arrays.copyOf(oldRegistrations, Math.max(oldRegistrations.length, fd + 1));
+    newRegistrations[fd] = new Registration(handler, hangUpHandler);
+    this.registrations = newRegistrations;
+
+    if (Linux.epollAdd(this.epfd, fd) == Linux.ERROR) {
+      log.log(Level.WARNING, "Failed to register file descriptor ({0}) with epoll instance", fd);
+      this.registrations = oldRegistrations;
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Stops watching the file descriptor. This must be called before the file descriptor is closed.
+   *
+   * @param fd the file descriptor to unregister
+   */
+  synchronized void unregister(int fd) {
+    if (fd < 0 || fd >= this.registrations.length || this.registrations[fd] == null) {
+      return;
+    }
+
+    Linux.epollRemove(this.epfd, fd);
+    var newRegistrations = this.registrations.clone();
+    newRegistrations[fd] = null;
+    this.registrations = newRegistrations;
+  }
+
+  boolean isRegistered(int fd) {
+    var currentRegistrations = this.registrations;
+    return fd >= 0 && fd < currentRegistrations.length && currentRegistrations[fd] != null;
+  }
+
+  /**
+   * Stops the reactor thread and releases the epoll instance.
+   * The registered file descriptors are not closed.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (!this.running) {
+        return;
+      }
+
+      this.running = false;
+    }
+
+    // wake the reactor thread from epoll_wait so it notices that it has been stopped
+    Linux.writeEvent(this.wakeFds[1], new input_event());
+    if (Thread.currentThread() != this.thread) {
+      try {
+        this.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    this.registrations = new Registration[0];
+    Linux.close(this.epfd);
+    Linux.close(this.wakeFds[0]);
+    Linux.close(this.wakeFds[1]);
+    this.memoryArena.close();
+  }
+
+  private void run() {
+    final long eventSize = epoll_event.$LAYOUT.byteSize();
+    while (this.running) {
+      int readyCount = Linux.epollWait(this.epfd, this.readyEvents, MAX_EVENTS, -1);
+      if (readyCount == Linux.ERROR) {
+        log.log(Level.SEVERE, "Waiting for input events failed, stopping event reactor");
+        return;
+      }
+
+      for (int i = 0; i < readyCount && this.running; i++) {
+        int events = (int) epoll_event.VH_events.get(this.readyEvents, i * eventSize);
+        int fd = (int) (long) epoll_event.VH_data.get(this.readyEvents, i * eventSize);
+        if (fd == this.wakeFds[0]) {
+          while (Linux.read(fd, this.wakeBuffer) > 0) {
+            // discard wake-up signals
+          }
+          continue;
+        }
+
+        var currentRegistrations = this.registrations;
+        var registration = fd < currentRegistrations.length ? currentRegistrations[fd] : null;
+        if (registration == null) {
+          continue;
+        }
+
+        runHandler(registration.handler());
+        if ((events & (Linux.EPOLLHUP | Linux.EPOLLERR)) != 0) {
+          log.log(Level.FINE, "File descriptor ({0}) hung up, unregistering it from the event reactor", fd);
+          this.unregister(fd);
+          if (registration.hangUpHandler() != null) {
+            runHandler(registration.hangUpHandler());
+          }
+        }
+      }
+    }
+  }
+
+  private static void runHandler(Runnable handler) {
+    try {
+      handler.run();
+    } catch (RuntimeException e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+    }
+  }
+
+  private record Registration(Runnable handler, Runnable hangUpHandler) {
+  }
+}
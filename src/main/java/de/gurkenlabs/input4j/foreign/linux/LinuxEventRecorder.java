@@ -0,0 +1,203 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the raw event streams of the devices of a {@link LinuxEventDevicePlugin} into a file, including the identity
+ * and capabilities of every device, so the input can be replayed later with the {@link ReplayInputDevicePlugin}.
+ * <p>
+ * All events are recorded exactly as they were read from the kernel (including {@code EV_SYN} and {@code EV_MSC} events),
+ * so a replay goes through the same decoding as the live input. The state of the keys and axes is recorded when a device
+ * joins the recording and whenever the device is resynchronized after the kernel dropped events, so a replay starts in
+ * the recorded state and resynchronizes the same way. The events are delta-encoded to keep long recordings small
+ * (see {@link LinuxEventRecording} for the format).
+ * </p>
+ * <pre>{@code
+ * var plugin = (LinuxEventDevicePlugin) InputDevices.init(InputDevices.InputLibrary.LINUX_INPUT);
+ * try (var recorder = plugin.startRecording(Path.of("session.evrec"))) {
+ *   ...
+ * }
+ * }</pre>
+ *
+ * @see LinuxEventDevicePlugin#startRecording(Path)
+ */
+public final class LinuxEventRecorder implements Closeable {
+  private static final Logger log = Logger.getLogger(LinuxEventRecorder.class.getName());
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final LinuxEventDevicePlugin plugin;
+  private final Path file;
+  private final OutputStream out;
+  private final Map<LinuxEventDevice, DeviceState> devices = new IdentityHashMap<>();
+  private final input_event recordedEvent = new input_event();
+
+  private long lastMicros;
+  private long eventCount;
+  private boolean closed;
+
+  LinuxEventRecorder(LinuxEventDevicePlugin plugin, Path file, Iterable<LinuxEventDevice> devices) throws IOException {
+    this.plugin = plugin;
+    this.file = file;
+    this.out = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+    try {
+      this.out.write(LinuxEventRecording.MAGIC);
+      this.out.write(LinuxEventRecording.VERSION);
+      for (var device : devices) {
+        this.getState(device);
+      }
+    } catch (IOException e) {
+      this.out.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the file that the events are recorded to.
+   *
+   * @return the recorded file
+   */
+  public Path getFile() {
+    return this.file;
+  }
+
+  /**
+   * Gets the number of events that have been recorded.
+   *
+   * @return the number of recorded events
+   */
+  public synchronized long getEventCount() {
+    return this.eventCount;
+  }
+
+  /**
+   * Checks if the recorder still records events.
+   *
+   * @return true if the recorder has not been closed, otherwise false
+   */
+  public synchronized boolean isRecording() {
+    return !this.closed;
+  }
+
+  /**
+   * Stops recording and writes all remaining events to the file.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+      try {
+        this.out.close();
+      } catch (IOException e) {
+        log.log(Level.WARNING, "Failed to complete the recording " + this.file, e);
+      }
+    }
+
+    this.plugin.detachRecorder(this);
+  }
+
+  /**
+   * Records the events that were read from a device.
+   *
+   * @param device the device that the events were read from
+   * @param buffer the buffer that contains the events
+   * @param from   the index of the first event in the buffer to record
+   * @param to     the index after the last event in the buffer to record
+   */
+  synchronized void record(LinuxEventDevice device, MemorySegment buffer, int from, int to) {
+    if (this.closed) {
+      return;
+    }
+
+    try {
+      var state = this.getState(device);
+      for (int i = from; i < to; i++) {
+        var event = input_event.read(buffer, i * input_event.$LAYOUT.byteSize(), this.recordedEvent);
+        var micros = event.time.tv_sec * 1_000_000L + event.time.tv_usec;
+        var type = Short.toUnsignedInt(event.type);
+        var code = Short.toUnsignedInt(event.code);
+
+        LinuxEventRecording.writeVarLong(this.out, state.index + LinuxEventRecording.FIRST_EVENT_RECORD);
+        LinuxEventRecording.writeSignedVarLong(this.out, micros - this.lastMicros);
+        LinuxEventRecording.writeVarLong(this.out, type);
+        LinuxEventRecording.writeVarLong(this.out, code);
+        LinuxEventRecording.writeSignedVarLong(this.out, (long) event.value - state.values.get(type, code));
+
+        state.values.set(type, code, event.value);
+        this.lastMicros = micros;
+        this.eventCount++;
+      }
+    } catch (IOException e) {
+      this.fail(e);
+    }
+  }
+
+  /**
+   * Records the state that a device was resynchronized with after the kernel dropped events, so a replay of the
+   * recording can resynchronize the device with the same state.
+   *
+   * @param device      the device
+   * @param deviceState the queried state of the device
+   */
+  synchronized void recordState(LinuxEventDevice device, LinuxEventDevice.State deviceState) {
+    if (this.closed) {
+      return;
+    }
+
+    try {
+      LinuxEventRecording.writeState(this.out, this.getState(device).index, deviceState);
+    } catch (IOException e) {
+      this.fail(e);
+    }
+  }
+
+  private void fail(IOException e) {
+    log.log(Level.SEVERE, "Failed to record events to " + this.file + ", recording stopped", e);
+    this.closed = true;
+    try {
+      this.out.close();
+    } catch (IOException ignored) {
+      // the original error is already logged
+    }
+
+    this.plugin.detachRecorder(this);
+  }
+
+  /**
+   * Gets the state of the device, writing its device record and its current key and axis state first if the device
+   * is not part of the recording yet.
+   */
+  private DeviceState getState(LinuxEventDevice device) throws IOException {
+    var state = this.devices.get(device);
+    if (state == null) {
+      state = new DeviceState(this.devices.size());
+      LinuxEventRecording.writeDevice(this.out, state.index, device);
+      LinuxEventRecording.writeState(this.out, state.index, device.queryState());
+      this.devices.put(device, state);
+    }
+
+    return state;
+  }
+
+  private static final class DeviceState {
+    private final int index;
+    private final LinuxEventRecording.EventValues values = new LinuxEventRecording.EventValues();
+
+    private DeviceState(int index) {
+      this.index = index;
+    }
+  }
+}
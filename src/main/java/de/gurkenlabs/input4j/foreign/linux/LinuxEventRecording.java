@@ -0,0 +1,517 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A recording of the raw event streams of evdev devices, which is read from a memory-mapped file.
+ * <p>
+ * The file starts with a header ({@link #MAGIC} and {@link #VERSION}) that is followed by a sequence of records.
+ * Every record starts with a varint: {@code 0} introduces a device record, {@code 1} a state record and any other
+ * value {@code n} an event of the device with index {@code n - 2}.
+ * </p>
+ * <ul>
+ *   <li>A device record consists of its length and the index, file name, name, id (bus type, vendor, product, version)
+ *   and capabilities of the device: the event type and code of every key and axis as well as the absinfo of every axis.
+ *   It precedes the first event of the device.</li>
+ *   <li>A state record consists of its length and the index of the device, the codes of its pressed keys and the code
+ *   and value of each of its absolute axes, as far as they could be queried. It follows the device record with the state
+ *   at the start of the recording, and every {@code SYN_REPORT} that ended a report with dropped events with the state
+ *   that the device was resynchronized with.</li>
+ *   <li>An event record consists of the difference of its timestamp to the previous event of the recording in microseconds,
+ *   its type and code and the difference of its value to the previous value of the same type and code of the device.</li>
+ * </ul>
+ * <p>
+ * All numbers are encoded as varints (signed values in zigzag encoding), so the common event of a gamepad takes about
+ * six bytes instead of the 24 bytes of a {@code struct input_event}.
+ * A truncated record at the end (e.g. if the recording process was killed) ends the recording.
+ * </p>
+ *
+ * @see LinuxEventRecorder
+ * @see ReplayInputDevicePlugin
+ */
+final class LinuxEventRecording implements AutoCloseable {
+  static final byte[] MAGIC = {'I', '4', 'J', 'E'};
+  static final int VERSION = 2;
+  static final int DEVICE_RECORD = 0;
+  static final int STATE_RECORD = 1;
+  static final int FIRST_EVENT_RECORD = 2;
+
+  private final Arena arena;
+  private final MemorySegment data;
+  private final long eventsStart;
+  private final List<RecordedDevice> devices;
+  private final long startMicros;
+
+  private LinuxEventRecording(Arena arena, MemorySegment data) throws IOException {
+    this.arena = arena;
+    this.data = data;
+    if (data.byteSize() < MAGIC.length + 1 || !Arrays.equals(data.asSlice(0, MAGIC.length).toArray(ValueLayout.JAVA_BYTE), MAGIC)) {
+      throw new IOException("Not an evdev recording");
+    }
+
+    int version = data.get(ValueLayout.JAVA_BYTE, MAGIC.length);
+    if (version != VERSION) {
+      throw new IOException("Unsupported evdev recording version: " + version);
+    }
+
+    this.eventsStart = MAGIC.length + 1;
+
+    // find all devices and their initial state upfront, so devices that were connected while recording are available
+    // from the start of the replay
+    var recordedDevices = new ArrayList<RecordedDevice>();
+    var initialStates = new HashMap<Integer, LinuxEventDevice.State>();
+    var firstEventMicros = 0L;
+    var firstEvent = true;
+    var reader = new Reader(this.data, this.eventsStart);
+    while (reader.position < this.data.byteSize()) {
+      try {
+        var header = reader.readVarLong();
+        if (header == DEVICE_RECORD || header == STATE_RECORD) {
+          var length = reader.readVarLong();
+          var end = reader.position + length;
+          if (header == DEVICE_RECORD) {
+            recordedDevices.add(readDevice(reader));
+          } else {
+            var index = (int) reader.readVarLong();
+            if (!initialStates.containsKey(index)) {
+              initialStates.put(index, readState(reader));
+            }
+          }
+
+          reader.position = end;
+        } else {
+          var micros = reader.readSignedVarLong();
+          reader.readVarLong();
+          reader.readVarLong();
+          reader.readSignedVarLong();
+          if (firstEvent) {
+            firstEventMicros = micros;
+            firstEvent = false;
+          }
+        }
+      } catch (IndexOutOfBoundsException e) {
+        break;
+      }
+    }
+
+    for (int i = 0; i < recordedDevices.size(); i++) {
+      var device = recordedDevices.get(i);
+      recordedDevices.set(i, new RecordedDevice(device.index(), device.filename(), device.name(), device.id(), device.components(), initialStates.get(device.index())));
+    }
+
+    this.devices = Collections.unmodifiableList(recordedDevices);
+    this.startMicros = firstEventMicros;
+  }
+
+  /**
+   * Maps a recording into memory. The recording can be larger than the available heap, since only the pages that are
+   * read are loaded by the operating system.
+   *
+   * @param file the recorded file
+   * @return the mapped recording, which must be closed to unmap it
+   * @throws IOException if the file could not be mapped or is not an evdev recording
+   */
+  static LinuxEventRecording open(Path file) throws IOException {
+    var arena = Arena.ofShared();
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new LinuxEventRecording(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+    } catch (IOException | RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the devices of this recording, ordered by their index.
+   *
+   * @return the recorded devices
+   */
+  List<RecordedDevice> getDevices() {
+    return this.devices;
+  }
+
+  /**
+   * Creates a cursor over the events of a device, starting with its first event.
+   *
+   * @param device the index of the device
+   * @return the cursor
+   */
+  Cursor cursor(int device) {
+    return new Cursor(device);
+  }
+
+  @Override
+  public void close() {
+    this.arena.close();
+  }
+
+  private static RecordedDevice readDevice(Reader reader) {
+    var index = (int) reader.readVarLong();
+    var filename = reader.readString();
+    var name = reader.readString();
+    input_id id = null;
+    if (reader.readByte() != 0) {
+      id = new input_id();
+      id.bustype = (short) reader.readVarLong();
+      id.vendor = (short) reader.readVarLong();
+      id.product = (short) reader.readVarLong();
+      id.version = (short) reader.readVarLong();
+    }
+
+    var vendorId = id != null ? Short.toUnsignedInt(id.vendor) : -1;
+    var productId = id != null ? Short.toUnsignedInt(id.product) : -1;
+    var componentCount = (int) reader.readVarLong();
+    var components = new ArrayList<LinuxEventComponent>(componentCount);
+    for (int i = 0; i < componentCount; i++) {
+      var type = (int) reader.readVarLong();
+      var code = (int) reader.readVarLong();
+      if (type == LinuxEventDevice.EV_ABS) {
+        var absInfo = new input_absinfo();
+        absInfo.minimum = (int) reader.readSignedVarLong();
+        absInfo.maximum = (int) reader.readSignedVarLong();
+        absInfo.flat = (int) reader.readSignedVarLong();
+        absInfo.fuzz = (int) reader.readSignedVarLong();
+        components.add(new LinuxEventComponent(type, code, absInfo, vendorId, productId, name));
+      } else {
+        components.add(new LinuxEventComponent(type, code, vendorId, productId, name));
+      }
+    }
+
+    return new RecordedDevice(index, filename, name, id, components, null);
+  }
+
+  /**
+   * Reads the key and axis state of a state record after the index of its device.
+   */
+  private static LinuxEventDevice.State readState(Reader reader) {
+    byte[] keyStates = null;
+    if (reader.readByte() != 0) {
+      keyStates = new byte[LinuxEventDevice.KEY_MAX / 8 + 1];
+      var pressedCount = (int) reader.readVarLong();
+      for (int i = 0; i < pressedCount; i++) {
+        var code = (int) reader.readVarLong();
+        if (code <= LinuxEventDevice.KEY_MAX) {
+          keyStates[code / 8] |= (byte) (1 << (code % 8));
+        }
+      }
+    }
+
+    var absInfo = new input_absinfo[LinuxEventDevice.ABS_MAX + 1];
+    var axisCount = (int) reader.readVarLong();
+    for (int i = 0; i < axisCount; i++) {
+      var code = (int) reader.readVarLong();
+      var value = (int) reader.readSignedVarLong();
+      if (code <= LinuxEventDevice.ABS_MAX) {
+        absInfo[code] = new input_absinfo();
+        absInfo[code].value = value;
+      }
+    }
+
+    return new LinuxEventDevice.State(keyStates, absInfo);
+  }
+
+  /**
+   * Writes a device record.
+   */
+  static void writeDevice(OutputStream out, int index, LinuxEventDevice device) throws IOException {
+    var record = new ByteArrayOutputStream();
+    writeVarLong(record, index);
+    writeString(record, device.filename);
+    writeString(record, device.name);
+    if (device.id != null) {
+      record.write(1);
+      writeVarLong(record, Short.toUnsignedInt(device.id.bustype));
+      writeVarLong(record, Short.toUnsignedInt(device.id.vendor));
+      writeVarLong(record, Short.toUnsignedInt(device.id.product));
+      writeVarLong(record, Short.toUnsignedInt(device.id.version));
+    } else {
+      record.write(0);
+    }
+
+    writeVarLong(record, device.componentList.size());
+    for (var component : device.componentList) {
+      writeVarLong(record, component.nativeType);
+      writeVarLong(record, component.nativeCode);
+      if (component.nativeType == LinuxEventDevice.EV_ABS) {
+        writeSignedVarLong(record, component.min);
+        writeSignedVarLong(record, component.max);
+        writeSignedVarLong(record, component.flat);
+        writeSignedVarLong(record, component.fuzz);
+      }
+    }
+
+    writeVarLong(out, DEVICE_RECORD);
+    writeVarLong(out, record.size());
+    record.writeTo(out);
+  }
+
+  /**
+   * Writes a state record.
+   */
+  static void writeState(OutputStream out, int index, LinuxEventDevice.State state) throws IOException {
+    var record = new ByteArrayOutputStream();
+    writeVarLong(record, index);
+    var keyStates = state.keyStates();
+    if (keyStates != null) {
+      record.write(1);
+      var pressedKeys = BitSet.valueOf(keyStates);
+      writeVarLong(record, pressedKeys.cardinality());
+      for (int code = pressedKeys.nextSetBit(0); code >= 0; code = pressedKeys.nextSetBit(code + 1)) {
+        writeVarLong(record, code);
+      }
+    } else {
+      record.write(0);
+    }
+
+    var absInfo = state.absInfo();
+    writeVarLong(record, Arrays.stream(absInfo).filter(Objects::nonNull).count());
+    for (int code = 0; code < absInfo.length; code++) {
+      if (absInfo[code] != null) {
+        writeVarLong(record, code);
+        writeSignedVarLong(record, absInfo[code].value);
+      }
+    }
+
+    writeVarLong(out, STATE_RECORD);
+    writeVarLong(out, record.size());
+    record.writeTo(out);
+  }
+
+  static void writeVarLong(OutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+
+    out.write((int) value);
+  }
+
+  static void writeSignedVarLong(OutputStream out, long value) throws IOException {
+    writeVarLong(out, (value << 1) ^ (value >> 63));
+  }
+
+  private static void writeString(OutputStream out, String value) throws IOException {
+    var bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    writeVarLong(out, bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * The identity and capabilities of a recorded device.
+   *
+   * @param index      the index of the device in the recording
+   * @param filename   the file name of the device when it was recorded
+   * @param name       the name of the device
+   * @param id         the bus type, vendor, product and version of the device, or null if unknown
+   * @param components the keys and axes of the device
+   * @param state      the state of the keys and axes of the device when it joined the recording, or null if it is unknown
+   */
+  record RecordedDevice(int index, String filename, String name, input_id id, List<LinuxEventComponent> components, LinuxEventDevice.State state) {
+  }
+
+  /**
+   * Iterates over the events of a single device. Since timestamps are stored relative to the previous event of the
+   * recording, the events of all other devices are decoded (but not returned) as well.
+   */
+  final class Cursor {
+    private final int device;
+    private final Reader reader = new Reader(data, eventsStart);
+    private final EventValues values = new EventValues();
+    private LinuxEventDevice.State state;
+    private long micros;
+    private boolean available;
+    private boolean finished;
+
+    int type;
+    int code;
+    int value;
+
+    private Cursor(int device) {
+      this.device = device;
+    }
+
+    /**
+     * Advances to the next event of the device unless the current event has not been consumed yet.
+     *
+     * @return true if there is an event, false if the end of the recording was reached
+     */
+    boolean peek() {
+      if (this.available) {
+        return true;
+      }
+
+      while (!this.finished) {
+        if (this.reader.position >= data.byteSize()) {
+          this.finished = true;
+          break;
+        }
+
+        try {
+          var header = this.reader.readVarLong();
+          if (header == DEVICE_RECORD || header == STATE_RECORD) {
+            var length = this.reader.readVarLong();
+            var end = this.reader.position + length;
+            if (header == STATE_RECORD && this.reader.readVarLong() == this.device) {
+              this.state = readState(this.reader);
+            }
+
+            this.reader.position = end;
+            continue;
+          }
+
+          this.micros += this.reader.readSignedVarLong();
+          var eventType = (int) this.reader.readVarLong();
+          var eventCode = (int) this.reader.readVarLong();
+          var delta = this.reader.readSignedVarLong();
+          if (header - FIRST_EVENT_RECORD != this.device) {
+            continue;
+          }
+
+          this.type = eventType;
+          this.code = eventCode;
+          this.value = (int) (this.values.get(eventType, eventCode) + delta);
+          this.values.set(eventType, eventCode, this.value);
+          this.available = true;
+          return true;
+        } catch (IndexOutOfBoundsException e) {
+          // the last record was not written completely
+          this.finished = true;
+        }
+      }
+
+      return false;
+    }
+
+    /**
+     * Marks the current event as consumed, so the next call of {@link #peek()} advances to the next event.
+     */
+    void consume() {
+      this.available = false;
+    }
+
+    /**
+     * Gets the state of the device that the cursor passed last, i.e. the state that the device had when it joined the
+     * recording or was last resynchronized.
+     *
+     * @return the recorded state, or null if the cursor has not passed a state record of the device yet
+     */
+    LinuxEventDevice.State getState() {
+      return this.state;
+    }
+
+    /**
+     * Gets the time of the current event relative to the first event of the recording.
+     *
+     * @return the offset of the event in nanoseconds
+     */
+    long getOffsetNanos() {
+      return (this.micros - startMicros) * 1_000L;
+    }
+
+    /**
+     * Gets the original timestamp of the current event.
+     *
+     * @return the timestamp in microseconds
+     */
+    long getMicros() {
+      return this.micros;
+    }
+
+    /**
+     * Checks if all events of the device have been consumed.
+     *
+     * @return true if the end of the recording was reached
+     */
+    boolean isFinished() {
+      return !this.peek();
+    }
+  }
+
+  /**
+   * The last value of every event type and code of a device, which the values of the recorded events are relative to.
+   */
+  static final class EventValues {
+    private static final int MAX_CODE = 0xFFFF;
+    private final int[][] values = new int[LinuxEventDevice.EV_MAX + 1][];
+
+    int get(int type, int code) {
+      if (type < 0 || type > LinuxEventDevice.EV_MAX || code < 0 || code > MAX_CODE) {
+        return 0;
+      }
+
+      var codes = this.values[type];
+      return codes == null || code >= codes.length ? 0 : codes[code];
+    }
+
+    void set(int type, int code, int value) {
+      if (type < 0 || type > LinuxEventDevice.EV_MAX || code < 0 || code > MAX_CODE) {
+        return;
+      }
+
+      var codes = this.values[type];
+      if (codes == null || code >= codes.length) {
+        codes = codes == null
+          ? new int[Math.max(LinuxEventDevice.getMaxBits(type), code) + 1]
+          : Arrays.copyOf(codes, Math.max(codes.length * 2, code + 1));
+        this.values[type] = codes;
+      }
+
+      codes[code] = value;
+    }
+  }
+
+  private static final class Reader {
+    private final MemorySegment data;
+    private long position;
+
+    private Reader(MemorySegment data, long position) {
+      this.data = data;
+      this.position = position;
+    }
+
+    private byte readByte() {
+      return this.data.get(ValueLayout.JAVA_BYTE, this.position++);
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        var b = this.readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+
+      throw new IndexOutOfBoundsException("Malformed varint at " + this.position);
+    }
+
+    private long readSignedVarLong() {
+      var value = this.readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private String readString() {
+      var length = (int) this.readVarLong();
+      var bytes = this.data.asSlice(this.position, length).toArray(ValueLayout.JAVA_BYTE);
+      this.position += length;
+      return length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.HapticPattern;
+import de.gurkenlabs.input4j.HapticPattern.Keyframe;
+
+import java.util.List;
+
+/**
+ * Maps {@link HapticPattern}s to single force feedback effects that the kernel plays on its own, so the haptics
+ * scheduler doesn't need to update the intensity while they play.
+ * <p>
+ * The kernel plays an effect for {@code ff_replay.length} milliseconds after waiting {@code ff_replay.delay}
+ * milliseconds, and repeats both as often as the value of the play event says. Periodic effects additionally ramp
+ * their magnitude with an {@code ff_envelope} at the beginning (attack) and at the end (fade). This covers the
+ * following patterns, each optionally starting with a silent segment that becomes the delay:
+ * </p>
+ * <ul>
+ *   <li>a constant intensity, which is played as an {@code FF_RUMBLE} effect</li>
+ *   <li>a ramp or an attack, sustain and fade envelope of the same intensity on both motors, which is played as an
+ *   {@code FF_PERIODIC} effect with an envelope</li>
+ * </ul>
+ * <p>
+ * All other patterns are played by the scheduler, which updates the rumble intensity periodically.
+ * </p>
+ */
+final class LinuxHapticEffects {
+  private static final int MAX_LENGTH = 0xffff;
+  private static final int MAX_RUMBLE_MAGNITUDE = 0xffff;
+  private static final int MAX_PERIODIC_MAGNITUDE = 0x7fff;
+
+  private LinuxHapticEffects() {
+  }
+
+  /**
+   * Creates the effect that plays a single loop of the pattern.
+   *
+   * @param pattern        the pattern
+   * @param supportsRumble whether the device supports {@code FF_RUMBLE} effects
+   * @param supportsSine   whether the device supports {@code FF_PERIODIC} effects with a sine waveform
+   * @return the effect, or null if the pattern cannot be played by the device without updating the intensity
+   */
+  static ff_effect create(HapticPattern pattern, boolean supportsRumble, boolean supportsSine) {
+    var keyframes = pattern.getKeyframes();
+    int first = 0;
+    if (isSilent(keyframes.get(0)) && isSilent(keyframes.get(1))) {
+      first = 1;
+    }
+
+    // a step at the beginning starts at the level it steps to
+    while (first < keyframes.size() - 1 && keyframes.get(first + 1).time() == keyframes.get(first).time()) {
+      first++;
+    }
+
+    var segment = keyframes.subList(first, keyframes.size());
+    int delay = segment.getFirst().time();
+    int length = segment.getLast().time() - delay;
+    if (segment.size() < 2 || length <= 0 || length > MAX_LENGTH || delay > MAX_LENGTH) {
+      return null;
+    }
+
+    if (supportsRumble && isConstant(segment)) {
+      var effect = createEffect(Linux.FF_RUMBLE, length, delay);
+      effect.rumble = new ff_rumble_effect();
+      effect.rumble.strong_magnitude = (short) Math.round(segment.getFirst().strong() * MAX_RUMBLE_MAGNITUDE);
+      effect.rumble.weak_magnitude = (short) Math.round(segment.getFirst().weak() * MAX_RUMBLE_MAGNITUDE);
+      return effect;
+    }
+
+    if (!supportsSine) {
+      return null;
+    }
+
+    // a periodic effect has a single magnitude, which the kernel applies to both motors of a rumble device
+    for (var keyframe : segment) {
+      if (supportsRumble && keyframe.strong() != keyframe.weak()) {
+        return null;
+      }
+    }
+
+    int attack;
+    int fade;
+    Keyframe peak;
+    switch (segment.size()) {
+      case 2 -> {
+        attack = length;
+        fade = 0;
+        peak = segment.get(1);
+      }
+      case 3 -> {
+        attack = segment.get(1).time() - delay;
+        fade = segment.get(2).time() - segment.get(1).time();
+        peak = segment.get(1);
+      }
+      case 4 -> {
+        if (magnitude(segment.get(1)) != magnitude(segment.get(2))) {
+          return null;
+        }
+
+        attack = segment.get(1).time() - delay;
+        fade = segment.get(3).time() - segment.get(2).time();
+        peak = segment.get(1);
+      }
+      default -> {
+        return null;
+      }
+    }
+
+    var effect = createEffect(Linux.FF_PERIODIC, length, delay);
+    effect.periodic = new ff_periodic_effect();
+    effect.periodic.waveform = Linux.FF_SINE;
+    effect.periodic.period = 50;
+    effect.periodic.magnitude = (short) magnitude(peak);
+    effect.periodic.envelope = new ff_envelope();
+    effect.periodic.envelope.attack_length = (short) attack;
+    effect.periodic.envelope.attack_level = (short) (attack > 0 ? magnitude(segment.getFirst()) : 0);
+    effect.periodic.envelope.fade_length = (short) fade;
+    effect.periodic.envelope.fade_level = (short) (fade > 0 ? magnitude(segment.getLast()) : 0);
+    return effect;
+  }
+
+  /**
+   * Gets the value of the play event that plays all loops of the pattern.
+   *
+   * @param pattern the pattern
+   * @return the number of times the kernel repeats the effect
+   */
+  static int getPlayCount(HapticPattern pattern) {
+    return pattern.getLoops() == HapticPattern.LOOP_FOREVER ? Integer.MAX_VALUE : pattern.getLoops();
+  }
+
+  private static ff_effect createEffect(int type, int length, int delay) {
+    var effect = new ff_effect();
+    effect.type = (short) type;
+    effect.id = -1;
+    effect.trigger = new ff_trigger();
+    effect.replay = new ff_replay();
+    effect.replay.length = (short) length;
+    effect.replay.delay = (short) delay;
+    return effect;
+  }
+
+  /**
+   * Converts the intensities of a keyframe like the sine fallback of the plugin, which is the same for both motors if
+   * their intensities are equal.
+   */
+  private static int magnitude(Keyframe keyframe) {
+    return Math.round(keyframe.strong() * MAX_PERIODIC_MAGNITUDE * 2 / 3 + keyframe.weak() * MAX_PERIODIC_MAGNITUDE / 3);
+  }
+
+  private static boolean isSilent(Keyframe keyframe) {
+    return keyframe.strong() == 0 && keyframe.weak() == 0;
+  }
+
+  private static boolean isConstant(List<Keyframe> keyframes) {
+    var first = keyframes.getFirst();
+    for (var keyframe : keyframes) {
+      if (keyframe.strong() != first.strong() || keyframe.weak() != first.weak()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,165 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.ComponentType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * The identity and capabilities of an event device as exported by the kernel in sysfs
+ * ({@code /sys/class/input/eventN/device}), which can be read without opening the device node.
+ * <p>
+ * This allows rejecting devices that are not game input devices (keyboards, power buttons, HDMI audio jacks, ...) before
+ * any {@code open()} or ioctl, and opening devices without force feedback read-only right away.
+ * </p>
+ *
+ * @param name          the name of the device
+ * @param bustype       the bus type
+ * @param vendor        the vendor id
+ * @param product       the product id
+ * @param version       the version of the device
+ * @param eventTypes    the supported event types
+ * @param keys          the supported keys and buttons
+ * @param absoluteAxes  the supported absolute axes
+ * @param forceFeedback the supported force feedback effects
+ */
+record LinuxSysfsInputDevice(String name, int bustype, int vendor, int product, int version, BitSet eventTypes, BitSet keys, BitSet absoluteAxes,
+                             BitSet forceFeedback) {
+  /**
+   * The bits of each word in the capability bitmaps, which are printed as {@code unsigned long}s of the kernel.
+   * This is not the width of the JVM, e.g. a 32-bit JVM on a 64-bit kernel reads 64-bit words.
+   */
+  private static final int KERNEL_WORD_BITS = getWordBits(Linux.getMachine());
+
+  /**
+   * Reads the sysfs entry of an event node.
+   *
+   * @param sysfsRoot the mount point of sysfs, usually {@code /sys}
+   * @param nodeName  the file name of the event node, e.g. {@code event3}
+   * @return the device, or null if its sysfs entry is not available (e.g. in a container without sysfs)
+   */
+  static LinuxSysfsInputDevice read(Path sysfsRoot, String nodeName) {
+    var deviceDirectory = sysfsRoot.resolve("class/input").resolve(nodeName).resolve("device");
+    try {
+      return new LinuxSysfsInputDevice(
+          Files.readString(deviceDirectory.resolve("name")).strip(),
+          readHex(deviceDirectory.resolve("id/bustype")),
+          readHex(deviceDirectory.resolve("id/vendor")),
+          readHex(deviceDirectory.resolve("id/product")),
+          readHex(deviceDirectory.resolve("id/version")),
+          readBitmap(deviceDirectory.resolve("capabilities/ev")),
+          readBitmap(deviceDirectory.resolve("capabilities/key")),
+          readBitmap(deviceDirectory.resolve("capabilities/abs")),
+          readBitmap(deviceDirectory.resolve("capabilities/ff")));
+    } catch (IOException | NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parses a capability bitmap, which the kernel prints as hexadecimal words separated by spaces, starting with the most significant word.
+   *
+   * @param bitmap the printed bitmap, e.g. {@code "7fff000000000000 0 100040000000 0 0"}
+   * @return the set bits
+   */
+  static BitSet parseBitmap(String bitmap) {
+    return parseBitmap(bitmap, KERNEL_WORD_BITS);
+  }
+
+  /**
+   * Parses a capability bitmap with the specified word size. A word with more than eight hexadecimal digits can only be
+   * printed by a 64-bit kernel, so it overrides the word size.
+   *
+   * @param bitmap   the printed bitmap
+   * @param wordBits the bits of an {@code unsigned long} of the kernel
+   * @return the set bits
+   */
+  static BitSet parseBitmap(String bitmap, int wordBits) {
+    var bits = new BitSet();
+    var words = bitmap.strip().split("\\s+");
+    for (var word : words) {
+      if (word.length() > Integer.BYTES * 2) {
+        wordBits = Long.SIZE;
+        break;
+      }
+    }
+
+    for (int i = 0; i < words.length; i++) {
+      if (words[i].isEmpty()) {
+        continue;
+      }
+
+      var word = Long.parseUnsignedLong(words[i], 16);
+      var offset = (words.length - 1 - i) * wordBits;
+      while (word != 0) {
+        var bit = Long.numberOfTrailingZeros(word);
+        bits.set(offset + bit);
+        word &= word - 1;
+      }
+    }
+
+    return bits;
+  }
+
+  /**
+   * Checks if the device would be kept by the plugin after probing it: its name does not belong to a device that is ignored,
+   * and it has at least one button or axis.
+   *
+   * @return true if the device is worth opening
+   */
+  boolean isGameInputDevice() {
+    return !LinuxEventDevicePlugin.isIgnoredDevice(this.name)
+        && (hasGameComponents(this.eventTypes, LinuxEventDevice.EV_KEY, this.keys, LinuxEventDevice.KEY_MAX)
+        || hasGameComponents(this.eventTypes, LinuxEventDevice.EV_ABS, this.absoluteAxes, LinuxEventDevice.ABS_MAX));
+  }
+
+  /**
+   * Checks if the device supports rumble, which is the only force feedback effect that is used by the plugin.
+   *
+   * @return true if the device supports {@code FF_RUMBLE} or {@code FF_SINE}
+   */
+  boolean supportsForceFeedback() {
+    return this.forceFeedback.get(Linux.FF_RUMBLE) || this.forceFeedback.get(Linux.FF_SINE);
+  }
+
+  private static boolean hasGameComponents(BitSet eventTypes, int eventType, BitSet codes, int max) {
+    if (!eventTypes.get(eventType)) {
+      return false;
+    }
+
+    for (int code = codes.nextSetBit(0); code >= 0 && code < max; code = codes.nextSetBit(code + 1)) {
+      var componentType = new LinuxEventComponent(eventType, code).componentType;
+      if (componentType == ComponentType.BUTTON || componentType == ComponentType.AXIS) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Gets the bits of an {@code unsigned long} of the kernel by its machine name.
+   *
+   * @param machine the machine name of the kernel, e.g. {@code x86_64} or {@code armv7l}, or null if it is unknown
+   * @return 64 for a 64-bit kernel, otherwise 32
+   */
+  static int getWordBits(String machine) {
+    if (machine == null) {
+      // a 64-bit JVM always runs on a 64-bit kernel, and a 32-bit JVM most likely on a 32-bit kernel
+      return Linux.IS_32_BIT ? Integer.SIZE : Long.SIZE;
+    }
+
+    // e.g. x86_64, aarch64, ppc64le, riscv64, s390x and alpha, but not armv8l, which is a 32-bit compatibility mode
+    return machine.contains("64") || machine.equals("s390x") || machine.equals("alpha") ? Long.SIZE : Integer.SIZE;
+  }
+
+  private static int readHex(Path file) throws IOException {
+    return Integer.parseInt(Files.readString(file).strip(), 16);
+  }
+
+  private static BitSet readBitmap(Path file) throws IOException {
+    return parseBitmap(Files.readString(file));
+  }
+}
@@ -36,54 +36,59 @@ final class LinuxVirtualComponentHandler {
     device.setComponents(allComponents);
   }
 
-  static float[] handlePolledValues(final InputDevice device, final float[] nativeValues) {
-    var allValues = new float[device.getComponents().size()];
+  /**
+   * Handles the polled values for the specified input device by mapping the native D-Pad axis values
+   * to the virtual D-Pad button components.
+   * <p>
+   * The values are updated in place, so no additional buffer is allocated while polling.
+   * </p>
+   *
+   * @param device the input device
+   * @param values the polled values, containing the native values which are replaced with the values for all components
+   */
+  static void handlePolledValues(final InputDevice device, final float[] values) {
     var dpadUpIndex = device.getComponentIndex(Button.DPAD_UP);
     var dpadDownIndex = device.getComponentIndex(Button.DPAD_DOWN);
     var dpadLeftIndex = device.getComponentIndex(Button.DPAD_LEFT);
     var dpadRightIndex = device.getComponentIndex(Button.DPAD_RIGHT);
 
-    for (int i = 0; i < nativeValues.length && i < device.getComponents().size(); i++) {
-      var value = nativeValues[i];
+    // the virtual components are only ever set from the D-Pad axes
+    if (dpadUpIndex != -1) values[dpadUpIndex] = 0;
+    if (dpadDownIndex != -1) values[dpadDownIndex] = 0;
+    if (dpadLeftIndex != -1) values[dpadLeftIndex] = 0;
+    if (dpadRightIndex != -1) values[dpadRightIndex] = 0;
+
+    for (int i = 0; i < values.length && i < device.getComponents().size(); i++) {
+      var value = values[i];
       if (value == 0) {
         continue;
       }
 
-      allValues[i] = value;
-
       var component = device.getComponents().get(i);
       if (component == null) {
         continue;
       }
 
       if (component.getId().name.equals(LinuxEventComponent.ID_DPAD_UP_DOWN)) {
-        allValues[i] = 0;
+        values[i] = 0;
 
         if (value == DPAD_VALUE.UP) {
-          if (dpadUpIndex != -1) allValues[dpadUpIndex] = 1;
+          if (dpadUpIndex != -1) values[dpadUpIndex] = 1;
         } else if (value == DPAD_VALUE.DOWN) {
-          if (dpadDownIndex != -1) allValues[dpadDownIndex] = 1;
-        } else if (value == 0) {
-          if (dpadUpIndex != -1) allValues[dpadUpIndex] = 0;
-          if (dpadDownIndex != -1) allValues[dpadDownIndex] = 0;
+          if (dpadDownIndex != -1) values[dpadDownIndex] = 1;
         }
       }
 
       if (component.getId().name.equals(LinuxEventComponent.ID_DPAD_LEFT_RIGHT)) {
-        allValues[i] = 0;
+        values[i] = 0;
 
         if (value == DPAD_VALUE.LEFT) {
-          if (dpadLeftIndex != -1) allValues[dpadLeftIndex] = 1;
+          if (dpadLeftIndex != -1) values[dpadLeftIndex] = 1;
         } else if (value == DPAD_VALUE.RIGHT) {
-          if (dpadRightIndex != -1) allValues[dpadRightIndex] = 1;
-        } else if (value == 0) {
-          if (dpadLeftIndex != -1) allValues[dpadLeftIndex] = 0;
-          if (dpadRightIndex != -1) allValues[dpadRightIndex] = 0;
+          if (dpadRightIndex != -1) values[dpadRightIndex] = 1;
         }
       }
     }
-
-    return allValues;
   }
 
   private static class DPAD_VALUE {
@@ -0,0 +1,336 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.InputDevice;
+import de.gurkenlabs.input4j.InputDevices;
+
+import java.awt.*;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * The {@code ReplayInputDevicePlugin} replays the event streams that were recorded with a {@link LinuxEventRecorder},
+ * e.g. to reproduce a bug report, or to run tests and benchmarks with real input but without the hardware attached.
+ * <p>
+ * Every recorded device is recreated with its name, vendor and product id and its keys and axes (including their absinfo),
+ * starts in the state that it had when the recording started, and the recorded events are decoded exactly like the events
+ * of a live evdev device. If the kernel dropped events while recording, the device is resynchronized with the state that
+ * was recorded at that time instead of querying a device. Devices that were connected while recording are available from
+ * the start of the replay. The recording is memory-mapped, so recordings that are larger than
+ * the heap can be replayed as well.
+ * </p>
+ * <pre>{@code
+ * ReplayInputDevicePlugin.configure().setRecording(Path.of("session.evrec"));
+ * try (var devices = InputDevices.init(ReplayInputDevicePlugin.class.getName())) {
+ *   devices.startPolling(120);
+ *   ...
+ * }
+ * }</pre>
+ *
+ * @see LinuxEventDevicePlugin#startRecording(Path)
+ */
+public final class ReplayInputDevicePlugin extends LinuxEventDevicePlugin {
+  private static final Configuration configuration = new Configuration();
+
+  private final Path recordingFile;
+  private final Mode mode;
+  private final List<ReplayEventDevice> replayDevices = new ArrayList<>();
+  private LinuxEventRecording recording;
+  private long startTime;
+
+  /**
+   * Creates a plugin with the current values of the shared configuration, which is how {@link InputDevices#init(String)} creates it.
+   *
+   * @see #configure()
+   */
+  public ReplayInputDevicePlugin() {
+    this(configuration.getRecording(), configuration.getMode());
+  }
+
+  /**
+   * Creates a plugin that replays the specified recording in real time.
+   *
+   * @param recording the recorded file
+   */
+  public ReplayInputDevicePlugin(Path recording) {
+    this(recording, Mode.REAL_TIME);
+  }
+
+  /**
+   * Creates a plugin that replays the specified recording.
+   *
+   * @param recording the recorded file
+   * @param mode      how fast the recorded events are replayed
+   */
+  public ReplayInputDevicePlugin(Path recording, Mode mode) {
+    if (recording == null || mode == null) {
+      throw new IllegalArgumentException("The recording and the mode must not be null.");
+    }
+
+    this.recordingFile = recording;
+    this.mode = mode;
+  }
+
+  /**
+   * Configures the replay plugins that are created afterward via {@link InputDevices#init(String)}.
+   *
+   * @return the shared configuration
+   */
+  public static Configuration configure() {
+    return configuration;
+  }
+
+  /**
+   * Maps the recording and creates its devices. The replay starts now.
+   *
+   * @param owner Not used by this plugin.
+   */
+  @Override
+  public void internalInitDevices(Frame owner) {
+    try {
+      this.recording = LinuxEventRecording.open(this.recordingFile);
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "Failed to open the recording " + this.recordingFile, e);
+      this.setDevices(List.of());
+      return;
+    }
+
+    this.startTime = System.nanoTime();
+    var devices = new ArrayList<InputDevice>();
+    for (var recordedDevice : this.recording.getDevices()) {
+      var device = new ReplayEventDevice(recordedDevice, this.recording.cursor(recordedDevice.index()));
+      for (var component : recordedDevice.components()) {
+        device.addComponent(component);
+      }
+
+      var inputDevice = this.addDevice(device, "replay:" + recordedDevice.index() + ":" + recordedDevice.filename());
+      LinuxVirtualComponentHandler.prepareVirtualComponents(inputDevice, inputDevice.getComponents());
+      if (recordedDevice.state() != null) {
+        initState(device, recordedDevice.state(), this.startTime);
+      }
+
+      this.replayDevices.add(device);
+      devices.add(inputDevice);
+      log.log(Level.FINE, "Replaying input device: " + recordedDevice.filename() + " - " + recordedDevice.name());
+    }
+
+    this.setDevices(devices);
+  }
+
+  /**
+   * Gets how fast the recorded events are replayed.
+   *
+   * @return the replay mode
+   */
+  public Mode getMode() {
+    return this.mode;
+  }
+
+  /**
+   * Checks if all recorded events have been replayed.
+   *
+   * @return true if the devices have read all of their events, otherwise false
+   */
+  public boolean isFinished() {
+    for (var device : this.replayDevices) {
+      synchronized (device) {
+        if (!device.cursor.isFinished()) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    this.replayDevices.clear();
+    if (this.recording != null) {
+      this.recording.close();
+      this.recording = null;
+    }
+  }
+
+  /**
+   * How fast the recorded events are replayed.
+   */
+  public enum Mode {
+    /**
+     * The events are read at the same pace as they were recorded, relative to the initialization of the plugin.
+     * They are stamped with the time of the replay, so the timestamps and latencies of the devices are meaningful.
+     */
+    REAL_TIME,
+
+    /**
+     * Every read of a device returns its next report (all events up to the next {@code SYN_REPORT}) regardless of the
+     * recorded time, so the replay runs as fast as the devices are polled. The events keep their recorded timestamps,
+     * which are not reported to the devices since they are unrelated to the current time.
+     */
+    AS_FAST_AS_POSSIBLE
+  }
+
+  /**
+   * The configuration of replay plugins that are created via {@link InputDevices#init(String)}.
+   */
+  public static final class Configuration {
+    private Path recording;
+    private Mode mode = Mode.REAL_TIME;
+
+    /**
+     * Creates a configuration with the default values.
+     */
+    public Configuration() {
+    }
+
+    /**
+     * Gets the recorded file that is replayed.
+     *
+     * @return The recorded file, or null if it has not been set yet.
+     */
+    public Path getRecording() {
+      return recording;
+    }
+
+    /**
+     * Sets the recorded file that is replayed.
+     *
+     * @param recording The recorded file.
+     * @throws IllegalArgumentException if the file is null.
+     */
+    public void setRecording(Path recording) {
+      if (recording == null) {
+        throw new IllegalArgumentException("The recording must not be null.");
+      }
+      this.recording = recording;
+    }
+
+    /**
+     * Gets how fast the recorded events are replayed. By default, it is set to {@link Mode#REAL_TIME}.
+     *
+     * @return The replay mode.
+     */
+    public Mode getMode() {
+      return mode;
+    }
+
+    /**
+     * Sets how fast the recorded events are replayed.
+     *
+     * @param mode The replay mode.
+     * @throws IllegalArgumentException if the mode is null.
+     */
+    public void setMode(Mode mode) {
+      if (mode == null) {
+        throw new IllegalArgumentException("The mode must not be null.");
+      }
+      this.mode = mode;
+    }
+  }
+
+  /**
+   * A device that reads its events from the recording instead of a file descriptor.
+   */
+  private final class ReplayEventDevice extends LinuxEventDevice {
+    private final LinuxEventRecording.Cursor cursor;
+    private final State initialState;
+    private final input_event replayedEvent = new input_event();
+    private boolean replayedDrop;
+
+    private ReplayEventDevice(LinuxEventRecording.RecordedDevice recordedDevice, LinuxEventRecording.Cursor cursor) {
+      super(Linux.ERROR, recordedDevice.filename(), recordedDevice.name(), recordedDevice.id());
+      this.cursor = cursor;
+      this.initialState = recordedDevice.state();
+      this.monotonicTimestamps = mode == Mode.REAL_TIME;
+    }
+
+    /**
+     * Answers from the recorded state, since there is no device to query.
+     */
+    @Override
+    byte[] queryKeyStates() {
+      var state = this.getRecordedState();
+      return state != null && state.keyStates() != null ? state.keyStates().clone() : null;
+    }
+
+    /**
+     * Answers from the recorded state, since there is no device to query.
+     */
+    @Override
+    input_absinfo queryAbsInfo(int code) {
+      var state = this.getRecordedState();
+      if (state == null || code < 0 || code >= state.absInfo().length || state.absInfo()[code] == null) {
+        return null;
+      }
+
+      var component = this.getComponentIndex(EV_ABS, code);
+      var absInfo = new input_absinfo();
+      absInfo.value = state.absInfo()[code].value;
+      if (component != -1) {
+        var nativeComponent = this.componentList.get(component);
+        absInfo.minimum = nativeComponent.min;
+        absInfo.maximum = nativeComponent.max;
+        absInfo.fuzz = nativeComponent.fuzz;
+        absInfo.flat = nativeComponent.flat;
+      }
+
+      return absInfo;
+    }
+
+    private State getRecordedState() {
+      var state = this.cursor.getState();
+      return state != null ? state : this.initialState;
+    }
+
+    @Override
+    int readEvents(MemorySegment buffer) {
+      var capacity = (int) (buffer.byteSize() / input_event.$LAYOUT.byteSize());
+      var elapsed = System.nanoTime() - startTime;
+      int count = 0;
+      while (count < capacity && this.cursor.peek()) {
+        var offset = this.cursor.getOffsetNanos();
+        long timestamp;
+        if (mode == Mode.REAL_TIME) {
+          if (offset > elapsed) {
+            break;
+          }
+
+          timestamp = startTime + Math.max(offset, 0);
+        } else {
+          timestamp = this.cursor.getMicros() * 1_000L;
+        }
+
+        this.replayedEvent.time.tv_sec = timestamp / 1_000_000_000L;
+        this.replayedEvent.time.tv_usec = timestamp % 1_000_000_000L / 1_000L;
+        this.replayedEvent.type = (short) this.cursor.type;
+        this.replayedEvent.code = (short) this.cursor.code;
+        this.replayedEvent.value = this.cursor.value;
+        this.replayedEvent.write(buffer, count * input_event.$LAYOUT.byteSize());
+        this.cursor.consume();
+        count++;
+
+        if (this.cursor.type == EV_SYN && this.cursor.code == SYN_DROPPED) {
+          this.replayedDrop = true;
+        } else if (this.cursor.type == EV_SYN && this.cursor.code == SYN_REPORT) {
+          if (this.replayedDrop) {
+            // the state that this report is resynchronized with was recorded right after it, so it has to be read before
+            // the report is applied, but without passing the state of a later resynchronization
+            this.replayedDrop = false;
+            this.cursor.peek();
+            break;
+          }
+
+          if (mode == Mode.AS_FAST_AS_POSSIBLE) {
+            break;
+          }
+        }
+      }
+
+      return count;
+    }
+  }
+}
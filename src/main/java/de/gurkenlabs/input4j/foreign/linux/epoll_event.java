@@ -0,0 +1,57 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.lang.foreign.GroupLayout;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.VarHandle;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+/*
+ * Corresponds to {@code struct epoll_event} from {@code sys/epoll.h}.
+ *
+ * <p>
+ * The {@code data} union is treated as a 64-bit value that carries the file descriptor of the event source.
+ * On x86_64 the struct is declared packed, so the data field directly follows the event mask;
+ * all other architectures use the natural alignment.
+ */
+class epoll_event {
+  public int events;
+  public long data;
+
+  private static final boolean IS_PACKED = isPackedArchitecture();
+
+  private static boolean isPackedArchitecture() {
+    String osArch = System.getProperty("os.arch", "").toLowerCase();
+    return osArch.equals("amd64") || osArch.equals("x86_64");
+  }
+
+  static final GroupLayout $LAYOUT = IS_PACKED
+      ? MemoryLayout.structLayout(
+          JAVA_INT.withName("events"),
+          JAVA_LONG_UNALIGNED.withName("data")
+      ).withName("epoll_event")
+      : MemoryLayout.structLayout(
+          JAVA_INT.withName("events"),
+          MemoryLayout.paddingLayout(4),
+          JAVA_LONG.withName("data")
+      ).withName("epoll_event");
+
+  static final VarHandle VH_events = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("events"));
+  static final VarHandle VH_data = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("data"));
+
+  public static epoll_event read(MemorySegment segment) {
+    var event = new epoll_event();
+    event.events = (int) VH_events.get(segment, 0);
+    event.data = (long) VH_data.get(segment, 0);
+
+    return event;
+  }
+
+  public void write(MemorySegment segment) {
+    VH_events.set(segment, 0, events);
+    VH_data.set(segment, 0, data);
+  }
+}
@@ -0,0 +1,60 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import java.lang.foreign.GroupLayout;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+/*
+ * Corresponds to {@code struct inotify_event} from {@code sys/inotify.h}.
+ *
+ * <p>
+ * The fixed part of the struct is followed by {@code len} bytes that contain the null-terminated (and null-padded)
+ * name of the file the event refers to, so the next event of a buffer starts at {@code $LAYOUT.byteSize() + len}.
+ */
+class inotify_event {
+  public int wd;
+  public int mask;
+  public int cookie;
+  public int len;
+  public String name;
+
+  static final GroupLayout $LAYOUT = MemoryLayout.structLayout(
+          JAVA_INT.withName("wd"),
+          JAVA_INT.withName("mask"),
+          JAVA_INT.withName("cookie"),
+          JAVA_INT.withName("len")
+  ).withName("inotify_event");
+
+  static final VarHandle VH_wd = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("wd"));
+  static final VarHandle VH_mask = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("mask"));
+  static final VarHandle VH_cookie = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("cookie"));
+  static final VarHandle VH_len = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("len"));
+
+  /**
+   * Decodes the event at the given offset of the segment into an existing instance.
+   *
+   * @return the decoded event; its name is null if the event refers to the watched directory itself
+   */
+  static inotify_event read(MemorySegment segment, long offset, inotify_event target) {
+    target.wd = (int) VH_wd.get(segment, offset);
+    target.mask = (int) VH_mask.get(segment, offset);
+    target.cookie = (int) VH_cookie.get(segment, offset);
+    target.len = (int) VH_len.get(segment, offset);
+    target.name = target.len > 0
+        ? segment.asSlice(offset + $LAYOUT.byteSize(), target.len).getString(0, StandardCharsets.UTF_8)
+        : null;
+
+    return target;
+  }
+
+  /**
+   * Gets the number of bytes this event occupies in a buffer, including its name.
+   */
+  long byteSize() {
+    return $LAYOUT.byteSize() + this.len;
+  }
+}
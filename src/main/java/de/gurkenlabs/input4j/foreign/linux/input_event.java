@@ -38,19 +38,33 @@ class input_event {
   static final VarHandle VH_value = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("value"));
 
   public static input_event read(MemorySegment segment) {
-    var inputEvent = new input_event();
-    inputEvent.time = timeval.read(segment);
-    inputEvent.type = (short) VH_type.get(segment, 0);
-    inputEvent.code = (short) VH_code.get(segment, 0);
-    inputEvent.value = (int) VH_value.get(segment, 0);
+    return read(segment, 0, new input_event());
+  }
+
+  /**
+   * Decodes the event at the given offset of the segment into an existing instance, e.g. to decode
+   * a buffer of events without allocating a new object for each of them.
+   */
+  static input_event read(MemorySegment segment, long offset, input_event target) {
+    timeval.read(segment, offset, target.time);
+    target.type = (short) VH_type.get(segment, offset);
+    target.code = (short) VH_code.get(segment, offset);
+    target.value = (int) VH_value.get(segment, offset);
 
-    return inputEvent;
+    return target;
   }
 
   public void write(MemorySegment segment) {
-    time.write(segment);
-    VH_type.set(segment, 0, type);
-    VH_code.set(segment, 0, code);
-    VH_value.set(segment, 0, value);
+    write(segment, 0);
+  }
+
+  /**
+   * Encodes this event at the given offset of the segment, e.g. to fill a buffer of events.
+   */
+  void write(MemorySegment segment, long offset) {
+    time.write(segment, offset);
+    VH_type.set(segment, offset, type);
+    VH_code.set(segment, offset, code);
+    VH_value.set(segment, offset, value);
   }
 }
@@ -37,15 +37,31 @@ class timeval {
   static final VarHandle VH_tv_usec = $LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("tv_usec"));
 
   public static timeval read(MemorySegment segment) {
-    var timeval = new timeval();
-    timeval.tv_sec = (long) VH_tv_sec.get(segment, 0);
-    timeval.tv_usec = (long) VH_tv_usec.get(segment, 0);
+    return read(segment, 0, new timeval());
+  }
+
+  static timeval read(MemorySegment segment, long offset, timeval target) {
+    target.tv_sec = (long) VH_tv_sec.get(segment, offset);
+    target.tv_usec = (long) VH_tv_usec.get(segment, offset);
+
+    return target;
+  }
 
-    return timeval;
+  /**
+   * Converts this time to nanoseconds.
+   *
+   * @return the number of nanoseconds
+   */
+  long toNanos() {
+    return this.tv_sec * 1_000_000_000L + this.tv_usec * 1_000L;
   }
 
   public void write(MemorySegment segment) {
-    VH_tv_sec.set(segment, 0, tv_sec);
-    VH_tv_usec.set(segment, 0, tv_usec);
+    write(segment, 0);
+  }
+
+  void write(MemorySegment segment, long offset) {
+    VH_tv_sec.set(segment, offset, tv_sec);
+    VH_tv_usec.set(segment, offset, tv_usec);
   }
 }
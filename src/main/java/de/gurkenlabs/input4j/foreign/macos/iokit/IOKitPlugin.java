@@ -227,32 +227,38 @@ public class IOKitPlugin extends AbstractInputDevicePlugin {
     return value;
   }
 
-  private float[] pollIOHIDDevice(InputDevice inputDevice) {
-    log.log(Level.FINE, "Polling IOHIDDevice for input device: " + inputDevice.getName());
-    var values = new float[inputDevice.getComponents().size()];
+  private int pollIOHIDDevice(InputDevice inputDevice, float[] values) {
+    log.log(Level.FINE, "Polling IOHIDDevice for input device: {0}", inputDevice.getName());
 
     // find native IOHIDDevice and poll elements
     var ioHIDDevice = this.nativeDevices.getOrDefault(inputDevice.getID(), null);
     if (ioHIDDevice == null) {
-      log.log(Level.WARNING, "IOHIDDevice not found for input device " + inputDevice.getName());
-      return values;
+      log.log(Level.WARNING, "IOHIDDevice not found for input device {0}", inputDevice.getName());
+      return values.length;
     }
 
-    for (int i = 0; i < inputDevice.getComponents().size(); i++) {
+    var elements = ioHIDDevice.getElements();
+    for (int i = 0; i < values.length && i < inputDevice.getComponents().size(); i++) {
       var component = inputDevice.getComponents().get(i);
-      var element = ioHIDDevice.getElements().stream().filter(x -> x.getIdentifier() == component.getId()).findFirst().orElse(null);
+      IOHIDElement element = null;
+      for (var candidate : elements) {
+        if (candidate.getIdentifier() == component.getId()) {
+          element = candidate;
+          break;
+        }
+      }
+
       if (element == null) {
-        log.log(Level.FINE, "Native element not found for component ID: " + component.getId());
+        log.log(Level.FINE, "Native element not found for component ID: {0}", component.getId());
         continue;
       }
 
       var elementValue = element.currentValue;
-      log.log(Level.FINEST, "Element value for component ID " + component.getId() + ": " + elementValue);
-      var value = normalizeInputValue(elementValue, element, component.isAxis());
-      values[i] = value;
+      values[i] = normalizeInputValue(elementValue, element, component.isAxis());
     }
 
-    return IOKitVirtualComponentHandler.handlePolledValues(inputDevice, values);
+    IOKitVirtualComponentHandler.handlePolledValues(inputDevice, values);
+    return values.length;
   }
 
   /**
@@ -38,54 +38,59 @@ public class IOKitVirtualComponentHandler {
     device.setComponents(allComponents);
   }
 
-  static float[] handlePolledValues(final InputDevice device, final float[] nativeValues) {
-    var allValues = new float[device.getComponents().size()];
+  /**
+   * Handles the polled values for the specified input device by mapping the native D-Pad axis value
+   * to the virtual D-Pad button components.
+   * <p>
+   * The values are updated in place, so no additional buffer is allocated while polling.
+   * </p>
+   *
+   * @param device the input device
+   * @param values the polled values, containing the native values which are replaced with the values for all components
+   */
+  static void handlePolledValues(final InputDevice device, final float[] values) {
     var dpadUpIndex = device.getComponentIndex(Button.DPAD_UP);
     var dpadDownIndex = device.getComponentIndex(Button.DPAD_DOWN);
     var dpadLeftIndex = device.getComponentIndex(Button.DPAD_LEFT);
     var dpadRightIndex = device.getComponentIndex(Button.DPAD_RIGHT);
 
-    for (int i = 0; i < nativeValues.length && i < device.getComponents().size(); i++) {
-      var value = nativeValues[i];
+    for (int i = 0; i < values.length && i < device.getComponents().size(); i++) {
+      var value = values[i];
       if (value == 0) {
         continue;
       }
 
-      allValues[i] = value;
-
       var component = device.getComponents().get(i);
       if (component == null) {
         continue;
       }
 
       if (component.getId().equals(Axis.AXIS_DPAD)) {
-        allValues[i] = 0;
+        values[i] = 0;
 
         if (value == DPAD_VALUE.UP) {
-          if (dpadUpIndex != -1) allValues[dpadUpIndex] = 1;
+          if (dpadUpIndex != -1) values[dpadUpIndex] = 1;
         } else if (value == DPAD_VALUE.DOWN) {
-          if (dpadDownIndex != -1) allValues[dpadDownIndex] = 1;
+          if (dpadDownIndex != -1) values[dpadDownIndex] = 1;
         } else if (value == DPAD_VALUE.LEFT) {
-          if (dpadLeftIndex != -1) allValues[dpadLeftIndex] = 1;
+          if (dpadLeftIndex != -1) values[dpadLeftIndex] = 1;
         } else if (value == DPAD_VALUE.RIGHT) {
-          if (dpadRightIndex != -1) allValues[dpadRightIndex] = 1;
+          if (dpadRightIndex != -1) values[dpadRightIndex] = 1;
         } else if (value == DPAD_VALUE.UP_LEFT) {
-          if (dpadUpIndex != -1) allValues[dpadUpIndex] = 1;
-          if (dpadLeftIndex != -1) allValues[dpadLeftIndex] = 1;
+          if (dpadUpIndex != -1) values[dpadUpIndex] = 1;
+          if (dpadLeftIndex != -1) values[dpadLeftIndex] = 1;
         } else if (value == DPAD_VALUE.UP_RIGHT) {
-          if (dpadUpIndex != -1) allValues[dpadUpIndex] = 1;
-          if (dpadRightIndex != -1) allValues[dpadRightIndex] = 1;
+          if (dpadUpIndex != -1) values[dpadUpIndex] = 1;
+          if (dpadRightIndex != -1) values[dpadRightIndex] = 1;
         } else if (value == DPAD_VALUE.DOWN_LEFT) {
-          if (dpadDownIndex != -1) allValues[dpadDownIndex] = 1;
-          if (dpadLeftIndex != -1) allValues[dpadLeftIndex] = 1;
+          if (dpadDownIndex != -1) values[dpadDownIndex] = 1;
+          if (dpadLeftIndex != -1) values[dpadLeftIndex] = 1;
         } else if (value == DPAD_VALUE.DOWN_RIGHT) {
-          if (dpadDownIndex != -1) allValues[dpadDownIndex] = 1;
-          if (dpadRightIndex != -1) allValues[dpadRightIndex] = 1;
+          if (dpadDownIndex != -1) values[dpadDownIndex] = 1;
+          if (dpadRightIndex != -1) values[dpadRightIndex] = 1;
         }
       }
     }
-
-    return allValues;
   }
 
   /**
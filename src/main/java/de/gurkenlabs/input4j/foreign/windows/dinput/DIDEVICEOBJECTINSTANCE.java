@@ -3,6 +3,7 @@ package de.gurkenlabs.input4j.foreign.windows.dinput;
 import de.gurkenlabs.input4j.ComponentType;
 import de.gurkenlabs.input4j.InputComponent;
 import de.gurkenlabs.input4j.components.Axis;
+import de.gurkenlabs.input4j.components.Button;
 
 import java.lang.foreign.GroupLayout;
 import java.lang.foreign.MemoryLayout;
@@ -163,15 +164,16 @@ final class DIDEVICEOBJECTINSTANCE {
       case POV:
         return Axis.AXIS_DPAD;
       case Button:
-        var button = InputComponent.ID.getButton(this.getInstance());
-        if (button == null) {
-          button = new InputComponent.ID(ComponentType.BUTTON, InputComponent.ID.getNextButtonId(), this.getName());
+        // only the default buttons are shared; a higher number may be a dynamic ID that is owned by another device
+        var button = this.getInstance() <= Button.MAX_DEFAULT_BUTTON_ID ? InputComponent.ID.getButton(this.getInstance()) : null;
+        if (button == null || button.isDynamic()) {
+          button = InputComponent.ID.createDynamic(ComponentType.BUTTON, Button.MAX_DEFAULT_BUTTON_ID, this.getName(), 0);
         }
         return button;
       case Key:
-        return new InputComponent.ID(ComponentType.KEY, InputComponent.ID.getNextId(ComponentType.KEY, 0), this.getName());
+        return InputComponent.ID.createDynamic(ComponentType.KEY, 0, this.getName(), 0);
       default:
-        return new InputComponent.ID(ComponentType.UNKNOWN, InputComponent.ID.getNextId(ComponentType.UNKNOWN, 0), this.getName());
+        return InputComponent.ID.createDynamic(ComponentType.UNKNOWN, 0, this.getName(), 0);
     }
   }
 
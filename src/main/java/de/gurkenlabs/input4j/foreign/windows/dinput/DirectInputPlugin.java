@@ -200,15 +200,14 @@ public final class DirectInputPlugin extends AbstractInputDevicePlugin {
     }
   }
 
-  private float[] pollDirectInputDevice(InputDevice inputDevice) {
+  private int pollDirectInputDevice(InputDevice inputDevice, float[] values) {
     // find native DirectInputDevice and poll it
     var directInputDevice = this.nativeDevices.getOrDefault(inputDevice.getID(), null);
     if (directInputDevice == null) {
       log.log(Level.WARNING, "DirectInput device not found for input device {0}", inputDevice.getName());
-      return new float[0];
+      return 0;
     }
-    var componentCount = directInputDevice.nativeComponentCount;
-    var polledValues = new float[componentCount];
+    var componentCount = Math.min(directInputDevice.nativeComponentCount, values.length);
 
     try {
       final int DI_NOEFFECT = 1;
@@ -223,7 +222,7 @@ public final class DirectInputPlugin extends AbstractInputDevicePlugin {
         var acquireResult = directInputDevice.Acquire();
         if (acquireResult != Result.DI_OK) {
           log.log(Level.WARNING, "Attempt to re-acquire failed for device {0}: {1}", new Object[] {directInputDevice.inputDevice.getName(), Result.toString(acquireResult)});
-          return polledValues;
+          return componentCount;
         } else {
           pollResult = directInputDevice.Poll();
         }
@@ -231,26 +230,30 @@ public final class DirectInputPlugin extends AbstractInputDevicePlugin {
 
       if (pollResult != Result.DI_OK && pollResult != DI_NOEFFECT) {
         log.log(Level.WARNING, "Could not poll device {0}: {1}", new Object[] {inputDevice.getName(), Result.toString(pollResult)});
-        return polledValues;
+        return componentCount;
       }
 
       // for details on the difference of GetDeviceState and GetDeviceData read http://doc.51windows.net/Directx9_SDK/input/using/devicedata/bufferedimmediatedata.htm
-      var deviceStateResultSegment = this.memoryArena.allocate(MemoryLayout.sequenceLayout(componentCount, JAVA_INT));
+      // the native state buffer is allocated once per device and reused for every poll
+      if (directInputDevice.deviceStateSegment == null) {
+        directInputDevice.deviceStateSegment = this.memoryArena.allocate(MemoryLayout.sequenceLayout(directInputDevice.nativeComponentCount, JAVA_INT));
+      }
 
-      var getDeviceStateResult = directInputDevice.GetDeviceState((int) (componentCount * JAVA_INT.byteSize()), deviceStateResultSegment);
+      var deviceStateResultSegment = directInputDevice.deviceStateSegment;
+      var getDeviceStateResult = directInputDevice.GetDeviceState((int) (directInputDevice.nativeComponentCount * JAVA_INT.byteSize()), deviceStateResultSegment);
       if (getDeviceStateResult != Result.DI_OK) {
         log.log(Level.WARNING, "Could not get device state {0}: {1}", new Object[] {inputDevice.getName(), Result.toString(getDeviceStateResult)});
       }
 
       for (int i = 0; i < componentCount; i++) {
-        var convertedData = directInputDevice.deviceObjects.get(i).convertRawInputValue(deviceStateResultSegment.get(JAVA_INT, i * JAVA_INT.byteSize()));
-        polledValues[i] = convertedData;
+        values[i] = directInputDevice.deviceObjects.get(i).convertRawInputValue(deviceStateResultSegment.get(JAVA_INT, i * JAVA_INT.byteSize()));
       }
     } catch (Throwable e) {
       log.log(Level.SEVERE, e.getMessage(), e);
     }
 
-    return DirectInputVirtualComponentHandler.handlePolledValues(directInputDevice.inputDevice, polledValues);
+    DirectInputVirtualComponentHandler.handlePolledValues(directInputDevice.inputDevice, values);
+    return values.length;
   }
 
   private static MemorySegment defineDataFormat(List<DIDEVICEOBJECTINSTANCE> deviceObjects, Arena memoryArena) {
@@ -117,6 +117,11 @@ final class IDirectInputDevice8 {
 
   final InputDevice inputDevice;
   int nativeComponentCount;
+
+  /**
+   * The native buffer that receives the device state when polling. It is allocated once and reused for every poll.
+   */
+  MemorySegment deviceStateSegment;
   private MemorySegment vtablePointerSegment;
 
   private MethodHandle enumObjects;
@@ -69,6 +69,7 @@ public final class XInputPlugin extends AbstractInputDevicePlugin {
   @Override
   public void internalInitDevices(Frame owner) {
     this.setDevices(refreshInputDevices());
+    this.startHotPlugScanner();
   }
 
   /**
@@ -220,34 +221,32 @@ public final class XInputPlugin extends AbstractInputDevicePlugin {
   }
 
   /**
-   * Polls the input device state and returns the current state of its components.
+   * Polls the input device state and writes the current state of its components to the provided buffer.
    *
    * @param inputDevice The input device.
-   * @return The current state of the input device's components.
+   * @param values      The buffer to write the component values to.
+   * @return The number of values written, or {@code 0} if the device is not connected.
    */
-  private float[] pollXInputDevice(InputDevice inputDevice) {
-    this.refreshDevices();
-    var polledValues = new float[inputDevice.getComponents().size()];
-
+  private int pollXInputDevice(InputDevice inputDevice, float[] values) {
     var state = getState(resolveDeviceId(inputDevice));
-    if (state == null) {
-      return new float[0];
+    if (state == null || values.length < XInputButton.values.length + 6) {
+      return 0;
     }
 
     int i = 0;
     for (; i < XInputButton.values.length; i++) {
       var button = XInputButton.values[i];
-      polledValues[i] = button.isPressed(state.Gamepad.wButtons) ? 1 : 0;
+      values[i] = button.isPressed(state.Gamepad.wButtons) ? 1 : 0;
     }
 
-    polledValues[i++] = normalizeTrigger(state.Gamepad.bLeftTrigger);
-    polledValues[i++] = normalizeTrigger(state.Gamepad.bRightTrigger);
-    polledValues[i++] = normalizeSignedShort(state.Gamepad.sThumbLX, XINPUT_GAMEPAD.XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE);
-    polledValues[i++] = normalizeSignedShort(state.Gamepad.sThumbLY, XINPUT_GAMEPAD.XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE);
-    polledValues[i++] = normalizeSignedShort(state.Gamepad.sThumbRX, XINPUT_GAMEPAD.XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE);
-    polledValues[i] = normalizeSignedShort(state.Gamepad.sThumbRY, XINPUT_GAMEPAD.XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE);
+    values[i++] = normalizeTrigger(state.Gamepad.bLeftTrigger);
+    values[i++] = normalizeTrigger(state.Gamepad.bRightTrigger);
+    values[i++] = normalizeSignedShort(state.Gamepad.sThumbLX, XINPUT_GAMEPAD.XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE);
+    values[i++] = normalizeSignedShort(state.Gamepad.sThumbLY, XINPUT_GAMEPAD.XINPUT_GAMEPAD_LEFT_THUMB_DEADZONE);
+    values[i++] = normalizeSignedShort(state.Gamepad.sThumbRX, XINPUT_GAMEPAD.XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE);
+    values[i++] = normalizeSignedShort(state.Gamepad.sThumbRY, XINPUT_GAMEPAD.XINPUT_GAMEPAD_RIGHT_THUMB_DEADZONE);
 
-    return polledValues;
+    return i;
   }
 
   private XINPUT_CAPABILITIES getCapabilities(int userIndex) {
@@ -0,0 +1,185 @@
+package de.gurkenlabs.input4j.synthetic;
+
+import de.gurkenlabs.input4j.ComponentType;
+import de.gurkenlabs.input4j.InputComponent;
+import de.gurkenlabs.input4j.InputDevice;
+import de.gurkenlabs.input4j.components.Axis;
+import de.gurkenlabs.input4j.components.Button;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the input of a single synthetic device.
+ * <p>
+ * The components are laid out as all buttons followed by all axes. The state and everything that happened to each
+ * component since the previous poll is tracked the same way the Linux plugin tracks the events of a device, so the
+ * synthetic devices exercise the same paths of {@link InputDevice} as hardware.
+ * </p>
+ */
+final class SyntheticInputDevice {
+  private static final float RANDOM_WALK_STEP = 0.1f;
+
+  private final SyntheticInputDevicePlugin.Pattern pattern;
+  private final int buttonCount;
+  private final int axisCount;
+  private final long periodNanos;
+  private final long burstIntervalNanos;
+  private final int eventsPerBurst;
+  private final long maxEventsPerPoll;
+  private final SplittableRandom random;
+
+  private final float[] values;
+  private final int[] pressCounts;
+  private final int[] releaseCounts;
+  private final float[] minValues;
+  private final float[] maxValues;
+  private final long[] changeTimestamps;
+
+  private long nextEventTime;
+  private long burstStart;
+  private int burstIndex;
+
+  SyntheticInputDevice(SyntheticInputDevicePlugin.Configuration configuration, long seed, long startTime) {
+    this.pattern = configuration.getPattern();
+    this.buttonCount = configuration.getButtonCount();
+    this.axisCount = configuration.getAxisCount();
+    this.periodNanos = Math.max(1, Math.round(1_000_000_000d / configuration.getEventRate()));
+    this.burstIntervalNanos = configuration.getBurstInterval() * 1_000_000L;
+    this.eventsPerBurst = (int) Math.max(1, Math.round(configuration.getEventRate() * configuration.getBurstInterval() / 1000d));
+    this.maxEventsPerPoll = Math.max(1, (long) Math.ceil(configuration.getEventRate()));
+    this.random = new SplittableRandom(seed);
+
+    var size = this.buttonCount + this.axisCount;
+    this.values = new float[size];
+    this.pressCounts = new int[size];
+    this.releaseCounts = new int[size];
+    this.minValues = new float[size];
+    this.maxValues = new float[size];
+    this.changeTimestamps = new long[size];
+
+    this.burstStart = startTime;
+    this.nextEventTime = this.pattern == SyntheticInputDevicePlugin.Pattern.BURST ? startTime : startTime + this.periodNanos;
+  }
+
+  /**
+   * Adds the buttons and axes of this device to the input device. The predefined IDs are used as long as there are enough of them.
+   */
+  void addComponents(InputDevice inputDevice) {
+    var components = new ArrayList<InputComponent>();
+    for (int i = 0; i < this.buttonCount; i++) {
+      var id = i < Button.DPAD_UP.id
+        ? InputComponent.ID.getButton(i)
+        : InputComponent.ID.createDynamic(ComponentType.BUTTON, Button.MAX_DEFAULT_BUTTON_ID, "SYNTHETIC_BUTTON_" + i, i);
+      components.add(new InputComponent(inputDevice, id));
+    }
+
+    for (int i = 0; i < this.axisCount; i++) {
+      var id = i < Axis.MAX_DEFAULT_AXIS_ID
+        ? InputComponent.ID.getAxis(i)
+        : InputComponent.ID.createDynamic(ComponentType.AXIS, Axis.MAX_DEFAULT_AXIS_ID, "SYNTHETIC_AXIS_" + i, i);
+      components.add(new InputComponent(inputDevice, id));
+    }
+
+    inputDevice.setComponents(components);
+  }
+
+  /**
+   * Generates all events that occurred up to the specified time.
+   *
+   * @return the number of generated events
+   */
+  int generate(long now) {
+    if (this.values.length == 0) {
+      return 0;
+    }
+
+    int generated = 0;
+    while (this.nextEventTime - now <= 0) {
+      if (generated == this.maxEventsPerPoll) {
+        // the device was not polled for a while: skip the events that are overdue instead of catching up
+        this.burstStart = now + this.periodNanos;
+        this.burstIndex = 0;
+        this.nextEventTime = this.burstStart;
+        break;
+      }
+
+      this.applyEvent(this.nextEventTime);
+      generated++;
+      this.advance();
+    }
+
+    return generated;
+  }
+
+  /**
+   * Writes the current state into the poll buffer and reports what happened since the previous poll.
+   *
+   * @return the number of values written
+   */
+  int report(InputDevice inputDevice, float[] values) {
+    var size = Math.min(values.length, this.values.length);
+    System.arraycopy(this.values, 0, values, 0, size);
+    for (int i = 0; i < size; i++) {
+      if (this.pressCounts[i] != 0 || this.releaseCounts[i] != 0 || this.minValues[i] != this.maxValues[i]) {
+        inputDevice.reportTransients(i, this.pressCounts[i], this.releaseCounts[i], this.minValues[i], this.maxValues[i]);
+      }
+
+      if (this.changeTimestamps[i] != 0) {
+        inputDevice.reportTimestamp(i, this.changeTimestamps[i]);
+      }
+    }
+
+    Arrays.fill(this.pressCounts, 0);
+    Arrays.fill(this.releaseCounts, 0);
+    Arrays.fill(this.changeTimestamps, 0);
+    System.arraycopy(this.values, 0, this.minValues, 0, this.values.length);
+    System.arraycopy(this.values, 0, this.maxValues, 0, this.values.length);
+    return size;
+  }
+
+  private void applyEvent(long timestamp) {
+    var button = switch (this.pattern) {
+      case RANDOM_WALK -> this.axisCount == 0;
+      case BUTTON_MASH -> this.buttonCount > 0;
+      case MIXED, BURST -> this.axisCount == 0 || (this.buttonCount > 0 && this.random.nextBoolean());
+    };
+
+    int slot;
+    float value;
+    if (button) {
+      slot = this.random.nextInt(this.buttonCount);
+      value = 1 - this.values[slot];
+      if (value == 1) {
+        this.pressCounts[slot]++;
+      } else {
+        this.releaseCounts[slot]++;
+      }
+    } else {
+      slot = this.buttonCount + this.random.nextInt(this.axisCount);
+      var step = (float) this.random.nextDouble(-RANDOM_WALK_STEP, RANDOM_WALK_STEP);
+      value = Math.clamp(this.values[slot] + step, -1f, 1f);
+    }
+
+    this.values[slot] = value;
+    this.minValues[slot] = Math.min(this.minValues[slot], value);
+    this.maxValues[slot] = Math.max(this.maxValues[slot], value);
+    this.changeTimestamps[slot] = timestamp;
+  }
+
+  private void advance() {
+    if (this.pattern != SyntheticInputDevicePlugin.Pattern.BURST) {
+      this.nextEventTime += this.periodNanos;
+      return;
+    }
+
+    // all events of a burst arrive at once
+    if (++this.burstIndex == this.eventsPerBurst) {
+      this.burstIndex = 0;
+      this.burstStart += this.burstIntervalNanos;
+    }
+
+    this.nextEventTime = this.burstStart;
+  }
+}
@@ -0,0 +1,400 @@
+package de.gurkenlabs.input4j.synthetic;
+
+import de.gurkenlabs.input4j.AbstractInputDevicePlugin;
+import de.gurkenlabs.input4j.InputDevice;
+import de.gurkenlabs.input4j.InputDevices;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * The {@code SyntheticInputDevicePlugin} provides virtual input devices that generate input at a configurable rate,
+ * so input4j can be driven at scale without any hardware attached (e.g. for soak tests, benchmarks and CI load tests).
+ * <p>
+ * The devices are polled like the devices of any other plugin: the events that occurred since the previous poll are
+ * generated when a device is polled, including the button edges and value ranges between two polls and the time of each change.
+ * The generated input is deterministic for a given {@link Configuration#getSeed() seed}, apart from the number of events
+ * that fall between two polls.
+ * </p>
+ * <p>
+ * Devices can be connected and disconnected at runtime with {@link #connectDevice()} and {@link #disconnectDevice(InputDevice)}.
+ * The changes are reported through the regular hot-plug listeners when the devices are refreshed, which the background
+ * hot-plug scanner of the plugin does every {@link InputDevices.DefaultInputConfiguration#getHotPlugInterval() hot-plug interval},
+ * independently of polling.
+ * </p>
+ * <pre>{@code
+ * SyntheticInputDevicePlugin.configure().setDeviceCount(8);
+ * SyntheticInputDevicePlugin.configure().setPattern(SyntheticInputDevicePlugin.Pattern.BUTTON_MASH);
+ * try (var devices = InputDevices.init(InputDevices.InputLibrary.SYNTHETIC)) {
+ *   devices.startPolling(120);
+ *   ...
+ * }
+ * }</pre>
+ */
+public final class SyntheticInputDevicePlugin extends AbstractInputDevicePlugin {
+  private static final Configuration configuration = new Configuration();
+
+  private final Configuration settings;
+  private final Map<String, SyntheticInputDevice> syntheticDevices = new ConcurrentHashMap<>();
+  private final List<InputDevice> connectedDevices = new ArrayList<>();
+  private List<InputDevice> refreshedDevices = List.of();
+  private final AtomicInteger deviceCounter = new AtomicInteger();
+  private final LongAdder generatedEvents = new LongAdder();
+
+  /**
+   * Creates a plugin with the current values of the shared configuration, which is how {@link InputDevices#init(String)} creates it.
+   *
+   * @see #configure()
+   */
+  public SyntheticInputDevicePlugin() {
+    this(configuration);
+  }
+
+  /**
+   * Creates a plugin with the values of the specified configuration. Later changes of the configuration don't affect the plugin.
+   *
+   * @param configuration the configuration of the devices and the input they generate
+   */
+  public SyntheticInputDevicePlugin(Configuration configuration) {
+    this.settings = configuration.copy();
+  }
+
+  /**
+   * Configures the devices of synthetic plugins that are created afterward, e.g. via {@link InputDevices#init(String)}.
+   *
+   * @return the shared configuration
+   */
+  public static Configuration configure() {
+    return configuration;
+  }
+
+  /**
+   * Creates the configured number of devices.
+   *
+   * @param owner Not used by this plugin.
+   */
+  @Override
+  public void internalInitDevices(Frame owner) {
+    for (int i = 0; i < this.settings.getDeviceCount(); i++) {
+      this.connectDevice();
+    }
+
+    this.setDevices(this.refreshInputDevices());
+    this.startHotPlugScanner();
+  }
+
+  /**
+   * Connects a new synthetic device. It is reported to the hot-plug listeners with the next refresh of the devices.
+   *
+   * @return the new device
+   */
+  public InputDevice connectDevice() {
+    var index = this.deviceCounter.getAndIncrement();
+    var syntheticDevice = new SyntheticInputDevice(this.settings, this.settings.getSeed() + index, System.nanoTime());
+    var name = "Synthetic Device " + index;
+    var inputDevice = new InputDevice("synthetic:" + index, name, "Synthetic Device", this::pollSyntheticDevice, null);
+    syntheticDevice.addComponents(inputDevice);
+
+    this.syntheticDevices.put(inputDevice.getID(), syntheticDevice);
+    synchronized (this.connectedDevices) {
+      this.connectedDevices.add(inputDevice);
+    }
+
+    log.log(Level.FINE, "Connected synthetic device: " + name);
+    return inputDevice;
+  }
+
+  /**
+   * Disconnects a synthetic device. It is reported to the hot-plug listeners with the next refresh of the devices.
+   *
+   * @param inputDevice the device to disconnect
+   * @return true if the device was connected, otherwise false
+   */
+  public boolean disconnectDevice(InputDevice inputDevice) {
+    synchronized (this.connectedDevices) {
+      if (!this.connectedDevices.remove(inputDevice)) {
+        return false;
+      }
+    }
+
+    this.syntheticDevices.remove(inputDevice.getID());
+    return true;
+  }
+
+  /**
+   * Gets the number of events that were generated by all devices of this plugin.
+   *
+   * @return the number of generated button and axis events
+   */
+  public long getGeneratedEventCount() {
+    return this.generatedEvents.sum();
+  }
+
+  /**
+   * Closes the plugin and disconnects all devices.
+   */
+  @Override
+  public void close() {
+    super.close();
+
+    this.syntheticDevices.clear();
+    synchronized (this.connectedDevices) {
+      // devices that were connected after the last refresh are not known to (and closed by) the base class yet
+      for (var inputDevice : this.connectedDevices) {
+        if (!this.refreshedDevices.contains(inputDevice)) {
+          inputDevice.close();
+        }
+      }
+
+      this.connectedDevices.clear();
+    }
+  }
+
+  @Override
+  protected Collection<InputDevice> refreshInputDevices() {
+    synchronized (this.connectedDevices) {
+      this.refreshedDevices = List.copyOf(this.connectedDevices);
+      return this.refreshedDevices;
+    }
+  }
+
+  private int pollSyntheticDevice(InputDevice inputDevice, float[] values) {
+    var syntheticDevice = this.syntheticDevices.get(inputDevice.getID());
+    if (syntheticDevice == null) {
+      // disconnected devices keep their last state until they are removed with the next refresh
+      return 0;
+    }
+
+    synchronized (syntheticDevice) {
+      this.generatedEvents.add(syntheticDevice.generate(System.nanoTime()));
+      return syntheticDevice.report(inputDevice, values);
+    }
+  }
+
+  /**
+   * The kind of input that synthetic devices generate.
+   */
+  public enum Pattern {
+    /**
+     * Every event moves a random axis by a small random step, like sticks that are moved around continuously.
+     */
+    RANDOM_WALK,
+
+    /**
+     * Every event presses or releases a random button, which results in several presses of the same button between
+     * two polls at high rates.
+     */
+    BUTTON_MASH,
+
+    /**
+     * Axis and button events are generated in equal parts.
+     */
+    MIXED,
+
+    /**
+     * Axis and button events arrive in bursts at the start of every {@link Configuration#getBurstInterval() burst interval}
+     * with the same timestamp, followed by silence, while the average rate still matches the configured rate.
+     */
+    BURST
+  }
+
+  /**
+   * The configuration of synthetic devices and the input that they generate.
+   */
+  public static final class Configuration {
+    private static final int DEFAULT_DEVICE_COUNT = 1;
+    private static final int DEFAULT_BUTTON_COUNT = 16;
+    private static final int DEFAULT_AXIS_COUNT = 6;
+    private static final double DEFAULT_EVENT_RATE = 250;
+    private static final int DEFAULT_BURST_INTERVAL = 500;
+
+    private int deviceCount = DEFAULT_DEVICE_COUNT;
+    private int buttonCount = DEFAULT_BUTTON_COUNT;
+    private int axisCount = DEFAULT_AXIS_COUNT;
+    private Pattern pattern = Pattern.MIXED;
+    private double eventRate = DEFAULT_EVENT_RATE;
+    private int burstInterval = DEFAULT_BURST_INTERVAL;
+    private long seed;
+
+    /**
+     * Creates a configuration with the default values.
+     */
+    public Configuration() {
+    }
+
+    /**
+     * Gets the number of devices that are connected when the plugin is initialized.
+     * By default, it is set to {@value #DEFAULT_DEVICE_COUNT}.
+     *
+     * @return The number of devices.
+     */
+    public int getDeviceCount() {
+      return deviceCount;
+    }
+
+    /**
+     * Sets the number of devices that are connected when the plugin is initialized.
+     *
+     * @param deviceCount The number of devices.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public void setDeviceCount(int deviceCount) {
+      if (deviceCount < 0) {
+        throw new IllegalArgumentException("The device count must not be negative, got: " + deviceCount);
+      }
+      this.deviceCount = deviceCount;
+    }
+
+    /**
+     * Gets the number of buttons of every device. By default, it is set to {@value #DEFAULT_BUTTON_COUNT}.
+     *
+     * @return The number of buttons.
+     */
+    public int getButtonCount() {
+      return buttonCount;
+    }
+
+    /**
+     * Sets the number of buttons of every device.
+     *
+     * @param buttonCount The number of buttons.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public void setButtonCount(int buttonCount) {
+      if (buttonCount < 0) {
+        throw new IllegalArgumentException("The button count must not be negative, got: " + buttonCount);
+      }
+      this.buttonCount = buttonCount;
+    }
+
+    /**
+     * Gets the number of axes of every device. By default, it is set to {@value #DEFAULT_AXIS_COUNT}.
+     *
+     * @return The number of axes.
+     */
+    public int getAxisCount() {
+      return axisCount;
+    }
+
+    /**
+     * Sets the number of axes of every device.
+     *
+     * @param axisCount The number of axes.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public void setAxisCount(int axisCount) {
+      if (axisCount < 0) {
+        throw new IllegalArgumentException("The axis count must not be negative, got: " + axisCount);
+      }
+      this.axisCount = axisCount;
+    }
+
+    /**
+     * Gets the kind of input that the devices generate. By default, it is set to {@link Pattern#MIXED}.
+     *
+     * @return The input pattern.
+     */
+    public Pattern getPattern() {
+      return pattern;
+    }
+
+    /**
+     * Sets the kind of input that the devices generate.
+     *
+     * @param pattern The input pattern.
+     * @throws IllegalArgumentException if the pattern is null.
+     */
+    public void setPattern(Pattern pattern) {
+      if (pattern == null) {
+        throw new IllegalArgumentException("The pattern must not be null.");
+      }
+      this.pattern = pattern;
+    }
+
+    /**
+     * Gets the number of events that every device generates per second. By default, it is set to {@value #DEFAULT_EVENT_RATE}.
+     *
+     * @return The number of events per second.
+     */
+    public double getEventRate() {
+      return eventRate;
+    }
+
+    /**
+     * Sets the number of events that every device generates per second.
+     * <p>
+     * If a device is polled less often than once per second, at most one second of events is generated per poll,
+     * so a stalled poll loop does not cause a flood of events afterward.
+     * </p>
+     *
+     * @param eventRate The number of events per second.
+     * @throws IllegalArgumentException if the rate is not a positive number.
+     */
+    public void setEventRate(double eventRate) {
+      if (!(eventRate > 0) || Double.isInfinite(eventRate)) {
+        throw new IllegalArgumentException("The event rate must be a positive number, got: " + eventRate);
+      }
+      this.eventRate = eventRate;
+    }
+
+    /**
+     * Gets the interval in milliseconds at which bursts of events arrive with the {@link Pattern#BURST} pattern.
+     * By default, it is set to {@value #DEFAULT_BURST_INTERVAL} milliseconds.
+     *
+     * @return The burst interval in milliseconds.
+     */
+    public int getBurstInterval() {
+      return burstInterval;
+    }
+
+    /**
+     * Sets the interval in milliseconds at which bursts of events arrive with the {@link Pattern#BURST} pattern.
+     *
+     * @param burstInterval The burst interval in milliseconds.
+     * @throws IllegalArgumentException if the interval is not positive.
+     */
+    public void setBurstInterval(int burstInterval) {
+      if (burstInterval <= 0) {
+        throw new IllegalArgumentException("The burst interval must be positive, got: " + burstInterval);
+      }
+      this.burstInterval = burstInterval;
+    }
+
+    /**
+     * Gets the seed of the random input. Every device derives its own seed from it. By default, it is 0.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+      return seed;
+    }
+
+    /**
+     * Sets the seed of the random input. Every device derives its own seed from it.
+     *
+     * @param seed The seed.
+     */
+    public void setSeed(long seed) {
+      this.seed = seed;
+    }
+
+    private Configuration copy() {
+      var copy = new Configuration();
+      copy.deviceCount = this.deviceCount;
+      copy.buttonCount = this.buttonCount;
+      copy.axisCount = this.axisCount;
+      copy.pattern = this.pattern;
+      copy.eventRate = this.eventRate;
+      copy.burstInterval = this.burstInterval;
+      copy.seed = this.seed;
+      return copy;
+    }
+  }
+}
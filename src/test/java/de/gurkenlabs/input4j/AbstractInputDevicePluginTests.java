@@ -0,0 +1,169 @@
+package de.gurkenlabs.input4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbstractInputDevicePluginTests {
+  private TestPlugin plugin;
+
+  @AfterEach
+  void tearDown() {
+    if (plugin != null) {
+      plugin.close();
+    }
+  }
+
+  @Test
+  void testRefreshSwapsTheDevicesByID() {
+    var first = createDevice("1");
+    var second = createDevice("2");
+    plugin = new TestPlugin(first, second);
+    var connected = new ArrayList<InputDevice>();
+    var disconnected = new ArrayList<InputDevice>();
+    plugin.onDeviceConnected(connected::add);
+    plugin.onDeviceDisconnected(disconnected::add);
+
+    var snapshot = plugin.getAll();
+    var third = createDevice("3");
+    plugin.available = List.of(second, third);
+    plugin.refreshDevices();
+
+    assertEquals(List.of(second, third), List.copyOf(plugin.getAll()));
+    assertEquals(List.of(third), connected);
+    assertEquals(List.of(first), disconnected);
+
+    // the previous snapshot is neither modified nor modifiable
+    assertEquals(List.of(first, second), List.copyOf(snapshot));
+    assertThrows(UnsupportedOperationException.class, () -> plugin.getAll().clear());
+  }
+
+  @Test
+  void testListenersAreCalledOnTheHotPlugExecutor() {
+    var device = createDevice("1");
+    plugin = new TestPlugin();
+    var tasks = new ConcurrentLinkedQueue<Runnable>();
+    plugin.setHotPlugExecutor(tasks::add);
+    var events = new ArrayList<String>();
+    plugin.onDeviceConnected(d -> events.add("connected " + d.getID()));
+    plugin.onDevicesChanged(() -> events.add("changed"));
+
+    plugin.available = List.of(device);
+    plugin.refreshDevices();
+
+    // the devices are swapped right away, but the listeners wait for the executor
+    assertTrue(plugin.getAll().contains(device));
+    assertTrue(events.isEmpty());
+    assertEquals(1, tasks.size());
+
+    tasks.poll().run();
+    assertEquals(List.of("connected 1", "changed"), events);
+  }
+
+  @Test
+  void testBatteryListenersAreCalledOnTheHotPlugExecutor() {
+    var device = createDevice("1");
+    plugin = new TestPlugin(device);
+    var tasks = new ConcurrentLinkedQueue<Runnable>();
+    plugin.setHotPlugExecutor(tasks::add);
+    var events = new ArrayList<String>();
+    plugin.onBatteryChanged((d, info) -> events.add(d.getID() + " " + (info != null ? info.level() : null)));
+
+    plugin.batteryChanged(device, BatteryInfo.fromPercentage(BatteryType.UNKNOWN, false, 10));
+    plugin.batteryChanged(device, null);
+
+    assertTrue(events.isEmpty());
+    assertEquals(2, tasks.size());
+    tasks.forEach(Runnable::run);
+    assertEquals(List.of("1 EMPTY", "1 null"), events);
+  }
+
+  @Test
+  void testScannerRefreshesWithoutPolling() throws InterruptedException {
+    var hotPlugInterval = InputDevices.configure().getHotPlugInterval();
+    InputDevices.configure().setHotPlugInterval(5);
+    try {
+      plugin = new TestPlugin();
+    } finally {
+      InputDevices.configure().setHotPlugInterval(hotPlugInterval);
+    }
+
+    var latch = new CountDownLatch(1);
+    var listenerThreads = new CopyOnWriteArrayList<Thread>();
+    plugin.onDeviceConnected(_ -> {
+      listenerThreads.add(Thread.currentThread());
+      latch.countDown();
+    });
+    plugin.startHotPlugScanner();
+
+    plugin.available = List.of(createDevice("1"));
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertFalse(listenerThreads.contains(Thread.currentThread()));
+
+    plugin.close();
+    var refreshes = plugin.refreshes.get();
+    Thread.sleep(50);
+    assertEquals(refreshes, plugin.refreshes.get());
+  }
+
+  @Test
+  void testScannerSurvivesFailedRefresh() throws InterruptedException {
+    var hotPlugInterval = InputDevices.configure().getHotPlugInterval();
+    InputDevices.configure().setHotPlugInterval(5);
+    try {
+      plugin = new TestPlugin();
+    } finally {
+      InputDevices.configure().setHotPlugInterval(hotPlugInterval);
+    }
+
+    var latch = new CountDownLatch(1);
+    plugin.onDeviceConnected(_ -> latch.countDown());
+    plugin.failures.set(3);
+    plugin.available = List.of(createDevice("1"));
+    plugin.startHotPlugScanner();
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(0, plugin.failures.get());
+  }
+
+  private static InputDevice createDevice(String id) {
+    return new InputDevice(id, "Test Device", "Test Device", (_, _) -> 0, null);
+  }
+
+  private static class TestPlugin extends AbstractInputDevicePlugin {
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile List<InputDevice> available;
+
+    private TestPlugin(InputDevice... devices) {
+      this.available = List.of(devices);
+      this.internalInitDevices(null);
+    }
+
+    @Override
+    public void internalInitDevices(Frame owner) {
+      this.setDevices(this.available);
+    }
+
+    @Override
+    protected Collection<InputDevice> refreshInputDevices() {
+      this.refreshes.incrementAndGet();
+      if (this.failures.getAndUpdate(f -> Math.max(f - 1, 0)) > 0) {
+        throw new IllegalStateException("Enumeration failed");
+      }
+
+      return this.available;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package de.gurkenlabs.input4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Asserts that a hot path does not allocate on the heap once it has been compiled, by measuring the bytes that the
+ * current thread allocated.
+ */
+public final class AllocationAssertions {
+  private static final int WARMUP_ITERATIONS = 50_000;
+  private static final int ITERATIONS = 10_000;
+
+  private AllocationAssertions() {
+  }
+
+  /**
+   * Runs the action until it is compiled and then asserts that it allocates less than one byte per iteration on average.
+   * The test is skipped if the JVM cannot measure the allocated bytes of a thread.
+   *
+   * @param description what the action does, for the failure message
+   * @param action      the action, which receives the number of the iteration
+   */
+  public static void assertDoesNotAllocate(String description, IntConsumer action) {
+    var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      action.accept(i);
+    }
+
+    var threadId = Thread.currentThread().threadId();
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERATIONS; i++) {
+      action.accept(i);
+    }
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertTrue(allocated / ITERATIONS < 1, description + " allocated " + allocated + " bytes for " + ITERATIONS + " iterations");
+  }
+}
@@ -0,0 +1,62 @@
+package de.gurkenlabs.input4j;
+
+import de.gurkenlabs.input4j.HapticPattern.Keyframe;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HapticPatternTests {
+  @Test
+  void testIntensitiesAreInterpolated() {
+    var pattern = HapticPattern.of(new Keyframe(0, 0, 1), new Keyframe(100, 1, 0.5f), new Keyframe(100, 0.2f, 0.2f), new Keyframe(200, 0.2f, 0.2f));
+    var intensity = new float[2];
+
+    assertTrue(pattern.sample(0, intensity));
+    assertArrayEquals(new float[]{0, 1}, intensity);
+
+    assertTrue(pattern.sample(50, intensity));
+    assertArrayEquals(new float[]{0.5f, 0.75f}, intensity);
+
+    // keyframes at the same time are a step
+    assertTrue(pattern.sample(100, intensity));
+    assertArrayEquals(new float[]{0.2f, 0.2f}, intensity);
+
+    assertFalse(pattern.sample(200, intensity));
+    assertEquals(200, pattern.getDuration());
+  }
+
+  @Test
+  void testLoopsRepeatTheKeyframes() {
+    var pattern = HapticPattern.envelope(1, 10, 20, 10).loop(3);
+    var intensity = new float[2];
+
+    assertEquals(40, pattern.getDuration());
+    assertEquals(120, pattern.getTotalDuration());
+    assertTrue(pattern.sample(85, intensity));
+    assertEquals(0.5f, intensity[0], 0.0001f);
+    assertFalse(pattern.sample(120, intensity));
+
+    var forever = pattern.loop(HapticPattern.LOOP_FOREVER);
+    assertEquals(Long.MAX_VALUE, forever.getTotalDuration());
+    assertTrue(forever.sample(1_000_000, intensity));
+    assertEquals(0, intensity[0]);
+  }
+
+  @Test
+  void testEnvelopeWithoutAttackStartsAtTheIntensity() {
+    var keyframes = HapticPattern.envelope(0.5f, 0, 100, 0).getKeyframes();
+
+    assertEquals(new Keyframe(0, 0.5f, 0.5f), keyframes.getFirst());
+    assertEquals(new Keyframe(100, 0.5f, 0.5f), keyframes.getLast());
+  }
+
+  @Test
+  void testInvalidPatternsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> HapticPattern.of(new Keyframe(0, 1, 1)));
+    assertThrows(IllegalArgumentException.class, () -> HapticPattern.of(new Keyframe(10, 1, 1), new Keyframe(20, 1, 1)));
+    assertThrows(IllegalArgumentException.class, () -> HapticPattern.of(new Keyframe(0, 1, 1), new Keyframe(20, 1, 1), new Keyframe(10, 1, 1)));
+    assertThrows(IllegalArgumentException.class, () -> HapticPattern.of(new Keyframe(0, 1, 1), new Keyframe(0, 0, 0)));
+    assertThrows(IllegalArgumentException.class, () -> new Keyframe(0, 1.5f, 0));
+    assertThrows(IllegalArgumentException.class, () -> HapticPattern.constant(1, 1, 100).loop(0));
+  }
+}
@@ -0,0 +1,192 @@
+package de.gurkenlabs.input4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HapticSchedulerTests {
+  private long nanos;
+  private final List<String> rumbles = new ArrayList<>();
+  private final HapticScheduler scheduler = new HapticScheduler(() -> nanos, null);
+
+  @Test
+  void testPatternIsTickedUntilItIsOver() {
+    var device = createDevice();
+    var playback = scheduler.play(device, HapticPattern.of(new HapticPattern.Keyframe(0, 0, 0), new HapticPattern.Keyframe(20, 1, 0.5f)));
+    assertFalse(playback.isNative());
+
+    assertTrue(scheduler.tick());
+    advance(10);
+    assertTrue(scheduler.tick());
+    advance(10);
+    assertFalse(scheduler.tick());
+
+    // the rumble is stopped at the end of the pattern
+    assertEquals(List.of("[0.0, 0.0]", "[0.5, 0.25]", "[]"), rumbles);
+    assertTrue(playback.isDone());
+    assertNull(scheduler.getPlayback(device));
+  }
+
+  @Test
+  void testNativePatternIsNotTicked() {
+    var device = createDevice();
+    var played = new ArrayList<HapticPattern>();
+    device.setHapticCallback((_, pattern) -> played.add(pattern));
+    var pattern = HapticPattern.constant(1, 1, 100);
+
+    var playback = scheduler.play(device, pattern);
+    assertTrue(playback.isNative());
+    assertEquals(List.of(pattern), played);
+
+    assertFalse(scheduler.tick());
+    assertTrue(rumbles.isEmpty());
+    assertSame(playback, scheduler.getPlayback(device));
+
+    advance(100);
+    assertTrue(playback.isDone());
+    assertFalse(scheduler.tick());
+    assertTrue(rumbles.isEmpty());
+  }
+
+  @Test
+  void testUnsupportedPatternFallsBackToTicks() {
+    var device = createDevice();
+    device.setHapticCallback((_, _) -> false);
+
+    var playback = scheduler.play(device, HapticPattern.constant(1, 1, 100));
+
+    assertFalse(playback.isNative());
+    assertTrue(scheduler.tick());
+    assertEquals(List.of("[1.0, 1.0]"), rumbles);
+  }
+
+  @Test
+  void testPlayingReplacesThePattern() {
+    var device = createDevice();
+    var first = scheduler.play(device, HapticPattern.constant(1, 1, 100).loop(HapticPattern.LOOP_FOREVER));
+    scheduler.tick();
+    var second = scheduler.play(device, HapticPattern.constant(0.5f, 0.5f, 100));
+
+    assertTrue(first.isDone());
+    assertSame(second, scheduler.getPlayback(device));
+
+    // a replaced pattern neither stops the rumble nor stops the pattern that replaced it
+    first.stop();
+    scheduler.tick();
+    assertEquals(List.of("[1.0, 1.0]", "[0.5, 0.5]"), rumbles);
+  }
+
+  @Test
+  void testStopStopsTheRumble() {
+    var device = createDevice();
+    var playback = scheduler.play(device, HapticPattern.constant(1, 1, 100).loop(HapticPattern.LOOP_FOREVER));
+    scheduler.tick();
+
+    scheduler.stop(device);
+
+    assertTrue(playback.isDone());
+    assertFalse(scheduler.tick());
+    assertEquals(List.of("[1.0, 1.0]", "[]"), rumbles);
+  }
+
+  @Test
+  void testStopDoesNothingOncePlaybackIsDone() {
+    var device = createDevice();
+    var playback = scheduler.play(device, HapticPattern.constant(1, 1, 20));
+    scheduler.tick();
+    advance(30);
+
+    assertTrue(playback.isDone());
+    device.rumble(0.5f);
+    playback.stop();
+
+    // the pattern was over before it was stopped, so the rumble that was set afterward keeps playing
+    assertEquals(List.of("[1.0, 1.0]", "[0.5]"), rumbles);
+  }
+
+  @Test
+  void testConcurrentPlaysLeaveOnePlayback() throws InterruptedException {
+    var device = createDevice();
+    var playbacks = Collections.synchronizedList(new ArrayList<HapticScheduler.Playback>());
+    var threads = new ArrayList<Thread>();
+    var start = new CountDownLatch(1);
+    for (int t = 0; t < 4; t++) {
+      var thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+
+        for (int i = 0; i < 1000; i++) {
+          playbacks.add(scheduler.play(device, HapticPattern.constant(1, 1, 100).loop(HapticPattern.LOOP_FOREVER)));
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    for (var thread : threads) {
+      thread.join();
+    }
+
+    var playing = playbacks.stream().filter(playback -> !playback.isDone()).toList();
+    assertEquals(1, playing.size());
+    assertSame(playing.getFirst(), scheduler.getPlayback(device));
+  }
+
+  @Test
+  void testDirectRumbleReplacesThePattern() throws InterruptedException {
+    var directRumbles = Collections.synchronizedList(new ArrayList<String>());
+    var device = new InputDevice("direct", "Test Device", "Test Device", (_, _) -> 0, (_, intensity) -> directRumbles.add(Arrays.toString(intensity)));
+
+    var playback = device.rumble(HapticPattern.constant(1, 1, 50).loop(HapticPattern.LOOP_FOREVER));
+    device.rumble(0.5f);
+
+    assertTrue(playback.isDone());
+    assertNull(HapticScheduler.getDefault().getPlayback(device));
+
+    // neither the timer thread nor stopping the replaced pattern overwrites the intensity
+    Thread.sleep(5L * HapticScheduler.TICK_MILLIS);
+    playback.stop();
+    assertEquals("[0.5]", directRumbles.getLast());
+  }
+
+  @Test
+  void testDefaultSchedulerPlaysOnTheTimerThread() throws InterruptedException {
+    var latch = new CountDownLatch(3);
+    var threads = new ArrayList<Thread>();
+    var device = new InputDevice("haptics", "Test Device", "Test Device", (_, _) -> 0, (_, _) -> {
+      synchronized (threads) {
+        threads.add(Thread.currentThread());
+      }
+
+      latch.countDown();
+    });
+
+    var playback = device.rumble(HapticPattern.constant(1, 1, 50).loop(HapticPattern.LOOP_FOREVER));
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    playback.stop();
+
+    synchronized (threads) {
+      assertTrue(threads.getFirst().getName().startsWith("input4j-haptics-"));
+      assertTrue(threads.getFirst().isDaemon());
+    }
+  }
+
+  private void advance(long millis) {
+    nanos += millis * 1_000_000L;
+  }
+
+  private InputDevice createDevice() {
+    return new InputDevice("1", "Test Device", "Test Device", (_, _) -> 0, (_, intensity) -> rumbles.add(Arrays.toString(intensity)));
+  }
+}
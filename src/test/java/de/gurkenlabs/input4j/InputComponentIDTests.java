@@ -1,6 +1,7 @@
 package de.gurkenlabs.input4j;
 
 import de.gurkenlabs.input4j.components.Axis;
+import de.gurkenlabs.input4j.components.Button;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -65,4 +66,127 @@ public class InputComponentIDTests {
     InputComponent.ID id = new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1");
     assertEquals(id, InputComponent.ID.get("BUTTON_1"));
   }
+
+  @Test
+  public void testGetButtonAndAxisByTypeIndex() {
+    assertSame(Button.BUTTON_3, InputComponent.ID.getButton(3));
+    assertSame(Axis.AXIS_X, InputComponent.ID.getAxis(Axis.AXIS_X.id));
+    assertNull(InputComponent.ID.getButton(Integer.MAX_VALUE));
+    assertNull(InputComponent.ID.getAxis(-42));
+  }
+
+  @Test
+  public void testDefaultIdReplacesEarlierId() {
+    InputComponent.ID earlier = new InputComponent.ID(ComponentType.UNKNOWN, 4712, "EARLIER_4712");
+    InputComponent.ID defaultId = InputComponent.ID.createDefault(ComponentType.UNKNOWN, 4712, "DEFAULT_4712");
+    new InputComponent.ID(ComponentType.UNKNOWN, 4712, "LATER_4712");
+
+    assertSame(defaultId, InputComponent.ID.get(ComponentType.UNKNOWN, 4712));
+    assertSame(defaultId, InputComponent.ID.get("DEFAULT_4712"));
+    assertSame(earlier, InputComponent.ID.get("EARLIER_4712"));
+    assertNull(InputComponent.ID.get("LATER_4712"));
+  }
+
+  @Test
+  public void testRemappedIDIsNotRegistered() {
+    InputComponent.ID original = new InputComponent.ID(ComponentType.UNKNOWN, 4711, "ORIGINAL_4711");
+    InputComponent.ID remapped = new InputComponent.ID(original, "REMAPPED_4711");
+
+    assertSame(original, InputComponent.ID.get(ComponentType.UNKNOWN, 4711));
+    assertEquals("ORIGINAL_4711", InputComponent.ID.get(ComponentType.UNKNOWN, 4711).name);
+    assertNull(InputComponent.ID.get("REMAPPED_4711"));
+    assertNotSame(remapped, InputComponent.ID.get(ComponentType.UNKNOWN, 4711));
+  }
+
+  @Test
+  public void testNextIdFollowsHighestRegisteredId() {
+    int nextId = InputComponent.ID.getNextId(ComponentType.KEY, 0);
+    new InputComponent.ID(ComponentType.KEY, nextId + 10, "KEY_AHEAD");
+
+    assertEquals(nextId + 11, InputComponent.ID.getNextId(ComponentType.KEY, 0));
+    assertEquals(Integer.MAX_VALUE - 1, InputComponent.ID.getNextId(ComponentType.KEY, Integer.MAX_VALUE - 2));
+  }
+
+  @Test
+  public void testGetAllContainsRegisteredIds() {
+    InputComponent.ID id = new InputComponent.ID(ComponentType.UNKNOWN, 815, "SOMETHING_815");
+    InputComponent.ID button = Button.BUTTON_0;
+
+    var all = InputComponent.ID.getAll();
+    assertTrue(all.contains(id));
+    assertTrue(all.contains(button));
+    assertThrows(UnsupportedOperationException.class, () -> all.add(id));
+  }
+
+  @Test
+  public void testConcurrentRegistration() throws InterruptedException {
+    int threads = 8;
+    int idsPerThread = 500;
+    int base = InputComponent.ID.getNextId(ComponentType.UNKNOWN, 10_000);
+    var workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      workers[t] = new Thread(() -> {
+        // all threads register the same IDs, so only one of them may win each key
+        for (int i = 0; i < idsPerThread; i++) {
+          new InputComponent.ID(ComponentType.UNKNOWN, base + i, "CONCURRENT_" + (base + i));
+        }
+      });
+      workers[t].start();
+    }
+
+    for (var worker : workers) {
+      worker.join();
+    }
+
+    for (int i = 0; i < idsPerThread; i++) {
+      var id = InputComponent.ID.get(ComponentType.UNKNOWN, base + i);
+      assertNotNull(id);
+      assertSame(id, InputComponent.ID.get("CONCURRENT_" + (base + i)));
+    }
+
+    assertEquals(base + idsPerThread, InputComponent.ID.getNextId(ComponentType.UNKNOWN, 0));
+  }
+
+  @Test
+  public void testDynamicIdIsReleasedAndReused() {
+    var dynamicId = InputComponent.ID.createDynamic(ComponentType.UNKNOWN, 20_000, "DYNAMIC_UNKNOWN", 7);
+    assertTrue(dynamicId.isDynamic());
+    assertTrue(dynamicId.id > 20_000);
+    assertEquals(7, dynamicId.nativeId);
+    assertSame(dynamicId, InputComponent.ID.get(ComponentType.UNKNOWN, dynamicId.id));
+
+    InputComponent.ID.release(dynamicId);
+    assertNull(InputComponent.ID.get(ComponentType.UNKNOWN, dynamicId.id));
+
+    var reused = InputComponent.ID.createDynamic(ComponentType.UNKNOWN, 20_000, "DYNAMIC_UNKNOWN", 7);
+    assertEquals(dynamicId.id, reused.id);
+
+    // releasing the stale instance must not remove the ID that reused its number
+    InputComponent.ID.release(dynamicId);
+    assertSame(reused, InputComponent.ID.get(ComponentType.UNKNOWN, reused.id));
+    InputComponent.ID.release(reused);
+  }
+
+  @Test
+  public void testStaticIdsAreNotReleased() {
+    InputComponent.ID.release(Button.BUTTON_1);
+    InputComponent.ID.release(new InputComponent.ID(Button.BUTTON_1, "REMAPPED"));
+
+    assertFalse(Button.BUTTON_1.isDynamic());
+    assertNotNull(InputComponent.ID.getButton(1));
+    assertFalse(InputComponent.ID.getButton(1).isDynamic());
+  }
+
+  @Test
+  public void testNameIndexFallsBackToRemainingId() {
+    var first = InputComponent.ID.createDynamic(ComponentType.UNKNOWN, 30_000, "SHARED_DYNAMIC_NAME", 0);
+    var second = InputComponent.ID.createDynamic(ComponentType.UNKNOWN, 30_000, "SHARED_DYNAMIC_NAME", 0);
+    assertSame(first, InputComponent.ID.get("SHARED_DYNAMIC_NAME"));
+
+    InputComponent.ID.release(first);
+    assertSame(second, InputComponent.ID.get("SHARED_DYNAMIC_NAME"));
+
+    InputComponent.ID.release(second);
+    assertNull(InputComponent.ID.get("SHARED_DYNAMIC_NAME"));
+  }
 }
@@ -7,7 +7,6 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,7 +16,7 @@ class InputComponentTests {
   @BeforeEach
   void setUp() {
     List<InputComponent> components = new CopyOnWriteArrayList<>();
-    Function<InputDevice, float[]> pollCallback = _ -> new float[]{};
+    InputDevicePollCallback pollCallback = (_, _) -> 0;
     BiConsumer<InputDevice, float[]> rumbleCallback = (_, _) -> {
     };
     inputDevice = new InputDevice("123", "TestDevice", "TestProduct", pollCallback, rumbleCallback);
@@ -3,12 +3,14 @@ package de.gurkenlabs.input4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,12 +21,11 @@ class InputDeviceListenerTests {
 
   @BeforeEach
   void setUp() {
-    Function<InputDevice, float[]> pollCallback = inputDevice -> {
-      float[] values = new float[inputDevice.getComponents().size()];
+    InputDevicePollCallback pollCallback = (_, values) -> {
       for (int i = 0; i < values.length; i++) {
         values[i] = 1.0f;
       }
-      return values;
+      return values.length;
     };
     BiConsumer<InputDevice, float[]> rumbleCallback = (_, _) -> {
     };
@@ -156,6 +157,302 @@ class InputDeviceListenerTests {
     assertEquals(1, callCount.get());
   }
 
+  @Test
+  void testAxisListener_ReceivesComponentAndValue() {
+    AtomicReference<InputComponent> receivedComponent = new AtomicReference<>();
+    float[] receivedValue = {-1f};
+    assertTrue(inputDevice.onAxisChanged(axisComponent.getId(), (component, value) -> {
+      receivedComponent.set(component);
+      receivedValue[0] = value;
+    }));
+    inputDevice.poll();
+    assertSame(axisComponent, receivedComponent.get());
+    assertEquals(1.0f, receivedValue[0]);
+  }
+
+  @Test
+  void testAxisListener_ReturnsFalseForInvalidIdOrNull() {
+    assertFalse(inputDevice.onAxisChanged(new InputComponent.ID(ComponentType.AXIS, 999, "INVALID"), (component, value) -> {
+    }));
+    assertFalse(inputDevice.onAxisChanged(axisComponent.getId(), (AxisListener) null));
+  }
+
+  @Test
+  void testButtonListener_NotifiedWhenButtonPressedAndReleased() {
+    var values = new float[]{1, 1};
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (_, buffer) -> {
+      System.arraycopy(values, 0, buffer, 0, buffer.length);
+      return buffer.length;
+    }, null);
+    var button = new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1"));
+    device.addComponent(button);
+    device.addComponent(new InputComponent(device, new InputComponent.ID(ComponentType.AXIS, 1, "AXIS_1")));
+
+    AtomicReference<InputComponent> pressed = new AtomicReference<>();
+    AtomicReference<InputComponent> released = new AtomicReference<>();
+    device.onButtonPressed(button.getId(), pressed::set);
+    device.onButtonReleased(button.getId(), released::set);
+
+    device.poll();
+    assertSame(button, pressed.get());
+    assertNull(released.get());
+
+    values[0] = 0;
+    device.poll();
+    assertSame(button, released.get());
+  }
+
+  @Test
+  void testRemoveButtonListener_RemovesSpecificListener() {
+    AtomicInteger callCount = new AtomicInteger(0);
+    ButtonListener listener1 = component -> callCount.incrementAndGet();
+    ButtonListener listener2 = component -> callCount.incrementAndGet();
+
+    inputDevice.onButtonPressed(buttonComponent.getId(), listener1);
+    inputDevice.onButtonPressed(buttonComponent.getId(), listener2);
+    inputDevice.removeButtonPressedListener(listener1);
+    inputDevice.poll();
+    assertEquals(1, callCount.get());
+  }
+
+  @Test
+  void testRemoveAxisListener_RemovesSpecificListener() {
+    AtomicInteger callCount = new AtomicInteger(0);
+    AxisListener listener1 = (component, value) -> callCount.incrementAndGet();
+    AxisListener listener2 = (component, value) -> callCount.incrementAndGet();
+
+    inputDevice.onAxisChanged(axisComponent.getId(), listener1);
+    inputDevice.onAxisChanged(axisComponent.getId(), listener2);
+    inputDevice.removeAxisChangedListener(listener1);
+    inputDevice.poll();
+    assertEquals(1, callCount.get());
+  }
+
+  @Test
+  void testClearButtonReleasedListeners_WithIntId() {
+    var values = new float[]{1};
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (_, buffer) -> {
+      System.arraycopy(values, 0, buffer, 0, buffer.length);
+      return buffer.length;
+    }, null);
+    var button = new InputComponent(device, InputComponent.ID.getButton(1));
+    device.addComponent(button);
+
+    AtomicBoolean pressed = new AtomicBoolean(false);
+    AtomicBoolean released = new AtomicBoolean(false);
+    device.onButtonPressed(button.getId(), () -> pressed.set(true));
+    device.onButtonReleased(button.getId(), () -> released.set(true));
+    device.clearButtonReleasedListeners(1);
+
+    device.poll();
+    values[0] = 0;
+    device.poll();
+    assertTrue(pressed.get());
+    assertFalse(released.get());
+  }
+
+  @Test
+  void testListenersFollowReplacedComponent() {
+    AtomicReference<InputComponent> receivedComponent = new AtomicReference<>();
+    inputDevice.onAxisChanged(axisComponent.getId(), (component, value) -> receivedComponent.set(component));
+
+    // replacing the button moves it to the end, so the axis now occupies another slot
+    inputDevice.addComponent(new InputComponent(inputDevice, buttonComponent.getId()));
+    assertEquals(0, inputDevice.getComponentIndex(axisComponent.getId()));
+
+    inputDevice.poll();
+    assertSame(axisComponent, receivedComponent.get());
+  }
+
+  @Test
+  void testReportedTransientsEmitIntermediateButtonEdges() {
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, values) -> {
+      // the button was tapped twice between two polls but is released again at the time of the poll
+      inputDevice.reportTransients(0, 2, 2, 0, 1);
+      return values.length;
+    }, null);
+    var button = new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1"));
+    device.addComponent(button);
+
+    AtomicInteger presses = new AtomicInteger();
+    AtomicInteger releases = new AtomicInteger();
+    device.onButtonPressed(button.getId(), () -> presses.incrementAndGet());
+    device.onButtonReleased(button.getId(), () -> releases.incrementAndGet());
+    device.poll();
+
+    assertEquals(2, presses.get());
+    assertEquals(2, releases.get());
+    assertEquals(2, device.getPressCountSinceLastPoll(button.getId()));
+    assertEquals(0, button.getData());
+    assertTrue(device.hasInputData());
+  }
+
+  @Test
+  void testEventsAreStampedWithPollTimeWithoutReportedTimestamp() {
+    AtomicLong timestamp = new AtomicLong();
+    inputDevice.onInputValueChanged(event -> timestamp.set(event.timestamp()));
+
+    long before = System.nanoTime();
+    inputDevice.poll();
+    long after = System.nanoTime();
+
+    assertTrue(timestamp.get() - before >= 0 && after - timestamp.get() >= 0);
+    assertEquals(InputLatency.NONE, inputDevice.getLatency());
+  }
+
+  @Test
+  void testReportedTimestampsAreDispatchedAndMeasured() {
+    var values = new float[1];
+    var eventTime = new long[1];
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, buffer) -> {
+      buffer[0] = values[0];
+      inputDevice.reportTimestamp(0, eventTime[0]);
+      return buffer.length;
+    }, null);
+    var button = new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1"));
+    device.addComponent(button);
+
+    AtomicLong timestamp = new AtomicLong();
+    device.onInputValueChanged(event -> timestamp.set(event.timestamp()));
+
+    values[0] = 1;
+    eventTime[0] = System.nanoTime() - 2_000_000;
+    device.poll();
+
+    assertEquals(eventTime[0], timestamp.get());
+    var latency = device.getLatency();
+    assertEquals(1, latency.samples());
+    assertTrue(latency.lastNanos() >= 2_000_000);
+    assertEquals(latency.lastNanos(), latency.minNanos());
+    assertEquals(latency.lastNanos(), latency.maxNanos());
+    assertEquals(latency.lastNanos(), latency.averageNanos());
+
+    // unchanged components are not measured
+    device.poll();
+    assertEquals(1, device.getLatency().samples());
+
+    values[0] = 0;
+    eventTime[0] = System.nanoTime() - 4_000_000;
+    device.poll();
+
+    latency = device.getLatency();
+    assertEquals(2, latency.samples());
+    assertTrue(latency.maxNanos() >= 4_000_000);
+    assertEquals(latency.maxNanos(), latency.lastNanos());
+    assertTrue(latency.minNanos() < latency.maxNanos());
+
+    device.resetLatency();
+    assertEquals(InputLatency.NONE, device.getLatency());
+  }
+
+  @Test
+  void testResetDuringPollDiscardsTheSamplesOfThatPoll() {
+    var values = new float[1];
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, buffer) -> {
+      buffer[0] = values[0];
+      inputDevice.reportTimestamp(0, System.nanoTime() - 1_000_000);
+      return buffer.length;
+    }, null);
+    var button = new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1"));
+    device.addComponent(button);
+
+    values[0] = 1;
+    device.poll();
+    assertEquals(1, device.getLatency().samples());
+
+    // the change is measured after its listeners were notified, so this sample predates the reset
+    device.onButtonPressed(button.getId(), device::resetLatency);
+    values[0] = 0;
+    device.poll();
+    values[0] = 1;
+    device.poll();
+
+    assertEquals(InputLatency.NONE, device.getLatency());
+
+    values[0] = 0;
+    device.poll();
+    assertEquals(1, device.getLatency().samples());
+  }
+
+  @Test
+  void testIntermediateEdgesCarryTheTimeOfTheLastEvent() {
+    var eventTime = System.nanoTime() - 1_000_000;
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, buffer) -> {
+      inputDevice.reportTransients(0, 1, 1, 0, 1);
+      inputDevice.reportTimestamp(0, eventTime);
+      return buffer.length;
+    }, null);
+    device.addComponent(new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1")));
+
+    var timestamps = new ArrayList<Long>();
+    device.onInputValueChanged(event -> timestamps.add(event.timestamp()));
+    device.poll();
+
+    assertEquals(List.of(eventTime, eventTime), timestamps);
+    assertEquals(1, device.getLatency().samples());
+  }
+
+  @Test
+  void testLatencyIsConsistentWhileBeingMeasured() throws InterruptedException {
+    var values = new float[1];
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, buffer) -> {
+      buffer[0] = values[0];
+      // alternate between a short and a long latency so that a torn read would show up as a violated bound
+      inputDevice.reportTimestamp(0, System.nanoTime() - (values[0] == 0 ? 1_000 : 50_000_000));
+      return buffer.length;
+    }, null);
+    device.addComponent(new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1")));
+
+    var running = new AtomicBoolean(true);
+    var poller = new Thread(() -> {
+      while (running.get()) {
+        values[0] = values[0] == 0 ? 1 : 0;
+        device.poll();
+      }
+    }, "latency-poller");
+    poller.start();
+
+    long lastSamples = 0;
+    try {
+      for (int i = 0; i < 200_000; i++) {
+        var latency = device.getLatency();
+        assertTrue(latency.samples() >= lastSamples, "stale latency");
+        assertTrue(latency.minNanos() <= latency.lastNanos() && latency.lastNanos() <= latency.maxNanos(), "torn latency " + latency);
+        assertTrue(latency.minNanos() <= latency.averageNanos() && latency.averageNanos() <= latency.maxNanos(), "torn latency " + latency);
+        lastSamples = latency.samples();
+      }
+    } finally {
+      running.set(false);
+      poller.join();
+    }
+
+    assertTrue(lastSamples > 0);
+  }
+
+  @Test
+  void testReportTimestampThrowsForInvalidSlot() {
+    var device = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, buffer) -> {
+      inputDevice.reportTimestamp(buffer.length, System.nanoTime());
+      return buffer.length;
+    }, null);
+    device.addComponent(new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 1, "BUTTON_1")));
+
+    assertThrows(IndexOutOfBoundsException.class, device::poll);
+  }
+
+  @Test
+  void testPressCountIsDerivedWithoutReportedTransients() {
+    inputDevice.poll();
+    assertEquals(1, inputDevice.getPressCountSinceLastPoll(buttonComponent.getId()));
+    assertEquals(1, buttonComponent.getPressCountSinceLastPoll());
+    assertEquals(0, inputDevice.getMinSinceLastPoll(axisComponent.getId()));
+    assertEquals(1, inputDevice.getMaxSinceLastPoll(axisComponent.getId()));
+
+    inputDevice.poll();
+    assertEquals(0, buttonComponent.getPressCountSinceLastPoll());
+    assertEquals(0, inputDevice.getReleaseCountSinceLastPoll(buttonComponent.getId()));
+  }
+
   @Test
   void testGetComponentIndex_ReturnsCorrectIndex() {
     assertEquals(0, inputDevice.getComponentIndex(buttonComponent.getId()));
@@ -190,14 +487,14 @@ class InputDeviceListenerTests {
     AtomicBoolean called = new AtomicBoolean(false);
     BiConsumer<InputDevice, float[]> rumbleCallback = (device, intensity) -> called.set(true);
 
-    InputDevice deviceWithRumble = new InputDevice("123", "Test", "Test", _ -> new float[]{}, rumbleCallback);
+    InputDevice deviceWithRumble = new InputDevice("123", "Test", "Test", (_, _) -> 0, rumbleCallback);
     deviceWithRumble.rumble(0.5f);
     assertTrue(called.get());
   }
 
   @Test
   void testRumble_DoesNothingWhenCallbackIsNull() {
-    InputDevice deviceNoRumble = new InputDevice("123", "Test", "Test", _ -> new float[]{}, null);
+    InputDevice deviceNoRumble = new InputDevice("123", "Test", "Test", (_, _) -> 0, null);
     assertDoesNotThrow(() -> deviceNoRumble.rumble(0.5f));
   }
 
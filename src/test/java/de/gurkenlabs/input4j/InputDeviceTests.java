@@ -7,7 +7,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
-import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,7 +16,14 @@ public class InputDeviceTests {
   @BeforeEach
   public void setUp() {
     List<InputComponent> components = new CopyOnWriteArrayList<>();
-    Function<InputDevice, float[]> pollCallback = _ -> new float[]{0.12345f};
+    InputDevicePollCallback pollCallback = (_, values) -> {
+      if (values.length == 0) {
+        return 0;
+      }
+
+      values[0] = 0.12345f;
+      return 1;
+    };
     BiConsumer<InputDevice, float[]> rumbleCallback = (_, _) -> {
     };
 
@@ -132,49 +138,119 @@ public class InputDeviceTests {
 
   @Test
   public void testGetDisplayName_FallsBackToName() {
-    InputDevice deviceNoProduct = new InputDevice("123", "TestInstance", null, _ -> new float[]{}, (_, _) -> {});
+    InputDevice deviceNoProduct = new InputDevice("123", "TestInstance", null, (_, _) -> 0, (_, _) -> {});
     assertEquals("TestInstance", deviceNoProduct.getDisplayName());
   }
 
   @Test
   public void testGetDisplayName_UsesDisplayName() {
     InputDevice device = new InputDevice("123", "TestInstance", "TestProduct", 
-        ControllerDatabase.VENDOR_MICROSOFT, 0x028E, "Custom Display", _ -> new float[]{}, (_, _) -> {});
+        ControllerDatabase.VENDOR_MICROSOFT, 0x028E, "Custom Display", (_, _) -> 0, (_, _) -> {});
     assertEquals("Custom Display", device.getDisplayName());
   }
 
   @Test
   public void testGetVendorId_FromConstructor() {
     InputDevice device = new InputDevice("123", "Test", "Test", 
-        ControllerDatabase.VENDOR_SONY, 0x0CE6, null, _ -> new float[]{}, (_, _) -> {});
+        ControllerDatabase.VENDOR_SONY, 0x0CE6, null, (_, _) -> 0, (_, _) -> {});
     assertEquals(ControllerDatabase.VENDOR_SONY, device.getVendorId());
   }
 
   @Test
   public void testGetProductId_FromConstructor() {
     InputDevice device = new InputDevice("123", "Test", "Test", 
-        ControllerDatabase.VENDOR_SONY, 0x0CE6, null, _ -> new float[]{}, (_, _) -> {});
+        ControllerDatabase.VENDOR_SONY, 0x0CE6, null, (_, _) -> 0, (_, _) -> {});
     assertEquals(0x0CE6, device.getProductId());
   }
 
   @Test
   public void testHasVendorInfo_TrueWhenProvided() {
     InputDevice device = new InputDevice("123", "Test", "Test", 
-        ControllerDatabase.VENDOR_MICROSOFT, 0x028E, null, _ -> new float[]{}, (_, _) -> {});
+        ControllerDatabase.VENDOR_MICROSOFT, 0x028E, null, (_, _) -> 0, (_, _) -> {});
     assertTrue(device.hasVendorInfo());
   }
 
   @Test
   public void testGetControllerType_Xbox() {
     InputDevice device = new InputDevice("123", "Test", "Test", 
-        ControllerDatabase.VENDOR_MICROSOFT, 0x028E, null, _ -> new float[]{}, (_, _) -> {});
+        ControllerDatabase.VENDOR_MICROSOFT, 0x028E, null, (_, _) -> 0, (_, _) -> {});
     assertEquals(ControllerType.XBOX, device.getControllerType());
   }
 
   @Test
   public void testGetControllerType_PlayStation() {
     InputDevice device = new InputDevice("123", "Test", "Test", 
-        ControllerDatabase.VENDOR_SONY, 0x0CE6, null, _ -> new float[]{}, (_, _) -> {});
+        ControllerDatabase.VENDOR_SONY, 0x0CE6, null, (_, _) -> 0, (_, _) -> {});
     assertEquals(ControllerType.PLAYSTATION, device.getControllerType());
   }
+
+  @Test
+  public void testPollDoesNotAllocateInSteadyState() {
+    var frame = new int[1];
+    InputDevice device = new InputDevice("123", "Test", "Test", (_, values) -> {
+      // simulate moving sticks and mashed buttons so that every poll changes component values
+      for (int i = 0; i < values.length; i++) {
+        values[i] = (frame[0] + i) % 2 == 0 ? 1 : -0.5f;
+      }
+      frame[0]++;
+      return values.length;
+    }, (_, _) -> {
+    });
+
+    for (int i = 0; i < 32; i++) {
+      device.addComponent(new InputComponent(device, new InputComponent.ID(i % 2 == 0 ? ComponentType.BUTTON : ComponentType.AXIS, 100 + i, "COMPONENT_" + i)));
+    }
+
+    AllocationAssertions.assertDoesNotAllocate("Polling", _ -> device.poll());
+  }
+
+  @Test
+  public void testPollDoesNotAllocateWithPrimitiveListeners() {
+    var device = createTogglingDevice("LISTENED_COMPONENT_", 200);
+
+    var sum = new float[1];
+    var presses = new int[2];
+    for (var component : device.getComponents()) {
+      if (component.isAxis()) {
+        device.onAxisChanged(component.getId(), (_, value) -> sum[0] += value);
+        device.onAxisChanged(component.getId(), (_, value) -> sum[0] -= value);
+      } else {
+        device.onButtonPressed(component.getId(), _ -> presses[0]++);
+        device.onButtonReleased(component.getId(), _ -> presses[1]++);
+      }
+    }
+
+    AllocationAssertions.assertDoesNotAllocate("Polling", _ -> device.poll());
+    assertTrue(presses[0] > 0 && presses[1] > 0);
+  }
+
+  @Test
+  public void testPollDoesNotAllocateWithFrameListeners() {
+    var device = createTogglingDevice("FRAMED_COMPONENT_", 300);
+
+    var changes = new int[1];
+    device.onFrame(inputFrame -> changes[0] += inputFrame.getChangedCount());
+
+    AllocationAssertions.assertDoesNotAllocate("Polling", _ -> device.poll());
+    assertTrue(changes[0] > 0);
+  }
+
+  private static InputDevice createTogglingDevice(String namePrefix, int firstId) {
+    var frame = new int[1];
+    InputDevice device = new InputDevice("123", "Test", "Test", (_, values) -> {
+      for (int i = 0; i < values.length; i++) {
+        // buttons (even slots) toggle on every poll, axes (odd slots) sweep through four positions
+        values[i] = i % 2 == 0 ? frame[0] % 2 : 0.25f * (frame[0] % 4);
+      }
+      frame[0]++;
+      return values.length;
+    }, (_, _) -> {
+    });
+
+    for (int i = 0; i < 32; i++) {
+      device.addComponent(new InputComponent(device, new InputComponent.ID(i % 2 == 0 ? ComponentType.BUTTON : ComponentType.AXIS, firstId + i, namePrefix + i)));
+    }
+
+    return device;
+  }
 }
@@ -0,0 +1,214 @@
+package de.gurkenlabs.input4j;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputFrameTests {
+  private static final int COMPONENTS = 130;
+
+  private float[] values;
+  private int polledCount;
+  private InputDevice device;
+
+  @BeforeEach
+  void setUp() {
+    values = new float[COMPONENTS];
+    polledCount = COMPONENTS;
+    device = new InputDevice("123", "TestDevice", "TestProduct", (_, buffer) -> {
+      System.arraycopy(values, 0, buffer, 0, polledCount);
+      return polledCount;
+    }, null);
+
+    for (int i = 0; i < COMPONENTS; i++) {
+      device.addComponent(new InputComponent(device, new InputComponent.ID(i % 2 == 0 ? ComponentType.BUTTON : ComponentType.AXIS, 300 + i, "FRAME_COMPONENT_" + i)));
+    }
+  }
+
+  @Test
+  void testFrameListenerIsCalledOncePerPoll() {
+    var invocations = new AtomicInteger();
+    device.onFrame(_ -> invocations.incrementAndGet());
+
+    values[0] = 1;
+    values[1] = 0.5f;
+    values[127] = -1;
+    device.poll();
+
+    assertEquals(1, invocations.get());
+  }
+
+  @Test
+  void testFrameListenerIsNotCalledWithoutChanges() {
+    var invocations = new AtomicInteger();
+    device.onFrame(_ -> invocations.incrementAndGet());
+
+    device.poll();
+
+    assertEquals(0, invocations.get());
+  }
+
+  @Test
+  void testFrameContainsAllSimultaneousChanges() {
+    var changedSlots = new ArrayList<Integer>();
+    var oldValues = new ArrayList<Float>();
+    var newValues = new ArrayList<Float>();
+    device.onFrame(frame -> {
+      assertSame(device, frame.getDevice());
+      assertEquals(COMPONENTS, frame.size());
+      assertEquals(3, frame.getChangedCount());
+      for (int slot = frame.nextChanged(0); slot >= 0; slot = frame.nextChanged(slot + 1)) {
+        changedSlots.add(slot);
+        oldValues.add(frame.getOldValue(slot));
+        newValues.add(frame.getNewValue(slot));
+        assertTrue(frame.isChanged(slot));
+        assertEquals(frame.getNewValue(slot), frame.getComponent(slot).getData());
+      }
+
+      assertFalse(frame.isChanged(2));
+    });
+
+    values[1] = 0.5f;
+    values[64] = 1;
+    values[129] = -1;
+    device.poll();
+
+    assertEquals(List.of(1, 64, 129), changedSlots);
+    assertEquals(List.of(0f, 0f, 0f), oldValues);
+    assertEquals(List.of(0.5f, 1f, -1f), newValues);
+  }
+
+  @Test
+  void testFrameProvidesOldValues() {
+    values[5] = 0.25f;
+    device.poll();
+
+    var oldValue = new float[1];
+    var newValue = new float[1];
+    device.onFrame(frame -> {
+      oldValue[0] = frame.getOldValue(5);
+      newValue[0] = frame.getNewValue(5);
+    });
+
+    values[5] = 0.75f;
+    device.poll();
+
+    assertEquals(0.25f, oldValue[0]);
+    assertEquals(0.75f, newValue[0]);
+  }
+
+  @Test
+  void testUnpolledComponentsKeepTheirValueInTheFrame() {
+    values[100] = 1;
+    device.poll();
+
+    var unpolledValue = new float[]{-1};
+    device.onFrame(frame -> {
+      unpolledValue[0] = frame.getNewValue(100);
+      assertFalse(frame.isChanged(100));
+    });
+
+    polledCount = 10;
+    values[0] = 1;
+    device.poll();
+
+    assertEquals(1, unpolledValue[0]);
+  }
+
+  @Test
+  void testFrameProvidesTimestamps() {
+    var eventTime = System.nanoTime() - 1_000_000;
+    var timedDevice = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, buffer) -> {
+      buffer[0] = 1;
+      buffer[1] = 1;
+      inputDevice.reportTimestamp(0, eventTime);
+      return buffer.length;
+    }, null);
+    for (int i = 0; i < 3; i++) {
+      timedDevice.addComponent(new InputComponent(timedDevice, new InputComponent.ID(ComponentType.BUTTON, 300 + i, "FRAME_COMPONENT_" + i)));
+    }
+
+    var timestamps = new long[4];
+    timedDevice.onFrame(inputFrame -> {
+      timestamps[0] = inputFrame.getTimestamp();
+      for (int slot = 0; slot < inputFrame.size(); slot++) {
+        timestamps[slot + 1] = inputFrame.getTimestamp(slot);
+      }
+    });
+
+    long before = System.nanoTime();
+    timedDevice.poll();
+    long after = System.nanoTime();
+
+    assertTrue(timestamps[0] - before >= 0 && after - timestamps[0] >= 0);
+    assertEquals(eventTime, timestamps[1]);
+    // changes without a reported timestamp and unchanged components are stamped with the time of the poll
+    assertEquals(timestamps[0], timestamps[2]);
+    assertEquals(timestamps[0], timestamps[3]);
+  }
+
+  @Test
+  void testButtonToggledWithinOnePollIsChanged() {
+    var tappedDevice = new InputDevice("123", "TestDevice", "TestProduct", (inputDevice, buffer) -> {
+      // the button was pressed and released between two polls, so its polled value did not change
+      inputDevice.reportTransients(0, 1, 1, 0, 1);
+      return buffer.length;
+    }, null);
+    for (int i = 0; i < 2; i++) {
+      tappedDevice.addComponent(new InputComponent(tappedDevice, new InputComponent.ID(ComponentType.BUTTON, 300 + i, "FRAME_COMPONENT_" + i)));
+    }
+
+    var changedSlots = new ArrayList<Integer>();
+    var counts = new int[4];
+    tappedDevice.onFrame(frame -> {
+      assertEquals(1, frame.getChangedCount());
+      for (int slot = frame.nextChanged(0); slot >= 0; slot = frame.nextChanged(slot + 1)) {
+        changedSlots.add(slot);
+      }
+
+      assertEquals(frame.getOldValue(0), frame.getNewValue(0));
+      counts[0] = frame.getPressCount(0);
+      counts[1] = frame.getReleaseCount(0);
+      counts[2] = frame.getPressCount(1);
+      counts[3] = frame.getReleaseCount(1);
+    });
+
+    tappedDevice.poll();
+
+    assertEquals(List.of(0), changedSlots);
+    assertArrayEquals(new int[]{1, 1, 0, 0}, counts);
+  }
+
+  @Test
+  void testRemoveFrameListener() {
+    var invocations = new AtomicInteger();
+    InputFrameListener listener = _ -> invocations.incrementAndGet();
+    device.onFrame(listener);
+    device.removeFrameListener(listener);
+
+    values[0] = 1;
+    device.poll();
+
+    assertEquals(0, invocations.get());
+  }
+
+  @Test
+  void testNextChangedBounds() {
+    device.onFrame(frame -> {
+      assertEquals(63, frame.nextChanged(-5));
+      assertEquals(63, frame.nextChanged(63));
+      assertEquals(-1, frame.nextChanged(64));
+      assertEquals(-1, frame.nextChanged(COMPONENTS));
+      assertThrows(IndexOutOfBoundsException.class, () -> frame.getNewValue(COMPONENTS));
+      assertThrows(IndexOutOfBoundsException.class, () -> frame.isChanged(-1));
+    });
+
+    values[63] = 1;
+    device.poll();
+  }
+}
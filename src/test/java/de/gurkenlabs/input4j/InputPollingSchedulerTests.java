@@ -0,0 +1,267 @@
+package de.gurkenlabs.input4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the scheduler on a virtual clock that only advances when the scheduler waits for its next poll (or a device
+ * advances it while polling), so the assertions don't depend on how fast the machine runs the test.
+ */
+class InputPollingSchedulerTests {
+  private static final long MILLIS = 1_000_000L;
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final AtomicReference<Thread> pollingThread = new AtomicReference<>();
+  private final CountDownLatch reached = new CountDownLatch(1);
+  private final CountDownLatch released = new CountDownLatch(1);
+  private InputPollingScheduler scheduler;
+
+  @AfterEach
+  void tearDown() {
+    released.countDown();
+    if (scheduler != null) {
+      scheduler.close();
+    }
+  }
+
+  @Test
+  void testPollsAllDevicesAtTheConfiguredRate() throws InterruptedException {
+    var firstPolls = new AtomicInteger();
+    var secondPolls = new AtomicInteger();
+    var plugin = new TestPlugin(createDevice(firstPolls, null), createDevice(secondPolls, holdAt(201)));
+
+    scheduler = startOnVirtualClock(plugin, 100);
+    awaitReached();
+
+    // the first poll takes place immediately, every further one after a period of 10 ms
+    assertEquals(201, firstPolls.get());
+    assertEquals(201, secondPolls.get());
+    assertEquals(200 * 10 * MILLIS, nanos.get());
+    assertEquals(100, scheduler.getRate());
+    assertEquals(100, scheduler.getAchievedRate(), 1);
+    assertEquals(0, scheduler.getOverrunCount());
+  }
+
+  @Test
+  void testPauseAndResume() throws InterruptedException {
+    var polls = new AtomicInteger();
+    var resumedAt = new AtomicLong();
+    var resumed = new CountDownLatch(1);
+    scheduler = startOnVirtualClock(new TestPlugin(createDevice(polls, poll -> {
+      if (poll == 5) {
+        awaitReleased();
+      } else if (poll == 6) {
+        resumedAt.set(nanos.get());
+        resumed.countDown();
+      }
+    })), 200);
+
+    awaitPolls(polls, 5);
+    scheduler.pause();
+    assertTrue(scheduler.isPaused());
+    released.countDown();
+    awaitParked();
+
+    // no matter how much time passes while paused, nothing is polled
+    nanos.addAndGet(5_000 * MILLIS);
+    assertEquals(5, polls.get());
+
+    long resumeTime = nanos.get();
+    scheduler.resume();
+    assertFalse(scheduler.isPaused());
+    assertTrue(resumed.await(5, TimeUnit.SECONDS));
+
+    // the next poll takes place immediately, without catching up the polls that were skipped while paused
+    assertEquals(resumeTime, resumedAt.get());
+  }
+
+  @Test
+  void testOverrunsAreSkippedInsteadOfBursting() throws InterruptedException {
+    var polls = new AtomicInteger();
+    scheduler = startOnVirtualClock(new TestPlugin(createDevice(polls, poll -> {
+      // every poll takes three periods
+      nanos.addAndGet(30 * MILLIS);
+      holdAt(20).accept(poll);
+    })), 100);
+
+    awaitReached();
+
+    // a burst would poll the skipped periods in less than 30 ms each
+    assertEquals(20, polls.get());
+    assertEquals(20 * 30 * MILLIS, nanos.get());
+    assertEquals(19 * 2, scheduler.getOverrunCount());
+  }
+
+  @Test
+  void testVirtualThreadMode() throws InterruptedException {
+    var device = new InputDevice("1", "Test", "Test", (_, values) -> {
+      pollingThread.compareAndSet(null, Thread.currentThread());
+      reached.countDown();
+      return values.length;
+    }, null);
+
+    scheduler = new TestPlugin(device).startPolling(100, InputPollingScheduler.virtualThreads());
+    awaitReached();
+
+    assertTrue(pollingThread.get().isVirtual());
+  }
+
+  @Test
+  void testPlatformThreadMode() throws InterruptedException {
+    var device = new InputDevice("1", "Test", "Test", (_, values) -> {
+      pollingThread.compareAndSet(null, Thread.currentThread());
+      reached.countDown();
+      return values.length;
+    }, null);
+
+    scheduler = new TestPlugin(device).startPolling(100);
+    awaitReached();
+
+    assertFalse(pollingThread.get().isVirtual());
+    assertTrue(pollingThread.get().isDaemon());
+  }
+
+  @Test
+  void testCloseStopsPolling() throws InterruptedException {
+    var polls = new AtomicInteger();
+    scheduler = startOnVirtualClock(new TestPlugin(createDevice(polls, holdAt(3))), 200);
+    awaitReached();
+
+    released.countDown();
+    scheduler.close();
+
+    // closing waits for the polling thread to end, so the count is final
+    assertFalse(scheduler.isRunning());
+    assertFalse(pollingThread.get().isAlive());
+    assertEquals(scheduler.getPollCount(), polls.get());
+  }
+
+  @Test
+  void testFailingDeviceDoesNotStopPolling() throws InterruptedException {
+    var polls = new AtomicInteger();
+    var failingDevice = new InputDevice("1", "Failing", "Failing", (_, _) -> {
+      throw new IllegalStateException("expected");
+    }, null);
+
+    scheduler = startOnVirtualClock(new TestPlugin(failingDevice, createDevice(polls, holdAt(2))), 200);
+    awaitReached();
+
+    assertEquals(2, polls.get());
+  }
+
+  @Test
+  void testInvalidRate() {
+    var plugin = new TestPlugin();
+    assertThrows(IllegalArgumentException.class, () -> plugin.startPolling(0));
+    assertThrows(IllegalArgumentException.class, () -> plugin.startPolling(-1));
+    assertThrows(IllegalArgumentException.class, () -> plugin.startPolling(Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> plugin.startPolling(Double.POSITIVE_INFINITY));
+  }
+
+  private InputPollingScheduler startOnVirtualClock(InputDevicePlugin plugin, double rate) {
+    ThreadFactory threadFactory = runnable -> {
+      var thread = InputPollingScheduler.platformThreads().newThread(runnable);
+      pollingThread.set(thread);
+      return thread;
+    };
+
+    // waiting for the next poll just advances the clock
+    return InputPollingScheduler.start(plugin, rate, threadFactory, nanos::get, nanos::addAndGet);
+  }
+
+  /**
+   * Blocks the polling thread in the specified poll until the test releases it.
+   */
+  private IntConsumer holdAt(int pollNumber) {
+    return poll -> {
+      if (poll == pollNumber) {
+        reached.countDown();
+        awaitReleased();
+      }
+    };
+  }
+
+  private void awaitReleased() {
+    try {
+      released.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void awaitReached() throws InterruptedException {
+    assertTrue(reached.await(5, TimeUnit.SECONDS), "The scheduler did not poll");
+  }
+
+  private static void awaitPolls(AtomicInteger polls, int count) throws InterruptedException {
+    long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (polls.get() < count) {
+      assertTrue(System.nanoTime() - timeout < 0, "The scheduler did not poll " + count + " times");
+      Thread.sleep(1);
+    }
+  }
+
+  private void awaitParked() throws InterruptedException {
+    var thread = pollingThread.get();
+    long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (thread.getState() != Thread.State.WAITING || LockSupport.getBlocker(thread) != scheduler) {
+      assertTrue(System.nanoTime() - timeout < 0, "The scheduler did not pause");
+      Thread.sleep(1);
+    }
+  }
+
+  private static InputDevice createDevice(AtomicInteger polls, IntConsumer onPoll) {
+    var device = new InputDevice("1", "Test", "Test", (_, values) -> {
+      int poll = polls.incrementAndGet();
+      if (onPoll != null) {
+        onPoll.accept(poll);
+      }
+
+      return values.length;
+    }, null);
+    device.addComponent(new InputComponent(device, new InputComponent.ID(ComponentType.BUTTON, 500, "SCHEDULER_BUTTON")));
+    return device;
+  }
+
+  private record TestPlugin(InputDevice... devices) implements InputDevicePlugin {
+    @Override
+    public void internalInitDevices(Frame owner) {
+    }
+
+    @Override
+    public Collection<InputDevice> getAll() {
+      return List.of(devices);
+    }
+
+    @Override
+    public void onDevicesChanged(Runnable listener) {
+    }
+
+    @Override
+    public void onDeviceConnected(Consumer<InputDevice> listener) {
+    }
+
+    @Override
+    public void onDeviceDisconnected(Consumer<InputDevice> listener) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package de.gurkenlabs.input4j;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputSnapshotTests {
+  private static final int COMPONENTS = 64;
+
+  private float[] values;
+  private InputDevice device;
+
+  @BeforeEach
+  void setUp() {
+    values = new float[COMPONENTS];
+    device = createDevice((_, buffer) -> {
+      System.arraycopy(values, 0, buffer, 0, buffer.length);
+      return buffer.length;
+    });
+  }
+
+  @Test
+  void testSnapshotBeforeFirstPoll() {
+    var snapshot = device.snapshot();
+
+    assertSame(device, snapshot.getDevice());
+    assertEquals(0, snapshot.getSequence());
+    assertEquals(0, snapshot.size());
+  }
+
+  @Test
+  void testSnapshotContainsPolledValues() {
+    values[0] = 1;
+    values[10] = 0.5f;
+    device.poll();
+
+    var snapshot = device.snapshot();
+
+    assertEquals(1, snapshot.getSequence());
+    assertEquals(COMPONENTS, snapshot.size());
+    assertEquals(1, snapshot.getValue(0));
+    assertEquals(0.5f, snapshot.getValue(10));
+    assertEquals(0.5f, snapshot.getValue(device.getComponents().get(10).getId()));
+    assertEquals(0, snapshot.getValue(new InputComponent.ID(ComponentType.AXIS, 999, "NOT_PART_OF_DEVICE")));
+    assertSame(device.getComponents().get(10), snapshot.getComponent(10));
+    assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getValue(COMPONENTS));
+  }
+
+  @Test
+  void testSnapshotIsNotChangedByLaterPolls() {
+    values[0] = 1;
+    device.poll();
+    var snapshot = device.snapshot();
+
+    values[0] = 0.25f;
+    device.poll();
+    device.poll();
+
+    assertEquals(1, snapshot.getSequence());
+    assertEquals(1, snapshot.getValue(0));
+    assertEquals(0.25f, device.snapshot().getValue(0));
+  }
+
+  @Test
+  void testSnapshotIsNotChangedByLaterComponentChanges() {
+    device.poll();
+    var snapshot = device.snapshot();
+    var components = new ArrayList<>(device.getComponents());
+
+    device.setComponents(components.reversed());
+
+    assertSame(components.getFirst(), snapshot.getComponent(0));
+    assertSame(components.getLast(), device.snapshot().getComponent(COMPONENTS - 1));
+    device.poll();
+    assertSame(components.getLast(), device.snapshot().getComponent(0));
+  }
+
+  @Test
+  void testSnapshotIsReused() {
+    device.poll();
+    var snapshot = device.snapshot();
+
+    values[3] = -1;
+    device.poll();
+
+    assertSame(snapshot, device.snapshot(snapshot));
+    assertEquals(2, snapshot.getSequence());
+    assertEquals(-1, snapshot.getValue(3));
+    assertEquals(-1, snapshot.copyValues(new float[COMPONENTS])[3]);
+  }
+
+  @Test
+  void testSnapshotOfOtherDeviceIsNotReused() {
+    var otherDevice = createDevice((_, _) -> 0);
+    var otherSnapshot = otherDevice.snapshot();
+
+    var snapshot = device.snapshot(otherSnapshot);
+
+    assertNotSame(otherSnapshot, snapshot);
+    assertSame(device, snapshot.getDevice());
+  }
+
+  @Test
+  void testRefreshingSnapshotDoesNotAllocate() {
+    var snapshot = new InputSnapshot[] {device.snapshot()};
+    AllocationAssertions.assertDoesNotAllocate("Polling and taking snapshots", i -> {
+      values[i % COMPONENTS] = i % 2;
+      device.poll();
+      snapshot[0] = device.snapshot(snapshot[0]);
+    });
+  }
+
+  /**
+   * A stress test in the spirit of JCStress: one thread polls as fast as it can while several readers take snapshots.
+   * Every poll writes the same value (derived from the poll number) into all components, so the outcome of every
+   * observed snapshot can be classified.
+   * <ul>
+   *   <li>ACCEPTABLE: all values are equal and match the sequence of the snapshot.</li>
+   *   <li>FORBIDDEN (torn): the snapshot contains values of different polls.</li>
+   *   <li>FORBIDDEN (stale): the snapshot has a smaller sequence than one the same reader observed before.</li>
+   * </ul>
+   */
+  @Test
+  void testSnapshotsAreNeverTornUnderConcurrentPolling() throws InterruptedException {
+    var pollNumber = new long[1];
+    var stressDevice = createDevice((_, buffer) -> {
+      // keep the values small enough to survive the rounding of the device accuracy
+      float value = ++pollNumber[0] % 1000;
+      for (int i = 0; i < buffer.length; i++) {
+        buffer[i] = value;
+      }
+
+      return buffer.length;
+    });
+
+    final int readerCount = 3;
+    final long polls = 200_000;
+    var running = new AtomicBoolean(true);
+    var acceptable = new AtomicLong();
+    var torn = new AtomicLong();
+    var stale = new AtomicLong();
+    var started = new CountDownLatch(readerCount);
+    var readers = new ArrayList<Thread>();
+    for (int r = 0; r < readerCount; r++) {
+      var reader = new Thread(() -> {
+        var snapshot = stressDevice.snapshot();
+        long lastSequence = 0;
+        started.countDown();
+        while (running.get()) {
+          snapshot = stressDevice.snapshot(snapshot);
+          long sequence = snapshot.getSequence();
+          if (sequence < lastSequence) {
+            stale.incrementAndGet();
+          }
+
+          lastSequence = sequence;
+          if (sequence == 0) {
+            continue;
+          }
+
+          float expected = sequence % 1000;
+          boolean consistent = snapshot.size() == COMPONENTS;
+          for (int i = 0; consistent && i < snapshot.size(); i++) {
+            consistent = snapshot.getValue(i) == expected;
+          }
+
+          (consistent ? acceptable : torn).incrementAndGet();
+        }
+      }, "snapshot-reader-" + r);
+      reader.start();
+      readers.add(reader);
+    }
+
+    started.await();
+    for (long i = 0; i < polls; i++) {
+      stressDevice.poll();
+    }
+
+    running.set(false);
+    for (var reader : readers) {
+      reader.join();
+    }
+
+    assertEquals(0, torn.get(), "FORBIDDEN: torn snapshots observed");
+    assertEquals(0, stale.get(), "FORBIDDEN: stale snapshots observed");
+    assertTrue(acceptable.get() > 0, "No snapshot was observed while polling");
+    assertEquals(polls, stressDevice.snapshot().getSequence());
+  }
+
+  private static InputDevice createDevice(InputDevicePollCallback pollCallback) {
+    var inputDevice = new InputDevice("123", "TestDevice", "TestProduct", pollCallback, null);
+    for (int i = 0; i < COMPONENTS; i++) {
+      inputDevice.addComponent(new InputComponent(inputDevice, new InputComponent.ID(ComponentType.AXIS, 400 + i, "SNAPSHOT_AXIS_" + i)));
+    }
+
+    return inputDevice;
+  }
+}
@@ -0,0 +1,140 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.BatteryLevel;
+import de.gurkenlabs.input4j.InputDevice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinuxBatteryMonitorTests {
+  @TempDir
+  Path sysfsRoot;
+
+  private final List<String> changes = new ArrayList<>();
+  private LinuxBatteryMonitor monitor;
+  private InputDevice inputDevice;
+
+  @BeforeEach
+  void setUp() {
+    monitor = new LinuxBatteryMonitor(sysfsRoot, (device, info) -> changes.add(device.getID() + " " + (info != null ? info.level() : null)));
+    inputDevice = new InputDevice("/dev/input/event3", "Wireless Controller", "Wireless Controller", (_, _) -> 0, null);
+  }
+
+  @AfterEach
+  void tearDown() {
+    monitor.close();
+  }
+
+  @Test
+  void testBatteryOfHidDeviceIsResolved() throws IOException {
+    var powerSupply = createPowerSupply(sysfsRoot.resolve("class/input/event3/device/device/power_supply/ps-controller-battery-a0:5a:5d:00:00:01"), "80", "Discharging");
+
+    monitor.add(inputDevice, "event3", 0x054c, 0x0ce6);
+
+    assertEquals(BatteryLevel.FULL, monitor.get(inputDevice).level());
+    assertFalse(monitor.get(inputDevice).charging());
+
+    Files.writeString(powerSupply.resolve("capacity"), "60\n");
+    Files.writeString(powerSupply.resolve("status"), "Charging\n");
+    var info = monitor.get(inputDevice);
+    assertEquals(BatteryLevel.FULL, info.level(), "reading the state does not touch sysfs");
+
+    monitor.refresh();
+    assertEquals(BatteryLevel.MEDIUM, monitor.get(inputDevice).level());
+    assertTrue(monitor.get(inputDevice).charging());
+    assertEquals(List.of("/dev/input/event3 MEDIUM"), changes);
+
+    // the listener is only called for changes
+    monitor.refresh();
+    assertEquals(1, changes.size());
+  }
+
+  @Test
+  void testBatteryIsMatchedByVendorAndProduct() throws IOException {
+    createPowerSupply(sysfsRoot.resolve("class/power_supply/BAT0"), "100", "Full");
+    var powerSupply = createPowerSupply(sysfsRoot.resolve("class/power_supply/hid-0005:054c:0ce6.0004-battery"), "20", "Discharging");
+    Files.writeString(powerSupply.resolve("model_name"), "Wireless Controller 0ce6\n");
+    Files.createDirectories(sysfsRoot.resolve("class/power_supply/AC"));
+    Files.writeString(sysfsRoot.resolve("class/power_supply/AC/type"), "Mains\n");
+
+    monitor.add(inputDevice, "event3", 0x054c, 0x0ce6);
+
+    assertEquals(BatteryLevel.EMPTY, monitor.get(inputDevice).level());
+  }
+
+  @Test
+  void testBatteryThatAppearsLaterIsResolvedAfterHotPlug() throws IOException {
+    monitor.add(inputDevice, "event3", 0x054c, 0x0ce6);
+    assertNull(monitor.get(inputDevice));
+
+    monitor.refresh();
+    assertTrue(changes.isEmpty());
+
+    // the missing power supply is not looked up again until another device is hot-plugged
+    var powerSupply = createPowerSupply(sysfsRoot.resolve("class/input/event3/device/device/power_supply/battery"), "40", "Discharging");
+    monitor.refresh();
+    assertNull(monitor.get(inputDevice));
+
+    var motionSensors = new InputDevice("/dev/input/event4", "Wireless Controller Motion Sensors", "Wireless Controller", (_, _) -> 0, null);
+    monitor.add(motionSensors, "event4", -1, -1);
+    monitor.refresh();
+    assertEquals(BatteryLevel.LOW, monitor.get(inputDevice).level());
+    monitor.remove(motionSensors);
+
+    // a battery that vanishes is reported as unavailable
+    try (var files = Files.list(powerSupply)) {
+      for (var file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+
+    Files.delete(powerSupply);
+    monitor.refresh();
+    assertNull(monitor.get(inputDevice));
+    assertEquals(List.of("/dev/input/event3 LOW", "/dev/input/event3 null"), changes);
+  }
+
+  @Test
+  void testCapacityLevelIsUsedWithoutCapacity() throws IOException {
+    var powerSupply = sysfsRoot.resolve("battery");
+    Files.createDirectories(powerSupply);
+    Files.writeString(powerSupply.resolve("type"), "Battery\n");
+    Files.writeString(powerSupply.resolve("capacity_level"), "Critical\n");
+
+    assertEquals(BatteryLevel.EMPTY, LinuxBatteryMonitor.readBatteryInfo(powerSupply).level());
+
+    Files.writeString(powerSupply.resolve("capacity_level"), "Unknown\n");
+    assertNull(LinuxBatteryMonitor.readBatteryInfo(powerSupply));
+    assertNull(LinuxBatteryMonitor.readBatteryInfo(null));
+  }
+
+  @Test
+  void testRemovedDeviceIsNotRefreshed() throws IOException {
+    var powerSupply = createPowerSupply(sysfsRoot.resolve("class/input/event3/device/device/power_supply/battery"), "90", "Discharging");
+    monitor.add(inputDevice, "event3", 0x054c, 0x0ce6);
+
+    monitor.remove(inputDevice);
+    Files.writeString(powerSupply.resolve("capacity"), "10\n");
+    monitor.refresh();
+
+    assertNull(monitor.get(inputDevice));
+    assertTrue(changes.isEmpty());
+  }
+
+  private static Path createPowerSupply(Path directory, String capacity, String status) throws IOException {
+    Files.createDirectories(directory);
+    Files.writeString(directory.resolve("type"), "Battery\n");
+    Files.writeString(directory.resolve("capacity"), capacity + "\n");
+    Files.writeString(directory.resolve("status"), status + "\n");
+    return directory;
+  }
+}
@@ -0,0 +1,160 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinuxCapabilityCacheTests {
+  private static final int BTN_SOUTH = 0x130;
+  private static final int ABS_X = 0x00;
+  private static final int ABS_HAT0X = 0x10;
+
+  // EV_SYN, EV_KEY, EV_ABS and EV_FF
+  private static final byte[] EVENT_TYPES = {0x0b, 0x00, 0x20, 0x00};
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testComponentsAreRestoredFromFile() {
+    var file = tempDir.resolve("capabilities.cache");
+    var device = createDevice();
+    var key = LinuxCapabilityCache.Key.of(device);
+
+    var cache = LinuxCapabilityCache.load(file);
+    assertNull(cache.get(key));
+    cache.put(key, EVENT_TYPES, device.componentList);
+    cache.save();
+
+    var loaded = LinuxCapabilityCache.load(file);
+    assertEquals(1, loaded.size());
+    var entry = loaded.get(key);
+    assertNotNull(entry);
+
+    var components = entry.createComponents(key.vendor(), key.product(), key.name());
+    assertEquals(device.componentList.size(), components.size());
+    for (int i = 0; i < components.size(); i++) {
+      var expected = device.componentList.get(i);
+      var actual = components.get(i);
+      assertEquals(expected.linuxComponentType, actual.linuxComponentType);
+      assertEquals(expected.componentType, actual.componentType);
+      assertEquals(expected.nativeType, actual.nativeType);
+      assertEquals(expected.nativeCode, actual.nativeCode);
+      assertEquals(expected.axis, actual.axis);
+      assertEquals(expected.min, actual.min);
+      assertEquals(expected.max, actual.max);
+      assertEquals(expected.flat, actual.flat);
+      assertEquals(expected.fuzz, actual.fuzz);
+      assertEquals(expected.getIdentifier().toString(), actual.getIdentifier().toString());
+    }
+  }
+
+  @Test
+  void testEntryIsValidatedAgainstLiveDevice() {
+    var device = createDevice();
+    var cache = LinuxCapabilityCache.load(tempDir.resolve("capabilities.cache"));
+    cache.put(LinuxCapabilityCache.Key.of(device), EVENT_TYPES, device.componentList);
+    var entry = cache.get(LinuxCapabilityCache.Key.of(device));
+
+    assertTrue(entry.matches(EVENT_TYPES, keyBits(BTN_SOUTH), absBits(ABS_X, ABS_HAT0X)));
+
+    // a firmware that adds an axis or drops force feedback does not match anymore
+    assertFalse(entry.matches(EVENT_TYPES, keyBits(BTN_SOUTH), absBits(ABS_X, ABS_HAT0X, 0x01)));
+    assertFalse(entry.matches(EVENT_TYPES, keyBits(BTN_SOUTH), absBits(ABS_X)));
+    assertFalse(entry.matches(new byte[] {0x0b, 0x00, 0x00, 0x00}, keyBits(BTN_SOUTH), absBits(ABS_X, ABS_HAT0X)));
+  }
+
+  @Test
+  void testEntryWithDifferentKeysDoesNotMatch() {
+    var device = createDevice();
+    var cache = LinuxCapabilityCache.load(tempDir.resolve("capabilities.cache"));
+    cache.put(LinuxCapabilityCache.Key.of(device), EVENT_TYPES, device.componentList);
+    var entry = cache.get(LinuxCapabilityCache.Key.of(device));
+
+    // a firmware that remaps or adds buttons has the same event types and axes
+    assertFalse(entry.matches(EVENT_TYPES, keyBits(BTN_SOUTH + 1), absBits(ABS_X, ABS_HAT0X)));
+    assertFalse(entry.matches(EVENT_TYPES, keyBits(BTN_SOUTH, BTN_SOUTH + 1), absBits(ABS_X, ABS_HAT0X)));
+    assertFalse(entry.matches(EVENT_TYPES, new byte[0], absBits(ABS_X, ABS_HAT0X)));
+
+    // codes from KEY_MAX on are never probed
+    assertTrue(entry.matches(EVENT_TYPES, keyBits(BTN_SOUTH, LinuxEventDevice.KEY_MAX), absBits(ABS_X, ABS_HAT0X)));
+  }
+
+  @Test
+  void testDifferentModelsHaveDifferentKeys() {
+    var device = createDevice();
+    var other = new input_id();
+    other.bustype = device.id.bustype;
+    other.vendor = device.id.vendor;
+    other.product = device.id.product;
+    other.version = (short) (device.id.version + 1);
+
+    assertEquals(LinuxCapabilityCache.Key.of(device), LinuxCapabilityCache.Key.of(createDevice()));
+    assertNotEquals(LinuxCapabilityCache.Key.of(device), LinuxCapabilityCache.Key.of(new LinuxEventDevice(-1, "pipe:other", device.name, other)));
+    assertNull(LinuxCapabilityCache.Key.of(new LinuxEventDevice(-1, "pipe:unknown", "Unknown Device")));
+  }
+
+  @Test
+  void testCorruptFileIsReplaced() throws IOException {
+    var file = tempDir.resolve("capabilities.cache");
+    Files.write(file, new byte[] {0x49, 0x34, 0x4A, 0x43, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x05, 0x00});
+
+    var cache = LinuxCapabilityCache.load(file);
+    assertEquals(0, cache.size());
+
+    var device = createDevice();
+    cache.put(LinuxCapabilityCache.Key.of(device), EVENT_TYPES, device.componentList);
+    cache.save();
+    assertEquals(1, LinuxCapabilityCache.load(file).size());
+  }
+
+  @Test
+  void testUnchangedCacheIsNotWritten() {
+    var file = tempDir.resolve("capabilities.cache");
+    LinuxCapabilityCache.load(file).save();
+
+    assertFalse(Files.exists(file));
+    assertEquals(List.of(), List.of(tempDir.toFile().list()));
+  }
+
+  private static byte[] keyBits(int... codes) {
+    return bits(LinuxEventDevice.KEY_MAX, codes);
+  }
+
+  private static byte[] absBits(int... codes) {
+    return bits(LinuxEventDevice.ABS_MAX, codes);
+  }
+
+  private static byte[] bits(int max, int... codes) {
+    var bits = new byte[max / 8 + 1];
+    for (var code : codes) {
+      bits[code / 8] |= (byte) (1 << (code % 8));
+    }
+
+    return bits;
+  }
+
+  private static LinuxEventDevice createDevice() {
+    var id = new input_id();
+    id.bustype = 0x03;
+    id.vendor = 0x045e;
+    id.product = 0x028e;
+    id.version = 0x0114;
+    var device = new LinuxEventDevice(-1, "pipe:cache", "Microsoft X-Box 360 pad", id);
+    var absInfo = new input_absinfo();
+    absInfo.minimum = -32768;
+    absInfo.maximum = 32767;
+    absInfo.flat = 128;
+    absInfo.fuzz = 16;
+    device.addComponent(new LinuxEventComponent(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0x045e, 0x028e, device.name));
+    device.addComponent(new LinuxEventComponent(LinuxEventDevice.EV_ABS, ABS_X, absInfo, 0x045e, 0x028e, device.name));
+    device.addComponent(new LinuxEventComponent(LinuxEventDevice.EV_ABS, ABS_HAT0X, absInfo, 0x045e, 0x028e, device.name));
+    return device;
+  }
+}
@@ -0,0 +1,334 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.InputDevice;
+import de.gurkenlabs.input4j.InputDevices;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses a temporary directory as a stand-in for {@code /dev/input}, whose nodes are backed by pipes,
+ * so probing and hot-plugging can be tested without any input device.
+ */
+@EnabledOnOs(OS.LINUX)
+public class LinuxDeviceHotplugTests {
+  private static final int BTN_SOUTH = 0x130;
+
+  @TempDir
+  Path deviceDirectory;
+
+  private final List<String> openedNodes = new CopyOnWriteArrayList<>();
+  private final List<String> closedNodes = new CopyOnWriteArrayList<>();
+  private final Set<String> deniedNodes = ConcurrentHashMap.newKeySet();
+  private final Set<String> failingNodes = ConcurrentHashMap.newKeySet();
+  private volatile CyclicBarrier probeBarrier;
+  private volatile String nodeAddedOnProbe;
+  private volatile String nodeAddedOnWatch;
+  private final List<int[]> pipes = new CopyOnWriteArrayList<>();
+  private final List<LinuxEventDevice> devices = new CopyOnWriteArrayList<>();
+  private final AtomicInteger reads = new AtomicInteger();
+  private final BlockingQueue<InputDevice> connected = new LinkedBlockingQueue<>();
+  private final BlockingQueue<InputDevice> disconnected = new LinkedBlockingQueue<>();
+
+  private LinuxEventDevicePlugin plugin;
+
+  @BeforeEach
+  void setUp() {
+    plugin = new LinuxEventDevicePlugin() {
+      @Override
+      LinuxEventDevice openDevice(String filename) {
+        openedNodes.add(Path.of(filename).getFileName().toString());
+        if (deniedNodes.contains(Path.of(filename).getFileName().toString())) {
+          return null;
+        }
+
+        if (failingNodes.contains(Path.of(filename).getFileName().toString())) {
+          throw new IllegalStateException("Probe failed");
+        }
+
+        awaitProbes();
+        addNodeOnProbe();
+
+        var fds = Linux.pipe();
+        assertNotNull(fds);
+        pipes.add(fds);
+        var device = new LinuxEventDevice(fds[0], filename, "Synthetic Device") {
+          @Override
+          public void close() {
+            closedNodes.add(Path.of(filename).getFileName().toString());
+            super.close();
+          }
+
+          @Override
+          int readEvents(MemorySegment buffer) {
+            reads.incrementAndGet();
+            return super.readEvents(buffer);
+          }
+        };
+
+        device.addComponent(new LinuxEventComponent(LinuxEventDevice.EV_KEY, BTN_SOUTH, -1, -1, null));
+        devices.add(device);
+        return device;
+      }
+
+      @Override
+      LinuxDeviceWatcher watchDeviceDirectory(LinuxDeviceWatcher.Listener listener) {
+        var watcher = super.watchDeviceDirectory(listener);
+        addNodeOnWatch();
+        return watcher;
+      }
+    };
+    plugin.setDeviceDirectory(deviceDirectory);
+    plugin.onDeviceConnected(connected::add);
+    plugin.onDeviceDisconnected(disconnected::add);
+  }
+
+  @AfterEach
+  void tearDown() {
+    plugin.close();
+    for (var fds : pipes) {
+      Linux.close(fds[1]);
+    }
+  }
+
+  @Test
+  void testExistingNodesAreOpenedOnInit() throws IOException {
+    createNode("event0");
+    createNode("event1");
+    createNode("mouse0");
+
+    plugin.internalInitDevices(null);
+
+    assertEquals(2, plugin.getAll().size());
+    assertEquals(Set.of("event0", "event1"), Set.copyOf(openedNodes));
+    assertTrue(connected.isEmpty());
+  }
+
+  @Test
+  void testExistingNodesAreProbedInParallel() throws IOException {
+    // every probe waits for all others, so the nodes can only be opened if they are probed at the same time
+    probeBarrier = new CyclicBarrier(4);
+    for (int i = 0; i < 4; i++) {
+      createNode("event" + i);
+    }
+
+    plugin.internalInitDevices(null);
+
+    assertEquals(4, plugin.getAll().size());
+    assertFalse(probeBarrier.isBroken());
+  }
+
+  @Test
+  void testFailedProbeDoesNotPreventOtherDevices() throws IOException {
+    createNode("event0");
+    createNode("event1");
+    failingNodes.add("event0");
+
+    plugin.internalInitDevices(null);
+
+    assertEquals(1, plugin.getAll().size());
+    assertEquals(deviceDirectory.resolve("event1").toString(), plugin.getAll().iterator().next().getID());
+  }
+
+  @Test
+  void testAddedNodeIsConnectedImmediately() throws IOException, InterruptedException {
+    createNode("event0");
+    plugin.internalInitDevices(null);
+
+    createNode("event7");
+    var device = connected.poll(5, TimeUnit.SECONDS);
+
+    assertNotNull(device);
+    assertEquals(deviceDirectory.resolve("event7").toString(), device.getID());
+    assertEquals(2, plugin.getAll().size());
+    assertTrue(plugin.getAll().contains(device));
+
+    // only the added node is probed
+    assertEquals(List.of("event0", "event7"), openedNodes);
+  }
+
+  @Test
+  void testNodeAddedDuringInitIsConnected() throws IOException, InterruptedException {
+    createNode("event0");
+    // the node is added after the device directory was listed, so only the watcher can report it
+    nodeAddedOnProbe = "event5";
+
+    plugin.internalInitDevices(null);
+    var device = connected.poll(5, TimeUnit.SECONDS);
+
+    assertNotNull(device);
+    assertEquals(deviceDirectory.resolve("event5").toString(), device.getID());
+    assertEquals(2, plugin.getAll().size());
+    assertEquals(List.of("event0", "event5"), openedNodes);
+  }
+
+  @Test
+  void testNodeAddedBeforeTheScanIsOpenedOnce() throws IOException, InterruptedException {
+    createNode("event0");
+    // the watcher reports the node, which is also found by the scan
+    nodeAddedOnWatch = "event5";
+
+    plugin.internalInitDevices(null);
+
+    assertEquals(2, plugin.getAll().size());
+    assertEquals(List.of("event0", "event5"), openedNodes);
+
+    // the node is one of the initial devices
+    assertNull(connected.poll(200, TimeUnit.MILLISECONDS));
+    assertEquals(List.of("event0", "event5"), openedNodes);
+  }
+
+  @Test
+  void testRemovedNodeIsDisconnectedImmediately() throws IOException, InterruptedException {
+    createNode("event0");
+    createNode("event1");
+    plugin.internalInitDevices(null);
+    var removedId = deviceDirectory.resolve("event1").toString();
+
+    Files.delete(deviceDirectory.resolve("event1"));
+    var device = disconnected.poll(5, TimeUnit.SECONDS);
+
+    assertNotNull(device);
+    assertEquals(removedId, device.getID());
+    assertEquals(1, plugin.getAll().size());
+    assertFalse(plugin.getAll().contains(device));
+
+    // only the removed node is torn down
+    assertEquals(List.of("event1"), closedNodes);
+  }
+
+  @Test
+  void testNodeIsRetriedWhenItsPermissionsChange() throws IOException, InterruptedException {
+    plugin.internalInitDevices(null);
+
+    // udev creates the node before it grants access to it
+    deniedNodes.add("event3");
+    createNode("event3");
+    assertNull(connected.poll(200, TimeUnit.MILLISECONDS));
+
+    deniedNodes.clear();
+    Files.setLastModifiedTime(deviceDirectory.resolve("event3"), FileTime.fromMillis(System.currentTimeMillis()));
+    var device = connected.poll(5, TimeUnit.SECONDS);
+
+    assertNotNull(device);
+    assertEquals(1, plugin.getAll().size());
+  }
+
+  @Test
+  void testOtherNodesAreIgnored() throws IOException, InterruptedException {
+    plugin.internalInitDevices(null);
+
+    createNode("js0");
+    createNode("event2");
+
+    assertNotNull(connected.poll(5, TimeUnit.SECONDS));
+    assertEquals(List.of("event2"), openedNodes);
+  }
+
+  @Test
+  void testHungUpDeviceIsNotReadAnymore() throws IOException, InterruptedException {
+    createNode("event0");
+    InputDevices.configure().setEventDriven(true);
+    try {
+      plugin.internalInitDevices(null);
+    } finally {
+      InputDevices.configure().setEventDriven(false);
+    }
+
+    assertTrue(plugin.isEventDriven());
+
+    // closing the write end makes the read end report EPOLLHUP, like an unplugged device whose node still exists
+    var fds = pipes.getFirst();
+    Linux.close(fds[1]);
+    fds[1] = Linux.ERROR;
+
+    var device = devices.getFirst();
+    for (int i = 0; i < 500 && !device.hungUp; i++) {
+      Thread.sleep(10);
+    }
+
+    assertTrue(device.hungUp);
+    var readsBeforePoll = reads.get();
+    plugin.getAll().iterator().next().poll();
+    assertEquals(readsBeforePoll, reads.get());
+  }
+
+  @Test
+  void testNoEventsAfterClose() throws IOException, InterruptedException {
+    plugin.internalInitDevices(null);
+    plugin.close();
+
+    createNode("event0");
+
+    assertNull(connected.poll(200, TimeUnit.MILLISECONDS));
+    assertTrue(openedNodes.isEmpty());
+  }
+
+  private void awaitProbes() {
+    var barrier = probeBarrier;
+    if (barrier == null) {
+      return;
+    }
+
+    try {
+      barrier.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+      fail("The nodes were not probed in parallel", e);
+    }
+  }
+
+  private void addNodeOnProbe() {
+    var node = nodeAddedOnProbe;
+    if (node == null) {
+      return;
+    }
+
+    nodeAddedOnProbe = null;
+    try {
+      createNode(node);
+    } catch (IOException e) {
+      fail("The node could not be added", e);
+    }
+  }
+
+  private void addNodeOnWatch() {
+    var node = nodeAddedOnWatch;
+    if (node == null) {
+      return;
+    }
+
+    try {
+      createNode(node);
+      // give the watcher the chance to report the node before the scan
+      Thread.sleep(100);
+    } catch (IOException | InterruptedException e) {
+      fail("The node could not be added", e);
+    }
+  }
+
+  private void createNode(String name) throws IOException {
+    Files.createFile(deviceDirectory.resolve(name));
+  }
+}
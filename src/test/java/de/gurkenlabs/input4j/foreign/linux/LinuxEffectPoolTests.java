@@ -0,0 +1,199 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinuxEffectPoolTests {
+  @Test
+  void testSameEffectIsUploadedOnce() {
+    var pool = new RecordingEffectPool(16);
+
+    var effectId = pool.play(rumble(20000, 10000));
+    assertEquals(List.of("upload -1 20000", "play " + effectId), pool.calls);
+
+    pool.calls.clear();
+    assertEquals(effectId, pool.play(rumble(20000, 10000)));
+    assertTrue(pool.calls.isEmpty());
+    assertTrue(pool.isPlaying());
+  }
+
+  @Test
+  void testPlayingEffectIsUpdatedInPlace() {
+    var pool = new RecordingEffectPool(16);
+    var effectId = pool.play(rumble(20000, 10000));
+    pool.calls.clear();
+
+    // the kernel keeps playing the effect with the new parameters, so it is neither removed nor played again
+    assertEquals(effectId, pool.play(rumble(30000, 10000)));
+    assertEquals(List.of("upload " + effectId + " 30000"), pool.calls);
+    assertEquals(1, pool.size());
+  }
+
+  @Test
+  void testStoppedEffectIsPlayedWithoutUpload() {
+    var pool = new RecordingEffectPool(16);
+    var strong = pool.play(rumble(40000, 0));
+    pool.stop();
+    var weak = pool.play(rumble(0, 20000));
+    assertNotEquals(strong, weak);
+    pool.calls.clear();
+
+    // switching to an uploaded effect only stops the playing one and starts the other
+    assertEquals(strong, pool.play(rumble(40000, 0)));
+    assertEquals(List.of("stop " + weak, "play " + strong), pool.calls);
+    assertEquals(2, pool.size());
+  }
+
+  @Test
+  void testLeastRecentlyUsedSlotIsReusedWhenFull() {
+    var pool = new RecordingEffectPool(2);
+    var first = pool.play(rumble(10000, 0));
+    pool.stop();
+    var second = pool.play(rumble(20000, 0));
+    pool.stop();
+    pool.play(rumble(10000, 0));
+    pool.stop();
+    pool.calls.clear();
+
+    assertEquals(second, pool.play(rumble(30000, 0)));
+    assertEquals(List.of("upload " + second + " 30000", "play " + second), pool.calls);
+    assertEquals(2, pool.size());
+    assertNotEquals(first, second);
+  }
+
+  @Test
+  void testOwnSlotIsReusedWhenDeviceIsOutOfMemory() {
+    var pool = new RecordingEffectPool(16);
+    var effectId = pool.play(rumble(10000, 0));
+    pool.stop();
+    pool.deviceFull = true;
+    pool.calls.clear();
+
+    assertEquals(effectId, pool.play(rumble(20000, 0)));
+    assertEquals(List.of("upload -1 20000", "upload " + effectId + " 20000", "play " + effectId), pool.calls);
+    assertEquals(1, pool.size());
+  }
+
+  @Test
+  void testTriggeredEffectIsRestartedAndReplacedByRumble() {
+    var pool = new RecordingEffectPool(16);
+    var rumble = pool.play(rumble(10000, 0));
+    pool.calls.clear();
+
+    var pulse = pool.trigger(pulse(20000), 3);
+    assertNotEquals(rumble, pulse);
+    assertEquals(List.of("stop " + rumble, "upload -1 20000", "play " + pulse + " x3"), pool.calls);
+    pool.calls.clear();
+
+    // the same pattern is played again from the beginning without uploading it
+    assertEquals(pulse, pool.trigger(pulse(20000), 3));
+    assertEquals(List.of("stop " + pulse, "play " + pulse + " x3"), pool.calls);
+    pool.calls.clear();
+
+    // the triggered effect may be over, so it is not updated in place
+    assertEquals(rumble, pool.play(rumble(10000, 0)));
+    assertEquals(List.of("stop " + pulse, "play " + rumble), pool.calls);
+  }
+
+  @Test
+  void testCloseRemovesAllEffects() {
+    var pool = new RecordingEffectPool(16);
+    var first = pool.play(rumble(10000, 0));
+    var second = pool.play(sine(5000));
+    assertEquals(first, second, "the playing effect is updated even if its type changes");
+    pool.calls.clear();
+
+    pool.close();
+    assertEquals(List.of("stop " + first, "remove " + first), pool.calls);
+    assertEquals(0, pool.size());
+    assertFalse(pool.isPlaying());
+  }
+
+  @Test
+  void testUnpluggedDeviceIsNotCleanedUp() {
+    var pool = new RecordingEffectPool(16);
+    var effectId = pool.play(rumble(10000, 0));
+    pool.unplugged = true;
+    pool.calls.clear();
+
+    pool.close();
+    assertEquals(List.of("stop " + effectId), pool.calls);
+  }
+
+  private static ff_effect rumble(int strongMagnitude, int weakMagnitude) {
+    var effect = new ff_effect();
+    effect.type = Linux.FF_RUMBLE;
+    effect.id = -1;
+    effect.rumble = new ff_rumble_effect();
+    effect.rumble.strong_magnitude = (short) strongMagnitude;
+    effect.rumble.weak_magnitude = (short) weakMagnitude;
+    return effect;
+  }
+
+  private static ff_effect pulse(int strongMagnitude) {
+    var effect = rumble(strongMagnitude, 0);
+    effect.replay = new ff_replay();
+    effect.replay.length = 100;
+    return effect;
+  }
+
+  private static ff_effect sine(int magnitude) {
+    var effect = new ff_effect();
+    effect.type = Linux.FF_PERIODIC;
+    effect.id = -1;
+    effect.periodic = new ff_periodic_effect();
+    effect.periodic.waveform = Linux.FF_SINE;
+    effect.periodic.magnitude = (short) magnitude;
+    effect.periodic.envelope = new ff_envelope();
+    return effect;
+  }
+
+  /**
+   * Records the syscalls of the pool instead of issuing them, and assigns effect ids like the kernel.
+   */
+  private static final class RecordingEffectPool extends LinuxEffectPool {
+    private final List<String> calls = new ArrayList<>();
+    private int nextId;
+    private boolean deviceFull;
+    private boolean unplugged;
+
+    private RecordingEffectPool(int maxEffects) {
+      super(Linux.ERROR, maxEffects);
+    }
+
+    @Override
+    int upload(MemorySegment effectSegment) {
+      int id = (short) ff_effect.VH_id.get(effectSegment, 0L);
+      var effect = ff_effect.read(effectSegment);
+      var magnitude = effect.type == Linux.FF_RUMBLE ? Short.toUnsignedInt(effect.rumble.strong_magnitude) : Short.toUnsignedInt(effect.periodic.magnitude);
+      calls.add("upload " + id + " " + magnitude);
+      if (id == -1) {
+        if (deviceFull) {
+          return Linux.ERROR;
+        }
+
+        id = nextId++;
+        ff_effect.VH_id.set(effectSegment, 0L, (short) id);
+      }
+
+      return id;
+    }
+
+    @Override
+    int remove(int effectId) {
+      calls.add("remove " + effectId);
+      return 0;
+    }
+
+    @Override
+    int write(int effectId, int value) {
+      calls.add(value == 0 ? "stop " + effectId : value == 1 ? "play " + effectId : "play " + effectId + " x" + value);
+      return unplugged ? Linux.ERROR : (int) input_event.$LAYOUT.byteSize();
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package de.gurkenlabs.input4j.foreign.linux;
 
+import de.gurkenlabs.input4j.ComponentType;
 import de.gurkenlabs.input4j.InputComponent;
+import de.gurkenlabs.input4j.InputDevice;
 import de.gurkenlabs.input4j.components.Button;
 import org.junit.jupiter.api.Test;
 
@@ -82,4 +84,42 @@ public class LinuxEventComponentTests {
     assertEquals(Button.BUTTON_0, id);
     assertEquals(999, id.nativeId);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testDynamicIdsAreReleasedWhenDeviceCloses() {
+    // connect and disconnect a device with unmapped components many times, like a kiosk that reconnects controllers all day
+    connectAndDisconnect();
+    int registeredIds = InputComponent.ID.getAll().size();
+
+    InputComponent.ID firstHatId = null;
+    for (int i = 0; i < 100_000; i++) {
+      var hatId = connectAndDisconnect();
+      if (firstHatId == null) {
+        firstHatId = hatId;
+      }
+
+      // the numeric ID is reused, so a reconnected controller keeps its dynamic IDs
+      assertEquals(firstHatId, hatId);
+    }
+
+    assertEquals(registeredIds, InputComponent.ID.getAll().size());
+  }
+
+  private static InputComponent.ID connectAndDisconnect() {
+    var device = new InputDevice("churn", "Churn Device", "Churn Device", (_, _) -> 0, null);
+    var hatX = new LinuxEventComponent(LinuxComponentType.ABS_HAT0X, true, false, LinuxEventDevice.EV_ABS, 0x10);
+    var hatY = new LinuxEventComponent(LinuxComponentType.ABS_HAT0Y, true, false, LinuxEventDevice.EV_ABS, 0x11);
+    var unmapped = new LinuxEventComponent(LinuxEventDevice.EV_KEY, 0x2c0, -1, -1, null);
+
+    var hatXId = hatX.getIdentifier();
+    assertTrue(hatXId.isDynamic());
+    device.addComponent(new InputComponent(device, hatXId));
+    device.addComponent(new InputComponent(device, hatY.getIdentifier()));
+    device.addComponent(new InputComponent(device, unmapped.getIdentifier()));
+    device.addComponent(new InputComponent(device, Button.BUTTON_0));
+
+    device.close();
+    assertNull(InputComponent.ID.get(ComponentType.AXIS, hatXId.id));
+    return hatXId;
+  }
+}
@@ -0,0 +1,65 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinuxEventDeviceTests {
+  @Test
+  void testComponentIndexLookup() {
+    var device = new LinuxEventDevice(Linux.ERROR, "synthetic", "Synthetic Device");
+    var buttonA = new LinuxEventComponent(LinuxEventDevice.EV_KEY, 0x130, -1, -1, null);
+    var buttonB = new LinuxEventComponent(LinuxEventDevice.EV_KEY, 0x131, -1, -1, null);
+    var axisX = new LinuxEventComponent(LinuxComponentType.ABS_X, true, false, LinuxEventDevice.EV_ABS, 0x00, -100, 100, 0, 0);
+
+    assertEquals(0, device.addComponent(buttonA));
+    assertEquals(1, device.addComponent(axisX));
+    assertEquals(2, device.addComponent(buttonB));
+
+    assertEquals(0, device.getComponentIndex(LinuxEventDevice.EV_KEY, 0x130));
+    assertEquals(2, device.getComponentIndex(LinuxEventDevice.EV_KEY, 0x131));
+    assertEquals(1, device.getComponentIndex(LinuxEventDevice.EV_ABS, 0x00));
+
+    // the same code of another event type must not resolve to the component
+    assertEquals(-1, device.getComponentIndex(LinuxEventDevice.EV_ABS, 0x130));
+    assertEquals(-1, device.getComponentIndex(LinuxEventDevice.EV_KEY, 0x00));
+  }
+
+  @Test
+  void testComponentIndexLookupOutOfRange() {
+    var device = new LinuxEventDevice(Linux.ERROR, "synthetic", "Synthetic Device");
+    device.addComponent(new LinuxEventComponent(LinuxEventDevice.EV_KEY, 0x130, -1, -1, null));
+
+    assertEquals(-1, device.getComponentIndex(LinuxEventDevice.EV_KEY, LinuxEventDevice.KEY_MAX + 1));
+    assertEquals(-1, device.getComponentIndex(LinuxEventDevice.EV_KEY, -1));
+    assertEquals(-1, device.getComponentIndex(LinuxEventDevice.EV_MAX + 1, 0));
+    assertEquals(-1, device.getComponentIndex(-1, 0));
+    assertEquals(-1, device.getComponentIndex(LinuxEventDevice.EV_SW, 0));
+  }
+
+  @Test
+  void testFirstComponentWinsForDuplicateCodes() {
+    var device = new LinuxEventDevice(Linux.ERROR, "synthetic", "Synthetic Device");
+    var first = new LinuxEventComponent(LinuxEventDevice.EV_KEY, 0x130, -1, -1, null);
+    var second = new LinuxEventComponent(LinuxEventDevice.EV_KEY, 0x130, -1, -1, null);
+    device.addComponent(first);
+    device.addComponent(second);
+
+    assertEquals(0, device.getComponentIndex(LinuxEventDevice.EV_KEY, 0x130));
+  }
+
+  @Test
+  void testGetNativeComponent() {
+    var device = new LinuxEventDevice(Linux.ERROR, "synthetic", "Synthetic Device");
+    var button = new LinuxEventComponent(LinuxEventDevice.EV_KEY, 0x130, -1, -1, null);
+    device.addComponent(button);
+
+    var event = new input_event();
+    event.type = (short) LinuxEventDevice.EV_KEY;
+    event.code = 0x130;
+    assertSame(button, device.getNativeComponent(event));
+
+    event.code = 0x131;
+    assertNull(device.getNativeComponent(event));
+  }
+}
@@ -0,0 +1,172 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses pipes as stand-ins for evdev nodes, so the reactor can be tested without any input device.
+ */
+@EnabledOnOs(OS.LINUX)
+public class LinuxEventReactorTests {
+  private final List<int[]> pipes = new ArrayList<>();
+  private Arena arena;
+  private LinuxEventReactor reactor;
+
+  @BeforeEach
+  void setUp() {
+    arena = Arena.ofShared();
+    reactor = LinuxEventReactor.start();
+    assertNotNull(reactor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    reactor.close();
+    for (var fds : pipes) {
+      for (var fd : fds) {
+        if (fd != Linux.ERROR) {
+          Linux.close(fd);
+        }
+      }
+    }
+
+    arena.close();
+  }
+
+  @Test
+  void testHandlerRunsWhenDataArrives() throws InterruptedException {
+    var fds = createPipe();
+    var received = new LinkedBlockingQueue<Integer>();
+    assertTrue(reactor.register(fds[0], drainTo(fds[0], received)));
+    assertTrue(reactor.isRegistered(fds[0]));
+
+    writeEvent(fds[1], 42);
+
+    assertEquals(42, received.poll(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testHandlerDoesNotRunWithoutData() throws InterruptedException {
+    var fds = createPipe();
+    var invocations = new AtomicInteger();
+    reactor.register(fds[0], invocations::incrementAndGet);
+
+    Thread.sleep(100);
+
+    assertEquals(0, invocations.get());
+  }
+
+  @Test
+  void testEventsAreDispatchedToTheReadyDescriptor() throws InterruptedException {
+    var first = createPipe();
+    var second = createPipe();
+    var firstReceived = new LinkedBlockingQueue<Integer>();
+    var secondReceived = new LinkedBlockingQueue<Integer>();
+    reactor.register(first[0], drainTo(first[0], firstReceived));
+    reactor.register(second[0], drainTo(second[0], secondReceived));
+
+    writeEvent(second[1], 2);
+    assertEquals(2, secondReceived.poll(5, TimeUnit.SECONDS));
+    assertTrue(firstReceived.isEmpty());
+
+    writeEvent(first[1], 1);
+    assertEquals(1, firstReceived.poll(5, TimeUnit.SECONDS));
+    assertTrue(secondReceived.isEmpty());
+  }
+
+  @Test
+  void testUnregisteredDescriptorIsIgnored() throws InterruptedException {
+    var fds = createPipe();
+    var invocations = new AtomicInteger();
+    reactor.register(fds[0], invocations::incrementAndGet);
+    reactor.unregister(fds[0]);
+    assertFalse(reactor.isRegistered(fds[0]));
+
+    writeEvent(fds[1], 1);
+    Thread.sleep(100);
+
+    assertEquals(0, invocations.get());
+  }
+
+  @Test
+  void testHangUpUnregistersDescriptor() throws InterruptedException {
+    var fds = createPipe();
+    var hungUp = new CountDownLatch(1);
+    reactor.register(fds[0], hungUp::countDown);
+
+    // closing the write end makes the read end report EPOLLHUP
+    Linux.close(fds[1]);
+    fds[1] = Linux.ERROR;
+
+    assertTrue(hungUp.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 50 && reactor.isRegistered(fds[0]); i++) {
+      Thread.sleep(10);
+    }
+
+    assertFalse(reactor.isRegistered(fds[0]));
+  }
+
+  @Test
+  void testHangUpHandlerRunsAfterUnregistration() throws InterruptedException {
+    var fds = createPipe();
+    var registeredOnHangUp = new LinkedBlockingQueue<Boolean>();
+    reactor.register(fds[0], () -> {
+    }, () -> registeredOnHangUp.add(reactor.isRegistered(fds[0])));
+
+    Linux.close(fds[1]);
+    fds[1] = Linux.ERROR;
+
+    assertEquals(Boolean.FALSE, registeredOnHangUp.poll(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testRegisterAfterCloseFails() {
+    var fds = createPipe();
+    reactor.close();
+
+    assertFalse(reactor.register(fds[0], () -> {
+    }));
+  }
+
+  private int[] createPipe() {
+    var fds = Linux.pipe();
+    assertNotNull(fds);
+    pipes.add(fds);
+    return fds;
+  }
+
+  private void writeEvent(int fd, int value) {
+    var event = new input_event();
+    event.type = (short) LinuxEventDevice.EV_KEY;
+    event.value = value;
+    assertEquals(input_event.$LAYOUT.byteSize(), Linux.writeEvent(fd, event));
+  }
+
+  private Runnable drainTo(int fd, BlockingQueue<Integer> received) {
+    var buffer = arena.allocate(MemoryLayout.sequenceLayout(LinuxEventDevice.EVENT_BUFFER_SIZE, input_event.$LAYOUT));
+    var event = new input_event();
+    return () -> {
+      int count;
+      while ((count = Linux.read(fd, buffer)) > 0) {
+        for (int i = 0; i < count; i++) {
+          received.add(input_event.read(buffer, i * input_event.$LAYOUT.byteSize(), event).value);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,100 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EnabledOnOs(OS.LINUX)
+public class LinuxEventReadTests {
+  private static final long EVENT_SIZE = input_event.$LAYOUT.byteSize();
+
+  private Arena arena;
+  private int[] fds;
+
+  @BeforeEach
+  void setUp() {
+    arena = Arena.ofConfined();
+    fds = Linux.pipe();
+    assertNotNull(fds);
+  }
+
+  @AfterEach
+  void tearDown() {
+    Linux.close(fds[0]);
+    Linux.close(fds[1]);
+    arena.close();
+  }
+
+  @Test
+  void testBatchedReadReturnsWholeFrame() {
+    var frame = createFrame(12);
+    assertEquals(12, Linux.writeEvents(fds[1], frame, 12));
+
+    var buffer = allocateEventBuffer(LinuxEventDevice.EVENT_BUFFER_SIZE);
+    assertEquals(12, Linux.read(fds[0], buffer));
+
+    var event = new input_event();
+    for (int i = 0; i < 11; i++) {
+      input_event.read(buffer, i * EVENT_SIZE, event);
+      assertEquals(LinuxEventDevice.EV_ABS, event.type);
+      assertEquals(i, event.code);
+      assertEquals(i * 100, event.value);
+    }
+
+    input_event.read(buffer, 11 * EVENT_SIZE, event);
+    assertEquals(LinuxEventDevice.EV_SYN, event.type);
+
+    assertEquals(0, Linux.read(fds[0], buffer));
+  }
+
+  @Test
+  void testBatchedReadIsLimitedByBufferSize() {
+    var frame = createFrame(12);
+    assertEquals(12, Linux.writeEvents(fds[1], frame, 12));
+
+    var buffer = allocateEventBuffer(8);
+    assertEquals(8, Linux.read(fds[0], buffer));
+    assertEquals(4, Linux.read(fds[0], buffer));
+    assertEquals(0, Linux.read(fds[0], buffer));
+
+    var event = input_event.read(buffer, 0, new input_event());
+    assertEquals(8, event.code);
+  }
+
+  @Test
+  void testBatchedReadOnEmptyQueue() {
+    assertEquals(0, Linux.read(fds[0], allocateEventBuffer(4)));
+  }
+
+  private MemorySegment allocateEventBuffer(int events) {
+    return arena.allocate(MemoryLayout.sequenceLayout(events, input_event.$LAYOUT));
+  }
+
+  /**
+   * Creates a frame like a gamepad would report it: a number of axis events terminated by a SYN_REPORT.
+   */
+  private MemorySegment createFrame(int events) {
+    var frame = allocateEventBuffer(events);
+    var event = new input_event();
+    for (int i = 0; i < events - 1; i++) {
+      event.type = (short) LinuxEventDevice.EV_ABS;
+      event.code = (short) i;
+      event.value = i * 100;
+      event.write(frame.asSlice(i * EVENT_SIZE, EVENT_SIZE));
+    }
+
+    event.type = (short) LinuxEventDevice.EV_SYN;
+    event.code = 0;
+    event.value = 0;
+    event.write(frame.asSlice((events - 1) * EVENT_SIZE, EVENT_SIZE));
+    return frame;
+  }
+}
@@ -0,0 +1,282 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.InputDevice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static de.gurkenlabs.input4j.foreign.linux.PipeEventDevice.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records the events that are fed through a pipe into a synthetic device and replays the recording.
+ */
+@EnabledOnOs(OS.LINUX)
+public class LinuxEventRecordingTests {
+  private static final long START = 1_000_000_000L;
+
+  @TempDir
+  Path tempDir;
+
+  private final byte[] deviceKeyStates = new byte[LinuxEventDevice.KEY_MAX / 8 + 1];
+  private final int[] deviceAbsValues = new int[LinuxEventDevice.ABS_MAX + 1];
+
+  private PipeEventDevice pipe;
+  private LinuxEventDevicePlugin plugin;
+  private ReplayInputDevicePlugin replayPlugin;
+  private InputDevice inputDevice;
+  private Path file;
+
+  @BeforeEach
+  void setUp() {
+    var id = new input_id();
+    id.vendor = 0x045e;
+    id.product = 0x028e;
+    // a pipe does not support the ioctls that query the state of a device
+    pipe = PipeEventDevice.open(fd -> new LinuxEventDevice(fd, "pipe:recording", "Synthetic Device", id) {
+      @Override
+      byte[] queryKeyStates() {
+        return deviceKeyStates.clone();
+      }
+
+      @Override
+      input_absinfo queryAbsInfo(int code) {
+        var absInfo = new input_absinfo();
+        absInfo.value = deviceAbsValues[code];
+        return absInfo;
+      }
+    }, button(BTN_SOUTH), axis(LinuxComponentType.ABS_X, ABS_X, 4, 2));
+    plugin = pipe.getPlugin();
+    inputDevice = pipe.getInputDevice();
+    file = tempDir.resolve("session.evrec");
+  }
+
+  @AfterEach
+  void tearDown() {
+    pipe.close();
+    if (replayPlugin != null) {
+      replayPlugin.close();
+    }
+  }
+
+  @Test
+  void testRecordingIsReplayedWithDeviceCapabilities() throws IOException {
+    record(() -> {
+      pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1, START);
+      pipe.write(LinuxEventDevice.EV_ABS, ABS_X, 100, START);
+      pipe.syn(START);
+    });
+
+    replayPlugin = replay(ReplayInputDevicePlugin.Mode.AS_FAST_AS_POSSIBLE);
+    assertEquals(1, replayPlugin.getAll().size());
+
+    var replayed = replayPlugin.getAll().iterator().next();
+    assertEquals("Synthetic Device", replayed.getName());
+    assertEquals(0x045e, replayed.getVendorId());
+    assertEquals(0x028e, replayed.getProductId());
+    assertEquals(inputDevice.getComponents().size(), replayed.getComponents().size());
+    for (int i = 0; i < inputDevice.getComponents().size(); i++) {
+      assertEquals(inputDevice.getComponents().get(i).getId(), replayed.getComponents().get(i).getId());
+    }
+
+    replayed.poll();
+    assertEquals(inputDevice.getComponents().get(0).getData(), replayed.getComponents().get(0).getData());
+    assertEquals(inputDevice.getComponents().get(1).getData(), replayed.getComponents().get(1).getData());
+    assertEquals(1, replayed.getComponents().get(0).getData());
+    assertEquals(1, replayed.getComponents().get(1).getData());
+    assertTrue(replayPlugin.isFinished());
+  }
+
+  @Test
+  void testReplayStartsInTheRecordedState() throws IOException {
+    // the button is held and the stick is pushed when the recording starts
+    deviceKeyStates[BTN_SOUTH / 8] |= (byte) (1 << (BTN_SOUTH % 8));
+    deviceAbsValues[ABS_X] = 100;
+    record(() -> pipe.syn(START));
+
+    replayPlugin = replay(ReplayInputDevicePlugin.Mode.AS_FAST_AS_POSSIBLE);
+    var replayed = replayPlugin.getAll().iterator().next();
+    replayed.poll();
+
+    assertEquals(1, replayed.getComponents().get(0).getData());
+    assertEquals(1, replayed.getComponents().get(1).getData());
+  }
+
+  @Test
+  void testDroppedEventsAreResynchronizedWithTheRecordedState() throws IOException {
+    record(() -> {
+      pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1, START);
+      pipe.syn(START);
+
+      // the button is released and the stick moved while the kernel buffer overflowed
+      deviceAbsValues[ABS_X] = -100;
+      pipe.write(LinuxEventDevice.EV_SYN, LinuxEventDevice.SYN_DROPPED, 0, START + 1_000_000L);
+      pipe.write(LinuxEventDevice.EV_ABS, ABS_X, 50, START + 1_000_000L);
+      pipe.syn(START + 1_000_000L);
+    });
+
+    assertEquals(0, inputDevice.getComponents().get(0).getData());
+    assertEquals(-1, inputDevice.getComponents().get(1).getData());
+
+    // the replay must not depend on the current state of the device
+    deviceAbsValues[ABS_X] = 100;
+    replayPlugin = replay(ReplayInputDevicePlugin.Mode.AS_FAST_AS_POSSIBLE);
+    var replayed = replayPlugin.getAll().iterator().next();
+    var button = replayed.getComponents().get(0);
+    var axis = replayed.getComponents().get(1);
+
+    replayed.poll();
+    assertEquals(1, button.getData());
+    assertEquals(0, axis.getData());
+
+    replayed.poll();
+    assertEquals(0, button.getData());
+    assertEquals(-1, axis.getData());
+    assertTrue(replayPlugin.isFinished());
+  }
+
+  @Test
+  void testFastReplayReadsOneReportPerPoll() throws IOException {
+    record(() -> {
+      for (int i = 0; i < 3; i++) {
+        pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1, START + i * 10_000_000L);
+        pipe.syn(START + i * 10_000_000L);
+        pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0, START + i * 10_000_000L + 5_000_000L);
+        pipe.syn(START + i * 10_000_000L + 5_000_000L);
+      }
+    });
+
+    replayPlugin = replay(ReplayInputDevicePlugin.Mode.AS_FAST_AS_POSSIBLE);
+    var replayed = replayPlugin.getAll().iterator().next();
+    var button = replayed.getComponents().getFirst();
+    var states = new ArrayList<Float>();
+    while (!replayPlugin.isFinished()) {
+      replayed.poll();
+      states.add(button.getData());
+    }
+
+    assertEquals(List.of(1f, 0f, 1f, 0f, 1f, 0f), states);
+  }
+
+  @Test
+  void testRealTimeReplayKeepsRecordedPace() throws IOException {
+    record(() -> {
+      pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1, START);
+      pipe.syn(START);
+      pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0, START + 200_000_000L);
+      pipe.syn(START + 200_000_000L);
+    });
+
+    var timestamps = new ArrayList<Long>();
+    var before = System.nanoTime();
+    replayPlugin = replay(ReplayInputDevicePlugin.Mode.REAL_TIME);
+    var replayed = replayPlugin.getAll().iterator().next();
+    replayed.onInputValueChanged(event -> timestamps.add(event.timestamp()));
+    var button = replayed.getComponents().getFirst();
+
+    replayed.poll();
+    assertEquals(1, button.getData());
+    assertFalse(replayPlugin.isFinished());
+
+    waitUntil(() -> {
+      replayed.poll();
+      return button.getData() == 0;
+    });
+
+    assertTrue(replayPlugin.isFinished());
+    assertTrue(System.nanoTime() - before >= 200_000_000L);
+
+    // the events are stamped with the time of the replay, keeping their recorded distance
+    assertEquals(2, timestamps.size());
+    assertTrue(timestamps.getFirst() - before >= -1_000);
+    assertEquals(200_000_000L, timestamps.get(1) - timestamps.getFirst(), 1_000);
+  }
+
+  @Test
+  void testRecordingIsCompact() throws IOException {
+    var eventCount = 1000;
+    record(() -> {
+      for (int i = 0; i < eventCount / 2; i++) {
+        pipe.write(LinuxEventDevice.EV_ABS, ABS_X, i % 200 - 100, START + i * 1_000_000L);
+        pipe.syn(START + i * 1_000_000L);
+      }
+    });
+
+    assertTrue(Files.size(file) < eventCount * 8L, "recording size: " + Files.size(file));
+    assertTrue(Files.size(file) < eventCount * input_event.$LAYOUT.byteSize() / 3);
+  }
+
+  @Test
+  void testTruncatedRecordingIsReplayedUpToTheLastCompleteEvent() throws IOException {
+    record(() -> {
+      pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1, START);
+      pipe.syn(START);
+      pipe.write(LinuxEventDevice.EV_ABS, ABS_X, 100, START + 1_000_000L);
+      pipe.syn(START + 1_000_000L);
+    });
+
+    var bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+    replayPlugin = replay(ReplayInputDevicePlugin.Mode.AS_FAST_AS_POSSIBLE);
+    var replayed = replayPlugin.getAll().iterator().next();
+    replayed.poll();
+    replayed.poll();
+
+    // the last SYN_REPORT is incomplete, so the axis event is never applied
+    assertEquals(1, replayed.getComponents().get(0).getData());
+    assertEquals(0, replayed.getComponents().get(1).getData());
+    assertTrue(replayPlugin.isFinished());
+  }
+
+  @Test
+  void testInvalidRecordingHasNoDevices() throws IOException {
+    Files.writeString(file, "not a recording");
+
+    replayPlugin = replay(ReplayInputDevicePlugin.Mode.REAL_TIME);
+    assertTrue(replayPlugin.getAll().isEmpty());
+  }
+
+  @Test
+  void testOnlyOneRecordingAtATime() throws IOException {
+    try (var recorder = plugin.startRecording(file)) {
+      assertSame(recorder, plugin.getRecorder());
+      assertThrows(IllegalStateException.class, () -> plugin.startRecording(tempDir.resolve("other.evrec")));
+    }
+
+    assertNull(plugin.getRecorder());
+  }
+
+  private void record(Runnable events) throws IOException {
+    try (var recorder = plugin.startRecording(file)) {
+      events.run();
+      inputDevice.poll();
+      assertTrue(recorder.getEventCount() > 0);
+    }
+  }
+
+  private ReplayInputDevicePlugin replay(ReplayInputDevicePlugin.Mode mode) {
+    var replay = new ReplayInputDevicePlugin(file, mode);
+    replay.internalInitDevices(null);
+    return replay;
+  }
+
+  private static void waitUntil(BooleanSupplier condition) {
+    var deadline = System.nanoTime() + 5_000_000_000L;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out");
+      Thread.onSpinWait();
+    }
+  }
+}
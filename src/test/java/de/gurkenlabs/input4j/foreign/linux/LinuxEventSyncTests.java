@@ -0,0 +1,154 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.InputComponent;
+import de.gurkenlabs.input4j.InputDevice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.gurkenlabs.input4j.foreign.linux.PipeEventDevice.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Feeds recorded event streams through a pipe into a synthetic device to verify that kernel reports are applied
+ * as a whole and that the state is resynchronized after the kernel dropped events.
+ * <p>
+ * The state that the device reports after a {@code SYN_DROPPED} is simulated, since a pipe does not support the ioctls.
+ * </p>
+ */
+@EnabledOnOs(OS.LINUX)
+public class LinuxEventSyncTests {
+  private static final int[] SYN_REPORT = {LinuxEventDevice.EV_SYN, LinuxEventDevice.SYN_REPORT, 0};
+  private static final int[] SYN_DROPPED = {LinuxEventDevice.EV_SYN, LinuxEventDevice.SYN_DROPPED, 0};
+
+  private final byte[] deviceKeyStates = new byte[LinuxEventDevice.KEY_MAX / 8 + 1];
+  private final int[] deviceAbsValues = new int[LinuxEventDevice.ABS_MAX + 1];
+  private final AtomicInteger stateQueries = new AtomicInteger();
+
+  private PipeEventDevice pipe;
+  private InputDevice inputDevice;
+  private InputComponent button;
+  private InputComponent axisX;
+  private InputComponent axisY;
+
+  @BeforeEach
+  void setUp() {
+    pipe = PipeEventDevice.open(fd -> new LinuxEventDevice(fd, "pipe:sync", "Synthetic Device") {
+      @Override
+      byte[] queryKeyStates() {
+        stateQueries.incrementAndGet();
+        return deviceKeyStates.clone();
+      }
+
+      @Override
+      input_absinfo queryAbsInfo(int code) {
+        stateQueries.incrementAndGet();
+        var absInfo = new input_absinfo();
+        absInfo.value = deviceAbsValues[code];
+        absInfo.minimum = -100;
+        absInfo.maximum = 100;
+        return absInfo;
+      }
+    }, button(BTN_SOUTH), axis(LinuxComponentType.ABS_X, ABS_X, 0, 0), axis(LinuxComponentType.ABS_Y, ABS_Y, 0, 0));
+
+    inputDevice = pipe.getInputDevice();
+    button = inputDevice.getComponents().get(0);
+    axisX = inputDevice.getComponents().get(1);
+    axisY = inputDevice.getComponents().get(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pipe.close();
+  }
+
+  @Test
+  void testIncompleteReportIsNotApplied() {
+    pipe.write(abs(ABS_X, 100));
+    inputDevice.poll();
+
+    assertEquals(0, axisX.getData());
+
+    pipe.write(abs(ABS_Y, -100), SYN_REPORT);
+    inputDevice.poll();
+
+    assertEquals(1, axisX.getData());
+    assertEquals(-1, axisY.getData());
+  }
+
+  @Test
+  void testReportLargerThanEventBufferIsAppliedAsWhole() {
+    var events = new int[LinuxEventDevice.EVENT_BUFFER_SIZE + 10][];
+    for (int i = 0; i < events.length - 2; i++) {
+      events[i] = abs(ABS_X, i % 2 == 0 ? 100 : -100);
+    }
+
+    events[events.length - 2] = abs(ABS_Y, 100);
+    events[events.length - 1] = SYN_REPORT;
+    pipe.write(events);
+    inputDevice.poll();
+
+    assertEquals(-1, axisX.getData());
+    assertEquals(1, axisY.getData());
+  }
+
+  @Test
+  void testEventsOfDroppedReportAreDiscardedAndStateIsResynchronized() {
+    // the button is released and the stick moved while the application stalled and the kernel buffer overflowed
+    deviceAbsValues[ABS_X] = -100;
+    deviceAbsValues[ABS_Y] = 0;
+    pipe.write(
+      key(BTN_SOUTH, 1), SYN_REPORT,
+      abs(ABS_X, 100),
+      SYN_DROPPED,
+      abs(ABS_Y, 100), key(BTN_SOUTH, 1),
+      SYN_REPORT);
+    inputDevice.poll();
+
+    assertTrue(stateQueries.get() > 0);
+    assertEquals(0, button.getData());
+    assertEquals(-1, axisX.getData());
+    assertEquals(0, axisY.getData());
+
+    // the missed release is still reported as an edge
+    assertEquals(1, button.getPressCountSinceLastPoll());
+    assertEquals(1, inputDevice.getReleaseCountSinceLastPoll(button.getId()));
+  }
+
+  @Test
+  void testEventsAfterResyncAreApplied() {
+    deviceKeyStates[BTN_SOUTH / 8] |= (byte) (1 << (BTN_SOUTH % 8));
+    pipe.write(SYN_DROPPED, SYN_REPORT);
+    inputDevice.poll();
+
+    assertEquals(1, button.getData());
+
+    pipe.write(key(BTN_SOUTH, 0), abs(ABS_X, 100), SYN_REPORT);
+    inputDevice.poll();
+
+    assertEquals(0, button.getData());
+    assertEquals(1, axisX.getData());
+  }
+
+  @Test
+  void testDropIsResolvedAcrossPolls() {
+    pipe.write(abs(ABS_X, 100), SYN_REPORT, SYN_DROPPED, abs(ABS_X, -100));
+    inputDevice.poll();
+
+    // still waiting for the end of the invalid report
+    assertEquals(1, axisX.getData());
+    assertEquals(0, stateQueries.get());
+
+    deviceAbsValues[ABS_X] = 100;
+    deviceAbsValues[ABS_Y] = 100;
+    pipe.write(SYN_REPORT);
+    inputDevice.poll();
+
+    assertEquals(1, axisX.getData());
+    assertEquals(1, axisY.getData());
+  }
+}
@@ -0,0 +1,176 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.InputComponent;
+import de.gurkenlabs.input4j.InputDevice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.gurkenlabs.input4j.foreign.linux.PipeEventDevice.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Feeds events through a pipe into a synthetic device to verify that edges between two polls are not lost.
+ */
+@EnabledOnOs(OS.LINUX)
+public class LinuxEventTransientTests {
+  private PipeEventDevice pipe;
+  private InputDevice inputDevice;
+  private InputComponent button;
+  private InputComponent axis;
+
+  @BeforeEach
+  void setUp() {
+    pipe = PipeEventDevice.open("pipe:transients", button(BTN_SOUTH), axis(LinuxComponentType.ABS_X, ABS_X, 0, 0));
+    inputDevice = pipe.getInputDevice();
+    button = inputDevice.getComponents().get(0);
+    axis = inputDevice.getComponents().get(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pipe.close();
+  }
+
+  @Test
+  void testTapBetweenPollsIsReported() {
+    var edges = recordButtonEdges();
+
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1);
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0);
+    pipe.syn();
+    inputDevice.poll();
+
+    assertEquals(List.of("pressed", "released"), edges);
+    assertEquals(0, button.getData());
+    assertEquals(1, button.getPressCountSinceLastPoll());
+    assertEquals(1, inputDevice.getReleaseCountSinceLastPoll(button.getId()));
+
+    inputDevice.poll();
+    assertEquals(0, button.getPressCountSinceLastPoll());
+    assertEquals(2, edges.size());
+  }
+
+  @Test
+  void testMultipleTapsBetweenPollsAreReported() {
+    var edges = recordButtonEdges();
+
+    for (int i = 0; i < 3; i++) {
+      pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1);
+      pipe.syn();
+      pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0);
+      pipe.syn();
+    }
+
+    inputDevice.poll();
+
+    assertEquals(List.of("pressed", "released", "pressed", "released", "pressed", "released"), edges);
+    assertEquals(3, button.getPressCountSinceLastPoll());
+  }
+
+  @Test
+  void testEdgesEndInPolledState() {
+    var edges = recordButtonEdges();
+
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1);
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0);
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1);
+    pipe.syn();
+    inputDevice.poll();
+
+    assertEquals(List.of("pressed", "released", "pressed"), edges);
+    assertEquals(1, button.getData());
+    assertEquals(2, button.getPressCountSinceLastPoll());
+
+    edges.clear();
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0);
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1);
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 0);
+    pipe.syn();
+    inputDevice.poll();
+
+    assertEquals(List.of("released", "pressed", "released"), edges);
+    assertEquals(0, button.getData());
+    assertEquals(1, button.getPressCountSinceLastPoll());
+    assertEquals(2, inputDevice.getReleaseCountSinceLastPoll(button.getId()));
+  }
+
+  @Test
+  void testAutoRepeatIsNotCountedAsPress() {
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1);
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 2);
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 2);
+    pipe.syn();
+    inputDevice.poll();
+
+    assertEquals(1, button.getPressCountSinceLastPoll());
+  }
+
+  @Test
+  void testAxisRangeBetweenPollsIsReported() {
+    pipe.write(LinuxEventDevice.EV_ABS, ABS_X, 100);
+    pipe.syn();
+    pipe.write(LinuxEventDevice.EV_ABS, ABS_X, -100);
+    pipe.syn();
+    pipe.write(LinuxEventDevice.EV_ABS, ABS_X, 50);
+    pipe.syn();
+    inputDevice.poll();
+
+    assertEquals(0.5f, axis.getData());
+    assertEquals(-1, inputDevice.getMinSinceLastPoll(axis.getId()));
+    assertEquals(1, inputDevice.getMaxSinceLastPoll(axis.getId()));
+
+    inputDevice.poll();
+    assertEquals(0.5f, inputDevice.getMinSinceLastPoll(axis.getId()));
+    assertEquals(0.5f, inputDevice.getMaxSinceLastPoll(axis.getId()));
+  }
+
+  @Test
+  void testKernelTimestampsArePropagated() {
+    // the kernel stamps the events with CLOCK_MONOTONIC, which is the time base of System.nanoTime() on Linux
+    pipe.getDevice().monotonicTimestamps = true;
+    var timestamps = new ArrayList<Long>();
+    inputDevice.onInputValueChanged(event -> timestamps.add(event.timestamp()));
+
+    long pressTime = (System.nanoTime() - 5_000_000) / 1_000 * 1_000;
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1, pressTime);
+    pipe.syn(pressTime);
+    long moveTime = pressTime + 1_000_000;
+    pipe.write(LinuxEventDevice.EV_ABS, ABS_X, 100, moveTime);
+    pipe.syn(moveTime);
+    inputDevice.poll();
+
+    assertEquals(List.of(pressTime, moveTime), timestamps);
+    var latency = inputDevice.getLatency();
+    assertEquals(2, latency.samples());
+    assertTrue(latency.maxNanos() >= 5_000_000);
+    assertTrue(latency.minNanos() >= 4_000_000);
+  }
+
+  @Test
+  void testTimestampsOfOtherClocksAreIgnored() {
+    var timestamps = new ArrayList<Long>();
+    inputDevice.onInputValueChanged(event -> timestamps.add(event.timestamp()));
+
+    pipe.write(LinuxEventDevice.EV_KEY, BTN_SOUTH, 1, 1_000_000_000L);
+    pipe.syn(1_000_000_000L);
+    long before = System.nanoTime();
+    inputDevice.poll();
+
+    assertEquals(1, timestamps.size());
+    assertTrue(timestamps.getFirst() - before >= 0);
+    assertEquals(0, inputDevice.getLatency().samples());
+  }
+
+  private List<String> recordButtonEdges() {
+    var edges = new ArrayList<String>();
+    inputDevice.onButtonPressed(button.getId(), () -> edges.add("pressed"));
+    inputDevice.onButtonReleased(button.getId(), () -> edges.add("released"));
+    return edges;
+  }
+}
@@ -0,0 +1,71 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.HapticPattern;
+import de.gurkenlabs.input4j.HapticPattern.Keyframe;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinuxHapticEffectsTests {
+  @Test
+  void testConstantPatternIsRumbleEffectWithLength() {
+    var effect = LinuxHapticEffects.create(HapticPattern.constant(1, 0.5f, 300), true, true);
+
+    assertEquals(Linux.FF_RUMBLE, effect.type);
+    assertEquals(300, effect.replay.length);
+    assertEquals(0, effect.replay.delay);
+    assertEquals(0xffff, Short.toUnsignedInt(effect.rumble.strong_magnitude));
+    assertEquals(0x8000, Short.toUnsignedInt(effect.rumble.weak_magnitude));
+  }
+
+  @Test
+  void testSilentBeginningIsDelay() {
+    var pulse = HapticPattern.of(new Keyframe(0, 0, 0), new Keyframe(200, 0, 0), new Keyframe(200, 1, 1), new Keyframe(300, 1, 1)).loop(5);
+
+    var effect = LinuxHapticEffects.create(pulse, true, true);
+
+    assertEquals(Linux.FF_RUMBLE, effect.type);
+    assertEquals(100, effect.replay.length);
+    assertEquals(200, effect.replay.delay);
+    assertEquals(5, LinuxHapticEffects.getPlayCount(pulse));
+    assertEquals(Integer.MAX_VALUE, LinuxHapticEffects.getPlayCount(pulse.loop(HapticPattern.LOOP_FOREVER)));
+  }
+
+  @Test
+  void testEnvelopeIsPeriodicEffectWithEnvelope() {
+    var effect = LinuxHapticEffects.create(HapticPattern.envelope(1, 100, 200, 50), true, true);
+
+    assertEquals(Linux.FF_PERIODIC, effect.type);
+    assertEquals(Linux.FF_SINE, effect.periodic.waveform);
+    assertEquals(350, effect.replay.length);
+    assertEquals(0x7fff, effect.periodic.magnitude);
+    assertEquals(100, effect.periodic.envelope.attack_length);
+    assertEquals(0, effect.periodic.envelope.attack_level);
+    assertEquals(50, effect.periodic.envelope.fade_length);
+    assertEquals(0, effect.periodic.envelope.fade_level);
+  }
+
+  @Test
+  void testRampIsAttack() {
+    var ramp = HapticPattern.of(new Keyframe(0, 0.5f, 0.5f), new Keyframe(1000, 1, 1));
+
+    var effect = LinuxHapticEffects.create(ramp, true, true);
+
+    assertEquals(1000, effect.periodic.envelope.attack_length);
+    assertEquals(0x7fff / 2, effect.periodic.envelope.attack_level, 1);
+    assertEquals(0, effect.periodic.envelope.fade_length);
+  }
+
+  @Test
+  void testPatternsThatNeedTicksAreNotMapped() {
+    var heartbeat = HapticPattern.of(
+        new Keyframe(0, 1, 1), new Keyframe(100, 1, 1), new Keyframe(100, 0, 0),
+        new Keyframe(200, 0, 0), new Keyframe(200, 0.6f, 0.6f), new Keyframe(300, 0.6f, 0.6f), new Keyframe(300, 0, 0), new Keyframe(800, 0, 0));
+    var unbalancedRamp = HapticPattern.of(new Keyframe(0, 0, 0), new Keyframe(100, 1, 0.5f));
+
+    assertNull(LinuxHapticEffects.create(heartbeat, true, true));
+    assertNull(LinuxHapticEffects.create(unbalancedRamp, true, true));
+    assertNull(LinuxHapticEffects.create(HapticPattern.envelope(1, 100, 100, 100), true, false));
+    assertNull(LinuxHapticEffects.create(HapticPattern.constant(1, 1, 70000), true, true));
+  }
+}
@@ -0,0 +1,143 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.AllocationAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Soak tests that make sure the syscall hot paths don't leak native memory.
+ * A pipe is used as a synthetic event source so no real input device is required.
+ */
+@EnabledOnOs(OS.LINUX)
+public class LinuxNativeMemoryTests {
+  private static final int WARMUP_ITERATIONS = 20_000;
+  private static final int ITERATIONS = 200_000;
+  private static final long MAX_NATIVE_GROWTH = 2 * 1024 * 1024;
+
+  @Test
+  void testPipeRoundTrip() {
+    var fds = Linux.pipe();
+    assertNotNull(fds);
+
+    try {
+      var event = new input_event();
+      event.type = (short) LinuxEventDevice.EV_ABS;
+      event.code = 3;
+      event.value = -42;
+
+      assertEquals(input_event.$LAYOUT.byteSize(), Linux.writeEvent(fds[1], event));
+
+      var read = Linux.read(fds[0]);
+      assertNotNull(read);
+      assertEquals(event.type, read.type);
+      assertEquals(event.code, read.code);
+      assertEquals(event.value, read.value);
+
+      // the pipe is non-blocking, so an empty pipe must not block the caller
+      assertNull(Linux.read(fds[0]));
+    } finally {
+      Linux.close(fds[0]);
+      Linux.close(fds[1]);
+    }
+  }
+
+  @Test
+  void testReadAndWriteDoNotGrowNativeMemory() throws Throwable {
+    var mallinfo2 = findMallinfo2();
+    assumeTrue(mallinfo2 != null, "mallinfo2 is only available with glibc");
+
+    var fds = Linux.pipe();
+    assertNotNull(fds);
+
+    try (var arena = Arena.ofConfined()) {
+      var event = new input_event();
+      event.type = (short) LinuxEventDevice.EV_KEY;
+      event.code = 0x130;
+
+      roundTrip(fds, event, WARMUP_ITERATIONS);
+      long before = allocatedNativeBytes(mallinfo2, arena);
+      roundTrip(fds, event, ITERATIONS);
+      long after = allocatedNativeBytes(mallinfo2, arena);
+
+      assertTrue(after - before < MAX_NATIVE_GROWTH, "Native memory grew by " + (after - before) + " bytes");
+    } finally {
+      Linux.close(fds[0]);
+      Linux.close(fds[1]);
+    }
+  }
+
+  @Test
+  void testBatchedReadAndWriteDoNotAllocate() {
+    var fds = Linux.pipe();
+    assertNotNull(fds);
+
+    try (var arena = Arena.ofConfined()) {
+      var buffer = arena.allocate(MemoryLayout.sequenceLayout(4, input_event.$LAYOUT));
+      AllocationAssertions.assertDoesNotAllocate("Writing and reading events", i -> {
+        buffer.set(JAVA_INT, input_event.$LAYOUT.byteSize() - Integer.BYTES, i);
+        if (Linux.writeEvents(fds[1], buffer, 4) != 4 || Linux.read(fds[0], buffer) != 4 || Linux.read(fds[0], buffer) != 0) {
+          throw new AssertionError("The events were not transferred");
+        }
+      });
+    } finally {
+      Linux.close(fds[0]);
+      Linux.close(fds[1]);
+    }
+  }
+
+  @Test
+  void testEventBufferIsFreedWithTheDevice() {
+    var buffers = new ArrayList<MemorySegment>();
+    // every reconnect of a device gets a new buffer, which must not outlive the device
+    for (int i = 0; i < 3; i++) {
+      try (var pipe = PipeEventDevice.open("pipe:reconnect", PipeEventDevice.button(PipeEventDevice.BTN_SOUTH))) {
+        pipe.getInputDevice().poll();
+        synchronized (pipe.getDevice()) {
+          buffers.add(pipe.getDevice().getEventBuffer());
+        }
+      }
+    }
+
+    for (var buffer : buffers) {
+      assertFalse(buffer.scope().isAlive());
+    }
+  }
+
+  private static void roundTrip(int[] fds, input_event event, int iterations) {
+    for (int i = 0; i < iterations; i++) {
+      event.value = i & 1;
+      assertEquals(input_event.$LAYOUT.byteSize(), Linux.writeEvent(fds[1], event));
+      assertNotNull(Linux.read(fds[0]));
+    }
+  }
+
+  private static MethodHandle findMallinfo2() {
+    var linker = Linker.nativeLinker();
+    // struct mallinfo2 consists of ten size_t fields
+    var mallinfo2Layout = MemoryLayout.sequenceLayout(10, JAVA_LONG);
+    return linker.defaultLookup().find("mallinfo2")
+        .map(address -> linker.downcallHandle(address, FunctionDescriptor.of(MemoryLayout.structLayout(mallinfo2Layout))))
+        .orElse(null);
+  }
+
+  private static long allocatedNativeBytes(MethodHandle mallinfo2, Arena arena) throws Throwable {
+    var info = (MemorySegment) mallinfo2.invokeExact((SegmentAllocator) arena);
+    // uordblks: the total number of bytes in allocated chunks
+    return info.getAtIndex(JAVA_LONG, 7);
+  }
+}
@@ -0,0 +1,153 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads the sysfs entries of a fixture tree that mirrors {@code /sys/class/input} of a 64-bit system.
+ */
+class LinuxSysfsInputDeviceTests {
+  // BTN_SOUTH to BTN_THUMBR and BTN_TRIGGER_HAPPY1 to BTN_TRIGGER_HAPPY4
+  private static final String GAMEPAD_KEYS = "f 0 0 0 0 7fdb000000000000 0 0 0 0";
+  // KEY_ESC to KEY_KPDOT and a few more keys of a regular keyboard
+  private static final String KEYBOARD_KEYS = "1000000000007 ff9f207ac14057ff febeffdfffefffff fffffffffffffffe";
+
+  @TempDir
+  Path sysfsRoot;
+
+  @Test
+  void testGamepadIsAccepted() throws IOException {
+    createEntry("event3", "Xbox Wireless Controller", "0005", "045e", "0b13", "0517", "20001b", GAMEPAD_KEYS, "3003f", "107030000 0");
+
+    var device = LinuxSysfsInputDevice.read(sysfsRoot, "event3");
+
+    assertNotNull(device);
+    assertEquals("Xbox Wireless Controller", device.name());
+    assertEquals(0x05, device.bustype());
+    assertEquals(0x045e, device.vendor());
+    assertEquals(0x0b13, device.product());
+    assertEquals(0x0517, device.version());
+    assertTrue(device.keys().get(LinuxEventCode.BTN_SOUTH));
+    assertTrue(device.keys().get(LinuxEventCode.BTN_THUMBR));
+    assertTrue(device.absoluteAxes().get(LinuxEventCode.ABS_HAT0X));
+    assertTrue(device.isGameInputDevice());
+    assertTrue(device.supportsForceFeedback());
+  }
+
+  @Test
+  void testKeyboardIsRejected() throws IOException {
+    createEntry("event0", "AT Translated Set 2 keyboard", "0011", "0001", "0001", "ab41", "120013", KEYBOARD_KEYS, "0", "0");
+
+    var device = LinuxSysfsInputDevice.read(sysfsRoot, "event0");
+
+    assertNotNull(device);
+    assertFalse(device.keys().isEmpty());
+    assertFalse(device.isGameInputDevice());
+    assertFalse(device.supportsForceFeedback());
+  }
+
+  @Test
+  void testIgnoredDeviceIsRejectedByName() throws IOException {
+    // reports a button, but is ignored like after probing it
+    createEntry("event1", "Power Button", "0019", "0000", "0001", "0000", "3", "10000000000000 0", "0", "0");
+    createEntry("event2", "HDA Intel PCH HDMI/DP,pcm=3", "0000", "0000", "0000", "0000", "21", "0", "0", "0");
+
+    assertFalse(LinuxSysfsInputDevice.read(sysfsRoot, "event1").isGameInputDevice());
+    assertFalse(LinuxSysfsInputDevice.read(sysfsRoot, "event2").isGameInputDevice());
+  }
+
+  @Test
+  void testJoystickWithAxesOnlyIsAccepted() throws IOException {
+    createEntry("event4", "Thrustmaster Throttle", "0003", "044f", "0404", "0111", "9", "0", "3", "0");
+
+    var device = LinuxSysfsInputDevice.read(sysfsRoot, "event4");
+
+    assertNotNull(device);
+    assertTrue(device.isGameInputDevice());
+  }
+
+  @Test
+  void testMissingEntryIsNotAvailable() throws IOException {
+    assertNull(LinuxSysfsInputDevice.read(sysfsRoot, "event9"));
+
+    // an incomplete entry is not used either, so the device is probed as usual
+    var deviceDirectory = Files.createDirectories(sysfsRoot.resolve("class/input/event5/device"));
+    Files.writeString(deviceDirectory.resolve("name"), "Incomplete Device\n");
+    assertNull(LinuxSysfsInputDevice.read(sysfsRoot, "event5"));
+  }
+
+  @Test
+  void testBitmapWordsStartWithMostSignificantWord() {
+    var bits = LinuxSysfsInputDevice.parseBitmap("8000000000000001 0 5\n");
+
+    var expected = new BitSet();
+    expected.set(0);
+    expected.set(2);
+    expected.set(128);
+    expected.set(191);
+    assertEquals(expected, bits);
+    assertTrue(LinuxSysfsInputDevice.parseBitmap("0").isEmpty());
+  }
+
+  @Test
+  void testBitmapWordsHaveTheWidthOfTheKernel() {
+    var bits = new BitSet();
+    bits.set(0);
+    bits.set(32);
+    assertEquals(bits, LinuxSysfsInputDevice.parseBitmap("1 1", 32));
+
+    bits.clear(32);
+    bits.set(64);
+    assertEquals(bits, LinuxSysfsInputDevice.parseBitmap("1 1", 64));
+
+    // only a 64-bit kernel prints words with more than eight digits
+    bits.clear();
+    bits.set(64 + 32);
+    bits.set(0);
+    assertEquals(bits, LinuxSysfsInputDevice.parseBitmap("100000000 1", 32));
+  }
+
+  @Test
+  void testWordBitsAreDeterminedByTheKernelMachine() {
+    assertEquals(64, LinuxSysfsInputDevice.getWordBits("x86_64"));
+    assertEquals(64, LinuxSysfsInputDevice.getWordBits("aarch64"));
+    assertEquals(64, LinuxSysfsInputDevice.getWordBits("ppc64le"));
+    assertEquals(64, LinuxSysfsInputDevice.getWordBits("s390x"));
+    assertEquals(32, LinuxSysfsInputDevice.getWordBits("i686"));
+    assertEquals(32, LinuxSysfsInputDevice.getWordBits("armv7l"));
+    assertEquals(32, LinuxSysfsInputDevice.getWordBits("armv8l"));
+  }
+
+  @Test
+  @EnabledOnOs(OS.LINUX)
+  void testMachineOfTheKernelIsKnown() {
+    var machine = Linux.getMachine();
+    assertNotNull(machine);
+    assertFalse(machine.isEmpty());
+  }
+
+  private void createEntry(String node, String name, String bustype, String vendor, String product, String version, String ev, String key, String abs, String ff)
+      throws IOException {
+    var deviceDirectory = Files.createDirectories(sysfsRoot.resolve("class/input").resolve(node).resolve("device"));
+    Files.createDirectories(deviceDirectory.resolve("id"));
+    Files.createDirectories(deviceDirectory.resolve("capabilities"));
+    Files.writeString(deviceDirectory.resolve("name"), name + "\n");
+    Files.writeString(deviceDirectory.resolve("id/bustype"), bustype + "\n");
+    Files.writeString(deviceDirectory.resolve("id/vendor"), vendor + "\n");
+    Files.writeString(deviceDirectory.resolve("id/product"), product + "\n");
+    Files.writeString(deviceDirectory.resolve("id/version"), version + "\n");
+    Files.writeString(deviceDirectory.resolve("capabilities/ev"), ev + "\n");
+    Files.writeString(deviceDirectory.resolve("capabilities/key"), key + "\n");
+    Files.writeString(deviceDirectory.resolve("capabilities/abs"), abs + "\n");
+    Files.writeString(deviceDirectory.resolve("capabilities/ff"), ff + "\n");
+  }
+}
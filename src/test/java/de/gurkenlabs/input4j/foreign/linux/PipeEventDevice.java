@@ -0,0 +1,130 @@
+package de.gurkenlabs.input4j.foreign.linux;
+
+import de.gurkenlabs.input4j.InputDevice;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * A synthetic evdev device that reads its events from a pipe, so tests can feed event streams into a
+ * {@link LinuxEventDevicePlugin} without a kernel device.
+ */
+final class PipeEventDevice implements AutoCloseable {
+  static final int BTN_SOUTH = 0x130;
+  static final int ABS_X = 0x00;
+  static final int ABS_Y = 0x01;
+
+  private final int writeFd;
+  private final LinuxEventDevice device;
+  private final LinuxEventDevicePlugin plugin;
+  private final InputDevice inputDevice;
+
+  private PipeEventDevice(int writeFd, LinuxEventDevice device) {
+    this.writeFd = writeFd;
+    this.device = device;
+    this.plugin = new LinuxEventDevicePlugin();
+    this.inputDevice = this.plugin.addDevice(device);
+  }
+
+  /**
+   * Opens a synthetic device with the specified components and adds it to a new plugin.
+   *
+   * @param filename   the file name of the device
+   * @param components the components of the device
+   * @return the opened device
+   */
+  static PipeEventDevice open(String filename, LinuxEventComponent... components) {
+    return open(fd -> new LinuxEventDevice(fd, filename, "Synthetic Device"), components);
+  }
+
+  /**
+   * Opens a synthetic device with the specified components and adds it to a new plugin.
+   *
+   * @param deviceFactory creates the device for the read end of the pipe
+   * @param components    the components of the device
+   * @return the opened device
+   */
+  static PipeEventDevice open(IntFunction<LinuxEventDevice> deviceFactory, LinuxEventComponent... components) {
+    var fds = Linux.pipe();
+    assertNotNull(fds);
+
+    var device = deviceFactory.apply(fds[0]);
+    for (var component : components) {
+      device.addComponent(component);
+    }
+
+    return new PipeEventDevice(fds[1], device);
+  }
+
+  static LinuxEventComponent button(int code) {
+    return new LinuxEventComponent(LinuxEventDevice.EV_KEY, code, -1, -1, null);
+  }
+
+  static LinuxEventComponent axis(LinuxComponentType type, int code, int flat, int fuzz) {
+    return new LinuxEventComponent(type, true, false, LinuxEventDevice.EV_ABS, code, -100, 100, flat, fuzz);
+  }
+
+  static int[] key(int code, int value) {
+    return new int[]{LinuxEventDevice.EV_KEY, code, value};
+  }
+
+  static int[] abs(int code, int value) {
+    return new int[]{LinuxEventDevice.EV_ABS, code, value};
+  }
+
+  LinuxEventDevice getDevice() {
+    return this.device;
+  }
+
+  LinuxEventDevicePlugin getPlugin() {
+    return this.plugin;
+  }
+
+  InputDevice getInputDevice() {
+    return this.inputDevice;
+  }
+
+  void syn() {
+    this.syn(0);
+  }
+
+  void syn(long timestamp) {
+    this.write(LinuxEventDevice.EV_SYN, LinuxEventDevice.SYN_REPORT, 0, timestamp);
+  }
+
+  void write(int type, int code, int value) {
+    this.write(type, code, value, 0);
+  }
+
+  void write(int type, int code, int value, long timestamp) {
+    var event = new input_event();
+    event.time.tv_sec = timestamp / 1_000_000_000L;
+    event.time.tv_usec = timestamp % 1_000_000_000L / 1_000L;
+    event.type = (short) type;
+    event.code = (short) code;
+    event.value = value;
+    assertEquals(input_event.$LAYOUT.byteSize(), Linux.writeEvent(this.writeFd, event));
+  }
+
+  /**
+   * Writes the specified events, each given as type, code and value.
+   *
+   * @param events the events to write
+   */
+  void write(int[]... events) {
+    for (var event : events) {
+      this.write(event[0], event[1], event[2]);
+    }
+  }
+
+  /**
+   * Closes the plugin, which closes the read end of the pipe along with the device, and the write end of the pipe.
+   */
+  @Override
+  public void close() {
+    this.plugin.close();
+    Linux.close(this.writeFd);
+  }
+}
@@ -33,6 +33,20 @@ public class IOKitPluginTests {
     assertEquals(1.0f, IOKitPlugin.normalizeInputValue(100, element, false), 0.01);
   }
 
+  @Test
+  void testUnknownElementsGetReleasableIds() {
+    IOHIDElement element = new IOHIDElement();
+    element.usage = IOHIDElementUsage.UNDEFINED;
+    element.type = IOHIDElementType.MISC;
+
+    var identifier = element.getIdentifier();
+    assertTrue(identifier.isDynamic());
+    assertSame(identifier, InputComponent.ID.get(identifier.type, identifier.id));
+
+    InputComponent.ID.release(identifier);
+    assertNull(InputComponent.ID.get(identifier.type, identifier.id));
+  }
+
   @Test
   void testRumbleConstants() {
     // Test that the rumble report type constants are defined correctly
@@ -1,5 +1,8 @@
 package de.gurkenlabs.input4j.foreign.windows.dinput;
 
+import de.gurkenlabs.input4j.ComponentType;
+import de.gurkenlabs.input4j.InputComponent;
+import de.gurkenlabs.input4j.components.Button;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
@@ -230,4 +233,23 @@ class DirectInputDataStructTests {
     assertEquals(DIDATAFORMAT.$LAYOUT.byteSize(), diDataFormat.dwSize);
     assertEquals(DIOBJECTDATAFORMAT.$LAYOUT.byteSize(), diDataFormat.dwObjSize);
   }
+
+  @Test
+  void testButtonsBeyondTheDefaultsGetTheirOwnDynamicId() {
+    var otherDevicesButton = InputComponent.ID.createDynamic(ComponentType.BUTTON, Button.MAX_DEFAULT_BUTTON_ID, "OTHER_DEVICE_BUTTON", 0);
+    var objectInstance = new DIDEVICEOBJECTINSTANCE();
+    objectInstance.objectType = DI8DEVOBJECTTYPE.Button;
+
+    objectInstance.dwType = 3 << 8;
+    assertSame(Button.BUTTON_3, objectInstance.getIdentifier());
+
+    // the dynamic ID with the same number belongs to another device, which would release it for both devices
+    objectInstance.dwType = otherDevicesButton.id << 8;
+    var identifier = objectInstance.getIdentifier();
+    assertNotSame(otherDevicesButton, identifier);
+    assertTrue(identifier.isDynamic());
+
+    InputComponent.ID.release(identifier);
+    InputComponent.ID.release(otherDevicesButton);
+  }
 }
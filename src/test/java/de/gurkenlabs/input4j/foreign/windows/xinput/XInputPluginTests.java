@@ -72,17 +72,17 @@ public class XInputPluginTests {
   @Test
   @EnabledOnOs(OS.WINDOWS)
   void testResolveDeviceId() {
-    var device = new InputDevice("0", "Gamepad (0)", null, _ -> new float[]{}, (_, _) -> {});
+    var device = new InputDevice("0", "Gamepad (0)", null, (_, _) -> 0, (_, _) -> {});
     assertEquals(0, XInputPlugin.resolveDeviceId(device));
 
-    var device2 = new InputDevice("3", "XInput Device (3)", null, _ -> new float[]{}, (_, _) -> {});
+    var device2 = new InputDevice("3", "XInput Device (3)", null, (_, _) -> 0, (_, _) -> {});
     assertEquals(3, XInputPlugin.resolveDeviceId(device2));
   }
 
   @Test
   @EnabledOnOs(OS.WINDOWS)
   void testResolveDeviceIdThrowsForNonNumericName() {
-    var device = new InputDevice("Gamepad (0)", "Gamepad (0)", null, _ -> new float[]{}, (_, _) -> {});
+    var device = new InputDevice("Gamepad (0)", "Gamepad (0)", null, (_, _) -> 0, (_, _) -> {});
     assertThrows(NumberFormatException.class, () -> XInputPlugin.resolveDeviceId(device));
   }
 
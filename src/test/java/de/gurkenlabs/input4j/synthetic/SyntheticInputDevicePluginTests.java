@@ -0,0 +1,252 @@
+package de.gurkenlabs.input4j.synthetic;
+
+import de.gurkenlabs.input4j.ComponentType;
+import de.gurkenlabs.input4j.InputComponent;
+import de.gurkenlabs.input4j.InputDevice;
+import de.gurkenlabs.input4j.InputDevices;
+import de.gurkenlabs.input4j.components.Axis;
+import de.gurkenlabs.input4j.components.Button;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticInputDevicePluginTests {
+  private static final long START = 1_000_000_000L;
+
+  private SyntheticInputDevicePlugin plugin;
+
+  @AfterEach
+  void tearDown() {
+    if (plugin != null) {
+      plugin.close();
+    }
+  }
+
+  @Test
+  void testInitThroughInputDevices() {
+    var shared = SyntheticInputDevicePlugin.configure();
+    var deviceCount = shared.getDeviceCount();
+    shared.setDeviceCount(3);
+    try {
+      var devices = InputDevices.init(InputDevices.InputLibrary.SYNTHETIC);
+      assertInstanceOf(SyntheticInputDevicePlugin.class, devices);
+      plugin = (SyntheticInputDevicePlugin) devices;
+    } finally {
+      shared.setDeviceCount(deviceCount);
+    }
+
+    assertEquals(3, plugin.getAll().size());
+    assertEquals(shared.getButtonCount() + shared.getAxisCount(), plugin.getAll().iterator().next().getComponents().size());
+  }
+
+  @Test
+  void testDevicesHaveConfiguredComponents() {
+    var configuration = new SyntheticInputDevicePlugin.Configuration();
+    configuration.setDeviceCount(2);
+    configuration.setButtonCount(40);
+    configuration.setAxisCount(10);
+    plugin = init(configuration);
+
+    for (var device : plugin.getAll()) {
+      var components = device.getComponents();
+      assertEquals(50, components.size());
+      assertEquals(Button.BUTTON_0, components.getFirst().getId());
+      assertEquals(ComponentType.BUTTON, components.get(39).getId().type);
+      assertEquals(Axis.AXIS_X, components.get(40).getId());
+      assertEquals(ComponentType.AXIS, components.get(49).getId().type);
+    }
+
+    // the components beyond the predefined IDs get an ID per device
+    var devices = new ArrayList<>(plugin.getAll());
+    assertNotEquals(devices.get(0).getComponents().get(39).getId().id, devices.get(1).getComponents().get(39).getId().id);
+  }
+
+  @Test
+  void testEventsAreGeneratedAtConfiguredRate() {
+    var configuration = configuration(SyntheticInputDevicePlugin.Pattern.MIXED, 100);
+    var device = new SyntheticInputDevice(configuration, 1, START);
+
+    assertEquals(0, device.generate(START));
+    assertEquals(10, device.generate(START + 100_000_000L));
+    assertEquals(0, device.generate(START + 100_000_000L));
+    assertEquals(5, device.generate(START + 150_000_000L));
+  }
+
+  @Test
+  void testOverdueEventsAreSkipped() {
+    var configuration = configuration(SyntheticInputDevicePlugin.Pattern.MIXED, 100);
+    var device = new SyntheticInputDevice(configuration, 1, START);
+
+    // at most one second of events is generated per poll
+    assertEquals(100, device.generate(START + 60_000_000_000L));
+    assertEquals(1, device.generate(START + 60_010_000_000L));
+  }
+
+  @Test
+  void testBurstsArriveAtOnce() {
+    var configuration = configuration(SyntheticInputDevicePlugin.Pattern.BURST, 100);
+    configuration.setBurstInterval(200);
+    var device = new SyntheticInputDevice(configuration, 1, START);
+
+    assertEquals(20, device.generate(START));
+    assertEquals(0, device.generate(START + 199_000_000L));
+    assertEquals(20, device.generate(START + 200_000_000L));
+  }
+
+  @Test
+  void testInputIsDeterministic() {
+    var configuration = configuration(SyntheticInputDevicePlugin.Pattern.MIXED, 1000);
+    var first = createDevice(configuration, 7);
+    var second = createDevice(configuration, 7);
+
+    for (int i = 1; i <= 10; i++) {
+      first.generate(START + i * 5_000_000L);
+      second.generate(START + i * 5_000_000L);
+      var firstValues = new float[first.values().length];
+      var secondValues = new float[second.values().length];
+      first.report(first.inputDevice(), firstValues);
+      second.report(second.inputDevice(), secondValues);
+      assertArrayEquals(firstValues, secondValues);
+    }
+  }
+
+  @Test
+  void testRandomWalkOnlyMovesAxes() {
+    var configuration = configuration(SyntheticInputDevicePlugin.Pattern.RANDOM_WALK, 1000);
+    var device = createDevice(configuration, 3);
+
+    device.generate(START + 1_000_000_000L);
+    var values = device.values();
+    device.report(device.inputDevice(), values);
+
+    var moved = false;
+    for (int i = 0; i < values.length; i++) {
+      if (i < configuration.getButtonCount()) {
+        assertEquals(0, values[i]);
+      } else {
+        assertTrue(values[i] >= -1 && values[i] <= 1);
+        moved |= values[i] != 0;
+      }
+    }
+
+    assertTrue(moved);
+  }
+
+  @Test
+  void testButtonMashingReportsEveryPress() {
+    var configuration = configuration(SyntheticInputDevicePlugin.Pattern.BUTTON_MASH, 10_000);
+    configuration.setButtonCount(1);
+    configuration.setDeviceCount(1);
+    plugin = init(configuration);
+    var device = plugin.getAll().iterator().next();
+    var presses = new AtomicInteger();
+    var releases = new AtomicInteger();
+    device.onButtonPressed(Button.BUTTON_0, presses::incrementAndGet);
+    device.onButtonReleased(Button.BUTTON_0, releases::incrementAndGet);
+
+    sleep(20);
+    device.poll();
+
+    // every event toggles the only button, so (almost) all of them are edges
+    var events = plugin.getGeneratedEventCount();
+    assertTrue(events > 1);
+    assertEquals(events, presses.get() + releases.get());
+    assertTrue(device.getLatency().samples() > 0);
+  }
+
+  @Test
+  void testHotPlug() throws InterruptedException {
+    var hotPlugInterval = InputDevices.configure().getHotPlugInterval();
+    InputDevices.configure().setHotPlugInterval(0);
+    try {
+      plugin = init(configuration(SyntheticInputDevicePlugin.Pattern.MIXED, 100));
+    } finally {
+      InputDevices.configure().setHotPlugInterval(hotPlugInterval);
+    }
+
+    var connected = new LinkedBlockingQueue<InputDevice>();
+    var disconnected = new LinkedBlockingQueue<InputDevice>();
+    var listenerThreads = ConcurrentHashMap.<Thread>newKeySet();
+    plugin.onDeviceConnected(device -> {
+      listenerThreads.add(Thread.currentThread());
+      connected.add(device);
+    });
+    plugin.onDeviceDisconnected(device -> {
+      listenerThreads.add(Thread.currentThread());
+      disconnected.add(device);
+    });
+
+    // the devices are refreshed in the background, without being polled
+    var newDevice = plugin.connectDevice();
+    assertSame(newDevice, connected.poll(5, TimeUnit.SECONDS));
+    assertTrue(plugin.getAll().contains(newDevice));
+
+    assertTrue(plugin.disconnectDevice(newDevice));
+    assertFalse(plugin.disconnectDevice(newDevice));
+    assertSame(newDevice, disconnected.poll(5, TimeUnit.SECONDS));
+    assertFalse(plugin.getAll().contains(newDevice));
+
+    assertTrue(connected.isEmpty());
+    assertTrue(disconnected.isEmpty());
+    assertFalse(listenerThreads.contains(Thread.currentThread()));
+  }
+
+  @Test
+  void testInvalidConfigurationIsRejected() {
+    var configuration = new SyntheticInputDevicePlugin.Configuration();
+    assertThrows(IllegalArgumentException.class, () -> configuration.setDeviceCount(-1));
+    assertThrows(IllegalArgumentException.class, () -> configuration.setEventRate(0));
+    assertThrows(IllegalArgumentException.class, () -> configuration.setEventRate(Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> configuration.setBurstInterval(0));
+    assertThrows(IllegalArgumentException.class, () -> configuration.setPattern(null));
+  }
+
+  private static SyntheticInputDevicePlugin init(SyntheticInputDevicePlugin.Configuration configuration) {
+    var syntheticPlugin = new SyntheticInputDevicePlugin(configuration);
+    syntheticPlugin.internalInitDevices(null);
+    return syntheticPlugin;
+  }
+
+  private static SyntheticInputDevicePlugin.Configuration configuration(SyntheticInputDevicePlugin.Pattern pattern, double eventRate) {
+    var configuration = new SyntheticInputDevicePlugin.Configuration();
+    configuration.setPattern(pattern);
+    configuration.setEventRate(eventRate);
+    return configuration;
+  }
+
+  private static TestDevice createDevice(SyntheticInputDevicePlugin.Configuration configuration, long seed) {
+    var device = new SyntheticInputDevice(configuration, seed, START);
+    var inputDevice = new InputDevice("synthetic", "Synthetic Device", "Synthetic Device", (_, _) -> 0, null);
+    device.addComponents(inputDevice);
+    return new TestDevice(device, inputDevice);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private record TestDevice(SyntheticInputDevice device, InputDevice inputDevice) {
+    int generate(long now) {
+      return device.generate(now);
+    }
+
+    void report(InputDevice target, float[] values) {
+      device.report(target, values);
+    }
+
+    float[] values() {
+      return new float[inputDevice.getComponents().size()];
+    }
+  }
+}